@@ -0,0 +1,145 @@
+package br.com.accounts;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.audit.AuditLog;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobHandler;
+import br.com.jobs.JobStore;
+import br.com.sharding.ShardDirectory;
+
+/**
+ * Deletes accounts with chunked set-based statements in dependency order: the tag links, subtasks
+ * and history of up to {@code api.accounts.purge-chunk-size} tasks, those tasks, and finally the
+ * tags and the user row, whose tombstones, webhooks and idempotency keys go with
+ * {@code ON DELETE CASCADE}. Every chunk commits on its own, so no transaction holds the locks of
+ * a whole account. Archived tasks are deleted the same way after the hot ones, their subtasks and
+ * tag links going with {@code ON DELETE CASCADE}. It runs on the shard of the account, the row
+ * of the user on the primary is deleted last.
+ *
+ * Accounts with more than {@code api.accounts.sync-purge-limit} tasks are purged by an
+ * {@value #TYPE} job. The statements are idempotent, so a retried or taken over job simply picks
+ * up the remaining rows.
+ */
+@Component
+public class AccountPurger implements JobHandler {
+
+	public static final String TYPE = "account-purge";
+
+	private static final String SELECT_TASK_IDS = "SELECT id FROM tasks WHERE user_id = ? ORDER BY id LIMIT ?";
+	private static final String SELECT_ARCHIVED_TASK_IDS = "SELECT id FROM archived_tasks WHERE user_id = ? ORDER BY id LIMIT ?";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final AuditLog auditLog;
+	private final JobStore jobStore;
+	private final ShardDirectory shardDirectory;
+	private final int chunkSize;
+	private final int syncLimit;
+
+	public AccountPurger(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, AuditLog auditLog, JobStore jobStore,
+			ShardDirectory shardDirectory,
+			@Value("${api.accounts.purge-chunk-size:1000}") int chunkSize,
+			@Value("${api.accounts.sync-purge-limit:1000}") int syncLimit) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.auditLog = auditLog;
+		this.jobStore = jobStore;
+		this.shardDirectory = shardDirectory;
+		this.chunkSize = chunkSize;
+		this.syncLimit = syncLimit;
+	}
+
+	/**
+	 * Must be called outside of a transaction, every chunk commits on its own.
+	 *
+	 * @return empty when the account was deleted right away, otherwise the job purging it
+	 */
+	public Optional<Job> purge(Long userId) {
+		if(countTasks(userId) <= syncLimit) {
+			deleteAccount(userId, deleted -> {});
+			return Optional.empty();
+		}
+		return Optional.of(jobStore.findActive(userId, TYPE).orElseGet(() -> jobStore.enqueue(userId, TYPE, null)));
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public void run(JobContext context) {
+		Long userId = context.getJob().getUserId();
+		long total = countTasks(userId);
+		context.progress(0, total);
+		deleteAccount(userId, deleted -> context.progress(deleted, total));
+	}
+
+	private long countTasks(Long userId) {
+		return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM tasks WHERE user_id = ?) + (SELECT COUNT(*) FROM archived_tasks WHERE user_id = ?)",
+				Long.class, userId, userId);
+	}
+
+	private void deleteAccount(Long userId, LongConsumer progress) {
+		long deleted = 0;
+		int chunk;
+		do {
+			chunk = transactionTemplate.execute(status -> deleteChunk(userId));
+			deleted += chunk;
+			progress.accept(deleted);
+		} while(chunk == chunkSize);
+		do {
+			chunk = transactionTemplate.execute(status -> deleteArchivedChunk(userId));
+			deleted += chunk;
+			progress.accept(deleted);
+		} while(chunk == chunkSize);
+		transactionTemplate.executeWithoutResult(status -> deleteRemains(userId));
+		shardDirectory.forget(userId);
+	}
+
+	private int deleteChunk(Long userId) {
+		List<Long> ids = jdbcTemplate.queryForList(SELECT_TASK_IDS, Long.class, userId, chunkSize);
+		if(ids.isEmpty()) return 0;
+
+		String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+		Object[] args = ids.toArray();
+		jdbcTemplate.update("DELETE FROM task_tags WHERE task_id IN (" + placeholders + ")", args);
+		jdbcTemplate.update("DELETE FROM subtasks WHERE task_id IN (" + placeholders + ")", args);
+		auditLog.deleteByTasks(ids);
+		jdbcTemplate.update("DELETE FROM tasks WHERE id IN (" + placeholders + ")", args);
+		return ids.size();
+	}
+
+	private int deleteArchivedChunk(Long userId) {
+		List<Long> ids = jdbcTemplate.queryForList(SELECT_ARCHIVED_TASK_IDS, Long.class, userId, chunkSize);
+		if(ids.isEmpty()) return 0;
+
+		auditLog.deleteByTasks(ids);
+		jdbcTemplate.update("DELETE FROM archived_tasks WHERE id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")", ids.toArray());
+		return ids.size();
+	}
+
+	/**
+	 * Locks the user row first. Inserting a task or a tag takes a shared lock on it through the
+	 * foreign key, so nothing can be added between the last chunk and the delete of the user.
+	 */
+	private void deleteRemains(Long userId) {
+		jdbcTemplate.queryForList("SELECT id FROM users WHERE id = ? FOR UPDATE", Long.class, userId);
+		while(deleteChunk(userId) == chunkSize);
+		while(deleteArchivedChunk(userId) == chunkSize);
+
+		jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tags g ON g.id = tt.tag_id WHERE g.user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+}
@@ -0,0 +1,227 @@
+package br.com.archive;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskFields;
+import br.com.dtos.TaskResponse;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.exceptions.BadRequestException;
+
+/**
+ * Search over the hot and the archived tasks together, with the filters of
+ * {@link br.com.repositories.TaskRepositoryCustom#findSparse}. Each table is read with its own
+ * ordered and limited branch of a {@code UNION ALL}, so a page sorts at most {@code offset + size}
+ * rows of each.
+ */
+@Component
+public class ArchiveSearch {
+
+	private static final Map<String, String> COLUMNS = Map.of(
+			"id", "id", "title", "title", "description", "description", "status", "status",
+			"priority", "priority", "createdDate", "created_date", "dueDate", "due_date");
+
+	private static final String SELECT_TAGS =
+			"SELECT tt.task_id, tg.id, tg.name FROM task_tags tt JOIN tags tg ON tg.id = tt.tag_id WHERE tt.task_id IN (%1$s) " +
+			"UNION ALL SELECT tt.task_id, tg.id, tg.name FROM archived_task_tags tt JOIN tags tg ON tg.id = tt.tag_id WHERE tt.task_id IN (%1$s) " +
+			"ORDER BY id";
+	private static final String SELECT_SUBTASKS =
+			"SELECT task_id, id, title, description, created_date, due_date, status FROM subtasks WHERE task_id IN (%1$s) " +
+			"UNION ALL SELECT task_id, id, title, description, created_date, due_date, status FROM archived_subtasks WHERE task_id IN (%1$s) " +
+			"ORDER BY id";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ArchiveSearch(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Tasks with all of their fields, in the shape of the regular search.
+	 */
+	public Page<TaskResponse> find(Long userId, String status, String priority, String tagName, Pageable pageable) {
+		return search(userId, status, priority, tagName, pageable,
+				(rs, rowNum) -> new TaskResponse(
+						rs.getLong("id"),
+						rs.getString("title"),
+						rs.getString("description"),
+						valueOf(TaskStatus.class, rs.getString("status")),
+						valueOf(TaskPriority.class, rs.getString("priority")),
+						rs.getObject("created_date", LocalDate.class),
+						rs.getObject("due_date", LocalDate.class)),
+				TaskResponse::getId, TaskResponse::addTag, TaskResponse::addSbubtask);
+	}
+
+	/**
+	 * Tasks holding only the selected fields.
+	 */
+	public Page<SparseTaskResponse> find(Long userId, String status, String priority, String tagName,
+			TaskFields fields, Pageable pageable) {
+		return search(userId, status, priority, tagName, pageable,
+				(rs, rowNum) -> {
+					SparseTaskResponse task = new SparseTaskResponse(rs.getLong("id"));
+					for (String name : fields.names()) {
+						switch (name) {
+							case "id" -> task.put(name, task.getId());
+							case "tags", "subtasks" -> task.put(name, new ArrayList<>());
+							case "status" -> task.put(name, valueOf(TaskStatus.class, rs.getString("status")));
+							case "priority" -> task.put(name, valueOf(TaskPriority.class, rs.getString("priority")));
+							case "createdDate", "dueDate" -> task.put(name, rs.getObject(COLUMNS.get(name), LocalDate.class));
+							default -> task.put(name, rs.getString(name));
+						}
+					}
+					return task;
+				},
+				SparseTaskResponse::getId,
+				fields.includes("tags") ? SparseTaskResponse::addTag : null,
+				fields.includes("subtasks") ? SparseTaskResponse::addSubtask : null);
+	}
+
+	/**
+	 * @param addTag where the tags of a task go, or null to not read them
+	 * @param addSubtask where the subtasks of a task go, or null to not read them
+	 */
+	private <T> Page<T> search(Long userId, String status, String priority, String tagName, Pageable pageable,
+			RowMapper<T> rowMapper, Function<T, Long> idOf, BiConsumer<T, TagSummary> addTag, BiConsumer<T, SubtaskSummary> addSubtask) {
+
+		TaskStatus statusValue;
+		TaskPriority priorityValue;
+		try {
+			statusValue = status != null ? TaskStatus.valueOf(status) : null;
+			priorityValue = priority != null ? TaskPriority.valueOf(priority) : null;
+		}
+		catch(IllegalArgumentException e) {
+			return Page.empty(pageable);
+		}
+
+		List<Object> filterArgs = new ArrayList<>();
+		filterArgs.add(userId);
+		if(statusValue != null) filterArgs.add(statusValue.name());
+		if(priorityValue != null) filterArgs.add(priorityValue.name());
+		if(tagName != null) filterArgs.add(tagName);
+
+		String hot = from("tasks", "task_tags", statusValue, priorityValue, tagName);
+		String archived = from("archived_tasks", "archived_task_tags", statusValue, priorityValue, tagName);
+		String select = "SELECT t.id, t.title, t.description, t.status, t.priority, t.created_date, t.due_date";
+		String orderBy = orderBy(pageable.getSort(), "");
+		String branchOrderBy = orderBy(pageable.getSort(), "t.");
+
+		List<Object> args = new ArrayList<>();
+		String sql;
+		if(pageable.isPaged()) {
+			long rows = pageable.getOffset() + pageable.getPageSize();
+			sql = "(" + select + hot + branchOrderBy + " LIMIT ?)" +
+					" UNION ALL (" + select + archived + branchOrderBy + " LIMIT ?)" +
+					orderBy + " LIMIT ? OFFSET ?";
+			args.addAll(filterArgs);
+			args.add(rows);
+			args.addAll(filterArgs);
+			args.add(rows);
+			args.add(pageable.getPageSize());
+			args.add(pageable.getOffset());
+		}
+		else {
+			sql = select + hot + " UNION ALL " + select + archived + orderBy;
+			args.addAll(filterArgs);
+			args.addAll(filterArgs);
+		}
+
+		Map<Long, T> tasks = new LinkedHashMap<>();
+		for (T task : jdbcTemplate.query(sql, rowMapper, args.toArray())) {
+			tasks.put(idOf.apply(task), task);
+		}
+
+		if(!tasks.isEmpty() && addTag != null) loadTags(tasks, addTag);
+		if(!tasks.isEmpty() && addSubtask != null) loadSubtasks(tasks, addSubtask);
+
+		return PageableExecutionUtils.getPage(new ArrayList<>(tasks.values()), pageable, () -> {
+			List<Object> countArgs = new ArrayList<>(filterArgs);
+			countArgs.addAll(filterArgs);
+			return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*)" + hot + ") + (SELECT COUNT(*)" + archived + ")",
+					Long.class, countArgs.toArray());
+		});
+	}
+
+	private static String from(String tasks, String links, TaskStatus status, TaskPriority priority, String tagName) {
+		StringBuilder from = new StringBuilder(" FROM ").append(tasks).append(" t WHERE t.user_id = ?");
+		if(status != null) from.append(" AND t.status = ?");
+		if(priority != null) from.append(" AND t.priority = ?");
+		if(tagName != null) from.append(" AND EXISTS (SELECT 1 FROM ").append(links)
+				.append(" tt JOIN tags tg ON tg.id = tt.tag_id WHERE tt.task_id = t.id AND tg.name = ?)");
+		return from.toString();
+	}
+
+	private <T> void loadTags(Map<Long, T> tasks, BiConsumer<T, TagSummary> addTag) {
+		Object[] args = idArgs(tasks);
+		jdbcTemplate.query(String.format(SELECT_TAGS, placeholders(tasks)), (RowCallbackHandler) rs ->
+				addTag.accept(tasks.get(rs.getLong("task_id")), new TagSummary(rs.getLong("id"), rs.getString("name"))), args);
+	}
+
+	private <T> void loadSubtasks(Map<Long, T> tasks, BiConsumer<T, SubtaskSummary> addSubtask) {
+		Object[] args = idArgs(tasks);
+		jdbcTemplate.query(String.format(SELECT_SUBTASKS, placeholders(tasks)), (RowCallbackHandler) rs -> {
+			Integer status = rs.getObject("status", Integer.class);
+			SubtaskSummary subtask = new SubtaskSummary(
+					rs.getLong("id"),
+					rs.getString("title"),
+					rs.getString("description"),
+					rs.getObject("created_date", LocalDate.class),
+					rs.getObject("due_date", LocalDate.class),
+					status != null ? TaskStatus.values()[status] : null);
+			addSubtask.accept(tasks.get(rs.getLong("task_id")), subtask);
+		}, args);
+	}
+
+	private static String placeholders(Map<Long, ?> tasks) {
+		return String.join(",", Collections.nCopies(tasks.size(), "?"));
+	}
+
+	/**
+	 * The ids twice, once for each branch of the union.
+	 */
+	private static Object[] idArgs(Map<Long, ?> tasks) {
+		List<Object> args = new ArrayList<>(tasks.keySet());
+		args.addAll(tasks.keySet());
+		return args.toArray();
+	}
+
+	/**
+	 * Always ends with the id, so pages of both branches and of the union agree on ties.
+	 */
+	private static String orderBy(Sort sort, String alias) {
+		StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+		boolean byId = false;
+		for (Sort.Order order : sort) {
+			String column = COLUMNS.get(order.getProperty());
+			if(column == null) throw new BadRequestException("Invalid sort property: " + order.getProperty());
+			orderBy.add(alias + column + (order.isAscending() ? " ASC" : " DESC"));
+			byId |= column.equals("id");
+		}
+		if(!byId) orderBy.add(alias + "id ASC");
+		return orderBy.toString();
+	}
+
+	private static <E extends Enum<E>> E valueOf(Class<E> type, String name) {
+		return name != null ? Enum.valueOf(type, name) : null;
+	}
+}
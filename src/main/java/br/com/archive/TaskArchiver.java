@@ -0,0 +1,105 @@
+package br.com.archive;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.ChangeAction;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+import br.com.sharding.Shards;
+
+/**
+ * Moves DONE tasks left unchanged for {@code api.archive.age} into the archive tables, with their
+ * subtasks and tag links, so listings and searches only scan and index the tasks still in use.
+ *
+ * Tasks move {@code api.archive.chunk-size} at a time, each chunk in its own transaction: copied
+ * with {@code INSERT ... SELECT}, deleted from the hot tables and the collection of their owners
+ * touched. Chunks are claimed with {@code SKIP LOCKED}, so several instances can archive at once
+ * and a task being edited is left for the next run. Archiving is not a deletion, so no tombstones
+ * are written and synced clients keep their copies; a {@code task.archived} change is published in
+ * the transaction of the chunk, for the outbox. Every shard is archived in turn.
+ */
+@Component
+public class TaskArchiver {
+
+	private static final String SELECT_CHUNK =
+			"SELECT id, user_id FROM tasks WHERE status = 'DONE' AND updated_at < ? ORDER BY updated_at, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final Shards shards;
+	private final Duration age;
+	private final int chunkSize;
+
+	public TaskArchiver(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher, Shards shards,
+			@Value("${api.archive.age:90d}") Duration age,
+			@Value("${api.archive.chunk-size:500}") int chunkSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.shards = shards;
+		this.age = age;
+		this.chunkSize = chunkSize;
+	}
+
+	@Scheduled(fixedDelayString = "${api.archive.interval:PT1H}")
+	public void archive() {
+		Instant before = Instant.now().minus(age);
+		shards.forEach(() -> archiveOlderThan(before));
+	}
+
+	/**
+	 * Must be called outside of a transaction, every chunk commits on its own.
+	 *
+	 * @return number of tasks archived
+	 */
+	public long archiveOlderThan(Instant before) {
+		long archived = 0;
+		int chunk;
+		do {
+			chunk = transactionTemplate.execute(status -> archiveChunk(before));
+			archived += chunk;
+		} while(chunk == chunkSize);
+		return archived;
+	}
+
+	private int archiveChunk(Instant before) {
+		List<ChangeEvent> changes = jdbcTemplate.query(SELECT_CHUNK,
+				(rs, rowNum) -> ChangeEvent.ofTask(rs.getLong("user_id"), ChangeAction.ARCHIVED, rs.getLong("id")),
+				Timestamp.from(before), chunkSize);
+		if(changes.isEmpty()) return 0;
+		List<Long> ids = changes.stream().map(ChangeEvent::getId).toList();
+
+		String in = " IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+		Object[] args = ids.toArray();
+		Object[] stampedArgs = new Object[args.length + 1];
+		stampedArgs[0] = Timestamp.from(Instant.now());
+		System.arraycopy(args, 0, stampedArgs, 1, args.length);
+
+		jdbcTemplate.update("INSERT INTO archived_tasks (archived_at, id, title, description, status, priority, created_date, due_date, user_id, version, updated_at) " +
+				"SELECT ?, id, title, description, status, priority, created_date, due_date, user_id, version, updated_at FROM tasks WHERE id" + in, stampedArgs);
+		jdbcTemplate.update("INSERT INTO archived_subtasks (id, title, description, status, created_date, due_date, task_id, version, updated_at) " +
+				"SELECT id, title, description, status, created_date, due_date, task_id, version, updated_at FROM subtasks WHERE task_id" + in, args);
+		jdbcTemplate.update("INSERT INTO archived_task_tags (task_id, tag_id) SELECT task_id, tag_id FROM task_tags WHERE task_id" + in, args);
+
+		jdbcTemplate.update("DELETE FROM task_tags WHERE task_id" + in, args);
+		jdbcTemplate.update("DELETE FROM subtasks WHERE task_id" + in, args);
+		jdbcTemplate.update("DELETE FROM tasks WHERE id" + in, args);
+
+		jdbcTemplate.update("UPDATE users SET collection_version = collection_version + 1 " +
+				"WHERE id IN (SELECT user_id FROM archived_tasks WHERE id" + in + ")", args);
+		eventPublisher.publishEvent(new ChangeBatch(changes));
+		return ids.size();
+	}
+}
@@ -0,0 +1,255 @@
+package br.com.audit;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.dtos.TaskHistoryResponse;
+import br.com.enums.SyncEntityType;
+import br.com.sharding.ShardContext;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Writes the {@code task_history} table off the request path. Records of a transaction are
+ * queued once it commits, so rolled back changes never show up, and are inserted with JDBC
+ * batches every {@code api.audit.flush-interval} or as soon as {@code api.audit.flush-threshold}
+ * records are pending. Request threads never block on the queue; past
+ * {@code api.audit.max-pending} records are dropped and counted instead.
+ *
+ * Records are queued by the shard they were written on and inserted back into it.
+ */
+@Component
+public class AuditLog {
+	
+	private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+	
+	/**
+	 * Skips records of tasks deleted before the flush, which would otherwise outlive the history
+	 * removed along with the task. Archived tasks keep their history.
+	 */
+	private static final String INSERT =
+			"INSERT INTO task_history (task_id, entity_type, entity_id, field, old_value, new_value, changed_at) "
+			+ "SELECT ?, ?, ?, ?, ?, ?, ? FROM DUAL "
+			+ "WHERE EXISTS (SELECT 1 FROM tasks WHERE id = ?) OR EXISTS (SELECT 1 FROM archived_tasks WHERE id = ?)";
+	
+	private static final RowMapper<TaskHistoryResponse> ROW_MAPPER = (rs, rowNum) -> new TaskHistoryResponse(
+			SyncEntityType.valueOf(rs.getString("entity_type")),
+			rs.getLong("entity_id"),
+			rs.getString("field"),
+			rs.getString("old_value"),
+			rs.getString("new_value"),
+			rs.getTimestamp("changed_at").toInstant());
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final Executor flusher;
+	private final int batchSize;
+	private final int flushThreshold;
+	private final int maxPending;
+	
+	private final Map<Integer, Queue<AuditRecord>> queues = new ConcurrentHashMap<>();
+	private final AtomicInteger pending = new AtomicInteger();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+	private final AtomicLong dropped = new AtomicLong();
+	
+	@Autowired
+	public AuditLog(JdbcTemplate jdbcTemplate,
+			@Value("${api.audit.batch-size:500}") int batchSize,
+			@Value("${api.audit.flush-threshold:1000}") int flushThreshold,
+			@Value("${api.audit.max-pending:100000}") int maxPending) {
+		this(jdbcTemplate, Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "audit-log-flusher");
+			thread.setDaemon(true);
+			return thread;
+		}), batchSize, flushThreshold, maxPending);
+	}
+	
+	AuditLog(JdbcTemplate jdbcTemplate, Executor flusher, int batchSize, int flushThreshold, int maxPending) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.flusher = flusher;
+		this.batchSize = batchSize;
+		this.flushThreshold = flushThreshold;
+		this.maxPending = maxPending;
+	}
+	
+	/**
+	 * Queues the records once the current transaction commits, or right away outside of one.
+	 */
+	public void record(FieldChanges changes) {
+		recordAll(List.of(changes));
+	}
+	
+	public void recordAll(List<FieldChanges> changes) {
+		List<AuditRecord> records = new ArrayList<>();
+		changes.forEach(fieldChanges -> records.addAll(fieldChanges.getRecords()));
+		if(records.isEmpty()) return;
+		
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					enqueue(records);
+				}
+			});
+		}
+		else {
+			enqueue(records);
+		}
+	}
+	
+	/**
+	 * Inserts the records right away, in the current transaction, so they commit or roll back with
+	 * the rows they describe. Meant for bulk writers such as imports, whose volume would overrun
+	 * the queue.
+	 */
+	public void write(List<FieldChanges> changes) {
+		List<AuditRecord> records = new ArrayList<>();
+		changes.forEach(fieldChanges -> records.addAll(fieldChanges.getRecords()));
+		for(int i = 0; i < records.size(); i += batchSize) {
+			batchInsert(records.subList(i, Math.min(i + batchSize, records.size())));
+		}
+	}
+	
+	/**
+	 * Writes the detach of the tag from every task carrying it with one insert, in the current
+	 * transaction. Runs before the links are deleted, since it reads them.
+	 */
+	public void writeTagDetached(Long tagId, String tagName) {
+		jdbcTemplate.update(
+				"INSERT INTO task_history (task_id, entity_type, entity_id, field, old_value, new_value, changed_at) "
+				+ "SELECT task_id, ?, tag_id, 'tag', ?, NULL, ? FROM task_tags WHERE tag_id = ?",
+				SyncEntityType.TAG.name(), tagName, Timestamp.from(Instant.now()), tagId);
+	}
+	
+	private void enqueue(List<AuditRecord> records) {
+		Queue<AuditRecord> queue = queues.computeIfAbsent(ShardContext.current(), shard -> new ConcurrentLinkedQueue<>());
+		for(AuditRecord record : records) {
+			if(pending.incrementAndGet() > maxPending) {
+				pending.decrementAndGet();
+				if(dropped.getAndIncrement() % 10_000 == 0) {
+					logger.warn("Audit log is full, {} history records dropped so far", dropped.get());
+				}
+				continue;
+			}
+			queue.offer(record);
+		}
+		if(pending.get() >= flushThreshold && flushScheduled.compareAndSet(false, true)) {
+			flusher.execute(() -> {
+				try {
+					flush();
+				}
+				finally {
+					flushScheduled.set(false);
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Drains the queue in batches. Safe to run from several threads, each record is polled once.
+	 */
+	@Scheduled(fixedDelayString = "${api.audit.flush-interval:PT1S}")
+	public void flush() {
+		queues.forEach((shard, queue) -> ShardContext.run(shard, () -> flush(queue)));
+	}
+	
+	private void flush(Queue<AuditRecord> queue) {
+		List<AuditRecord> batch = new ArrayList<>(batchSize);
+		AuditRecord record;
+		while((record = queue.poll()) != null) {
+			pending.decrementAndGet();
+			batch.add(record);
+			if(batch.size() == batchSize) {
+				insert(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if(!batch.isEmpty()) insert(batch);
+	}
+	
+	private void insert(List<AuditRecord> batch) {
+		try {
+			batchInsert(batch);
+		}
+		catch(DataAccessException e) {
+			logger.error("Could not write {} history records", batch.size(), e);
+		}
+	}
+	
+	private void batchInsert(List<AuditRecord> batch) {
+		jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (ps, record) -> {
+			ps.setLong(1, record.getTaskId());
+			ps.setString(2, record.getEntityType().name());
+			ps.setLong(3, record.getEntityId());
+			ps.setString(4, record.getField());
+			ps.setString(5, record.getOldValue());
+			ps.setString(6, record.getNewValue());
+			ps.setTimestamp(7, Timestamp.from(record.getChangedAt()));
+			ps.setLong(8, record.getTaskId());
+			ps.setLong(9, record.getTaskId());
+		});
+	}
+	
+	/**
+	 * Newest changes first. Records still queued show up after the next flush.
+	 */
+	public Page<TaskHistoryResponse> findByTask(Long taskId, Pageable pageable) {
+		Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM task_history WHERE task_id = ?", Long.class, taskId);
+		List<TaskHistoryResponse> content = jdbcTemplate.query(
+				"SELECT entity_type, entity_id, field, old_value, new_value, changed_at FROM task_history "
+				+ "WHERE task_id = ? ORDER BY changed_at DESC, id DESC LIMIT ? OFFSET ?",
+				ROW_MAPPER, taskId, pageable.getPageSize(), pageable.getOffset());
+		return new PageImpl<>(content, pageable, total == null ? 0 : total);
+	}
+	
+	/**
+	 * Records of the task still queued are not written once the task is gone.
+	 */
+	public void deleteByTask(Long taskId) {
+		jdbcTemplate.update("DELETE FROM task_history WHERE task_id = ?", taskId);
+	}
+	
+	public void deleteByTasks(Collection<Long> taskIds) {
+		if(taskIds.isEmpty()) return;
+		String placeholders = String.join(",", Collections.nCopies(taskIds.size(), "?"));
+		jdbcTemplate.update("DELETE FROM task_history WHERE task_id IN (" + placeholders + ")", taskIds.toArray());
+	}
+	
+	int pending() {
+		return pending.get();
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		if(flusher instanceof ExecutorService executor) executor.shutdown();
+		flush();
+	}
+	
+}
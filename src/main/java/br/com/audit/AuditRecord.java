@@ -0,0 +1,60 @@
+package br.com.audit;
+
+import java.time.Instant;
+
+import br.com.enums.SyncEntityType;
+
+/**
+ * One field of a task, or of one of its subtasks or tags, that changed. Buffered by the
+ * {@link AuditLog} until it is written to the {@code task_history} table.
+ */
+public class AuditRecord {
+	
+	private final Long taskId;
+	private final SyncEntityType entityType;
+	private final Long entityId;
+	private final String field;
+	private final String oldValue;
+	private final String newValue;
+	private final Instant changedAt;
+	
+	public AuditRecord(Long taskId, SyncEntityType entityType, Long entityId, String field, String oldValue, String newValue,
+			Instant changedAt) {
+		this.taskId = taskId;
+		this.entityType = entityType;
+		this.entityId = entityId;
+		this.field = field;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+		this.changedAt = changedAt;
+	}
+
+	public Long getTaskId() {
+		return taskId;
+	}
+
+	public SyncEntityType getEntityType() {
+		return entityType;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public String getOldValue() {
+		return oldValue;
+	}
+
+	public String getNewValue() {
+		return newValue;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+	
+}
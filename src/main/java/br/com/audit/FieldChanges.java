@@ -0,0 +1,68 @@
+package br.com.audit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import br.com.enums.SyncEntityType;
+import br.com.models.Subtask;
+import br.com.models.Task;
+
+/**
+ * Collects the fields of one entity that a request changes. Values are compared before they are
+ * set, so fields sent with their current value are left out of the history.
+ */
+public class FieldChanges {
+	
+	static final int MAX_VALUE_LENGTH = 500;
+	
+	private final Long taskId;
+	private final SyncEntityType entityType;
+	private final Long entityId;
+	private final Instant changedAt = Instant.now();
+	private final List<AuditRecord> records = new ArrayList<>();
+	
+	private FieldChanges(Long taskId, SyncEntityType entityType, Long entityId) {
+		this.taskId = taskId;
+		this.entityType = entityType;
+		this.entityId = entityId;
+	}
+	
+	public static FieldChanges of(Task task) {
+		return ofTask(task.getId());
+	}
+	
+	public static FieldChanges ofTask(Long taskId) {
+		return new FieldChanges(taskId, SyncEntityType.TASK, taskId);
+	}
+	
+	public static FieldChanges of(Subtask subtask) {
+		return new FieldChanges(subtask.getTask().getId(), SyncEntityType.SUBTASK, subtask.getId());
+	}
+	
+	public static FieldChanges ofTag(Task task, Long tagId) {
+		return ofTag(task.getId(), tagId);
+	}
+	
+	public static FieldChanges ofTag(Long taskId, Long tagId) {
+		return new FieldChanges(taskId, SyncEntityType.TAG, tagId);
+	}
+	
+	public FieldChanges add(String field, Object oldValue, Object newValue) {
+		if(!Objects.equals(oldValue, newValue)) {
+			records.add(new AuditRecord(taskId, entityType, entityId, field, format(oldValue), format(newValue), changedAt));
+		}
+		return this;
+	}
+	
+	public List<AuditRecord> getRecords() {
+		return records;
+	}
+	
+	private static String format(Object value) {
+		if(value == null) return null;
+		String text = value.toString();
+		return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text;
+	}
+}
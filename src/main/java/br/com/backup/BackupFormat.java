@@ -0,0 +1,33 @@
+package br.com.backup;
+
+/**
+ * Layout of a backup. An 8-byte header, {@code "TBAK"}, the major and the minor version as
+ * big-endian shorts, is followed by a zlib stream of records. A record is its type as one byte,
+ * the length of its fields as a varint and the fields, in the order of the sections: the user,
+ * tags, tasks, subtasks, task tags and a closing {@link #END} record with the number of rows of
+ * each section.
+ *
+ * Fields are unsigned LEB128 varints. Ids that come in ascending order are stored as the
+ * difference to the previous id of the section. Strings are their UTF-8 length plus one followed
+ * by the bytes, dates their zigzag-encoded epoch day plus one and enums their ordinal plus one,
+ * with zero standing for null. Timestamps are epoch milliseconds.
+ *
+ * A reader refuses a newer major version. Within a major version, later minors may only append
+ * fields to a record or add record types, which older readers skip thanks to the lengths.
+ */
+final class BackupFormat {
+
+	static final byte[] MAGIC = {'T', 'B', 'A', 'K'};
+	static final short MAJOR = 1;
+	static final short MINOR = 0;
+
+	static final int USER = 1;
+	static final int TAG = 2;
+	static final int TASK = 3;
+	static final int SUBTASK = 4;
+	static final int TASK_TAG = 5;
+	static final int END = 127;
+
+	private BackupFormat() {
+	}
+}
@@ -0,0 +1,161 @@
+package br.com.backup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import br.com.exceptions.BadRequestException;
+
+/**
+ * Inflates a backup from the channel one buffer at a time and hands it out record by record.
+ * Fields a newer minor version appended to a record are skipped along with the record.
+ */
+final class BackupReader implements AutoCloseable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final ReadableByteChannel channel;
+	private final Inflater inflater = new Inflater();
+	private final ByteBuffer compressed = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer inflated = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer record = ByteBuffer.allocate(1024);
+
+	BackupReader(ReadableByteChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = ByteBuffer.allocate(8);
+		while(header.hasRemaining() && channel.read(header) >= 0);
+		header.flip();
+		if(header.remaining() < 8) throw new BadRequestException("Not a backup file");
+		byte[] magic = new byte[BackupFormat.MAGIC.length];
+		header.get(magic);
+		if(!Arrays.equals(magic, BackupFormat.MAGIC)) throw new BadRequestException("Not a backup file");
+		short major = header.getShort();
+		if(major > BackupFormat.MAJOR) throw new BadRequestException("Backups of version " + major + " are not supported");
+		inflated.limit(0);
+	}
+
+	/**
+	 * Reads the next record, whose fields are then read in order.
+	 *
+	 * @return type of the record
+	 */
+	int next() throws IOException {
+		int type = readByte();
+		long length = 0;
+		for(int shift = 0; ; shift += 7) {
+			int b = readByte();
+			length |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) break;
+			if(shift > 28) throw new BadRequestException("Corrupt backup file");
+		}
+		if(length > Integer.MAX_VALUE) throw new BadRequestException("Corrupt backup file");
+
+		if(record.capacity() < length) record = ByteBuffer.allocate((int) length);
+		record.clear().limit((int) length);
+		while(record.hasRemaining()) {
+			if(!inflated.hasRemaining()) inflate();
+			int count = Math.min(record.remaining(), inflated.remaining());
+			ByteBuffer slice = inflated.slice();
+			slice.limit(count);
+			record.put(slice);
+			inflated.position(inflated.position() + count);
+		}
+		record.flip();
+		return type;
+	}
+
+	long varLong() {
+		long value = 0;
+		for(int shift = 0; shift < 64; shift += 7) {
+			if(!record.hasRemaining()) throw new BadRequestException("Corrupt backup file");
+			byte b = record.get();
+			value |= (long) (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+		throw new BadRequestException("Corrupt backup file");
+	}
+
+	Long optionalLong() {
+		long value = varLong();
+		if(value == 0) return null;
+		value--;
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	LocalDate date() {
+		Long epochDay = optionalLong();
+		return epochDay != null ? LocalDate.ofEpochDay(epochDay) : null;
+	}
+
+	<E extends Enum<E>> E ordinal(Class<E> type) {
+		int value = (int) varLong();
+		if(value == 0) return null;
+		E[] constants = type.getEnumConstants();
+		if(value > constants.length) throw new BadRequestException("Corrupt backup file");
+		return constants[value - 1];
+	}
+
+	String string() {
+		long length = varLong();
+		if(length == 0) return null;
+		if(length - 1 > record.remaining()) throw new BadRequestException("Corrupt backup file");
+		byte[] bytes = new byte[(int) length - 1];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads to the end of the zlib stream after the last record, which verifies its checksum.
+	 */
+	void finish() throws IOException {
+		if(inflated.hasRemaining()) throw new BadRequestException("Corrupt backup file");
+		try {
+			while(!inflater.finished()) {
+				if(inflater.needsInput()) {
+					compressed.clear();
+					if(channel.read(compressed) < 0) throw new BadRequestException("The backup file is truncated");
+					inflater.setInput(compressed.flip());
+				}
+				inflated.clear();
+				if(inflater.inflate(inflated) > 0) throw new BadRequestException("Corrupt backup file");
+			}
+		}
+		catch(DataFormatException e) {
+			throw new BadRequestException("Corrupt backup file");
+		}
+	}
+
+	private int readByte() throws IOException {
+		if(!inflated.hasRemaining()) inflate();
+		return inflated.get() & 0xFF;
+	}
+
+	private void inflate() throws IOException {
+		inflated.clear();
+		try {
+			while(inflated.position() == 0) {
+				if(inflater.finished()) throw new BadRequestException("The backup file is truncated");
+				if(inflater.needsInput()) {
+					compressed.clear();
+					if(channel.read(compressed) < 0) throw new BadRequestException("The backup file is truncated");
+					inflater.setInput(compressed.flip());
+				}
+				inflater.inflate(inflated);
+			}
+		}
+		catch(DataFormatException e) {
+			throw new BadRequestException("Corrupt backup file");
+		}
+		inflated.flip();
+	}
+
+	@Override
+	public void close() {
+		inflater.end();
+	}
+}
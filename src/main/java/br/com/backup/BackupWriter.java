@@ -0,0 +1,133 @@
+package br.com.backup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.zip.Deflater;
+
+/**
+ * Encodes records into a buffer and deflates full buffers straight into the channel, so memory
+ * stays at a few buffers whatever the size of the backup.
+ */
+final class BackupWriter implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final WritableByteChannel channel;
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	private final ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer compressed = ByteBuffer.allocate(BUFFER_SIZE);
+	private ByteBuffer record = ByteBuffer.allocate(1024);
+	private int type;
+
+	BackupWriter(WritableByteChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = ByteBuffer.allocate(8).put(BackupFormat.MAGIC).putShort(BackupFormat.MAJOR).putShort(BackupFormat.MINOR);
+		writeFully(header.flip());
+	}
+
+	BackupWriter begin(int type) {
+		this.type = type;
+		record.clear();
+		return this;
+	}
+
+	BackupWriter varLong(long value) {
+		ensure(10);
+		while((value & ~0x7FL) != 0) {
+			record.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		record.put((byte) value);
+		return this;
+	}
+
+	BackupWriter optionalLong(Long value) {
+		return varLong(value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+	}
+
+	BackupWriter date(LocalDate date) {
+		return optionalLong(date != null ? date.toEpochDay() : null);
+	}
+
+	BackupWriter ordinal(Enum<?> value) {
+		return varLong(value != null ? value.ordinal() + 1 : 0);
+	}
+
+	BackupWriter string(String value) {
+		if(value == null) return varLong(0);
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		varLong(bytes.length + 1L);
+		ensure(bytes.length);
+		record.put(bytes);
+		return this;
+	}
+
+	void end() throws IOException {
+		record.flip();
+		ByteBuffer prefix = ByteBuffer.allocate(11).put((byte) type);
+		int length = record.remaining();
+		while((length & ~0x7F) != 0) {
+			prefix.put((byte) ((length & 0x7F) | 0x80));
+			length >>>= 7;
+		}
+		prefix.put((byte) length);
+		append(prefix.flip());
+		append(record);
+	}
+
+	private void append(ByteBuffer bytes) throws IOException {
+		while(bytes.hasRemaining()) {
+			if(!pending.hasRemaining()) deflatePending();
+			int count = Math.min(bytes.remaining(), pending.remaining());
+			ByteBuffer slice = bytes.slice();
+			slice.limit(count);
+			pending.put(slice);
+			bytes.position(bytes.position() + count);
+		}
+	}
+
+	private void deflatePending() throws IOException {
+		pending.flip();
+		deflater.setInput(pending);
+		while(!deflater.needsInput()) {
+			compressed.clear();
+			deflater.deflate(compressed);
+			writeFully(compressed.flip());
+		}
+		pending.clear();
+	}
+
+	private void ensure(int bytes) {
+		if(record.remaining() >= bytes) return;
+		ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+		record.flip();
+		record = larger.put(record);
+	}
+
+	private void writeFully(ByteBuffer bytes) throws IOException {
+		while(bytes.hasRemaining()) channel.write(bytes);
+	}
+
+	/**
+	 * Finishes the zlib stream. The channel is left open.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			deflatePending();
+			deflater.finish();
+			while(!deflater.finished()) {
+				compressed.clear();
+				deflater.deflate(compressed);
+				writeFully(compressed.flip());
+			}
+		}
+		finally {
+			deflater.end();
+		}
+	}
+}
@@ -0,0 +1,387 @@
+package br.com.backup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.Role;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.exceptions.BadRequestException;
+import br.com.repositories.IdGenerators;
+
+/**
+ * Backs up an account, with its tags, tasks, subtasks and task tags, in the compact binary format
+ * of {@link BackupFormat}, and restores such backups as new accounts.
+ *
+ * A backup reads every section in one read-only transaction, so it is a consistent snapshot, and
+ * streams each section from a forward-only result set into the channel. A restore inserts the
+ * rows with new ids in JDBC batches of {@code api.backup.batch-size}, in one transaction, so it
+ * either restores the whole account or nothing.
+ *
+ * Archived tasks are backed up along with the others and restored into the hot tables, from where
+ * the archiver moves them again.
+ */
+@Component
+public class UserBackup {
+
+	private static final String SELECT_USER = "SELECT username, password, role, collection_version FROM users WHERE id = ?";
+	private static final String SELECT_TAGS = "SELECT id, name, version, updated_at FROM tags WHERE user_id = ? ORDER BY id";
+	private static final String SELECT_TASKS =
+			"SELECT id, title, description, status, priority, created_date, due_date, version, updated_at FROM tasks WHERE user_id = ? " +
+			"UNION ALL SELECT id, title, description, status, priority, created_date, due_date, version, updated_at FROM archived_tasks WHERE user_id = ? " +
+			"ORDER BY id";
+	private static final String SELECT_SUBTASKS =
+			"SELECT s.id, s.task_id, s.title, s.description, s.status, s.created_date, s.due_date, s.version, s.updated_at " +
+			"FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ? " +
+			"UNION ALL SELECT s.id, s.task_id, s.title, s.description, s.status, s.created_date, s.due_date, s.version, s.updated_at " +
+			"FROM archived_subtasks s JOIN archived_tasks t ON t.id = s.task_id WHERE t.user_id = ? " +
+			"ORDER BY id";
+	private static final String SELECT_TASK_TAGS =
+			"SELECT tt.task_id, tt.tag_id FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ? " +
+			"UNION ALL SELECT tt.task_id, tt.tag_id FROM archived_task_tags tt JOIN archived_tasks t ON t.id = tt.task_id WHERE t.user_id = ? " +
+			"ORDER BY task_id, tag_id";
+
+	private static final String INSERT_USER = "INSERT INTO users (username, password, role, collection_version) VALUES (?, ?, ?, ?)";
+	private static final String INSERT_TAG = "INSERT INTO tags (id, name, user_id, version, updated_at) VALUES (?, ?, ?, ?, ?)";
+	private static final String INSERT_TASK =
+			"INSERT INTO tasks (id, title, description, status, priority, created_date, due_date, user_id, version, updated_at) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_SUBTASK =
+			"INSERT INTO subtasks (id, title, description, status, created_date, due_date, task_id, version, updated_at) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+	private static final String INSERT_TASK_TAG = "INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final JdbcTemplate streamingTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final TransactionTemplate snapshotTemplate;
+	private final IdGenerators idGenerators;
+	private final int batchSize;
+
+	public UserBackup(DataSource dataSource, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+			IdGenerators idGenerators, @Value("${api.backup.batch-size:500}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.streamingTemplate = new JdbcTemplate(dataSource);
+		this.streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.snapshotTemplate = new TransactionTemplate(transactionManager);
+		this.snapshotTemplate.setReadOnly(true);
+		this.idGenerators = idGenerators;
+		this.batchSize = batchSize;
+	}
+
+	public void backup(Long userId, WritableByteChannel channel) throws IOException {
+		try(BackupWriter writer = new BackupWriter(channel)) {
+			snapshotTemplate.executeWithoutResult(status -> writeSections(userId, writer));
+		}
+		catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private void writeSections(Long userId, BackupWriter writer) {
+		query(SELECT_USER, userId, rs -> writer.begin(BackupFormat.USER)
+				.string(rs.getString("username"))
+				.string(rs.getString("password"))
+				.ordinal(valueOf(Role.class, rs.getString("role")))
+				.varLong(rs.getLong("collection_version"))
+				.end());
+
+		Section tags = new Section();
+		query(SELECT_TAGS, userId, rs -> writer.begin(BackupFormat.TAG)
+				.varLong(tags.delta(rs.getLong("id")))
+				.string(rs.getString("name"))
+				.varLong(rs.getLong("version"))
+				.varLong(millis(rs.getTimestamp("updated_at")))
+				.end());
+
+		Section tasks = new Section();
+		query(SELECT_TASKS, userId, rs -> writer.begin(BackupFormat.TASK)
+				.varLong(tasks.delta(rs.getLong("id")))
+				.string(rs.getString("title"))
+				.string(rs.getString("description"))
+				.ordinal(valueOf(TaskStatus.class, rs.getString("status")))
+				.ordinal(valueOf(TaskPriority.class, rs.getString("priority")))
+				.date(rs.getObject("created_date", LocalDate.class))
+				.date(rs.getObject("due_date", LocalDate.class))
+				.varLong(rs.getLong("version"))
+				.varLong(millis(rs.getTimestamp("updated_at")))
+				.end());
+
+		Section subtasks = new Section();
+		query(SELECT_SUBTASKS, userId, rs -> {
+			Integer status = rs.getObject("status", Integer.class);
+			writer.begin(BackupFormat.SUBTASK)
+					.varLong(subtasks.delta(rs.getLong("id")))
+					.varLong(rs.getLong("task_id"))
+					.string(rs.getString("title"))
+					.string(rs.getString("description"))
+					.varLong(status != null ? status + 1 : 0)
+					.date(rs.getObject("created_date", LocalDate.class))
+					.date(rs.getObject("due_date", LocalDate.class))
+					.varLong(rs.getLong("version"))
+					.varLong(millis(rs.getTimestamp("updated_at")))
+					.end();
+		});
+
+		Section taskTags = new Section();
+		query(SELECT_TASK_TAGS, userId, rs -> writer.begin(BackupFormat.TASK_TAG)
+				.varLong(taskTags.delta(rs.getLong("task_id")))
+				.varLong(rs.getLong("tag_id"))
+				.end());
+
+		try {
+			writer.begin(BackupFormat.END).varLong(tags.rows).varLong(tasks.rows).varLong(subtasks.rows).varLong(taskTags.rows).end();
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Binds the user id to every placeholder of the query.
+	 */
+	private void query(String sql, Long userId, RowWriter rowWriter) {
+		Object[] args = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+		Arrays.fill(args, userId);
+		streamingTemplate.query(sql, (RowCallbackHandler) rs -> {
+			try {
+				rowWriter.write(rs);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, args);
+	}
+
+	/**
+	 * Restores the backup as a new account, named {@code username} when given, otherwise as in the
+	 * backup. All rows get new ids, so a backup restores into any environment, or next to the
+	 * account it was taken from.
+	 *
+	 * @return id of the restored user
+	 */
+	public Long restore(ReadableByteChannel channel, String username) throws IOException {
+		try(BackupReader reader = new BackupReader(channel)) {
+			return transactionTemplate.execute(status -> {
+				try {
+					return restore(reader, username);
+				}
+				catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private Long restore(BackupReader reader, String username) throws IOException {
+		Restore restore = new Restore();
+		int type;
+		while((type = reader.next()) != BackupFormat.END) {
+			switch(type) {
+				case BackupFormat.USER -> restore.userId = insertUser(reader, username);
+				case BackupFormat.TAG -> restoreTag(reader, restore);
+				case BackupFormat.TASK -> restoreTask(reader, restore);
+				case BackupFormat.SUBTASK -> restoreSubtask(reader, restore);
+				case BackupFormat.TASK_TAG -> restoreTaskTag(reader, restore);
+				default -> {
+					// added by a later minor version
+				}
+			}
+		}
+		restore.flush();
+
+		long[] expected = {reader.varLong(), reader.varLong(), reader.varLong(), reader.varLong()};
+		reader.finish();
+		long[] restored = {restore.tags.rows, restore.tasks.rows, restore.subtasks.rows, restore.taskTags.rows};
+		if(restore.userId == null || !Arrays.equals(expected, restored)) {
+			throw new BadRequestException("The backup file is incomplete");
+		}
+		return restore.userId;
+	}
+
+	private Long insertUser(BackupReader reader, String username) {
+		String backupUsername = reader.string();
+		String name = username != null ? username : backupUsername;
+		String password = reader.string();
+		Role role = reader.ordinal(Role.class);
+		long collectionVersion = reader.varLong();
+		if(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username = ?", Long.class, name) > 0) {
+			throw new BadRequestException("Username already exists");
+		}
+
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS);
+			statement.setString(1, name);
+			statement.setString(2, password);
+			statement.setString(3, role != null ? role.name() : null);
+			statement.setLong(4, collectionVersion);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private void restoreTag(BackupReader reader, Restore restore) {
+		long oldId = restore.tags.next(reader.varLong());
+		long id = restore.tags.newId("tags");
+		restore.tagIds.put(oldId, id);
+		restore.add(INSERT_TAG, new Object[] {id, reader.string(), restore.requireUser(), reader.varLong(), timestamp(reader.varLong())});
+	}
+
+	private void restoreTask(BackupReader reader, Restore restore) {
+		long oldId = restore.tasks.next(reader.varLong());
+		long id = restore.tasks.newId("tasks");
+		restore.taskIds.put(oldId, id);
+		String title = reader.string();
+		String description = reader.string();
+		TaskStatus status = reader.ordinal(TaskStatus.class);
+		TaskPriority priority = reader.ordinal(TaskPriority.class);
+		restore.add(INSERT_TASK, new Object[] {id, title, description, status != null ? status.name() : null, priority != null ? priority.name() : null,
+				reader.date(), reader.date(), restore.requireUser(), reader.varLong(), timestamp(reader.varLong())});
+	}
+
+	private void restoreSubtask(BackupReader reader, Restore restore) {
+		restore.subtasks.next(reader.varLong());
+		long id = restore.subtasks.newId("subtasks");
+		Long taskId = restore.taskId(reader.varLong());
+		String title = reader.string();
+		String description = reader.string();
+		TaskStatus status = reader.ordinal(TaskStatus.class);
+		restore.add(INSERT_SUBTASK, new Object[] {id, title, description, status != null ? status.ordinal() : null,
+				reader.date(), reader.date(), taskId, reader.varLong(), timestamp(reader.varLong())});
+	}
+
+	private void restoreTaskTag(BackupReader reader, Restore restore) {
+		Long taskId = restore.taskId(restore.taskTags.next(reader.varLong()));
+		Long tagId = restore.tagIds.get(reader.varLong());
+		if(tagId == null) throw new BadRequestException("The backup file refers to a tag it does not contain");
+		restore.add(INSERT_TASK_TAG, new Object[] {taskId, tagId});
+	}
+
+	private static <E extends Enum<E>> E valueOf(Class<E> type, String name) {
+		return name != null ? Enum.valueOf(type, name) : null;
+	}
+
+	private static long millis(Timestamp timestamp) {
+		return timestamp.getTime();
+	}
+
+	private static Timestamp timestamp(long millis) {
+		return new Timestamp(millis);
+	}
+
+	@FunctionalInterface
+	private interface RowWriter {
+		void write(ResultSet rs) throws SQLException, IOException;
+	}
+
+	/**
+	 * Ids of a section, which come in ascending order and are stored as differences.
+	 */
+	private static final class Section {
+		private long previous;
+		private long rows;
+
+		private long delta(long id) {
+			long delta = id - previous;
+			previous = id;
+			rows++;
+			return delta;
+		}
+	}
+
+	/**
+	 * State of one restore: the new ids of the tags and tasks by their ids in the backup, the id
+	 * blocks taken so far and the rows waiting for the next batch.
+	 */
+	private final class Restore {
+		private Long userId;
+		private final Map<Long, Long> tagIds = new HashMap<>();
+		private final Map<Long, Long> taskIds = new HashMap<>();
+		private final RestoredSection tags = new RestoredSection();
+		private final RestoredSection tasks = new RestoredSection();
+		private final RestoredSection subtasks = new RestoredSection();
+		private final RestoredSection taskTags = new RestoredSection();
+		private final List<Object[]> rows = new ArrayList<>();
+		private String sql;
+
+		private Long requireUser() {
+			if(userId == null) throw new BadRequestException("Corrupt backup file");
+			return userId;
+		}
+
+		private Long taskId(long oldId) {
+			Long taskId = taskIds.get(oldId);
+			if(taskId == null) throw new BadRequestException("The backup file refers to a task it does not contain");
+			return taskId;
+		}
+
+		/**
+		 * Sections come one after the other, so the rows a batch refers to are always written
+		 * by an earlier batch.
+		 */
+		private void add(String insert, Object[] row) {
+			if(!insert.equals(sql) || rows.size() == batchSize) flush();
+			sql = insert;
+			rows.add(row);
+		}
+
+		private void flush() {
+			if(!rows.isEmpty()) jdbcTemplate.batchUpdate(sql, rows);
+			rows.clear();
+		}
+	}
+
+	/**
+	 * A section being restored: the ids of the backup, which are stored as differences, and the
+	 * block of new ids.
+	 */
+	private final class RestoredSection {
+		private long previous;
+		private long rows;
+		private long nextId;
+		private long blockEnd;
+
+		private long next(long delta) {
+			previous += delta;
+			rows++;
+			return previous;
+		}
+
+		private long newId(String sequence) {
+			if(nextId == blockEnd) {
+				nextId = idGenerators.take(sequence, batchSize);
+				blockEnd = nextId + batchSize;
+			}
+			return nextId++;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package br.com.configs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public final class ApiMediaTypes {
+	
+	/**
+	 * Plain JSON without {@code links}, for clients that do not follow hypermedia.
+	 * Paged collections are wrapped in a {@link br.com.dtos.CompactPage}.
+	 */
+	public static final String COMPACT_JSON_VALUE = "application/vnd.tasks.compact+json";
+	public static final MediaType COMPACT_JSON = MediaType.parseMediaType(COMPACT_JSON_VALUE);
+	
+	private ApiMediaTypes() {
+	}
+	
+	/**
+	 * Whether the compact type wins content negotiation for the current request, that is,
+	 * it is preferred over any type that would select the regular JSON representation.
+	 */
+	public static boolean isCompactRequested() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return false;
+		
+		String accept = servletAttributes.getRequest().getHeader(HttpHeaders.ACCEPT);
+		if (accept == null || !accept.contains(COMPACT_JSON_VALUE)) return false;
+		
+		try {
+			List<MediaType> mediaTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+			MimeTypeUtils.sortBySpecificity(mediaTypes);
+			for (MediaType mediaType : mediaTypes) {
+				if (mediaType.getQualityValue() == 0) continue;
+				if (mediaType.equalsTypeAndSubtype(COMPACT_JSON)) return true;
+				if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) return false;
+			}
+		}
+		catch(InvalidMediaTypeException e) {
+			return false;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,48 @@
+package br.com.configs;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.Links;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@Configuration
+public class CompactJsonConfiguration implements WebMvcConfigurer {
+	
+	private final ObjectMapper objectMapper;
+	
+	public CompactJsonConfiguration(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * The compact converter only writes the compact media type. It is not a
+	 * {@code MappingJackson2HttpMessageConverter}, so Spring HATEOAS keeps registering HAL on the
+	 * default converter, which stays in charge of {@code application/json} and {@code application/hal+json}.
+	 * It goes first only because the default converter also accepts {@code application/*+json}.
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		ObjectMapper compactMapper = objectMapper.copy().addMixIn(RepresentationModel.class, WithoutLinks.class);
+		converters.add(0, new CompactJsonHttpMessageConverter(compactMapper));
+	}
+	
+	private static class CompactJsonHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+		
+		CompactJsonHttpMessageConverter(ObjectMapper objectMapper) {
+			super(objectMapper, ApiMediaTypes.COMPACT_JSON);
+		}
+	}
+	
+	private abstract static class WithoutLinks {
+		
+		@JsonIgnore
+		public abstract Links getLinks();
+	}
+}
@@ -0,0 +1,50 @@
+package br.com.configs;
+
+/**
+ * Entity tags sent by the GET endpoints. Strong ETags must change with the bytes of the body,
+ * so the compact representation gets a tag of its own.
+ */
+public final class ETags {
+	
+	private static final String COMPACT_SUFFIX = "-compact";
+	
+	private ETags() {
+	}
+	
+	/**
+	 * Tag of a single resource, built from its id and version.
+	 */
+	public static String of(Long id, Long version) {
+		return quote(tag(id, version));
+	}
+	
+	/**
+	 * Whether an If-Match header accepts the current version of a resource. Weak tags never
+	 * match, as If-Match uses the strong comparison. Tags of either representation are accepted.
+	 */
+	public static boolean matches(String ifMatch, Long id, Long version) {
+		String current = tag(id, version);
+		for (String candidate : ifMatch.split(",")) {
+			candidate = candidate.trim();
+			if(candidate.equals("*")) return true;
+			if(candidate.equals("\"" + current + "\"") || candidate.equals("\"" + current + COMPACT_SUFFIX + "\"")) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Tag of a listing, built from the owner's collection version. It changes on any write to the
+	 * owner's tasks, subtasks or tags, so it can be checked before anything is loaded.
+	 */
+	public static String ofCollection(Long userId, long collectionVersion) {
+		return quote("u" + userId + ".c" + collectionVersion);
+	}
+	
+	private static String tag(Long id, Long version) {
+		return id + "." + Long.toHexString(version != null ? version : 0L);
+	}
+	
+	private static String quote(String value) {
+		return "\"" + value + (ApiMediaTypes.isCompactRequested() ? COMPACT_SUFFIX : "") + "\"";
+	}
+}
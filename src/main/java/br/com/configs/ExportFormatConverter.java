@@ -0,0 +1,19 @@
+package br.com.configs;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import br.com.enums.ExportFormat;
+
+/**
+ * Binds {@code format=ndjson} and {@code format=csv} request parameters, which are lower case
+ * unlike the enum constants.
+ */
+@Component
+public class ExportFormatConverter implements Converter<String, ExportFormat> {
+
+	@Override
+	public ExportFormat convert(String format) {
+		return ExportFormat.parse(format);
+	}
+}
@@ -0,0 +1,21 @@
+package br.com.configs;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+@Configuration
+public class JacksonConfiguration {
+	
+	/**
+	 * Replaces Jackson's reflective getter and setter calls with generated lambdas.
+	 * Spring Boot registers every {@link Module} bean in the application's ObjectMapper,
+	 * so the HAL and compact converters pick it up as well.
+	 */
+	@Bean
+	Module blackbirdModule() {
+		return new BlackbirdModule();
+	}
+}
@@ -0,0 +1,124 @@
+package br.com.configs;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.sharding.ShardRoutingDataSource;
+
+/**
+ * Splits the per-user data over several MySQL databases when {@code api.sharding.urls} lists the
+ * databases besides the primary, {@code spring.datasource.url}. Shard {@code i} is the
+ * {@code i}-th database of the list, counting the primary as 0, so shards may be appended but
+ * never reordered.
+ *
+ * Every shard gets the whole schema. Shards past the primary hand out ids from their own range,
+ * starting at {@code shard << }{@value #SHARD_ID_BITS}, so ids stay unique across shards and a
+ * user moves between them with its ids. On top of that, the {@code AUTO_INCREMENT} values of
+ * shard {@code i} step by {@value #MAX_SHARDS} from offset {@code i + 1}: rows copied in from
+ * another shard may push a counter past their ids, but never onto the series of another shard.
+ */
+@Configuration
+@ConditionalOnExpression("!'${api.sharding.urls:}'.isBlank()")
+public class ShardingConfiguration {
+
+	public static final int SHARD_ID_BITS = 48;
+	/** Keeps {@code shard << SHARD_ID_BITS} of the last shard within a positive {@code BIGINT}. */
+	public static final int MAX_SHARDS = (1 << (63 - SHARD_ID_BITS)) - 1;
+
+	@Bean
+	@Primary
+	DataSource dataSource(DataSourceProperties properties, FlywayProperties flywayProperties, Environment environment,
+			@Value("${api.sharding.urls}") List<String> urls) {
+		List<DataSource> shards = new ArrayList<>();
+		shards.add(pool(properties, environment, properties.determineUrl(), 0));
+		for(String url : urls) {
+			int shard = shards.size();
+			if(shard >= MAX_SHARDS) throw new IllegalStateException("At most " + MAX_SHARDS + " shards are supported");
+			HikariDataSource dataSource = pool(properties, environment, url.trim(), shard);
+			Flyway.configure()
+					.dataSource(dataSource)
+					.locations(flywayProperties.getLocations().toArray(String[]::new))
+					.placeholders(flywayProperties.getPlaceholders())
+					.load()
+					.migrate();
+			reserveIdRange(dataSource, shard);
+			shards.add(dataSource);
+		}
+		return new ShardRoutingDataSource(shards);
+	}
+
+	/**
+	 * The session opened for the whole request would otherwise hold on to the first connection it
+	 * gets, and with it its shard, when the request switches shards.
+	 */
+	@Bean
+	HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+		return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+				PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+	}
+
+	private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url, int shard) {
+		HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+		dataSource.setPoolName("shard-" + shard);
+		dataSource.setConnectionInitSql(autoIncrementSeries(shard));
+		return dataSource;
+	}
+
+	public static String autoIncrementSeries(int shard) {
+		return "SET SESSION auto_increment_increment = " + MAX_SHARDS + ", auto_increment_offset = " + (shard + 1);
+	}
+
+	/**
+	 * Moves the id generators and every {@code AUTO_INCREMENT} counter of the shard up to its
+	 * range. Counters already past it are left alone, so this is safe on every start.
+	 */
+	public static void reserveIdRange(DataSource dataSource, int shard) {
+		long low = (long) shard << SHARD_ID_BITS;
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("UPDATE id_generators SET next_val = GREATEST(next_val, ?)", low);
+		jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+			List<String> tables = new ArrayList<>();
+			try(Statement statement = connection.createStatement()) {
+				statement.execute("SET SESSION information_schema_stats_expiry = 0");
+			}
+			try(PreparedStatement statement = connection.prepareStatement(
+					"SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE() AND auto_increment < ?")) {
+				statement.setLong(1, low);
+				try(ResultSet rs = statement.executeQuery()) {
+					while(rs.next()) tables.add(rs.getString(1));
+				}
+			}
+			try(Statement statement = connection.createStatement()) {
+				for(String table : tables) {
+					statement.execute("ALTER TABLE `" + table + "` AUTO_INCREMENT = " + low);
+				}
+			}
+			return null;
+		});
+	}
+}
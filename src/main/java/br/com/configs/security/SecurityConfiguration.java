@@ -33,6 +33,7 @@ public class SecurityConfiguration {
                 	.requestMatchers(AUTH_WHITELIST).permitAll()
                     .requestMatchers(HttpMethod.POST, "/api/auth/**").permitAll()
                     .requestMatchers(HttpMethod.PATCH,"/api/users/update").authenticated()
+                    .requestMatchers("/api/users/delete/account").authenticated()
                     .requestMatchers("/api/users/**").hasRole("ADMIN")
                     .anyRequest().authenticated()                                     
                 )
@@ -1,16 +1,26 @@
 package br.com.configs.security;
 
 import java.io.IOException;
+import java.time.Instant;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.exceptions.AccountMovingException;
+import br.com.exceptions.StandardError;
 import br.com.exceptions.UserNotAuthenticatedException;
 import br.com.repositories.UserRepository;
 import br.com.services.TokenService;
+import br.com.sharding.ShardContext;
+import br.com.sharding.ShardDirectory;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,9 +34,15 @@ public class SecurityFilter extends OncePerRequestFilter {
 
 	private final UserRepository userRepository;
 	
-	public SecurityFilter(TokenService tokenService, UserRepository userRepository) {
+	private final ShardDirectory shardDirectory;
+	
+	private final ObjectMapper objectMapper;
+	
+	public SecurityFilter(TokenService tokenService, UserRepository userRepository, ShardDirectory shardDirectory, ObjectMapper objectMapper) {
 		this.tokenService = tokenService;
 		this.userRepository = userRepository;
+		this.shardDirectory = shardDirectory;
+		this.objectMapper = objectMapper;
 	}
 
 	@Override
@@ -45,12 +61,27 @@ public class SecurityFilter extends OncePerRequestFilter {
 		}
 		
 		var username = tokenService.validateToken(token);
-		UserDetails user = userRepository.findByUsername(username);
-
-		var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
-		SecurityContextHolder.getContext().setAuthentication(authentication);
+		int shard;
+		try {
+			shard = shardDirectory.shardOf(username);
+		}
+		catch(AccountMovingException e) {
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+			objectMapper.writeValue(response.getWriter(), new StandardError(e.getMessage(), "uri=" + requestURI, Instant.now()));
+			return;
+		}
 		
-		filterChain.doFilter(request, response);
+		// The rest of the request works on the shard of the user, starting with its own row
+		try (ShardContext.Scope scope = ShardContext.enter(shard)) {
+			UserDetails user = userRepository.findByUsername(username);
+
+			var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+			SecurityContextHolder.getContext().setAuthentication(authentication);
+			
+			filterChain.doFilter(request, response);
+		}
 
 	}
 
@@ -0,0 +1,45 @@
+package br.com.controllers;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.events.ChangeStream;
+import br.com.services.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping(value = "/api/events")
+@Tag(name = "Events", description = "Server-Sent Events stream of task, subtask and tag changes")
+public class EventController {
+	
+	private final ChangeStream changeStream;
+	private final UserService userService;
+	
+	public EventController(ChangeStream changeStream, UserService userService) {
+		this.changeStream = changeStream;
+		this.userService = userService;
+	}
+
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Subscribe to changes", 
+	   description = "User must be authenticated. Streams task.*, subtask.* and tag.* events with the ids of what was "
+	   		+ "created, updated or deleted. Slow clients are disconnected and should catch up through /api/sync.",
+	   tags = {"Events"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE)), 
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<SseEmitter> subscribe(){
+		SseEmitter emitter = changeStream.subscribe(userService.getAuthenticatedUser().getId());
+		return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+	}
+}
@@ -0,0 +1,45 @@
+package br.com.controllers;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.dtos.JobResponse;
+import br.com.services.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping(value = "/api/jobs")
+@Tag(name = "Jobs", description = "Endpoints for following background jobs")
+public class JobController {
+	
+	private final JobService jobService;
+	
+	public JobController(JobService jobService) {
+		this.jobService = jobService;
+	}
+	
+	@GetMapping(value = "/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Find a job by id", 
+	   description = "User must be authenticated and the job must belong to the user, admins can see every job",
+	   tags = {"Jobs"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", 
+					   content = @Content(schema = @Schema(implementation = JobResponse.class))),
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<JobResponse> findById(@PathVariable Long jobId){
+		return ResponseEntity.ok().body(jobService.findById(jobId));
+	}
+}
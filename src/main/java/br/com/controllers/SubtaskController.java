@@ -1,5 +1,6 @@
 package br.com.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -8,9 +9,12 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import br.com.configs.ApiMediaTypes;
+import br.com.configs.ETags;
 import br.com.dtos.SubtaskCreateRequest;
 import br.com.dtos.SubtaskResponse;
 import br.com.dtos.SubtaskUpdateRequest;
@@ -35,19 +39,23 @@ public class SubtaskController {
 		this.subtaskService = subtaskService;
 	}
 
-	@GetMapping(value ="/{subtaskId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(value ="/{subtaskId}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Find subtask by id", 
 			   description = "Only authenticated users can access this endpoint. User must be the owner of the Task",
 			   tags = {"Subtasks"},
 			   responses = {
 					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = SubtaskResponse.class))),
+					   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 			   }
 	)
 	public ResponseEntity<SubtaskResponse> findById(@PathVariable Long subtaskId){
-		return ResponseEntity.ok().body(subtaskService.findById(subtaskId));
+		SubtaskResponse subtaskResponse = ApiMediaTypes.isCompactRequested()
+				? subtaskService.findByIdCompact(subtaskId)
+				: subtaskService.findById(subtaskId);
+		return ResponseEntity.ok().eTag(ETags.of(subtaskResponse.getId(), subtaskResponse.getVersion())).body(subtaskResponse);
 	}
 	
 	@PostMapping(value = "/{taskId}", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -73,11 +81,15 @@ public class SubtaskController {
 					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = SubtaskResponse.class))),
 					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Conflict", responseCode = "409", content = @Content),
+					   @ApiResponse(description = "Precondition Failed", responseCode = "412", content = @Content),
 					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 			   }
 	)
-	public ResponseEntity<SubtaskResponse> partialUpdate(@PathVariable Long subtaskId, @Valid @RequestBody SubtaskUpdateRequest subtaskRequest){
-		return ResponseEntity.ok().body(subtaskService.partialUpdate(subtaskId, subtaskRequest));	
+	public ResponseEntity<SubtaskResponse> partialUpdate(@PathVariable Long subtaskId, @Valid @RequestBody SubtaskUpdateRequest subtaskRequest,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		SubtaskResponse subtaskResponse = subtaskService.partialUpdate(subtaskId, subtaskRequest, ifMatch);
+		return ResponseEntity.ok().eTag(ETags.of(subtaskResponse.getId(), subtaskResponse.getVersion())).body(subtaskResponse);
 	}
 	
 	@DeleteMapping("/{subtaskId}")
@@ -0,0 +1,47 @@
+package br.com.controllers;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.dtos.SyncResponse;
+import br.com.services.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping(value = "/api/sync")
+@Tag(name = "Sync", description = "Endpoint for incremental sync of tasks and tags")
+public class SyncController {
+	
+	private final SyncService syncService;
+	
+	public SyncController(SyncService syncService) {
+		this.syncService = syncService;
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Find everything changed since a watermark", 
+	   description = "User must be authenticated. Without a watermark every task and tag is returned, page by page. "
+	   		+ "Send back the watermark of the response to get the next page or, once hasMore is false, the next changes.",
+	   tags = {"Sync"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = SyncResponse.class))), 
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Gone, the watermark is too old and a full download is needed", responseCode = "410", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<SyncResponse> changesSince(
+			@RequestParam(value = "watermark", required = false) String watermark,
+			@RequestParam(value = "size", required = false) Integer size){
+		return ResponseEntity.ok().body(syncService.changesSince(watermark, size));
+	}
+}
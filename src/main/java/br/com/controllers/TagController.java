@@ -12,8 +12,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import br.com.configs.ApiMediaTypes;
+import br.com.configs.ETags;
+import br.com.dtos.BulkResponse;
 import br.com.dtos.TagDto;
+import br.com.dtos.TaskIdsRequest;
 import br.com.dtos.TaskResponse;
 import br.com.services.TagService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -35,22 +40,26 @@ public class TagController {
 		this.tagService = tagService;
 	}
 
-	@GetMapping(value = "/{tagId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(value = "/{tagId}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Find a Tag by id", 
 	   description = "User must be authenticated and Tag must belongs to the user",
 	   tags = {"Tags"},
 	   responses = {
 			   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = TagDto.class))), 
+			   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
 			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 	   }
 	)
 	public ResponseEntity<TagDto> findById(@PathVariable Long tagId){
-		return ResponseEntity.ok().body(tagService.findById(tagId));
+		TagDto tagDto = ApiMediaTypes.isCompactRequested()
+				? tagService.findByIdCompact(tagId)
+				: tagService.findById(tagId);
+		return ResponseEntity.ok().eTag(ETags.of(tagDto.getId(), tagDto.getVersion())).body(tagDto);
 	}
 	
-	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Find all Tags by user authenticated", 
 	   description = "User must be authenticated.",
 	   tags = {"Tags"},
@@ -58,11 +67,17 @@ public class TagController {
 			   @ApiResponse(description = "OK", responseCode = "200", 
 					   content = @Content(array = @ArraySchema(schema = @Schema(implementation = TagDto.class)))),
 			   @ApiResponse(description = "No Content", responseCode = "204", content = @Content),
+			   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 	   }
 	)
-	public ResponseEntity<List<TagDto>> findAllTagsByUserAuthenticated(){
+	public ResponseEntity<List<TagDto>> findAllTagsByUserAuthenticated(WebRequest request){
+		if(request.checkNotModified(tagService.collectionETag())) return null;
+		
+		if(ApiMediaTypes.isCompactRequested()) {
+			return ResponseEntity.ok().body(tagService.findAllTagsByUserAuthenticatedCompact());
+		}
 		return ResponseEntity.ok().body(tagService.findAllTagsByUserAuthenticated());
 	}
 	
@@ -129,6 +144,40 @@ public class TagController {
 		return ResponseEntity.ok().body(tagService.removeTag(taskId, tagId));
 	}
 	
+	@PatchMapping(value = "/{tagId}/attach", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Add a Tag to many Tasks", 
+	   description = "User must be authenticated and Tag must belongs to the user. Tasks of other users, and tasks already tagged, are skipped. "
+	   		+ "Up to " + TaskIdsRequest.MAX_IDS + " task ids",
+	   tags = {"Tags"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = BulkResponse.class))), 
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<BulkResponse> attachToTasks(@PathVariable Long tagId, @Valid @RequestBody TaskIdsRequest request){
+		return ResponseEntity.ok().body(tagService.attachToTasks(tagId, request));
+	}
+	
+	@PatchMapping(value = "/{tagId}/detach", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Remove a Tag from many Tasks", 
+	   description = "User must be authenticated and Tag must belongs to the user. Tasks of other users, and tasks without the tag, are skipped. "
+	   		+ "Up to " + TaskIdsRequest.MAX_IDS + " task ids",
+	   tags = {"Tags"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = BulkResponse.class))), 
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<BulkResponse> detachFromTasks(@PathVariable Long tagId, @Valid @RequestBody TaskIdsRequest request){
+		return ResponseEntity.ok().body(tagService.detachFromTasks(tagId, request));
+	}
+	
 	@DeleteMapping(value = "/{tagId}")
 	@Operation(summary = "Delete a Tag", 
 	   description = "User must be authenticated and Tag must belongs to the user",
@@ -1,11 +1,13 @@
 package br.com.controllers;
 
+import java.io.IOException;
+import java.util.List;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
-import org.springframework.hateoas.EntityModel;
-import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,12 +18,25 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.configs.ApiMediaTypes;
+import br.com.configs.ETags;
+import br.com.dtos.BulkResponse;
+import br.com.dtos.CompactPage;
+import br.com.dtos.JobResponse;
+import br.com.dtos.TaskBatchRequest;
+import br.com.dtos.TaskBulkUpdateRequest;
 import br.com.dtos.TaskCreateRequest;
+import br.com.dtos.TaskFields;
+import br.com.dtos.TaskHistoryResponse;
 import br.com.dtos.TaskResponse;
 import br.com.dtos.TaskUpdateRequest;
+import br.com.enums.ExportFormat;
 import br.com.services.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -29,6 +44,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -42,12 +58,13 @@ public class TaskController {
 		this.taskService = taskService;
 	}
 
-	@GetMapping(value = "/{taskId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(value = "/{taskId}", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Find a task by id", 
 			   description = "User must be authenticated and task must belongs the user",
 			   tags = {"Tasks"},
 			   responses = {
 					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = TaskResponse.class))), 
+					   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
@@ -55,47 +72,135 @@ public class TaskController {
 			   }
 	)
 	public ResponseEntity<TaskResponse> findById(@PathVariable Long taskId){ 
-		return ResponseEntity.ok().body(taskService.findById(taskId));
+		TaskResponse taskResponse = ApiMediaTypes.isCompactRequested()
+				? taskService.findByIdCompact(taskId)
+				: taskService.findById(taskId);
+		return ResponseEntity.ok().eTag(ETags.of(taskResponse.getId(), taskResponse.getVersion())).body(taskResponse);
 	}
 
-	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Find all tasks by user authenticated", 
 			   description = "User must be authenticated",
 			   tags = {"Tasks"},
 			   responses = {
 					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskResponse.class)))), 
+					   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 			   }
 	)
-	public ResponseEntity<PagedModel<EntityModel<TaskResponse>>> findAllByUserAuthenticated(
+	public ResponseEntity<?> findAllByUserAuthenticated(
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
-			@RequestParam(value = "size", defaultValue = "5") Integer size
+			@RequestParam(value = "size", defaultValue = "5") Integer size,
+			@RequestParam(required = false) String fields,
+			WebRequest request
 			){
+		
+		// Checked first, so an unchanged collection is answered without touching the tasks
+		if(request.checkNotModified(taskService.collectionETag())) return null;
 
 		Pageable pageable = PageRequest.of(page, size, Sort.by(Direction.ASC, "id"));
+		TaskFields taskFields = TaskFields.parse(fields);
+		if(!taskFields.isAll()) {
+			return ResponseEntity.ok().body(ApiMediaTypes.isCompactRequested()
+					? taskService.findAllByUserAuthenticatedCompact(pageable, taskFields)
+					: taskService.findAllByUserAuthenticated(pageable, taskFields));
+		}
+		if(ApiMediaTypes.isCompactRequested()) {
+			return ResponseEntity.ok().body(taskService.findAllByUserAuthenticatedCompact(pageable));
+		}
 		return ResponseEntity.ok().body(taskService.findAllByUserAuthenticated(pageable));
 	}
 	
-	@GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+	@GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, ApiMediaTypes.COMPACT_JSON_VALUE})
 	@Operation(summary = "Perform a customized search", 
-			   description = "User must be authenticated",
+			   description = "User must be authenticated. Archived tasks are only searched with includeArchived=true",
 			   tags = {"Tasks"},
 			   responses = {
 					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskResponse.class)))),
+					   @ApiResponse(description = "Not Modified", responseCode = "304", content = @Content),
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 			   }
 	)
-	public ResponseEntity<PagedModel<EntityModel<TaskResponse>>> customizedSearch(
+	public ResponseEntity<?> customizedSearch(
 			@RequestParam(required = false) String status, 
 			@RequestParam(required = false) String priority, 
 			@RequestParam(required = false) String tagName,
 			@RequestParam(value = "page", defaultValue = "0") Integer page,
-			@RequestParam(value = "size", defaultValue = "5") Integer size
+			@RequestParam(value = "size", defaultValue = "5") Integer size,
+			@RequestParam(required = false) String fields,
+			@RequestParam(defaultValue = "false") boolean includeArchived,
+			WebRequest request
 			){
+		if(request.checkNotModified(taskService.collectionETag())) return null;
+		
 		Pageable pageable = PageRequest.of(page, size, Sort.by(Direction.ASC, "id"));
-		return ResponseEntity.ok().body(taskService.customizedSearch(status, priority, tagName, pageable));
+		TaskFields taskFields = TaskFields.parse(fields);
+		if(!taskFields.isAll()) {
+			return ResponseEntity.ok().body(ApiMediaTypes.isCompactRequested()
+					? taskService.customizedSearchCompact(status, priority, tagName, pageable, taskFields, includeArchived)
+					: taskService.customizedSearch(status, priority, tagName, pageable, taskFields, includeArchived));
+		}
+		if(ApiMediaTypes.isCompactRequested()) {
+			return ResponseEntity.ok().body(taskService.customizedSearchCompact(status, priority, tagName, pageable, includeArchived));
+		}
+		return ResponseEntity.ok().body(taskService.customizedSearch(status, priority, tagName, pageable, includeArchived));
+	}
+	
+	@GetMapping(value = "/{taskId}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Find the change history of a task", 
+			   description = "User must be authenticated and task must belongs the user. Newest changes come first, "
+			   		+ "changes of the last second may not be listed yet",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskHistoryResponse.class)))),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<CompactPage<TaskHistoryResponse>> findHistory(@PathVariable Long taskId,
+			@RequestParam(value = "page", defaultValue = "0") Integer page,
+			@RequestParam(value = "size", defaultValue = "20") Integer size){
+		return ResponseEntity.ok().body(taskService.findHistory(taskId, PageRequest.of(page, size)));
+	}
+	
+	@GetMapping(value = "/export")
+	@Operation(summary = "Export all tasks of the user", 
+			   description = "User must be authenticated. Streams every task with its tags and subtasks, as one JSON object "
+			   		+ "per line (format=ndjson) or as CSV with the subtasks as a JSON array (format=csv)",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "OK", responseCode = "200", content = @Content),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<StreamingResponseBody> export(@RequestParam(value = "format", defaultValue = "ndjson") ExportFormat format){
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format.getExtension() + "\"")
+				.body(taskService.export(format));
+	}
+	
+	@PostMapping(value = "/import", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Import tasks from a file", 
+			   description = "User must be authenticated. The request body is the file, in the format of the export (format=ndjson "
+			   		+ "or format=csv). It is imported by a background job, invalid records are skipped and listed in its result",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "Accepted", responseCode = "202", content = @Content(schema = @Schema(implementation = JobResponse.class))),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<JobResponse> importTasks(@RequestParam(value = "format", defaultValue = "ndjson") ExportFormat format,
+			HttpServletRequest request) throws IOException {
+		return ResponseEntity.accepted().body(taskService.importTasks(format, request.getInputStream()));
 	}
 	
 	@PostMapping(produces =MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -113,6 +218,63 @@ public class TaskController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(taskService.create(taskRequest));
 	}
 	
+	@PostMapping(value = "/batch", produces =MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Create many tasks at once", 
+			   description = "User must be authenticated. Up to " + TaskBatchRequest.MAX_TASKS + " tasks are created in one transaction, "
+			   		+ "either all of them or none",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "Created", responseCode = "201", content = @Content(array = @ArraySchema(schema = @Schema(implementation = TaskResponse.class)))),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<List<TaskResponse>> createAll(@Valid @RequestBody TaskBatchRequest batchRequest){
+		return ResponseEntity.status(HttpStatus.CREATED).body(taskService.createAll(batchRequest));
+	}
+	
+	@PatchMapping(produces =MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Update all tasks matching a filter", 
+			   description = "User must be authenticated. Accepts the filters of the customized search and/or up to " 
+			   		+ TaskService.MAX_BULK_IDS + " ids, at least one of them is required. Only the given values are changed",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = BulkResponse.class))),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<BulkResponse> updateAll(
+			@RequestParam(required = false) String status, 
+			@RequestParam(required = false) String priority, 
+			@RequestParam(required = false) String tagName,
+			@RequestParam(required = false) List<Long> ids,
+			@Valid @RequestBody TaskBulkUpdateRequest request){
+		return ResponseEntity.ok().body(taskService.updateAll(status, priority, tagName, ids, request));
+	}
+	
+	@DeleteMapping
+	@Operation(summary = "Delete all tasks matching a filter", 
+			   description = "User must be authenticated. Accepts the filters of the customized search and/or up to " 
+			   		+ TaskService.MAX_BULK_IDS + " ids, at least one of them is required",
+			   tags = {"Tasks"},
+			   responses = {
+					   @ApiResponse(description = "OK", responseCode = "200", content = @Content(schema = @Schema(implementation = BulkResponse.class))),
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }
+	)
+	public ResponseEntity<BulkResponse> deleteAll(
+			@RequestParam(required = false) String status, 
+			@RequestParam(required = false) String priority, 
+			@RequestParam(required = false) String tagName,
+			@RequestParam(required = false) List<Long> ids){
+		return ResponseEntity.ok().body(taskService.deleteAll(status, priority, tagName, ids));
+	}
+	
 	@PatchMapping(value = "/{taskId}", produces =MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
 	@Operation(summary = "Update a task", 
 			   description = "User must be authenticated and task must belongs the user",
@@ -122,11 +284,15 @@ public class TaskController {
 					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
 					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+					   @ApiResponse(description = "Conflict", responseCode = "409", content = @Content),
+					   @ApiResponse(description = "Precondition Failed", responseCode = "412", content = @Content),
 					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
 			   }
 	)
-	public ResponseEntity<TaskResponse> partialUpdate(@PathVariable Long taskId, @Valid @RequestBody TaskUpdateRequest taskRequest){
-		return ResponseEntity.ok().body(taskService.partialUpdate(taskId, taskRequest));
+	public ResponseEntity<TaskResponse> partialUpdate(@PathVariable Long taskId, @Valid @RequestBody TaskUpdateRequest taskRequest,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		TaskResponse taskResponse = taskService.partialUpdate(taskId, taskRequest, ifMatch);
+		return ResponseEntity.ok().eTag(ETags.of(taskResponse.getId(), taskResponse.getVersion())).body(taskResponse);
 	}
 	
 	@DeleteMapping("/{taskId}")
@@ -1,20 +1,28 @@
 package br.com.controllers;
 
+import java.io.IOException;
+import java.util.Optional;
+
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.dtos.JobResponse;
 import br.com.dtos.UserResponse;
 import br.com.dtos.UserUpdateRequest;
 import br.com.services.UserService;
@@ -24,6 +32,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -74,6 +83,61 @@ public class UserController {
 		return ResponseEntity.ok().body(userService.findById(id));
 	}
 	
+	@GetMapping(value = "/{id}/backup")
+	@Operation(summary = "Back up a user with all their data",
+			   description = "Only admins can access this endpoint. Streams a compressed binary snapshot of the account, "
+			   		+ "its tags, tasks and subtasks",
+			   tags = {"Users"},
+			   responses = {
+					   @ApiResponse(description = "OK", responseCode = "200", content = @Content), 
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }		   
+	)
+	public ResponseEntity<StreamingResponseBody> backup(@PathVariable Long id){
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"user-" + id + ".tbak\"")
+				.body(userService.backup(id));
+	}
+	
+	@PostMapping(value = "/restore", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Restore a user from a backup",
+			   description = "Only admins can access this endpoint. The request body is the backup, which is restored as a new "
+			   		+ "account, under the given username or the one in the backup",
+			   tags = {"Users"},
+			   responses = {
+					   @ApiResponse(description = "Created", responseCode = "201", content = @Content(schema = @Schema(implementation = UserResponse.class))), 
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }		   
+	)
+	public ResponseEntity<UserResponse> restore(@RequestParam(value = "username", required = false) String username,
+			HttpServletRequest request) throws IOException {
+		return ResponseEntity.status(HttpStatus.CREATED).body(userService.restore(request.getInputStream(), username));
+	}
+	
+	@PostMapping(value = "/{id}/shard", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Move a user to another shard",
+			   description = "Only admins can access this endpoint. The user and all their data are moved by a background job, "
+			   		+ "followed at /api/jobs/{jobId}. Requests of the user are answered with 503 while it runs",
+			   tags = {"Users"},
+			   responses = {
+					   @ApiResponse(description = "Accepted", responseCode = "202", content = @Content(schema = @Schema(implementation = JobResponse.class))), 
+					   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
+					   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+					   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+					   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+			   }		   
+	)
+	public ResponseEntity<JobResponse> moveToShard(@PathVariable Long id, @RequestParam(value = "target") Integer target){
+		return ResponseEntity.accepted().body(userService.moveToShard(id, target));
+	}
+	
 	@PatchMapping(value = "/update", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
 	@Operation(summary = "Update username and/or password",
 	   		   description = "An authenticated user can update your login credentials",
@@ -89,36 +153,41 @@ public class UserController {
 		return ResponseEntity.ok().body(userService.partialUpdate(dto));
 	}
 	
-	@DeleteMapping("/{userId}")
+	@DeleteMapping(value = "/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
 	@Operation(summary = "Delete user by id",
-	   description = "Only admins can access this endpoint. Admins account can not be deleted",
+	   description = "Only admins can access this endpoint. Admins account can not be deleted. Large accounts are deleted by a background job, followed at /api/jobs/{jobId}",
 	   tags = {"Users"},
 	   responses = {
 			   @ApiResponse(description = "No Content", responseCode = "204", content = @Content),  
+			   @ApiResponse(description = "Accepted", responseCode = "202", content = @Content(schema = @Schema(implementation = JobResponse.class))),  
 			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
 			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 			   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
 			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	  	  
 	   }		   
 )
-	public ResponseEntity<Void> deleteById(@PathVariable Long userId){
-		userService.deleteById(userId);
-		return ResponseEntity.noContent().build();
+	public ResponseEntity<JobResponse> deleteById(@PathVariable Long userId){
+		return deletion(userService.deleteById(userId));
 	}
 	
-	@DeleteMapping("/delete/account")
+	@DeleteMapping(value = "/delete/account", produces = MediaType.APPLICATION_JSON_VALUE)
 	@Operation(summary = "Delete user account",
-	   description = "User can delete your own account. Admins account can not be deleted",
+	   description = "User can delete your own account. Admins account can not be deleted. Large accounts are deleted by a background job, followed at /api/jobs/{jobId}",
 	   tags = {"Users"},
 	   responses = {
 			   @ApiResponse(description = "No Content", responseCode = "204", content = @Content),  
+			   @ApiResponse(description = "Accepted", responseCode = "202", content = @Content(schema = @Schema(implementation = JobResponse.class))),  
 			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content), 
 			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
 			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	  	  
 	   }		   
 )
-	public ResponseEntity<Void> deleteMyAccount(){
-		userService.deleteMyAccount();
-		return ResponseEntity.noContent().build();
+	public ResponseEntity<JobResponse> deleteMyAccount(){
+		return deletion(userService.deleteMyAccount());
+	}
+	
+	private static ResponseEntity<JobResponse> deletion(Optional<JobResponse> job) {
+		if(job.isEmpty()) return ResponseEntity.noContent().build();
+		return ResponseEntity.accepted().body(job.get());
 	}
 }
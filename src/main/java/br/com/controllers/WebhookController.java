@@ -0,0 +1,85 @@
+package br.com.controllers;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.dtos.WebhookRequest;
+import br.com.dtos.WebhookResponse;
+import br.com.services.WebhookService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+
+@RestController
+@RequestMapping(value = "/api/webhooks")
+@Tag(name = "Webhooks", description = "Endpoints for webhook management")
+public class WebhookController {
+	
+	private final WebhookService webhookService;
+	
+	public WebhookController(WebhookService webhookService) {
+		this.webhookService = webhookService;
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Find all webhooks by user authenticated", 
+	   description = "User must be authenticated",
+	   tags = {"Webhooks"},
+	   responses = {
+			   @ApiResponse(description = "OK", responseCode = "200", 
+					   content = @Content(array = @ArraySchema(schema = @Schema(implementation = WebhookResponse.class)))),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<List<WebhookResponse>> findAllByUserAuthenticated(){
+		return ResponseEntity.ok().body(webhookService.findAllByUserAuthenticated());
+	}
+	
+	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Register a webhook", 
+	   description = "User must be authenticated. The url receives POSTs with JSON arrays of task, subtask and tag changes, "
+	   		+ "signed in the X-Webhook-Signature header with HMAC-SHA256 of the body keyed by the returned secret.",
+	   tags = {"Webhooks"},
+	   responses = {
+			   @ApiResponse(description = "Created", responseCode = "201", 
+					   content = @Content(schema = @Schema(implementation = WebhookResponse.class))),
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<WebhookResponse> create(@Valid @RequestBody WebhookRequest request){
+		return ResponseEntity.created(null).body(webhookService.create(request));
+	}
+	
+	@DeleteMapping(value = "/{webhookId}")
+	@Operation(summary = "Delete a webhook", 
+	   description = "User must be authenticated and the webhook must belong to the user",
+	   tags = {"Webhooks"},
+	   responses = {
+			   @ApiResponse(description = "No Content", responseCode = "204", content = @Content),
+			   @ApiResponse(description = "Bad Request", responseCode = "400", content = @Content),
+			   @ApiResponse(description = "Unauthorized", responseCode = "401", content = @Content),
+			   @ApiResponse(description = "Forbidden", responseCode = "403", content = @Content),
+			   @ApiResponse(description = "Internal Server Error", responseCode = "500", content = @Content)	
+	   }
+	)
+	public ResponseEntity<Void> delete(@PathVariable Long webhookId){
+		webhookService.delete(webhookId);
+		return ResponseEntity.noContent().build();
+	}
+}
@@ -0,0 +1,25 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+
+public class BulkResponse implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private int affected;
+	
+	public BulkResponse() {
+	}
+
+	public BulkResponse(int affected) {
+		this.affected = affected;
+	}
+
+	public int getAffected() {
+		return affected;
+	}
+
+	public void setAffected(int affected) {
+		this.affected = affected;
+	}
+	
+}
@@ -0,0 +1,69 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+public class CompactPage<T> implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private List<T> content;
+	private PageMetadata page;
+	
+	public CompactPage() {
+	}
+	
+	public CompactPage(List<T> content, PageMetadata page) {
+		this.content = content;
+		this.page = page;
+	}
+	
+	public static <T> CompactPage<T> of(Page<T> page) {
+		return new CompactPage<>(page.getContent(), 
+				new PageMetadata(page.getSize(), page.getNumber(), page.getTotalElements(), page.getTotalPages()));
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public PageMetadata getPage() {
+		return page;
+	}
+	
+	public static class PageMetadata implements Serializable {
+		private static final long serialVersionUID = 1L;
+		
+		private int size;
+		private int number;
+		private long totalElements;
+		private int totalPages;
+		
+		public PageMetadata() {
+		}
+		
+		public PageMetadata(int size, int number, long totalElements, int totalPages) {
+			this.size = size;
+			this.number = number;
+			this.totalElements = totalElements;
+			this.totalPages = totalPages;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public int getNumber() {
+			return number;
+		}
+
+		public long getTotalElements() {
+			return totalElements;
+		}
+
+		public int getTotalPages() {
+			return totalPages;
+		}
+	}
+}
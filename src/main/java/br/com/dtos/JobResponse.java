@@ -0,0 +1,132 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import br.com.enums.JobStatus;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobResponse implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private Long id;
+	private String type;
+	private JobStatus status;
+	private long progress;
+	private Long total;
+	private String result;
+	private String error;
+	private int attempts;
+	private Instant createdAt;
+	private Instant updatedAt;
+	private Instant finishedAt;
+	
+	public JobResponse() {
+	}
+
+	public JobResponse(Long id, String type, JobStatus status, long progress, Long total, String result, String error,
+			int attempts, Instant createdAt, Instant updatedAt, Instant finishedAt) {
+		this.id = id;
+		this.type = type;
+		this.status = status;
+		this.progress = progress;
+		this.total = total;
+		this.result = result;
+		this.error = error;
+		this.attempts = attempts;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+		this.finishedAt = finishedAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public JobStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(JobStatus status) {
+		this.status = status;
+	}
+
+	public long getProgress() {
+		return progress;
+	}
+
+	public void setProgress(long progress) {
+		this.progress = progress;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public void setTotal(Long total) {
+		this.total = total;
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	public void setFinishedAt(Instant finishedAt) {
+		this.finishedAt = finishedAt;
+	}
+	
+}
@@ -0,0 +1,37 @@
+package br.com.dtos;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.springframework.hateoas.server.core.Relation;
+
+
+/**
+ * Task holding only the fields selected by a {@link TaskFields}. Serialized as a plain
+ * JSON object, so fields that were not requested are left out instead of rendered as null.
+ */
+@Relation(itemRelation = "taskResponse", collectionRelation = "taskResponseList")
+public class SparseTaskResponse extends LinkedHashMap<String, Object> {
+	private static final long serialVersionUID = 1L;
+	
+	private final Long id;
+	
+	public SparseTaskResponse(Long id) {
+		this.id = id;
+	}
+	
+	public Long getId() {
+		return id;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void addTag(TagSummary tag) {
+		((List<TagSummary>) computeIfAbsent("tags", key -> new ArrayList<TagSummary>())).add(tag);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public void addSubtask(SubtaskSummary subtask) {
+		((List<SubtaskSummary>) computeIfAbsent("subtasks", key -> new ArrayList<SubtaskSummary>())).add(subtask);
+	}
+}
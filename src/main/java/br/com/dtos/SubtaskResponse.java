@@ -6,6 +6,8 @@ import java.util.Objects;
 
 import org.springframework.hateoas.RepresentationModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import br.com.enums.TaskStatus;
 
 public class SubtaskResponse extends RepresentationModel<SubtaskResponse> implements Serializable { 
@@ -17,6 +19,8 @@ public class SubtaskResponse extends RepresentationModel<SubtaskResponse> implem
 	private LocalDate createdDate;
 	private LocalDate dueDate;
 	private TaskStatus status;
+	@JsonIgnore
+	private Long version;
 	
 	public SubtaskResponse() {
 	}
@@ -31,6 +35,14 @@ public class SubtaskResponse extends RepresentationModel<SubtaskResponse> implem
 		this.status = status;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Long getId() {
 		return id;
 	}
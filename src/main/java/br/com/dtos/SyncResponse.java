@@ -0,0 +1,64 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of the delta sync. Tasks carry their subtasks and tags, so a changed subtask is
+ * delivered through its parent task. Pass {@code watermark} back to get the next page, or later
+ * on to get what changed since; {@code hasMore} tells whether another page is ready right away.
+ */
+public class SyncResponse implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private List<TaskResponse> tasks = new ArrayList<>();
+	private List<TagDto> tags = new ArrayList<>();
+	private List<TombstoneDto> deleted = new ArrayList<>();
+	private String watermark;
+	private boolean hasMore;
+	
+	public SyncResponse() {
+	}
+
+	public List<TaskResponse> getTasks() {
+		return tasks;
+	}
+
+	public void setTasks(List<TaskResponse> tasks) {
+		this.tasks = tasks;
+	}
+
+	public List<TagDto> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<TagDto> tags) {
+		this.tags = tags;
+	}
+
+	public List<TombstoneDto> getDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(List<TombstoneDto> deleted) {
+		this.deleted = deleted;
+	}
+
+	public String getWatermark() {
+		return watermark;
+	}
+
+	public void setWatermark(String watermark) {
+		this.watermark = watermark;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+	
+}
@@ -4,6 +4,8 @@ import java.io.Serializable;
 
 import org.springframework.hateoas.RepresentationModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.validation.constraints.NotBlank;
 
 public class TagDto extends RepresentationModel<TagDto> implements Serializable{
@@ -13,6 +15,9 @@ public class TagDto extends RepresentationModel<TagDto> implements Serializable{
 	@NotBlank(message = "Tag name can not be blank")
 	private String name;
 	
+	@JsonIgnore
+	private Long version;
+	
 	public TagDto() {
 	}
 
@@ -25,6 +30,14 @@ public class TagDto extends RepresentationModel<TagDto> implements Serializable{
 		this.name = tagName;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -0,0 +1,55 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Tag as nested inside a {@link TaskResponse}.
+ */
+public class TagSummary implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private Long id;
+	private String name;
+	
+	public TagSummary() {
+	}
+
+	public TagSummary(Long id, String name) {
+		this.id = id;
+		this.name = name;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, name);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		TagSummary other = (TagSummary) obj;
+		return Objects.equals(id, other.id) && Objects.equals(name, other.name);
+	}
+}
@@ -0,0 +1,35 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+public class TaskBatchRequest implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	public static final int MAX_TASKS = 1000;
+	
+	@NotEmpty
+	@Size(max = MAX_TASKS, message = "A batch cannot have more than " + MAX_TASKS + " tasks")
+	private List<@Valid TaskCreateRequest> tasks = new ArrayList<>();
+	
+	public TaskBatchRequest() {
+	}
+
+	public TaskBatchRequest(List<TaskCreateRequest> tasks) {
+		this.tasks = tasks;
+	}
+
+	public List<TaskCreateRequest> getTasks() {
+		return tasks;
+	}
+
+	public void setTasks(List<TaskCreateRequest> tasks) {
+		this.tasks = tasks;
+	}
+	
+}
@@ -0,0 +1,52 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import jakarta.validation.constraints.Future;
+
+public class TaskBulkUpdateRequest implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private TaskStatus status;
+	private TaskPriority priority;
+	@Future(message = "The date must be in the future")
+	private LocalDate dueDate;
+	
+	public TaskBulkUpdateRequest() {
+	}
+
+	public TaskBulkUpdateRequest(TaskStatus status, TaskPriority priority,
+			@Future(message = "The date must be in the future") LocalDate dueDate) {
+		this.status = status;
+		this.priority = priority;
+		this.dueDate = dueDate;
+	}
+
+	public TaskStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(TaskStatus status) {
+		this.status = status;
+	}
+
+	public TaskPriority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(TaskPriority priority) {
+		this.priority = priority;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public void setDueDate(@Future(message = "The date must be in the future") LocalDate dueDate) {
+		this.dueDate = dueDate;
+	}
+	
+}
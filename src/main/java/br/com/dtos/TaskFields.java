@@ -0,0 +1,61 @@
+package br.com.dtos;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import br.com.exceptions.BadRequestException;
+
+/**
+ * Fields of a task requested through the {@code fields} query parameter, kept in the
+ * order they appear in {@link TaskResponse}.
+ */
+public final class TaskFields {
+	
+	private static final List<String> SUPPORTED = List.of(
+			"id", "title", "description", "status", "priority", "createdDate", "dueDate", "tags", "subtasks");
+	private static final Set<String> COLUMNS = Set.of(
+			"title", "description", "status", "priority", "createdDate", "dueDate");
+	
+	public static final TaskFields ALL = new TaskFields(SUPPORTED);
+	
+	private final List<String> names;
+	
+	private TaskFields(List<String> names) {
+		this.names = names;
+	}
+	
+	public static TaskFields parse(String fields) {
+		if(fields == null || fields.isBlank()) return ALL;
+		
+		Set<String> requested = new HashSet<>();
+		for (String field : fields.split(",")) {
+			String name = field.trim();
+			if(name.isEmpty()) continue;
+			if(!SUPPORTED.contains(name)) throw new BadRequestException("Unknown field: " + name);
+			requested.add(name);
+		}
+		if(requested.isEmpty()) return ALL;
+		
+		return new TaskFields(SUPPORTED.stream().filter(requested::contains).toList());
+	}
+	
+	public boolean isAll() {
+		return names.size() == SUPPORTED.size();
+	}
+	
+	public boolean includes(String name) {
+		return names.contains(name);
+	}
+	
+	public List<String> names() {
+		return names;
+	}
+	
+	/**
+	 * Requested fields stored as columns of the tasks table, besides the id.
+	 */
+	public List<String> columns() {
+		return names.stream().filter(COLUMNS::contains).toList();
+	}
+}
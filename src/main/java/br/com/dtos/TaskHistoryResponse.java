@@ -0,0 +1,78 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import br.com.enums.SyncEntityType;
+
+public class TaskHistoryResponse implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private SyncEntityType type;
+	private Long id;
+	private String field;
+	private String oldValue;
+	private String newValue;
+	private Instant changedAt;
+	
+	public TaskHistoryResponse() {
+	}
+
+	public TaskHistoryResponse(SyncEntityType type, Long id, String field, String oldValue, String newValue, Instant changedAt) {
+		this.type = type;
+		this.id = id;
+		this.field = field;
+		this.oldValue = oldValue;
+		this.newValue = newValue;
+		this.changedAt = changedAt;
+	}
+
+	public SyncEntityType getType() {
+		return type;
+	}
+
+	public void setType(SyncEntityType type) {
+		this.type = type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getField() {
+		return field;
+	}
+
+	public void setField(String field) {
+		this.field = field;
+	}
+
+	public String getOldValue() {
+		return oldValue;
+	}
+
+	public void setOldValue(String oldValue) {
+		this.oldValue = oldValue;
+	}
+
+	public String getNewValue() {
+		return newValue;
+	}
+
+	public void setNewValue(String newValue) {
+		this.newValue = newValue;
+	}
+
+	public Instant getChangedAt() {
+		return changedAt;
+	}
+
+	public void setChangedAt(Instant changedAt) {
+		this.changedAt = changedAt;
+	}
+	
+}
@@ -0,0 +1,35 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class TaskIdsRequest implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	public static final int MAX_IDS = 1000;
+	
+	@NotEmpty
+	@Size(max = MAX_IDS, message = "Cannot provide more than " + MAX_IDS + " ids")
+	private List<@NotNull Long> taskIds = new ArrayList<>();
+	
+	public TaskIdsRequest() {
+	}
+
+	public TaskIdsRequest(List<Long> taskIds) {
+		this.taskIds = taskIds;
+	}
+
+	public List<Long> getTaskIds() {
+		return taskIds;
+	}
+
+	public void setTaskIds(List<Long> taskIds) {
+		this.taskIds = taskIds;
+	}
+	
+}
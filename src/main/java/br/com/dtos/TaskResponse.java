@@ -3,16 +3,14 @@ package br.com.dtos;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.springframework.hateoas.RepresentationModel;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import br.com.enums.TaskPriority;
 import br.com.enums.TaskStatus;
-import br.com.models.Subtask;
-import br.com.models.Tag;
 
 public class TaskResponse extends RepresentationModel<TaskResponse> implements Serializable {
 	private static final long serialVersionUID = 1L;
@@ -24,8 +22,11 @@ public class TaskResponse extends RepresentationModel<TaskResponse> implements S
 	private TaskPriority priority;
 	private LocalDate createdDate;
 	private LocalDate dueDate;
-	private Set<Tag> tags = new HashSet<>();
-	private List<Subtask> subtasks = new ArrayList<>();
+	private List<TagSummary> tags = new ArrayList<>();
+	private List<SubtaskSummary> subtasks = new ArrayList<>();
+	/** Task version combined with the versions of its tags and subtasks. */
+	@JsonIgnore
+	private Long version;
 	
 	public TaskResponse() {
 	}
@@ -41,6 +42,14 @@ public class TaskResponse extends RepresentationModel<TaskResponse> implements S
 		this.dueDate = dueDate;
 	}
 	
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Long getId() {
 		return id;
 	}
@@ -97,35 +106,35 @@ public class TaskResponse extends RepresentationModel<TaskResponse> implements S
 		this.dueDate = dueDate;
 	}
 
-	public Set<Tag> getTags() {
+	public List<TagSummary> getTags() {
 		return tags;
 	}
 	
-	public void setTags(Set<Tag> tags) {
+	public void setTags(List<TagSummary> tags) {
 		this.tags = tags;
 	}
 
-	public void addTag(Tag tag) {
+	public void addTag(TagSummary tag) {
 		tags.add(tag);
 	}
 	
-	public void removeTag(Tag tag) {
+	public void removeTag(TagSummary tag) {
 		tags.remove(tag);
 	}
 
-	public List<Subtask> getSubtasks() {
+	public List<SubtaskSummary> getSubtasks() {
 		return subtasks;
 	}
 
-	public void setSubtasks(List<Subtask> subtasks) {
+	public void setSubtasks(List<SubtaskSummary> subtasks) {
 		this.subtasks = subtasks;
 	}
 
-	public void addSbubtask(Subtask subtask) {
+	public void addSbubtask(SubtaskSummary subtask) {
 		subtasks.add(subtask);
 	}
 	
-	public void removeSubtask(Subtask subtask) {
+	public void removeSubtask(SubtaskSummary subtask) {
 		subtasks.remove(subtask);
 	}
 
@@ -0,0 +1,48 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import br.com.enums.SyncEntityType;
+
+public class TombstoneDto implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	private SyncEntityType type;
+	private Long id;
+	private Instant deletedAt;
+	
+	public TombstoneDto() {
+	}
+
+	public TombstoneDto(SyncEntityType type, Long id, Instant deletedAt) {
+		this.type = type;
+		this.id = id;
+		this.deletedAt = deletedAt;
+	}
+
+	public SyncEntityType getType() {
+		return type;
+	}
+
+	public void setType(SyncEntityType type) {
+		this.type = type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+
+	public void setDeletedAt(Instant deletedAt) {
+		this.deletedAt = deletedAt;
+	}
+	
+}
@@ -0,0 +1,30 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class WebhookRequest implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	@NotBlank(message = "Webhook url can not be blank")
+	@Size(max = 2048, message = "Webhook url cannot exceed 2048 characters")
+	private String url;
+	
+	public WebhookRequest() {
+	}
+
+	public WebhookRequest(String url) {
+		this.url = url;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+	
+}
@@ -0,0 +1,61 @@
+package br.com.dtos;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+public class WebhookResponse implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private Long id;
+	private String url;
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private String secret;
+	private Instant createdAt;
+	
+	public WebhookResponse() {
+	}
+
+	public WebhookResponse(Long id, String url, Instant createdAt) {
+		this.id = id;
+		this.url = url;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	/**
+	 * Key of the {@code X-Webhook-Signature} HMAC, only returned when the webhook is created.
+	 */
+	public String getSecret() {
+		return secret;
+	}
+
+	public void setSecret(String secret) {
+		this.secret = secret;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
+	
+}
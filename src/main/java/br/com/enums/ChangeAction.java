@@ -0,0 +1,8 @@
+package br.com.enums;
+
+public enum ChangeAction {
+	CREATED,
+	UPDATED,
+	DELETED,
+	ARCHIVED
+}
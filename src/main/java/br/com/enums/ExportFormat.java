@@ -0,0 +1,34 @@
+package br.com.enums;
+
+import br.com.exceptions.BadRequestException;
+
+public enum ExportFormat {
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+	
+	private final String mediaType;
+	private final String extension;
+	
+	ExportFormat(String mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	public String getMediaType() {
+		return mediaType;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	/**
+	 * Format named by a request, in any case.
+	 */
+	public static ExportFormat parse(String format) {
+		for (ExportFormat exportFormat : values()) {
+			if (exportFormat.name().equalsIgnoreCase(format)) return exportFormat;
+		}
+		throw new BadRequestException("Format must be ndjson or csv");
+	}
+}
@@ -0,0 +1,8 @@
+package br.com.enums;
+
+public enum JobStatus {
+	QUEUED,
+	RUNNING,
+	SUCCEEDED,
+	FAILED
+}
@@ -0,0 +1,7 @@
+package br.com.enums;
+
+public enum SyncEntityType {
+	TASK,
+	SUBTASK,
+	TAG
+}
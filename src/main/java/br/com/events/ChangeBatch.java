@@ -0,0 +1,21 @@
+package br.com.events;
+
+import java.util.List;
+
+/**
+ * Several {@link ChangeEvent}s made by one bulk request, published as a single application event
+ * so listeners can handle them together, e.g. with one batched insert into the outbox.
+ */
+public class ChangeBatch {
+	
+	private final List<ChangeEvent> changes;
+	
+	public ChangeBatch(List<ChangeEvent> changes) {
+		this.changes = List.copyOf(changes);
+	}
+
+	public List<ChangeEvent> getChanges() {
+		return changes;
+	}
+	
+}
@@ -0,0 +1,72 @@
+package br.com.events;
+
+import java.io.Serializable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import br.com.enums.ChangeAction;
+import br.com.enums.SyncEntityType;
+
+/**
+ * A committed change to a task, subtask or tag of a user. Only identifiers are carried, clients
+ * fetch the new state through the REST endpoints or the delta sync.
+ */
+public class ChangeEvent implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	@JsonIgnore
+	private final Long userId;
+	private final SyncEntityType type;
+	private final ChangeAction action;
+	private final Long id;
+	private final Long taskId;
+	
+	public ChangeEvent(Long userId, SyncEntityType type, ChangeAction action, Long id, Long taskId) {
+		this.userId = userId;
+		this.type = type;
+		this.action = action;
+		this.id = id;
+		this.taskId = taskId;
+	}
+	
+	public static ChangeEvent ofTask(Long userId, ChangeAction action, Long taskId) {
+		return new ChangeEvent(userId, SyncEntityType.TASK, action, taskId, taskId);
+	}
+	
+	public static ChangeEvent ofSubtask(Long userId, ChangeAction action, Long subtaskId, Long taskId) {
+		return new ChangeEvent(userId, SyncEntityType.SUBTASK, action, subtaskId, taskId);
+	}
+	
+	public static ChangeEvent ofTag(Long userId, ChangeAction action, Long tagId) {
+		return new ChangeEvent(userId, SyncEntityType.TAG, action, tagId, null);
+	}
+
+	/**
+	 * SSE event name, e.g. {@code task.updated}.
+	 */
+	@JsonIgnore
+	public String getName() {
+		return type.name().toLowerCase() + "." + action.name().toLowerCase();
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public SyncEntityType getType() {
+		return type;
+	}
+
+	public ChangeAction getAction() {
+		return action;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getTaskId() {
+		return taskId;
+	}
+	
+}
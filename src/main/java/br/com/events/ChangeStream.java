@@ -0,0 +1,193 @@
+package br.com.events;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes {@link ChangeEvent}s to the SSE subscribers of their user.
+ *
+ * Subscriptions are async requests, so an idle subscriber holds a connection but no thread.
+ * Events go into a bounded buffer per subscriber and a small shared pool writes them out; the
+ * thread that committed the change never writes to a socket. A subscriber whose buffer fills
+ * up is too slow to keep up and is disconnected, it can reconnect and catch up through the
+ * delta sync.
+ */
+@Component
+public class ChangeStream {
+
+	private static final ChangeEvent HEARTBEAT = new ChangeEvent(null, null, null, null, null);
+
+	private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final Executor dispatcher;
+	private final ExecutorService ownedDispatcher;
+	private final int bufferSize;
+	private final Duration timeout;
+
+	@Autowired
+	public ChangeStream(@Value("${api.events.dispatch-threads:4}") int dispatchThreads,
+			@Value("${api.events.buffer-size:256}") int bufferSize,
+			@Value("${api.events.timeout:30m}") Duration timeout) {
+		this.ownedDispatcher = Executors.newFixedThreadPool(dispatchThreads, new DispatchThreadFactory());
+		this.dispatcher = ownedDispatcher;
+		this.bufferSize = bufferSize;
+		this.timeout = timeout;
+	}
+
+	ChangeStream(Executor dispatcher, int bufferSize, Duration timeout) {
+		this.ownedDispatcher = null;
+		this.dispatcher = dispatcher;
+		this.bufferSize = bufferSize;
+		this.timeout = timeout;
+	}
+
+	public SseEmitter subscribe(Long userId) {
+		SseEmitter emitter = new SseEmitter(timeout.toMillis());
+		Subscriber subscriber = new Subscriber(userId, emitter, bufferSize);
+		subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+		return emitter;
+	}
+
+	/**
+	 * Runs once the publishing transaction commits, or right away when there is none.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onChange(ChangeEvent event) {
+		Set<Subscriber> userSubscribers = subscribers.get(event.getUserId());
+		if(userSubscribers == null) return;
+
+		for(Subscriber subscriber : userSubscribers) {
+			offer(subscriber, event);
+		}
+	}
+	
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onChanges(ChangeBatch batch) {
+		batch.getChanges().forEach(this::onChange);
+	}
+
+	/**
+	 * A comment line every interval keeps proxies from closing idle streams and lets the
+	 * container notice clients that went away.
+	 */
+	@Scheduled(fixedDelayString = "${api.events.heartbeat-interval:PT30S}")
+	public void heartbeat() {
+		for(Set<Subscriber> userSubscribers : subscribers.values()) {
+			for(Subscriber subscriber : userSubscribers) {
+				offer(subscriber, HEARTBEAT);
+			}
+		}
+	}
+
+	int subscriberCount(Long userId) {
+		Set<Subscriber> userSubscribers = subscribers.get(userId);
+		return userSubscribers == null ? 0 : userSubscribers.size();
+	}
+
+	private void offer(Subscriber subscriber, ChangeEvent event) {
+		if(subscriber.buffer.offer(event)) {
+			if(subscriber.scheduled.compareAndSet(false, true)) dispatcher.execute(() -> drain(subscriber));
+		}
+		else {
+			evict(subscriber);
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		try {
+			ChangeEvent event;
+			while(!subscriber.closed.get() && (event = subscriber.buffer.poll()) != null) {
+				subscriber.emitter.send(event == HEARTBEAT
+						? SseEmitter.event().comment("ping")
+						: SseEmitter.event().name(event.getName()).data(event));
+			}
+		}
+		catch(IOException | IllegalStateException e) {
+			evict(subscriber);
+			return;
+		}
+		finally {
+			subscriber.scheduled.set(false);
+		}
+		if(!subscriber.buffer.isEmpty() && !subscriber.closed.get() && subscriber.scheduled.compareAndSet(false, true)) {
+			dispatcher.execute(() -> drain(subscriber));
+		}
+	}
+
+	/**
+	 * Completing an emitter can wait on a write in progress, so it is left to the dispatcher.
+	 */
+	private void evict(Subscriber subscriber) {
+		if(!subscriber.closed.compareAndSet(false, true)) return;
+		remove(subscriber);
+		subscriber.buffer.clear();
+		dispatcher.execute(subscriber.emitter::complete);
+	}
+
+	private void remove(Subscriber subscriber) {
+		subscriber.closed.set(true);
+		subscribers.computeIfPresent(subscriber.userId, (id, userSubscribers) -> {
+			userSubscribers.remove(subscriber);
+			return userSubscribers.isEmpty() ? null : userSubscribers;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for(Set<Subscriber> userSubscribers : subscribers.values()) {
+			for(Subscriber subscriber : userSubscribers) {
+				subscriber.emitter.complete();
+			}
+		}
+		subscribers.clear();
+		if(ownedDispatcher != null) ownedDispatcher.shutdownNow();
+	}
+
+	private static final class Subscriber {
+		final Long userId;
+		final SseEmitter emitter;
+		final BlockingQueue<ChangeEvent> buffer;
+		final AtomicBoolean scheduled = new AtomicBoolean();
+		final AtomicBoolean closed = new AtomicBoolean();
+
+		Subscriber(Long userId, SseEmitter emitter, int bufferSize) {
+			this.userId = userId;
+			this.emitter = emitter;
+			this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		}
+	}
+
+	private static final class DispatchThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "change-stream-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package br.com.exceptions;
+
+public class AccountMovingException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+
+	public AccountMovingException(String msg) {
+		super(msg);
+	}
+
+}
@@ -0,0 +1,10 @@
+package br.com.exceptions;
+
+public class ResyncRequiredException extends RuntimeException{
+	private static final long serialVersionUID = 1L;
+
+	public ResyncRequiredException(String msg) {
+		super(msg);
+	}
+	
+}
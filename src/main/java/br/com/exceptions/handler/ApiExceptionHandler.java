@@ -4,6 +4,10 @@ import java.time.Instant;
 import java.time.format.DateTimeParseException;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -18,7 +22,10 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import br.com.exceptions.AccountMovingException;
 import br.com.exceptions.BadRequestException;
+import br.com.exceptions.PreconditionFailedException;
+import br.com.exceptions.ResyncRequiredException;
 import br.com.exceptions.StandardError;
 import br.com.exceptions.UserNotAuthenticatedException;
 
@@ -51,12 +58,57 @@ public class ApiExceptionHandler extends ResponseEntityExceptionHandler{
 		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
 	}
 	
+	@ExceptionHandler(PreconditionFailedException.class)
+	public final ResponseEntity<StandardError> handlePreconditionFailedException(PreconditionFailedException ex, WebRequest request){
+		StandardError error = new StandardError(ex.getMessage(),request.getDescription(false), Instant.now());
+		return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+	}
+	
+	@ExceptionHandler(ResyncRequiredException.class)
+	public final ResponseEntity<StandardError> handleResyncRequiredException(ResyncRequiredException ex, WebRequest request){
+		StandardError error = new StandardError(ex.getMessage(),request.getDescription(false), Instant.now());
+		return new ResponseEntity<>(error, HttpStatus.GONE);
+	}
+	
+	@ExceptionHandler(AccountMovingException.class)
+	public final ResponseEntity<StandardError> handleAccountMovingException(AccountMovingException ex, WebRequest request){
+		StandardError error = new StandardError(ex.getMessage(),request.getDescription(false), Instant.now());
+		return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+	}
+	
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public final ResponseEntity<StandardError> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request){
+		StandardError error = new StandardError("The resource was modified by another request, reload it and try again",
+				request.getDescription(false), Instant.now());
+		return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+	}
+	
 	@ExceptionHandler(DateTimeParseException.class)
 	public final ResponseEntity<StandardError> handleDateTimeParseException(DateTimeParseException ex, WebRequest request) {
 		StandardError error = new StandardError("Invalid date format! " + ex.getMessage(), request.getDescription(false), Instant.now());
 		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
 	}
 	
+	@ExceptionHandler(PropertyReferenceException.class)
+	public final ResponseEntity<StandardError> handlePropertyReferenceException(PropertyReferenceException ex, WebRequest request) {
+		StandardError error = new StandardError("Invalid sort property: " + ex.getPropertyName(), request.getDescription(false), Instant.now());
+		return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+	}
+	
+	/**
+	 * Parameters whose converter rejects the value with a {@link BadRequestException} answer with
+	 * its message, like the handler above.
+	 */
+	@Override
+	protected ResponseEntity<Object> handleTypeMismatch(TypeMismatchException ex, HttpHeaders headers, HttpStatusCode status,
+			WebRequest request) {
+		if(NestedExceptionUtils.getMostSpecificCause(ex) instanceof BadRequestException badRequest) {
+			StandardError error = new StandardError(badRequest.getMessage(), request.getDescription(false), Instant.now());
+			return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+		}
+		return super.handleTypeMismatch(ex, headers, status, request);
+	}
+	
 	@Override
 	protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
 			HttpHeaders headers, HttpStatusCode status, WebRequest request) {
@@ -0,0 +1,159 @@
+package br.com.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.enums.ExportFormat;
+
+/**
+ * Streams every task of a user, with its tags and subtasks, from a forward-only result set
+ * straight to the response: only the current row is ever in memory and the tasks are read in one
+ * pass over the primary key, without {@code OFFSET}. Tags and subtasks are aggregated into JSON
+ * by the query itself, since no other statement can run on a connection while it streams.
+ *
+ * Connector/J streams row by row with a fetch size of {@link Integer#MIN_VALUE}, the default of
+ * {@code api.export.fetch-size}. With {@code useCursorFetch=true} in the url, a positive fetch
+ * size reads that many rows per round-trip instead.
+ */
+@Component
+public class TaskExporter {
+
+	static final String[] CSV_HEADER = {"id", "title", "description", "status", "priority", "createdDate", "dueDate", "updatedAt", "tags", "subtasks"};
+
+	private static final String SELECT_TASKS =
+			"SELECT t.id, t.title, t.description, t.status, t.priority, t.created_date, t.due_date, t.updated_at, " +
+			"(SELECT JSON_ARRAYAGG(g.name) FROM task_tags tt JOIN tags g ON g.id = tt.tag_id WHERE tt.task_id = t.id) AS tags, " +
+			"(SELECT JSON_ARRAYAGG(JSON_OBJECT('id', s.id, 'title', s.title, 'description', s.description, " +
+			"'status', CASE s.status WHEN 0 THEN 'UNDONE' WHEN 1 THEN 'DONE' END, " +
+			"'createdDate', s.created_date, 'dueDate', s.due_date)) FROM subtasks s WHERE s.task_id = t.id) AS subtasks " +
+			"FROM tasks t WHERE t.user_id = ? ORDER BY t.id";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final ObjectMapper objectMapper;
+
+	public TaskExporter(DataSource dataSource, ObjectMapper objectMapper,
+			@Value("${api.export.fetch-size:-2147483648}") int fetchSize) {
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Runs outside of any transaction, on a connection of its own that is held until the last
+	 * row is written.
+	 */
+	public void export(Long userId, ExportFormat format, OutputStream out) throws IOException {
+		try {
+			switch(format) {
+				case NDJSON -> exportNdjson(userId, out);
+				case CSV -> exportCsv(userId, out);
+			}
+		}
+		catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private void exportNdjson(Long userId, OutputStream out) throws IOException {
+		JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+
+		query(userId, rs -> {
+			generator.writeStartObject();
+			generator.writeNumberField("id", rs.getLong("id"));
+			generator.writeStringField("title", rs.getString("title"));
+			generator.writeStringField("description", rs.getString("description"));
+			generator.writeStringField("status", rs.getString("status"));
+			generator.writeStringField("priority", rs.getString("priority"));
+			generator.writeStringField("createdDate", rs.getString("created_date"));
+			generator.writeStringField("dueDate", rs.getString("due_date"));
+			generator.writeStringField("updatedAt", instant(rs.getTimestamp("updated_at")));
+			generator.writeFieldName("tags");
+			generator.writeRawValue(jsonArray(rs.getString("tags")));
+			generator.writeFieldName("subtasks");
+			generator.writeRawValue(jsonArray(rs.getString("subtasks")));
+			generator.writeEndObject();
+		});
+		generator.writeRaw('\n');
+		generator.flush();
+	}
+
+	private void exportCsv(Long userId, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeCsvRow(writer, CSV_HEADER);
+
+		query(userId, rs -> {
+			String[] tags = rs.getString("tags") != null ? objectMapper.readValue(rs.getString("tags"), String[].class) : new String[0];
+			writeCsvRow(writer,
+					rs.getString("id"),
+					rs.getString("title"),
+					rs.getString("description"),
+					rs.getString("status"),
+					rs.getString("priority"),
+					rs.getString("created_date"),
+					rs.getString("due_date"),
+					instant(rs.getTimestamp("updated_at")),
+					String.join(";", tags),
+					jsonArray(rs.getString("subtasks")));
+		});
+		writer.flush();
+	}
+
+	private void query(Long userId, RowWriter rowWriter) {
+		jdbcTemplate.query(SELECT_TASKS, (RowCallbackHandler) rs -> {
+			try {
+				rowWriter.write(rs);
+			}
+			catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, userId);
+	}
+
+	private static String instant(Timestamp timestamp) {
+		return timestamp != null ? timestamp.toInstant().toString() : null;
+	}
+
+	private static String jsonArray(String json) {
+		return json != null ? json : "[]";
+	}
+
+	static void writeCsvRow(Writer writer, String... values) throws IOException {
+		for(int i = 0; i < values.length; i++) {
+			if(i > 0) writer.write(',');
+			writer.write(csvValue(values[i]));
+		}
+		writer.write("\r\n");
+	}
+
+	static String csvValue(String value) {
+		if(value == null) return "";
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	@FunctionalInterface
+	private interface RowWriter {
+		void write(ResultSet rs) throws SQLException, IOException;
+	}
+}
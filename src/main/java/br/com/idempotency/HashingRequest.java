@@ -0,0 +1,101 @@
+package br.com.idempotency;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Hashes the URI and the body of the request as the body streams through, so uploads of any
+ * size are identified without being held in memory.
+ */
+class HashingRequest extends HttpServletRequestWrapper {
+	
+	private final MessageDigest digest;
+	private ServletInputStream input;
+	private BufferedReader reader;
+
+	HashingRequest(HttpServletRequest request) {
+		super(request);
+		try {
+			this.digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch(NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+	
+	/**
+	 * Reads what is left of the body, as the hash covers all of it, and returns the hash.
+	 */
+	byte[] hash() throws IOException {
+		ServletInputStream remaining = getInputStream();
+		byte[] buffer = new byte[8192];
+		while(remaining.read(buffer) != -1);
+		return digest.digest();
+	}
+
+	@Override
+	public ServletInputStream getInputStream() throws IOException {
+		if(input == null) input = new HashingInputStream(super.getInputStream());
+		return input;
+	}
+	
+	@Override
+	public BufferedReader getReader() throws IOException {
+		if(reader == null) {
+			String encoding = getCharacterEncoding();
+			Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+			reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+		}
+		return reader;
+	}
+	
+	private final class HashingInputStream extends ServletInputStream {
+		
+		private final ServletInputStream delegate;
+		
+		HashingInputStream(ServletInputStream delegate) {
+			this.delegate = delegate;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			int b = delegate.read();
+			if(b != -1) digest.update((byte) b);
+			return b;
+		}
+		
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			int read = delegate.read(buffer, offset, length);
+			if(read > 0) digest.update(buffer, offset, read);
+			return read;
+		}
+		
+		@Override
+		public boolean isFinished() {
+			return delegate.isFinished();
+		}
+		
+		@Override
+		public boolean isReady() {
+			return delegate.isReady();
+		}
+		
+		@Override
+		public void setReadListener(ReadListener listener) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
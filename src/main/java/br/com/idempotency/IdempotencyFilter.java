@@ -0,0 +1,129 @@
+package br.com.idempotency;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.exceptions.StandardError;
+import br.com.models.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Makes POST requests carrying an {@value #HEADER} header safe to retry. The first request runs
+ * normally and its response is stored, with its {@code ETag} and {@code Location} headers; a
+ * retry with the same key and body gets that response back, marked with {@value #REPLAYED_HEADER},
+ * without running the controller again. Keys are scoped to the authenticated user.
+ *
+ * Bodies are hashed as they stream through, never held in memory, so the hash of the first
+ * request is stored once it completes and a retry reads its body only when there is a stored
+ * response to compare it with.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+	
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	private static final int MAX_KEY_LENGTH = 64;
+	
+	private final IdempotencyStore store;
+	private final ObjectMapper objectMapper;
+	
+	public IdempotencyFilter(IdempotencyStore store, ObjectMapper objectMapper) {
+		this.store = store;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if(authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		String key = request.getHeader(HEADER);
+		if(key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+			writeError(request, response, HttpStatus.BAD_REQUEST, HEADER + " must have between 1 and " + MAX_KEY_LENGTH + " characters");
+			return;
+		}
+		
+		HashingRequest hashingRequest = new HashingRequest(request);
+		Optional<IdempotencyRecord> existing = store.find(user.getId(), key);
+		if(existing.isEmpty() && store.claim(user.getId(), key)) {
+			execute(hashingRequest, response, filterChain, user.getId(), key);
+			return;
+		}
+		
+		IdempotencyRecord record = existing.or(() -> store.find(user.getId(), key)).orElse(null);
+		if(record == null || record.isInProgress()) {
+			writeError(request, response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still being processed");
+			return;
+		}
+		if(!record.matches(hashingRequest.hash())) {
+			writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+			return;
+		}
+		replay(record, response);
+	}
+	
+	private void execute(HashingRequest request, HttpServletResponse response, FilterChain filterChain,
+			Long userId, String key) throws ServletException, IOException {
+		
+		ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+		boolean completed = false;
+		try {
+			filterChain.doFilter(request, responseWrapper);
+			// Server errors are not stored, so the client can retry them with the same key
+			if(responseWrapper.getStatus() < 500) {
+				store.complete(userId, key, request.hash(), responseWrapper.getStatus(), responseWrapper.getContentType(),
+						responseWrapper.getHeader(HttpHeaders.ETAG), responseWrapper.getHeader(HttpHeaders.LOCATION),
+						responseWrapper.getContentAsByteArray());
+				completed = true;
+			}
+		}
+		finally {
+			if(!completed) store.release(userId, key);
+			responseWrapper.copyBodyToResponse();
+		}
+	}
+	
+	private static void replay(IdempotencyRecord record, HttpServletResponse response) throws IOException {
+		response.setStatus(record.getStatus());
+		response.setHeader(REPLAYED_HEADER, "true");
+		if(record.getContentType() != null) response.setContentType(record.getContentType());
+		if(record.getEtag() != null) response.setHeader(HttpHeaders.ETAG, record.getEtag());
+		if(record.getLocation() != null) response.setHeader(HttpHeaders.LOCATION, record.getLocation());
+		if(record.getBody() != null) {
+			response.setContentLength(record.getBody().length);
+			response.getOutputStream().write(record.getBody());
+		}
+	}
+	
+	private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message) throws IOException {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.setStatus(status.value());
+		objectMapper.writeValue(response.getWriter(), new StandardError(message, "uri=" + request.getRequestURI(), Instant.now()));
+	}
+}
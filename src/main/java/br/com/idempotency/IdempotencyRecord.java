@@ -0,0 +1,74 @@
+package br.com.idempotency;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Outcome of a request sent with an Idempotency-Key. A status of 0 means the first request
+ * is still running, its request hash is not known yet.
+ */
+public class IdempotencyRecord {
+	
+	static final int IN_PROGRESS = 0;
+	
+	private final byte[] requestHash;
+	private final int status;
+	private final String contentType;
+	private final String etag;
+	private final String location;
+	private final byte[] body;
+	private final Instant createdAt;
+	private final Instant expiresAt;
+	
+	public IdempotencyRecord(byte[] requestHash, int status, String contentType, String etag, String location, byte[] body,
+			Instant createdAt, Instant expiresAt) {
+		this.requestHash = requestHash;
+		this.status = status;
+		this.contentType = contentType;
+		this.etag = etag;
+		this.location = location;
+		this.body = body;
+		this.createdAt = createdAt;
+		this.expiresAt = expiresAt;
+	}
+
+	public boolean isInProgress() {
+		return status == IN_PROGRESS;
+	}
+	
+	public boolean isExpired(Instant now) {
+		return !expiresAt.isAfter(now);
+	}
+	
+	public boolean matches(byte[] otherRequestHash) {
+		return Arrays.equals(requestHash, otherRequestHash);
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	public String getContentType() {
+		return contentType;
+	}
+
+	public String getEtag() {
+		return etag;
+	}
+
+	public String getLocation() {
+		return location;
+	}
+
+	public byte[] getBody() {
+		return body;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+}
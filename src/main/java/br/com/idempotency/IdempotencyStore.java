@@ -0,0 +1,149 @@
+package br.com.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.com.sharding.Shards;
+
+/**
+ * Stores the responses of requests sent with an Idempotency-Key in the {@code idempotency_keys}
+ * table. Completed responses are also kept in a bounded in-memory cache, so a retry burst is
+ * answered without a query.
+ */
+@Component
+public class IdempotencyStore {
+	
+	private static final int CACHE_SIZE = 10_000;
+	private static final int PURGE_BATCH_SIZE = 1_000;
+	/** Held by keys in progress, whose request is hashed as it runs. */
+	private static final byte[] PENDING_HASH = new byte[32];
+	
+	private static final RowMapper<IdempotencyRecord> ROW_MAPPER = (rs, rowNum) -> new IdempotencyRecord(
+			rs.getBytes("request_hash"),
+			rs.getInt("status"),
+			rs.getString("content_type"),
+			rs.getString("etag"),
+			rs.getString("location"),
+			rs.getBytes("body"),
+			rs.getTimestamp("created_at").toInstant(),
+			rs.getTimestamp("expires_at").toInstant());
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final Shards shards;
+	private final Duration ttl;
+	private final Duration lease;
+	
+	private final Map<String, IdempotencyRecord> cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	});
+	
+	public IdempotencyStore(JdbcTemplate jdbcTemplate, Shards shards,
+			@Value("${api.idempotency.ttl:24h}") Duration ttl,
+			@Value("${api.idempotency.lease:1m}") Duration lease) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.shards = shards;
+		this.ttl = ttl;
+		this.lease = lease;
+	}
+
+	public Optional<IdempotencyRecord> find(Long userId, String key) {
+		Instant now = Instant.now();
+		String cacheKey = cacheKey(userId, key);
+		
+		IdempotencyRecord cached = cache.get(cacheKey);
+		if(cached != null && !cached.isExpired(now)) return Optional.of(cached);
+		
+		List<IdempotencyRecord> rows = jdbcTemplate.query(
+				"SELECT request_hash, status, content_type, etag, location, body, created_at, expires_at FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ?",
+				ROW_MAPPER, userId, key);
+		if(rows.isEmpty() || rows.get(0).isExpired(now)) {
+			cache.remove(cacheKey);
+			return Optional.empty();
+		}
+		
+		IdempotencyRecord record = rows.get(0);
+		if(!record.isInProgress()) cache.put(cacheKey, record);
+		return Optional.of(record);
+	}
+	
+	/**
+	 * Reserves the key for a first request. Returns false when another request holds it. Expired
+	 * keys, and keys left in progress longer than the lease by a request that died, are taken over.
+	 */
+	public boolean claim(Long userId, String key) {
+		Instant now = Instant.now();
+		if(insert(userId, key, now)) return true;
+		
+		int removed = jdbcTemplate.update(
+				"DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND (expires_at <= ? OR (status = 0 AND created_at <= ?))",
+				userId, key, Timestamp.from(now), Timestamp.from(now.minus(lease)));
+		return removed > 0 && insert(userId, key, now);
+	}
+	
+	public void complete(Long userId, String key, byte[] requestHash, int status, String contentType, String etag, String location, byte[] body) {
+		Instant now = Instant.now();
+		Instant expiresAt = now.plus(ttl);
+		jdbcTemplate.update(
+				"UPDATE idempotency_keys SET request_hash = ?, status = ?, content_type = ?, etag = ?, location = ?, body = ?, expires_at = ? "
+				+ "WHERE user_id = ? AND idempotency_key = ?",
+				requestHash, status, contentType, etag, location, body, Timestamp.from(expiresAt), userId, key);
+		cache.put(cacheKey(userId, key), new IdempotencyRecord(requestHash, status, contentType, etag, location, body, now, expiresAt));
+	}
+	
+	/**
+	 * Frees a key whose request failed, so that it can be retried.
+	 */
+	public void release(Long userId, String key) {
+		jdbcTemplate.update("DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND status = 0", userId, key);
+	}
+	
+	@Scheduled(fixedDelayString = "${api.idempotency.purge-interval:PT1H}")
+	public void purgeExpired() {
+		Timestamp now = Timestamp.from(Instant.now());
+		shards.forEach(() -> {
+			int removed;
+			do {
+				removed = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ? LIMIT " + PURGE_BATCH_SIZE, now);
+			} while(removed == PURGE_BATCH_SIZE);
+		});
+		
+		Instant instant = now.toInstant();
+		synchronized (cache) {
+			cache.values().removeIf(record -> record.isExpired(instant));
+		}
+	}
+	
+	private boolean insert(Long userId, String key, Instant now) {
+		try {
+			jdbcTemplate.update(
+					"INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, status, created_at, expires_at) VALUES (?, ?, ?, 0, ?, ?)",
+					userId, key, PENDING_HASH, Timestamp.from(now), Timestamp.from(now.plus(ttl)));
+			return true;
+		}
+		catch(DuplicateKeyException e) {
+			return false;
+		}
+	}
+	
+	private static String cacheKey(Long userId, String key) {
+		return userId + ":" + key;
+	}
+}
@@ -0,0 +1,88 @@
+package br.com.imports;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time: fields separated by commas, optionally quoted, with
+ * doubled quotes inside quoted fields and line breaks allowed in them. Records end with CRLF or LF.
+ */
+final class CsvReader {
+
+	private final Reader reader;
+	private int pending = -2;
+	private long line = 1;
+	private long recordLine;
+
+	CsvReader(Reader reader) {
+		this.reader = reader;
+	}
+
+	/**
+	 * @return the fields of the next record, or null at the end of the input
+	 */
+	String[] next() throws IOException {
+		int c = read();
+		if(c == -1) return null;
+		recordLine = line;
+
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		while(true) {
+			if(quoted) {
+				if(c == -1) throw new IOException("Unterminated quoted field in the record on line " + recordLine);
+				if(c == '"') {
+					int next = read();
+					if(next != '"') {
+						quoted = false;
+						c = next;
+						continue;
+					}
+				}
+				field.append((char) c);
+			}
+			else if(c == '"' && field.length() == 0) {
+				quoted = true;
+			}
+			else if(c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else if(c == '\n' || c == '\r' || c == -1) {
+				if(c == '\r') {
+					int next = read();
+					if(next != '\n') pending = next;
+				}
+				fields.add(field.toString());
+				return fields.toArray(new String[0]);
+			}
+			else {
+				field.append((char) c);
+			}
+			c = read();
+		}
+	}
+
+	/**
+	 * Line on which the last record returned by {@link #next()} starts.
+	 */
+	long getRecordLine() {
+		return recordLine;
+	}
+
+	private int read() throws IOException {
+		int c;
+		if(pending != -2) {
+			c = pending;
+			pending = -2;
+		}
+		else {
+			c = reader.read();
+		}
+		if(c == '\n') line++;
+		return c;
+	}
+}
@@ -0,0 +1,68 @@
+package br.com.imports;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import br.com.enums.TaskStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A subtask of an {@link ImportedTask}. Unlike {@code SubtaskCreateRequest}, due dates in the past
+ * are accepted: they come from another tool, or from an export of this one.
+ */
+public class ImportedSubtask implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotBlank
+	@Size(max = 255)
+	private String title;
+	@Size(max = 255)
+	private String description;
+	private TaskStatus status;
+	private LocalDate createdDate;
+	private LocalDate dueDate;
+
+	public ImportedSubtask() {
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public TaskStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(TaskStatus status) {
+		this.status = status;
+	}
+
+	public LocalDate getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDate createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public void setDueDate(LocalDate dueDate) {
+		this.dueDate = dueDate;
+	}
+}
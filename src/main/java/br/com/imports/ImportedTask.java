@@ -0,0 +1,100 @@
+package br.com.imports;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One record of an import file, in the fields of an export. Fields an export carries but an import
+ * cannot keep, like {@code id} and {@code updatedAt}, are ignored.
+ */
+public class ImportedTask implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	@NotBlank
+	@Size(max = 255)
+	private String title;
+	@Size(max = 500)
+	private String description;
+	private TaskStatus status;
+	private TaskPriority priority;
+	private LocalDate createdDate;
+	private LocalDate dueDate;
+	private List<@NotBlank @Size(max = 255) String> tags = new ArrayList<>();
+	@Valid
+	private List<ImportedSubtask> subtasks = new ArrayList<>();
+
+	public ImportedTask() {
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public void setTitle(String title) {
+		this.title = title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public TaskStatus getStatus() {
+		return status;
+	}
+
+	public void setStatus(TaskStatus status) {
+		this.status = status;
+	}
+
+	public TaskPriority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(TaskPriority priority) {
+		this.priority = priority;
+	}
+
+	public LocalDate getCreatedDate() {
+		return createdDate;
+	}
+
+	public void setCreatedDate(LocalDate createdDate) {
+		this.createdDate = createdDate;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+
+	public void setDueDate(LocalDate dueDate) {
+		this.dueDate = dueDate;
+	}
+
+	public List<String> getTags() {
+		return tags;
+	}
+
+	public void setTags(List<String> tags) {
+		this.tags = tags != null ? tags : new ArrayList<>();
+	}
+
+	public List<ImportedSubtask> getSubtasks() {
+		return subtasks;
+	}
+
+	public void setSubtasks(List<ImportedSubtask> subtasks) {
+		this.subtasks = subtasks != null ? subtasks : new ArrayList<>();
+	}
+}
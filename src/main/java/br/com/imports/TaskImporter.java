@@ -0,0 +1,458 @@
+package br.com.imports;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import br.com.audit.AuditLog;
+import br.com.audit.FieldChanges;
+import br.com.enums.ChangeAction;
+import br.com.enums.ExportFormat;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobFiles;
+import br.com.jobs.JobHandler;
+import br.com.jobs.JobStore;
+import br.com.repositories.IdGenerators;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Imports tasks, with their tags and subtasks, from files in the formats of the export. The upload
+ * is stored with a {@value #TYPE} job, which runs it through a bounded pipeline: the job thread
+ * reads the records as a stream and hands them in chunks of {@code api.import.batch-size} to
+ * {@code api.import.parallelism} threads that parse and validate them, then writes the valid
+ * records of each chunk, in file order, with JDBC batches in one transaction. At most
+ * {@code api.import.max-in-flight} chunks are read ahead of the writes, so a slow database holds
+ * back the reading instead of filling the heap.
+ *
+ * Every chunk commits together with the progress of the job, the number of records read so far,
+ * so a retried or taken over job skips those records and goes on from there. Invalid records are
+ * skipped, and the first {@value #MAX_ERRORS} are listed in the result of the job. The history of
+ * every imported task, its title and its tags, is written in the transaction of its chunk.
+ */
+@Component
+public class TaskImporter implements JobHandler {
+
+	public static final String TYPE = "task-import";
+
+	static final int MAX_ERRORS = 10;
+	private static final int MAX_ERROR_LENGTH = 150;
+
+	private static final String INSERT_TAG = "INSERT INTO tags (id, name, user_id, version, updated_at) VALUES (?, ?, ?, 0, ?)";
+	private static final String INSERT_TASK =
+			"INSERT INTO tasks (id, title, description, status, priority, created_date, due_date, user_id, version, updated_at) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+	private static final String INSERT_SUBTASK =
+			"INSERT INTO subtasks (id, title, description, status, created_date, due_date, task_id, version, updated_at) " +
+			"VALUES (?, ?, ?, ?, ?, ?, ?, 0, ?)";
+	private static final String INSERT_TASK_TAG = "INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final JobStore jobStore;
+	private final JobFiles jobFiles;
+	private final IdGenerators idGenerators;
+	private final ObjectMapper objectMapper;
+	private final ObjectReader taskReader;
+	private final Validator validator;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AuditLog auditLog;
+	private final ExecutorService validators;
+	private final int batchSize;
+	private final int maxInFlight;
+	private final long maxSize;
+
+	public TaskImporter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, JobStore jobStore, JobFiles jobFiles, IdGenerators idGenerators,
+			ObjectMapper objectMapper, Validator validator, ApplicationEventPublisher eventPublisher, AuditLog auditLog,
+			@Value("${api.import.batch-size:500}") int batchSize,
+			@Value("${api.import.parallelism:4}") int parallelism,
+			@Value("${api.import.max-in-flight:8}") int maxInFlight,
+			@Value("${api.import.max-size:100MB}") DataSize maxSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.jobStore = jobStore;
+		this.jobFiles = jobFiles;
+		this.idGenerators = idGenerators;
+		this.objectMapper = objectMapper;
+		this.taskReader = objectMapper.readerFor(ImportedTask.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.validator = validator;
+		this.eventPublisher = eventPublisher;
+		this.auditLog = auditLog;
+		this.validators = Executors.newFixedThreadPool(parallelism, new ValidatorThreadFactory());
+		this.batchSize = batchSize;
+		this.maxInFlight = Math.max(1, maxInFlight);
+		this.maxSize = maxSize.toBytes();
+	}
+
+	/**
+	 * Stores the file and queues the job in one transaction, so the job only becomes visible to
+	 * the workers once the whole file is stored.
+	 */
+	public Job submit(Long userId, ExportFormat format, InputStream in) throws IOException {
+		try {
+			return transactionTemplate.execute(status -> {
+				Job job = jobStore.enqueue(userId, TYPE, format.name());
+				try {
+					jobFiles.write(job.getId(), in, maxSize);
+				}
+				catch(IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return job;
+			});
+		}
+		catch(UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public void run(JobContext context) throws Exception {
+		Job job = context.getJob();
+		ExportFormat format = ExportFormat.valueOf(job.getPayload());
+		ImportState state = new ImportState(job.getUserId(), loadTags(job.getUserId()));
+		Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+
+		try(InputStream in = jobFiles.open(job.getId());
+				BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			RecordSource source = format == ExportFormat.CSV ? csvSource(reader) : ndjsonSource(reader);
+			long skip = job.getProgress();
+			long read = 0;
+			List<RawRecord> records = new ArrayList<>(batchSize);
+			RawRecord record;
+			while((record = source.next()) != null) {
+				if(++read <= skip) continue;
+				records.add(record);
+				if(records.size() == batchSize) {
+					inFlight.add(validators.submit(validate(records, read)));
+					records = new ArrayList<>(batchSize);
+					if(inFlight.size() >= maxInFlight) write(context, state, take(inFlight));
+				}
+			}
+			if(!records.isEmpty()) inFlight.add(validators.submit(validate(records, read)));
+			while(!inFlight.isEmpty()) write(context, state, take(inFlight));
+			context.progress(read, read);
+		}
+		finally {
+			inFlight.forEach(future -> future.cancel(true));
+		}
+		context.setResult(state.toResult(objectMapper));
+	}
+
+	private Map<String, Long> loadTags(Long userId) {
+		Map<String, Long> tags = new HashMap<>();
+		jdbcTemplate.query("SELECT id, name FROM tags WHERE user_id = ? ORDER BY id",
+				(RowCallbackHandler) rs -> tags.putIfAbsent(rs.getString("name"), rs.getLong("id")), userId);
+		return tags;
+	}
+
+	private static RecordSource ndjsonSource(BufferedReader reader) {
+		long[] line = {0};
+		return () -> {
+			String text;
+			while((text = reader.readLine()) != null) {
+				line[0]++;
+				if(!text.isBlank()) return new RawRecord(line[0], text, null, null);
+			}
+			return null;
+		};
+	}
+
+	private static RecordSource csvSource(BufferedReader reader) throws IOException {
+		CsvReader csv = new CsvReader(reader);
+		String[] header = csv.next();
+		if(header == null) return () -> null;
+		for(int i = 0; i < header.length; i++) header[i] = header[i].replace("\uFEFF", "").trim();
+		if(!Arrays.asList(header).contains("title")) throw new IllegalArgumentException("The CSV file has no title column");
+
+		return () -> {
+			String[] fields;
+			while((fields = csv.next()) != null) {
+				if(fields.length == 1 && fields[0].isBlank()) continue;
+				return new RawRecord(csv.getRecordLine(), null, header, fields);
+			}
+			return null;
+		};
+	}
+
+	/**
+	 * Runs on a validator thread.
+	 */
+	private Callable<Chunk> validate(List<RawRecord> records, long last) {
+		return () -> {
+			Chunk chunk = new Chunk(last);
+			for(RawRecord record : records) {
+				try {
+					ImportedTask task = record.json != null ? taskReader.readValue(record.json) : taskReader.readValue(csvNode(record));
+					Set<ConstraintViolation<ImportedTask>> violations = validator.validate(task);
+					if(violations.isEmpty()) {
+						chunk.tasks.add(task);
+					}
+					else {
+						chunk.reject(record.line, violations.stream()
+								.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+								.sorted()
+								.collect(Collectors.joining(", ")));
+					}
+				}
+				catch(JsonProcessingException e) {
+					chunk.reject(record.line, e.getOriginalMessage());
+				}
+			}
+			return chunk;
+		};
+	}
+
+	/**
+	 * The columns of a CSV record as the JSON object of the NDJSON format: tags are separated by
+	 * semicolons and subtasks are a JSON array. Empty columns are left out.
+	 */
+	private ObjectNode csvNode(RawRecord record) throws JsonProcessingException {
+		ObjectNode node = objectMapper.createObjectNode();
+		for(int i = 0; i < record.header.length && i < record.fields.length; i++) {
+			String value = record.fields[i];
+			if(value.isEmpty()) continue;
+			switch(record.header[i]) {
+				case "tags" -> {
+					ArrayNode tags = node.putArray("tags");
+					for(String tag : value.split(";")) {
+						if(!tag.isBlank()) tags.add(tag);
+					}
+				}
+				case "subtasks" -> node.set("subtasks", objectMapper.readTree(value));
+				default -> node.put(record.header[i], value);
+			}
+		}
+		return node;
+	}
+
+	private static Chunk take(Deque<Future<Chunk>> inFlight) throws Exception {
+		try {
+			return inFlight.poll().get();
+		}
+		catch(ExecutionException e) {
+			throw e.getCause() instanceof Exception cause ? cause : e;
+		}
+	}
+
+	/**
+	 * Runs on the job thread, one chunk after the other. Ids come from {@code id_generators} like
+	 * Hibernate's, so tasks created through the API afterwards never collide with imported ones.
+	 * The blocks are taken before the transaction of the chunk, each in a transaction of its own,
+	 * so the generator rows are never locked while the chunk is written. Tags are matched by name
+	 * and created once, the first time a chunk uses them.
+	 */
+	private void write(JobContext context, ImportState state, Chunk chunk) {
+		Long userId = state.userId;
+		Set<String> newTags = new LinkedHashSet<>();
+		int subtaskCount = 0;
+		for(ImportedTask task : chunk.tasks) {
+			for(String tag : tagNames(task)) {
+				if(!state.tags.containsKey(tag)) newTags.add(tag);
+			}
+			subtaskCount += task.getSubtasks().size();
+		}
+		long nextTaskId = idGenerators.take("tasks", chunk.tasks.size());
+		long nextSubtaskId = idGenerators.take("subtasks", subtaskCount);
+		long nextTagId = idGenerators.take("tags", newTags.size());
+
+		Timestamp now = Timestamp.from(Instant.now());
+		LocalDate today = LocalDate.now();
+		List<ChangeEvent> changes = new ArrayList<>();
+		Map<String, Long> createdTags = new HashMap<>();
+		List<Object[]> tagRows = new ArrayList<>(newTags.size());
+		for(String name : newTags) {
+			long tagId = nextTagId++;
+			createdTags.put(name, tagId);
+			tagRows.add(new Object[] {tagId, name, userId, now});
+			changes.add(ChangeEvent.ofTag(userId, ChangeAction.CREATED, tagId));
+		}
+
+		List<Object[]> taskRows = new ArrayList<>(chunk.tasks.size());
+		List<Object[]> subtaskRows = new ArrayList<>(subtaskCount);
+		List<Object[]> linkRows = new ArrayList<>();
+		List<FieldChanges> history = new ArrayList<>(chunk.tasks.size());
+		for(ImportedTask task : chunk.tasks) {
+			long taskId = nextTaskId++;
+			taskRows.add(new Object[] {taskId, task.getTitle(), task.getDescription(),
+					(task.getStatus() != null ? task.getStatus() : TaskStatus.UNDONE).name(),
+					(task.getPriority() != null ? task.getPriority() : TaskPriority.NONE).name(),
+					task.getCreatedDate() != null ? task.getCreatedDate() : today, task.getDueDate(), userId, now});
+			for(ImportedSubtask subtask : task.getSubtasks()) {
+				subtaskRows.add(new Object[] {nextSubtaskId++, subtask.getTitle(), subtask.getDescription(),
+						(subtask.getStatus() != null ? subtask.getStatus() : TaskStatus.UNDONE).ordinal(),
+						subtask.getCreatedDate() != null ? subtask.getCreatedDate() : today, subtask.getDueDate(), taskId, now});
+			}
+			history.add(FieldChanges.ofTask(taskId).add("title", null, task.getTitle()));
+			for(String tag : tagNames(task)) {
+				Long tagId = state.tags.get(tag);
+				if(tagId == null) tagId = createdTags.get(tag);
+				linkRows.add(new Object[] {taskId, tagId});
+				history.add(FieldChanges.ofTag(taskId, tagId).add("tag", null, tag));
+			}
+			changes.add(ChangeEvent.ofTask(userId, ChangeAction.CREATED, taskId));
+		}
+
+		transactionTemplate.executeWithoutResult(status -> {
+			batchUpdate(INSERT_TAG, tagRows);
+			batchUpdate(INSERT_TASK, taskRows);
+			batchUpdate(INSERT_SUBTASK, subtaskRows);
+			batchUpdate(INSERT_TASK_TAG, linkRows);
+			auditLog.write(history);
+			if(!changes.isEmpty()) {
+				jdbcTemplate.update("UPDATE users SET collection_version = collection_version + 1 WHERE id = ?", userId);
+				eventPublisher.publishEvent(new ChangeBatch(changes));
+			}
+			context.progress(chunk.last, null);
+		});
+		state.tags.putAll(createdTags);
+		state.add(chunk);
+	}
+
+	private static Set<String> tagNames(ImportedTask task) {
+		Set<String> names = new LinkedHashSet<>();
+		for(String tag : task.getTags()) names.add(tag.trim().toUpperCase());
+		return names;
+	}
+
+	private void batchUpdate(String sql, List<Object[]> rows) {
+		if(!rows.isEmpty()) jdbcTemplate.batchUpdate(sql, rows);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		validators.shutdownNow();
+	}
+
+	@FunctionalInterface
+	private interface RecordSource {
+		RawRecord next() throws IOException;
+	}
+
+	/**
+	 * A record as read from the file: a line of JSON, or the fields of a CSV record with the header.
+	 */
+	private static final class RawRecord {
+		private final long line;
+		private final String json;
+		private final String[] header;
+		private final String[] fields;
+
+		private RawRecord(long line, String json, String[] header, String[] fields) {
+			this.line = line;
+			this.json = json;
+			this.header = header;
+			this.fields = fields;
+		}
+	}
+
+	private static final class Chunk {
+		private final long last;
+		private final List<ImportedTask> tasks = new ArrayList<>();
+		private final List<String> errors = new ArrayList<>();
+		private int rejected;
+
+		private Chunk(long last) {
+			this.last = last;
+		}
+
+		private void reject(long line, String error) {
+			rejected++;
+			if(errors.size() < MAX_ERRORS) errors.add(truncate("Line " + line + ": " + error));
+		}
+	}
+
+	private static final class ImportState {
+		private final Long userId;
+		private final Map<String, Long> tags;
+		private final List<String> errors = new ArrayList<>();
+		private long imported;
+		private long rejected;
+
+		private ImportState(Long userId, Map<String, Long> tags) {
+			this.userId = userId;
+			this.tags = tags;
+		}
+
+		private void add(Chunk chunk) {
+			imported += chunk.tasks.size();
+			rejected += chunk.rejected;
+			for(String error : chunk.errors) {
+				if(errors.size() < MAX_ERRORS) errors.add(error);
+			}
+		}
+
+		private String toResult(ObjectMapper objectMapper) throws JsonProcessingException {
+			Map<String, Object> result = new LinkedHashMap<>();
+			result.put("imported", imported);
+			result.put("rejected", rejected);
+			result.put("errors", errors);
+			return objectMapper.writeValueAsString(result);
+		}
+	}
+
+	private static String truncate(String error) {
+		return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+	}
+
+	private static final class ValidatorThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "import-validator-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
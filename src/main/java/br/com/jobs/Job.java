@@ -0,0 +1,101 @@
+package br.com.jobs;
+
+import java.time.Instant;
+
+import br.com.enums.JobStatus;
+
+/**
+ * A row of the {@code jobs} table as read by the {@link JobStore}.
+ */
+public class Job {
+	
+	private final long id;
+	private final Long userId;
+	private final String type;
+	private final String payload;
+	private final JobStatus status;
+	private final long progress;
+	private final Long total;
+	private final String result;
+	private final String error;
+	private final int attempts;
+	private final int maxAttempts;
+	private final Instant createdAt;
+	private final Instant updatedAt;
+	private final Instant finishedAt;
+	
+	public Job(long id, Long userId, String type, String payload, JobStatus status, long progress, Long total, String result,
+			String error, int attempts, int maxAttempts, Instant createdAt, Instant updatedAt, Instant finishedAt) {
+		this.id = id;
+		this.userId = userId;
+		this.type = type;
+		this.payload = payload;
+		this.status = status;
+		this.progress = progress;
+		this.total = total;
+		this.result = result;
+		this.error = error;
+		this.attempts = attempts;
+		this.maxAttempts = maxAttempts;
+		this.createdAt = createdAt;
+		this.updatedAt = updatedAt;
+		this.finishedAt = finishedAt;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getPayload() {
+		return payload;
+	}
+
+	public JobStatus getStatus() {
+		return status;
+	}
+
+	public long getProgress() {
+		return progress;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+	
+}
@@ -0,0 +1,46 @@
+package br.com.jobs;
+
+/**
+ * Handed to a {@link JobHandler} for one run of a job.
+ */
+public class JobContext {
+	
+	private final Job job;
+	private final JobStore store;
+	private final String workerId;
+	private String result;
+	
+	JobContext(Job job, JobStore store, String workerId) {
+		this.job = job;
+		this.store = store;
+		this.workerId = workerId;
+	}
+
+	public Job getJob() {
+		return job;
+	}
+	
+	/**
+	 * Records the progress of the run.
+	 * 
+	 * @throws IllegalStateException when the lease was lost and another worker took the job over,
+	 * so the handler stops
+	 */
+	public void progress(long done, Long total) {
+		if(!store.progress(job.getId(), workerId, done, total)) {
+			throw new IllegalStateException("Lease of job " + job.getId() + " was lost");
+		}
+	}
+
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * Stored with the job once the handler returns, e.g. where to download the output.
+	 */
+	public void setResult(String result) {
+		this.result = result;
+	}
+	
+}
@@ -0,0 +1,99 @@
+package br.com.jobs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.exceptions.BadRequestException;
+
+/**
+ * The {@code job_files} table: a file a job works on, stored in chunks of {@value #CHUNK_SIZE}
+ * bytes. Neither the upload nor the job ever holds the whole file in memory, and the job can run
+ * on any node. The chunks are deleted together with their job.
+ */
+@Component
+public class JobFiles {
+
+	static final int CHUNK_SIZE = 1024 * 1024;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public JobFiles(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Reads the stream to its end. Meant to run in the transaction that enqueues the job, so no
+	 * worker claims the job before its file is complete.
+	 *
+	 * @return size of the file in bytes
+	 * @throws BadRequestException when the stream is longer than {@code maxSize}
+	 */
+	public long write(long jobId, InputStream in, long maxSize) throws IOException {
+		byte[] buffer = new byte[CHUNK_SIZE];
+		long size = 0;
+		int seq = 0;
+		int read;
+		while((read = in.readNBytes(buffer, 0, CHUNK_SIZE)) > 0) {
+			size += read;
+			if(size > maxSize) throw new BadRequestException("The file cannot exceed " + maxSize + " bytes");
+			jdbcTemplate.update("INSERT INTO job_files (job_id, seq, data) VALUES (?, ?, ?)", jobId, seq++, Arrays.copyOf(buffer, read));
+		}
+		return size;
+	}
+
+	/**
+	 * Loads one chunk at a time, each with a query of its own, so the stream may be read across
+	 * any number of transactions.
+	 */
+	public InputStream open(long jobId) {
+		return new ChunkInputStream(jobId);
+	}
+
+	private final class ChunkInputStream extends InputStream {
+		private final long jobId;
+		private int seq;
+		private byte[] chunk = new byte[0];
+		private int position;
+		private boolean finished;
+
+		private ChunkInputStream(long jobId) {
+			this.jobId = jobId;
+		}
+
+		@Override
+		public int read() {
+			if(!fill()) return -1;
+			return chunk[position++] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if(length == 0) return 0;
+			if(!fill()) return -1;
+			int count = Math.min(length, chunk.length - position);
+			System.arraycopy(chunk, position, bytes, offset, count);
+			position += count;
+			return count;
+		}
+
+		private boolean fill() {
+			while(position == chunk.length) {
+				if(finished) return false;
+				List<byte[]> rows = jdbcTemplate.query("SELECT data FROM job_files WHERE job_id = ? AND seq = ?",
+						(rs, rowNum) -> rs.getBytes("data"), jobId, seq++);
+				if(rows.isEmpty()) {
+					finished = true;
+					return false;
+				}
+				chunk = rows.get(0);
+				position = 0;
+			}
+			return true;
+		}
+	}
+}
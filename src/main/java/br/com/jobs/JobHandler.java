@@ -0,0 +1,14 @@
+package br.com.jobs;
+
+/**
+ * Runs the jobs of one type. Every {@code JobHandler} bean is picked up by the {@link JobWorker}.
+ * A job runs again after a failure or when its worker dies, possibly while a first run is still
+ * winding down, so handlers must be idempotent.
+ */
+public interface JobHandler {
+	
+	String getType();
+	
+	void run(JobContext context) throws Exception;
+	
+}
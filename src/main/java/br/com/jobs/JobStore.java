@@ -0,0 +1,173 @@
+package br.com.jobs;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.JobStatus;
+
+/**
+ * The {@code jobs} table. A job is claimed with {@code FOR UPDATE SKIP LOCKED}, so workers on any
+ * number of nodes never take the same job, and is leased to its worker until {@code available_at}.
+ * The worker renews the lease while the job runs; once it lapses, because the node died, the job
+ * is claimed again. Every write of a running job is conditional on {@code locked_by}, so a worker
+ * that lost its lease can no longer change it.
+ */
+@Component
+public class JobStore {
+
+	static final int MAX_ERROR_LENGTH = 500;
+
+	private static final String COLUMNS =
+			"id, user_id, type, payload, status, progress, total, result, error, attempts, max_attempts, created_at, updated_at, finished_at";
+
+	private static final RowMapper<Job> ROW_MAPPER = (rs, rowNum) -> {
+		Timestamp finishedAt = rs.getTimestamp("finished_at");
+		return new Job(
+				rs.getLong("id"),
+				rs.getLong("user_id"),
+				rs.getString("type"),
+				rs.getString("payload"),
+				JobStatus.valueOf(rs.getString("status")),
+				rs.getLong("progress"),
+				rs.getObject("total", Long.class),
+				rs.getString("result"),
+				rs.getString("error"),
+				rs.getInt("attempts"),
+				rs.getInt("max_attempts"),
+				rs.getTimestamp("created_at").toInstant(),
+				rs.getTimestamp("updated_at").toInstant(),
+				finishedAt != null ? finishedAt.toInstant() : null);
+	};
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final int maxAttempts;
+
+	public JobStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+			@Value("${api.jobs.max-attempts:3}") int maxAttempts) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.maxAttempts = maxAttempts;
+	}
+
+	public Job enqueue(Long userId, String type, String payload) {
+		Timestamp now = Timestamp.from(Instant.now());
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(
+					"INSERT INTO jobs (user_id, type, payload, status, max_attempts, available_at, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+					Statement.RETURN_GENERATED_KEYS);
+			statement.setLong(1, userId);
+			statement.setString(2, type);
+			statement.setString(3, payload);
+			statement.setString(4, JobStatus.QUEUED.name());
+			statement.setInt(5, maxAttempts);
+			statement.setTimestamp(6, now);
+			statement.setTimestamp(7, now);
+			statement.setTimestamp(8, now);
+			return statement;
+		}, keys);
+		return find(keys.getKey().longValue()).orElseThrow();
+	}
+
+	public Optional<Job> find(long jobId) {
+		return jdbcTemplate.query("SELECT " + COLUMNS + " FROM jobs WHERE id = ?", ROW_MAPPER, jobId).stream().findFirst();
+	}
+
+	/**
+	 * The queued or running job of the given type of the user, if any.
+	 */
+	public Optional<Job> findActive(Long userId, String type) {
+		return jdbcTemplate.query("SELECT " + COLUMNS + " FROM jobs WHERE user_id = ? AND type = ? AND status IN (?, ?) ORDER BY id LIMIT 1",
+				ROW_MAPPER, userId, type, JobStatus.QUEUED.name(), JobStatus.RUNNING.name()).stream().findFirst();
+	}
+
+	/**
+	 * Claims up to {@code limit} queued jobs, or running jobs whose lease expired, for the
+	 * worker, skipping those another worker is claiming at the same time.
+	 */
+	public List<Job> claim(String workerId, int limit, Duration lease) {
+		return transactionTemplate.execute(status -> {
+			Instant now = Instant.now();
+			List<Long> ids = jdbcTemplate.queryForList(
+					"SELECT id FROM jobs WHERE status IN (?, ?) AND available_at <= ? ORDER BY available_at, id LIMIT ? FOR UPDATE SKIP LOCKED",
+					Long.class, JobStatus.QUEUED.name(), JobStatus.RUNNING.name(), Timestamp.from(now), limit);
+			if(ids.isEmpty()) return List.<Job>of();
+
+			String placeholders = placeholders(ids);
+			jdbcTemplate.update("UPDATE jobs SET status = ?, locked_by = ?, attempts = attempts + 1, available_at = ?, updated_at = ? " +
+					"WHERE id IN (" + placeholders + ")",
+					args(ids, JobStatus.RUNNING.name(), workerId, Timestamp.from(now.plus(lease)), Timestamp.from(now)));
+			return jdbcTemplate.query("SELECT " + COLUMNS + " FROM jobs WHERE id IN (" + placeholders + ") ORDER BY id", ROW_MAPPER, ids.toArray());
+		});
+	}
+
+	/**
+	 * @return number of jobs still held by the worker
+	 */
+	public int renew(String workerId, Collection<Long> jobIds, Duration lease) {
+		if(jobIds.isEmpty()) return 0;
+		Instant now = Instant.now();
+		return jdbcTemplate.update("UPDATE jobs SET available_at = ?, updated_at = ? WHERE locked_by = ? AND status = ? AND id IN (" + placeholders(jobIds) + ")",
+				args(jobIds, Timestamp.from(now.plus(lease)), Timestamp.from(now), workerId, JobStatus.RUNNING.name()));
+	}
+
+	public boolean progress(long jobId, String workerId, long progress, Long total) {
+		return jdbcTemplate.update("UPDATE jobs SET progress = ?, total = ?, updated_at = ? WHERE id = ? AND locked_by = ? AND status = ?",
+				progress, total, Timestamp.from(Instant.now()), jobId, workerId, JobStatus.RUNNING.name()) == 1;
+	}
+
+	public boolean succeed(long jobId, String workerId, String result) {
+		Timestamp now = Timestamp.from(Instant.now());
+		return jdbcTemplate.update("UPDATE jobs SET status = ?, result = ?, error = NULL, locked_by = NULL, updated_at = ?, finished_at = ? " +
+				"WHERE id = ? AND locked_by = ? AND status = ?",
+				JobStatus.SUCCEEDED.name(), result, now, now, jobId, workerId, JobStatus.RUNNING.name()) == 1;
+	}
+
+	/**
+	 * Queues the job again at {@code retryAt}, or fails it for good when {@code retryAt} is null.
+	 */
+	public boolean fail(long jobId, String workerId, String error, Instant retryAt) {
+		Timestamp now = Timestamp.from(Instant.now());
+		String truncated = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+		if(retryAt != null) {
+			return jdbcTemplate.update("UPDATE jobs SET status = ?, error = ?, locked_by = NULL, available_at = ?, updated_at = ? " +
+					"WHERE id = ? AND locked_by = ? AND status = ?",
+					JobStatus.QUEUED.name(), truncated, Timestamp.from(retryAt), now, jobId, workerId, JobStatus.RUNNING.name()) == 1;
+		}
+		return jdbcTemplate.update("UPDATE jobs SET status = ?, error = ?, locked_by = NULL, updated_at = ?, finished_at = ? " +
+				"WHERE id = ? AND locked_by = ? AND status = ?",
+				JobStatus.FAILED.name(), truncated, now, now, jobId, workerId, JobStatus.RUNNING.name()) == 1;
+	}
+
+	public int deleteFinishedBefore(Instant before) {
+		return jdbcTemplate.update("DELETE FROM jobs WHERE finished_at < ?", Timestamp.from(before));
+	}
+
+	private static String placeholders(Collection<Long> ids) {
+		return String.join(",", Collections.nCopies(ids.size(), "?"));
+	}
+
+	private static Object[] args(Collection<Long> ids, Object... leading) {
+		Object[] args = new Object[leading.length + ids.size()];
+		System.arraycopy(leading, 0, args, 0, leading.length);
+		int i = leading.length;
+		for(Long id : ids) args[i++] = id;
+		return args;
+	}
+}
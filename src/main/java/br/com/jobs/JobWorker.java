@@ -0,0 +1,179 @@
+package br.com.jobs;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import br.com.sharding.ShardContext;
+import br.com.sharding.Shards;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs jobs of the {@link JobStore} on a pool of {@code api.jobs.threads} threads. Every
+ * {@code api.jobs.poll-interval} it claims as many jobs as it has idle threads, and every
+ * {@code api.jobs.heartbeat-interval} it renews the leases of the jobs it is running. A failed
+ * job is queued again with a linear backoff until it used its attempts.
+ *
+ * Every shard has its own jobs table, each job runs on the shard it was claimed from.
+ */
+@Component
+public class JobWorker {
+
+	private static final Logger logger = LoggerFactory.getLogger(JobWorker.class);
+
+	private final JobStore store;
+	private final Shards shards;
+	private final Map<String, JobHandler> handlers;
+	private final Executor executor;
+	private final String workerId;
+	private final int threads;
+	private final Duration lease;
+	private final Duration retryBackoff;
+	private final Duration retention;
+
+	/** Shard of every running job, by job id. */
+	private final Map<Long, Integer> running = new ConcurrentHashMap<>();
+
+	@Autowired
+	public JobWorker(JobStore store, Shards shards, ObjectProvider<JobHandler> handlers,
+			@Value("${api.jobs.threads:2}") int threads,
+			@Value("${api.jobs.lease:1m}") Duration lease,
+			@Value("${api.jobs.retry-backoff:30s}") Duration retryBackoff,
+			@Value("${api.jobs.retention:7d}") Duration retention) {
+		this(store, shards, handlers.orderedStream().toList(), Executors.newFixedThreadPool(threads, new WorkerThreadFactory()),
+				UUID.randomUUID().toString(), threads, lease, retryBackoff, retention);
+	}
+
+	JobWorker(JobStore store, Shards shards, List<JobHandler> handlers, Executor executor, String workerId, int threads,
+			Duration lease, Duration retryBackoff, Duration retention) {
+		this.store = store;
+		this.shards = shards;
+		this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::getType, Function.identity()));
+		this.executor = executor;
+		this.workerId = workerId;
+		this.threads = threads;
+		this.lease = lease;
+		this.retryBackoff = retryBackoff;
+		this.retention = retention;
+	}
+
+	@Scheduled(fixedDelayString = "${api.jobs.poll-interval:PT1S}")
+	public void poll() {
+		try {
+			shards.forEach(this::claim);
+		}
+		catch(RuntimeException e) {
+			logger.warn("Could not claim jobs", e);
+		}
+	}
+
+	private void claim() {
+		int idle = threads - running.size();
+		if(idle <= 0) return;
+		int shard = ShardContext.current();
+		for(Job job : store.claim(workerId, idle, lease)) {
+			running.put(job.getId(), shard);
+			executor.execute(ShardContext.wrap(() -> run(job)));
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${api.jobs.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		try {
+			shards.forEach(this::renew);
+		}
+		catch(RuntimeException e) {
+			logger.warn("Could not renew the leases of running jobs", e);
+		}
+	}
+
+	private void renew() {
+		int shard = ShardContext.current();
+		List<Long> jobIds = running.entrySet().stream().filter(e -> e.getValue() == shard).map(Map.Entry::getKey).toList();
+		if(jobIds.isEmpty()) return;
+		int held = store.renew(workerId, jobIds, lease);
+		if(held < jobIds.size()) logger.warn("{} running jobs of shard {} lost their lease", jobIds.size() - held, shard);
+	}
+
+	@Scheduled(fixedDelayString = "${api.jobs.cleanup-interval:PT1H}")
+	public void cleanUp() {
+		Instant before = Instant.now().minus(retention);
+		try {
+			shards.forEach(() -> store.deleteFinishedBefore(before));
+		}
+		catch(RuntimeException e) {
+			logger.warn("Could not delete finished jobs", e);
+		}
+	}
+
+	void run(Job job) {
+		try {
+			if(job.getAttempts() > job.getMaxAttempts()) {
+				store.fail(job.getId(), workerId, "Worker stopped during every attempt", null);
+				return;
+			}
+			JobHandler handler = handlers.get(job.getType());
+			if(handler == null) {
+				store.fail(job.getId(), workerId, "No handler for jobs of type " + job.getType(), null);
+				return;
+			}
+
+			JobContext context = new JobContext(job, store, workerId);
+			handler.run(context);
+			if(!store.succeed(job.getId(), workerId, context.getResult())) {
+				logger.warn("Job {} finished after its lease was lost", job.getId());
+			}
+		}
+		catch(Exception e) {
+			logger.error("Job {} of type {} failed on attempt {}", job.getId(), job.getType(), job.getAttempts(), e);
+			Instant retryAt = job.getAttempts() < job.getMaxAttempts() ? Instant.now().plus(retryBackoff.multipliedBy(job.getAttempts())) : null;
+			try {
+				store.fail(job.getId(), workerId, e.toString(), retryAt);
+			}
+			catch(RuntimeException failure) {
+				logger.error("Could not record the failure of job {}, it runs again once its lease expires", job.getId(), failure);
+			}
+		}
+		finally {
+			running.remove(job.getId());
+		}
+	}
+
+	int runningCount() {
+		return running.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		if(executor instanceof ExecutorService executorService) executorService.shutdownNow();
+	}
+
+	private static final class WorkerThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "job-worker-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package br.com.links;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Link to a controller method whose path is resolved once, when the template is built,
+ * instead of on every response. Expanding it only concatenates the request base URI,
+ * the path around the id variable and the id itself, giving the same href that
+ * {@code linkTo(methodOn(...))} would produce.
+ */
+public final class LinkTemplate {
+	
+	private static final String BASE_URI_ATTRIBUTE = LinkTemplate.class.getName() + ".BASE_URI";
+	
+	private final String prefix;
+	private final String suffix;
+	
+	private LinkTemplate(String prefix, String suffix) {
+		this.prefix = prefix;
+		this.suffix = suffix;
+	}
+	
+	/**
+	 * @param invocation a {@code methodOn(...)} call with {@code null} for every argument
+	 */
+	public static LinkTemplate of(Object invocation) {
+		return new LinkTemplate(relativeHref(invocation), null);
+	}
+	
+	/**
+	 * @param invocation a {@code methodOn(...)} call with {@code null} for every argument
+	 * @param variable path variable replaced by the value given on expansion
+	 */
+	public static LinkTemplate of(Object invocation, String variable) {
+		String href = relativeHref(invocation);
+		String placeholder = "{" + variable + "}";
+		int index = href.indexOf(placeholder);
+		if (index < 0) throw new IllegalArgumentException("Variable " + variable + " not found in " + href);
+		return new LinkTemplate(href.substring(0, index), href.substring(index + placeholder.length()));
+	}
+	
+	public String expand(Object value) {
+		String base = currentBaseUri();
+		if (suffix == null) return base + prefix;
+		return new StringBuilder(base.length() + prefix.length() + suffix.length() + 20)
+				.append(base)
+				.append(prefix)
+				.append(value)
+				.append(suffix)
+				.toString();
+	}
+	
+	public Link withSelfRel(Object value) {
+		return Link.of(expand(value), IanaLinkRelations.SELF);
+	}
+	
+	public Link withRel(Object value, String rel) {
+		return Link.of(expand(value), rel);
+	}
+	
+	public Link withRel(String rel) {
+		return Link.of(expand(null), rel);
+	}
+	
+	private static String relativeHref(Object invocation) {
+		String href = linkTo(invocation).withSelfRel().getHref();
+		String base = currentBaseUri();
+		return href.startsWith(base) ? href.substring(base.length()) : href;
+	}
+	
+	/**
+	 * Same base WebMvcLinkBuilder uses: the current servlet mapping, or nothing when
+	 * there is no request bound to the thread. Resolved once per request.
+	 */
+	private static String currentBaseUri() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return "";
+		
+		HttpServletRequest request = servletAttributes.getRequest();
+		Object cached = request.getAttribute(BASE_URI_ATTRIBUTE);
+		if (cached != null) return (String) cached;
+		
+		String base = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+		request.setAttribute(BASE_URI_ATTRIBUTE, base);
+		return base;
+	}
+}
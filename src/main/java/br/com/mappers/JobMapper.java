@@ -0,0 +1,15 @@
+package br.com.mappers;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.JobResponse;
+import br.com.jobs.Job;
+
+@Component
+public class JobMapper {
+
+	public JobResponse toResponse(Job job) {
+		return new JobResponse(job.getId(), job.getType(), job.getStatus(), job.getProgress(), job.getTotal(), job.getResult(),
+				job.getError(), job.getAttempts(), job.getCreatedAt(), job.getUpdatedAt(), job.getFinishedAt());
+	}
+}
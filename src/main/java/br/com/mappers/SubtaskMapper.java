@@ -0,0 +1,31 @@
+package br.com.mappers;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.SubtaskCreateRequest;
+import br.com.dtos.SubtaskResponse;
+import br.com.models.Subtask;
+
+@Component
+public class SubtaskMapper {
+
+	public SubtaskResponse toResponse(Subtask subtask) {
+		SubtaskResponse response = new SubtaskResponse(
+				subtask.getId(),
+				subtask.getTitle(),
+				subtask.getDescription(),
+				subtask.getCreatedDate(),
+				subtask.getDueDate(),
+				subtask.getStatus());
+		response.setVersion(subtask.getVersion());
+		return response;
+	}
+	
+	public Subtask toEntity(SubtaskCreateRequest request) {
+		Subtask subtask = new Subtask(request.getTitle());
+		subtask.setDescription(request.getDescription());
+		subtask.setDueDate(request.getDueDate());
+		subtask.setStatus(request.getStatus());
+		return subtask;
+	}
+}
@@ -0,0 +1,16 @@
+package br.com.mappers;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.TagDto;
+import br.com.models.Tag;
+
+@Component
+public class TagMapper {
+
+	public TagDto toDto(Tag tag) {
+		TagDto dto = new TagDto(tag.getId(), tag.getName());
+		dto.setVersion(tag.getVersion());
+		return dto;
+	}
+}
@@ -0,0 +1,71 @@
+package br.com.mappers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskCreateRequest;
+import br.com.dtos.TaskResponse;
+import br.com.models.Subtask;
+import br.com.models.Tag;
+import br.com.models.Task;
+
+@Component
+public class TaskMapper {
+
+	public TaskResponse toResponse(Task task) {
+		TaskResponse response = new TaskResponse(
+				task.getId(),
+				task.getTitle(),
+				task.getDescription(),
+				task.getStatus(),
+				task.getPriority(),
+				task.getCreatedDate(),
+				task.getDueDate());
+		
+		List<TagSummary> tags = new ArrayList<>(task.getTags().size());
+		for (Tag tag : task.getTags()) {
+			tags.add(new TagSummary(tag.getId(), tag.getName()));
+		}
+		response.setTags(tags);
+		
+		List<SubtaskSummary> subtasks = new ArrayList<>(task.getSubtasks().size());
+		for (Subtask subtask : task.getSubtasks()) {
+			subtasks.add(toSummary(subtask));
+		}
+		response.setSubtasks(subtasks);
+		response.setVersion(versionOf(task));
+		return response;
+	}
+	
+	/**
+	 * Version of the task as rendered. Changes of its subtasks and tags bump the version of the
+	 * task itself, so it is the only value the ETag needs.
+	 */
+	public long versionOf(Task task) {
+		return task.getVersion() != null ? task.getVersion() : 0L;
+	}
+	
+	private static SubtaskSummary toSummary(Subtask subtask) {
+		return new SubtaskSummary(
+				subtask.getId(),
+				subtask.getTitle(),
+				subtask.getDescription(),
+				subtask.getCreatedDate(),
+				subtask.getDueDate(),
+				subtask.getStatus());
+	}
+	
+	public Task toEntity(TaskCreateRequest request) {
+		return new Task.Builder()
+				.title(request.getTitle())
+				.description(request.getDescription())
+				.status(request.getStatus())
+				.priority(request.getPriority())
+				.dueDate(request.getDueDate())
+				.build();
+	}
+}
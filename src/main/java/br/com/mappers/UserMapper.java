@@ -0,0 +1,14 @@
+package br.com.mappers;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.UserResponse;
+import br.com.models.User;
+
+@Component
+public class UserMapper {
+
+	public UserResponse toResponse(User user) {
+		return new UserResponse(user.getId(), user.getUsername(), user.getRole());
+	}
+}
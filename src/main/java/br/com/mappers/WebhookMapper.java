@@ -0,0 +1,14 @@
+package br.com.mappers;
+
+import org.springframework.stereotype.Component;
+
+import br.com.dtos.WebhookResponse;
+import br.com.models.Webhook;
+
+@Component
+public class WebhookMapper {
+
+	public WebhookResponse toResponse(Webhook webhook) {
+		return new WebhookResponse(webhook.getId(), webhook.getUrl(), webhook.getCreatedAt());
+	}
+}
@@ -1,9 +1,12 @@
 package br.com.models;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Objects;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import br.com.enums.TaskStatus;
@@ -15,6 +18,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "subtasks")
@@ -22,7 +27,9 @@ public class Subtask implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "subtask_ids")
+	@TableGenerator(name = "subtask_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+			pkColumnValue = "subtasks", allocationSize = 50)
 	private Long id;
 	@Column(nullable = false)
 	private String title;
@@ -32,6 +39,14 @@ public class Subtask implements Serializable{
 	
 	private TaskStatus status;
 	
+	@JsonIgnore
+	@Version
+	private Long version;
+	
+	@JsonIgnore
+	@UpdateTimestamp
+	private Instant updatedAt;
+	
 	@JsonIgnore
 	@ManyToOne
 	@JoinColumn(name = "task_id", nullable = false)
@@ -108,6 +123,22 @@ public class Subtask implements Serializable{
 		this.status = status;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
 	@Override
 	public int hashCode() {
 		return Objects.hash(id);
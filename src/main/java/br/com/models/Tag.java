@@ -1,9 +1,12 @@
 package br.com.models;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.persistence.Entity;
@@ -14,6 +17,8 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "tags")
@@ -21,10 +26,20 @@ public class Tag implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "tag_ids")
+	@TableGenerator(name = "tag_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+			pkColumnValue = "tags", allocationSize = 50)
 	protected Long id;
 	protected String name;
 	
+	@JsonIgnore
+	@Version
+	private Long version;
+	
+	@JsonIgnore
+	@UpdateTimestamp
+	private Instant updatedAt;
+	
 	@ManyToOne
 	@JoinColumn(name = "user_id")
 	@JsonIgnore
@@ -71,6 +86,22 @@ public class Tag implements Serializable{
 		return tasks;
 	}
 	
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
 	public void addTask(Task task) {
 		tasks.add(task);
 	}
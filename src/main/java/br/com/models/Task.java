@@ -1,6 +1,7 @@
 package br.com.models;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -8,6 +9,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 
+import org.hibernate.annotations.UpdateTimestamp;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import br.com.enums.TaskPriority;
@@ -25,6 +28,8 @@ import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "tasks")
@@ -32,7 +37,9 @@ public class Task implements Serializable{
 	private static final long serialVersionUID = 1L;
 	
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = "task_ids")
+	@TableGenerator(name = "task_ids", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+			pkColumnValue = "tasks", allocationSize = 50)
 	private Long id;
 	
 	@JsonIgnore
@@ -49,6 +56,14 @@ public class Task implements Serializable{
 	private LocalDate createdDate;
 	private LocalDate dueDate;
 	
+	@JsonIgnore
+	@Version
+	private Long version;
+	
+	@JsonIgnore
+	@UpdateTimestamp
+	private Instant updatedAt;
+	
 	@ManyToMany
 	@JoinTable(name = "task_tags",
 			joinColumns = @JoinColumn(name = "task_id"),
@@ -140,6 +155,22 @@ public class Task implements Serializable{
 		this.dueDate = dueDate;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
 	public Set<Tag> getTags() {
 		return tags;
 	}
@@ -0,0 +1,71 @@
+package br.com.models;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import br.com.enums.SyncEntityType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Marks a deleted task, subtask or tag so that clients syncing incrementally
+ * learn about the deletion. Kept for {@code api.sync.tombstone-retention}.
+ */
+@Entity
+@Table(name = "tombstones")
+public class Tombstone implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+	
+	@Enumerated(EnumType.STRING)
+	private SyncEntityType entityType;
+	private Long entityId;
+	private Instant deletedAt;
+	
+	public Tombstone() {
+	}
+
+	public Tombstone(Long userId, SyncEntityType entityType, Long entityId, Instant deletedAt) {
+		this.userId = userId;
+		this.entityType = entityType;
+		this.entityId = entityId;
+		this.deletedAt = deletedAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public SyncEntityType getEntityType() {
+		return entityType;
+	}
+
+	public Long getEntityId() {
+		return entityId;
+	}
+
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+	
+}
@@ -15,7 +15,6 @@ import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import br.com.enums.Role;
-import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -42,7 +41,10 @@ public class User implements UserDetails{
 	@Enumerated(EnumType.STRING)
 	private Role role;
 	@JsonIgnore
-	@OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
+	@Column(name = "collection_version", insertable = false, updatable = false)
+	private long collectionVersion;
+	@JsonIgnore
+	@OneToMany(mappedBy = "user")
 	private List<Task> tasks = new ArrayList<>();
 	
 	@OneToMany(mappedBy = "user", fetch = FetchType.EAGER)
@@ -92,6 +94,10 @@ public class User implements UserDetails{
 	public Role getRole() {
 		return role;
 	}
+	
+	public long getCollectionVersion() {
+		return collectionVersion;
+	}
 
 	public void setRole(Role role) {
 		this.role = role;
@@ -0,0 +1,81 @@
+package br.com.models;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "webhooks")
+public class Webhook implements Serializable{
+	private static final long serialVersionUID = 1L;
+	
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	
+	@Column(name = "user_id", nullable = false)
+	private Long userId;
+	
+	private String url;
+	private String secret;
+	private Instant createdAt;
+	
+	public Webhook() {
+	}
+
+	public Webhook(Long userId, String url, String secret, Instant createdAt) {
+		this.userId = userId;
+		this.url = url;
+		this.secret = secret;
+		this.createdAt = createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Webhook other = (Webhook) obj;
+		return Objects.equals(id, other.id);
+	}
+	
+}
@@ -0,0 +1,49 @@
+package br.com.outbox;
+
+import java.time.Instant;
+
+import br.com.enums.ChangeAction;
+import br.com.enums.SyncEntityType;
+import br.com.events.ChangeEvent;
+
+/**
+ * A change read back from the {@code outbox} table by the {@link OutboxRelay}. It is also
+ * published as an application event, so in-process {@code @EventListener}s can consume it.
+ */
+public class OutboxMessage {
+	
+	private final long id;
+	private final Instant createdAt;
+	private final ChangeEvent change;
+	
+	public OutboxMessage(long id, Instant createdAt, ChangeEvent change) {
+		this.id = id;
+		this.createdAt = createdAt;
+		this.change = change;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public ChangeEvent getChange() {
+		return change;
+	}
+	
+	public Long getUserId() {
+		return change.getUserId();
+	}
+	
+	public SyncEntityType getType() {
+		return change.getType();
+	}
+	
+	public ChangeAction getAction() {
+		return change.getAction();
+	}
+	
+}
@@ -0,0 +1,104 @@
+package br.com.outbox;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.ChangeAction;
+import br.com.enums.SyncEntityType;
+import br.com.events.ChangeEvent;
+import br.com.sharding.Shards;
+
+/**
+ * Drains the {@code outbox} table off the request path. Each batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, handed to in-process listeners and to every {@link OutboxSink},
+ * and deleted in the same transaction. Several nodes can relay at once without blocking each
+ * other; a failing listener or sink rolls the batch back and it is retried on the next poll.
+ * Every shard has its own outbox, drained in turn.
+ */
+@Component
+public class OutboxRelay {
+
+	private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+	private static final String SELECT_BATCH =
+			"SELECT id, user_id, entity_type, action, entity_id, task_id, created_at FROM outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+	private static final RowMapper<OutboxMessage> ROW_MAPPER = (rs, rowNum) -> new OutboxMessage(
+			rs.getLong("id"),
+			rs.getTimestamp("created_at").toInstant(),
+			new ChangeEvent(
+					rs.getLong("user_id"),
+					SyncEntityType.valueOf(rs.getString("entity_type")),
+					ChangeAction.valueOf(rs.getString("action")),
+					rs.getLong("entity_id"),
+					rs.getObject("task_id", Long.class)));
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ApplicationEventPublisher eventPublisher;
+	private final ObjectProvider<OutboxSink> sinks;
+	private final Shards shards;
+	private final int batchSize;
+
+	public OutboxRelay(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+			ObjectProvider<OutboxSink> sinks, Shards shards, @Value("${api.outbox.batch-size:200}") int batchSize) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.eventPublisher = eventPublisher;
+		this.sinks = sinks;
+		this.shards = shards;
+		this.batchSize = batchSize;
+	}
+
+	@Scheduled(fixedDelayString = "${api.outbox.poll-interval:PT0.5S}")
+	public void poll() {
+		try {
+			shards.forEach(() -> {
+				while(relayBatch() == batchSize);
+			});
+		}
+		catch(RuntimeException e) {
+			logger.warn("Outbox relay failed, the batch will be retried", e);
+		}
+	}
+
+	/**
+	 * @return number of messages relayed
+	 */
+	public int relayBatch() {
+		Integer relayed = transactionTemplate.execute(status -> {
+			List<OutboxMessage> batch = jdbcTemplate.query(SELECT_BATCH, ROW_MAPPER, batchSize);
+			if(batch.isEmpty()) return 0;
+
+			batch.forEach(eventPublisher::publishEvent);
+			sinks.orderedStream().forEach(sink -> publish(sink, batch));
+
+			String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+			jdbcTemplate.update("DELETE FROM outbox WHERE id IN (" + placeholders + ")",
+					batch.stream().map(OutboxMessage::getId).toArray());
+			return batch.size();
+		});
+		return relayed == null ? 0 : relayed;
+	}
+
+	private static void publish(OutboxSink sink, List<OutboxMessage> batch) {
+		try {
+			sink.publish(batch);
+		}
+		catch(Exception e) {
+			throw new IllegalStateException("Outbox sink " + sink.getClass().getSimpleName() + " failed", e);
+		}
+	}
+
+}
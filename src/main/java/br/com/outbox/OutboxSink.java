@@ -0,0 +1,14 @@
+package br.com.outbox;
+
+import java.util.List;
+
+/**
+ * Destination of relayed changes, e.g. a cache invalidator, a search indexer or a notifier.
+ * Every {@code OutboxSink} bean receives each batch in id order. Throwing rolls the batch back
+ * and it is delivered again on the next poll, so sinks must tolerate duplicates.
+ */
+public interface OutboxSink {
+	
+	void publish(List<OutboxMessage> messages) throws Exception;
+	
+}
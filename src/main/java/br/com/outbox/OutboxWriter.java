@@ -0,0 +1,48 @@
+package br.com.outbox;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+
+/**
+ * Writes every {@link ChangeEvent} to the {@code outbox} table. The listener runs synchronously
+ * in the publishing service, so the row commits or rolls back together with the change.
+ */
+@Component
+public class OutboxWriter {
+	
+	private static final String INSERT = 
+			"INSERT INTO outbox (user_id, entity_type, action, entity_id, task_id, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	public OutboxWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@EventListener
+	public void onChange(ChangeEvent event) {
+		jdbcTemplate.update(INSERT, event.getUserId(), event.getType().name(), event.getAction().name(),
+				event.getId(), event.getTaskId(), Timestamp.from(Instant.now()));
+	}
+	
+	@EventListener
+	public void onChanges(ChangeBatch batch) {
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.batchUpdate(INSERT, batch.getChanges(), batch.getChanges().size(), (ps, event) -> {
+			ps.setLong(1, event.getUserId());
+			ps.setString(2, event.getType().name());
+			ps.setString(3, event.getAction().name());
+			ps.setLong(4, event.getId());
+			ps.setObject(5, event.getTaskId());
+			ps.setTimestamp(6, now);
+		});
+	}
+	
+}
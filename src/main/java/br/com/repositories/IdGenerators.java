@@ -0,0 +1,38 @@
+package br.com.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Blocks of ids from {@code id_generators}, for rows written with JDBC next to those written by
+ * Hibernate. A block is taken the way the pooled-lo optimizer takes one, in a transaction of its
+ * own, so the generator row stays locked only for the update even when the caller's transaction
+ * runs for long.
+ */
+@Component
+public class IdGenerators {
+
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+
+	public IdGenerators(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * @return the first of {@code count} consecutive ids of the sequence
+	 */
+	public long take(String sequence, int count) {
+		if(count == 0) return 0;
+		return transactionTemplate.execute(status -> {
+			long low = jdbcTemplate.queryForObject("SELECT next_val FROM id_generators WHERE sequence_name = ? FOR UPDATE", Long.class, sequence);
+			jdbcTemplate.update("UPDATE id_generators SET next_val = ? WHERE sequence_name = ?", low + count, sequence);
+			return low;
+		});
+	}
+}
@@ -0,0 +1,33 @@
+package br.com.repositories;
+
+import java.time.Duration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transactions open on the database of the current shard, read from
+ * {@code information_schema.innodb_trx}.
+ */
+@Component
+public class OpenTransactions {
+
+	private static final String OLDEST_WRITER = "SELECT COALESCE(TIMESTAMPDIFF(MICROSECOND, MIN(trx_started), NOW(6)), 0) "
+			+ "FROM information_schema.innodb_trx WHERE trx_is_read_only = 0 AND trx_mysql_thread_id <> CONNECTION_ID()";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public OpenTransactions(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Age of the oldest transaction that may still write, measured on the clock of the database,
+	 * or zero when there is none. {@code trx_started} has a precision of one second, so the age is
+	 * rounded up rather than down.
+	 */
+	public Duration oldestWriterAge() {
+		Long micros = jdbcTemplate.queryForObject(OLDEST_WRITER, Long.class);
+		return micros == null ? Duration.ZERO : Duration.ofNanos(micros * 1_000);
+	}
+}
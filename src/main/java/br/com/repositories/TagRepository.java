@@ -1,8 +1,14 @@
 package br.com.repositories;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import br.com.models.Tag;
 
@@ -10,4 +16,50 @@ public interface TagRepository extends JpaRepository<Tag, Long>{
 	
 	public List<Tag> findAllByUserId(Long id);
 	
+	@Query("SELECT t FROM Tag t WHERE t.user.id = :userId AND t.updatedAt <= :until " +
+			"AND (t.updatedAt > :since OR (t.updatedAt = :since AND t.id > :idAfter)) " +
+			"ORDER BY t.updatedAt, t.id")
+	public List<Tag> findChangedSince(
+			@Param("userId") Long userId,
+			@Param("since") Instant since,
+			@Param("idAfter") Long idAfter,
+			@Param("until") Instant until,
+			Pageable limit);
+	
+	/**
+	 * The owned tasks among {@code taskIds} that do not carry the tag yet.
+	 */
+	@Query(nativeQuery = true, value = "SELECT t.id FROM tasks t WHERE t.user_id = :userId AND t.id IN :taskIds " +
+			"AND NOT EXISTS (SELECT 1 FROM task_tags tt WHERE tt.task_id = t.id AND tt.tag_id = :tagId) ORDER BY t.id")
+	public List<Long> findOwnedTaskIdsWithoutTag(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds, @Param("tagId") Long tagId);
+	
+	/**
+	 * The owned tasks among {@code taskIds} that carry the tag.
+	 */
+	@Query(nativeQuery = true, value = "SELECT t.id FROM tasks t JOIN task_tags tt ON tt.task_id = t.id " +
+			"WHERE t.user_id = :userId AND t.id IN :taskIds AND tt.tag_id = :tagId ORDER BY t.id")
+	public List<Long> findOwnedTaskIdsWithTag(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds, @Param("tagId") Long tagId);
+	
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "INSERT IGNORE INTO task_tags (task_id, tag_id) " +
+			"SELECT t.id, :tagId FROM tasks t WHERE t.user_id = :userId AND t.id IN :taskIds")
+	public int attachToTasks(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds, @Param("tagId") Long tagId);
+	
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id " +
+			"WHERE t.user_id = :userId AND t.id IN :taskIds AND tt.tag_id = :tagId")
+	public int detachFromTasks(@Param("userId") Long userId, @Param("taskIds") Collection<Long> taskIds, @Param("tagId") Long tagId);
+	
+	/**
+	 * Clears the persistence context afterwards, so no loaded task keeps the tag in its
+	 * collection and writes the links back on flush.
+	 */
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(nativeQuery = true, value = "DELETE FROM task_tags WHERE tag_id = :tagId")
+	public int deleteLinks(@Param("tagId") Long tagId);
+	
+	@Modifying
+	@Query("DELETE FROM Tag t WHERE t.id = :tagId AND t.user.id = :userId")
+	public int deleteOwned(@Param("tagId") Long tagId, @Param("userId") Long userId);
+	
 }
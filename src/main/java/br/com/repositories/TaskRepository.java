@@ -1,14 +1,31 @@
 package br.com.repositories;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
 import br.com.models.Task;
 
-public interface TaskRepository extends JpaRepository<Task, Long>{
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom{
+	
+	/** Tags are matched with EXISTS, as in {@link TaskRepositoryCustom#findSparse}, so a task is listed once whatever its tags. */
+	String CUSTOMIZED_SEARCH_FILTER =
+			"WHERE t.user_id = :userId " +
+			"AND (:statusFromSearch IS NULL OR t.status = :statusFromSearch) " +
+			"AND (:priorityFromSearch IS NULL OR t.priority = :priorityFromSearch) " +
+			"AND (:tagNameFromSearch IS NULL OR EXISTS (SELECT 1 FROM task_tags tt JOIN tags tg ON tg.id = tt.tag_id " +
+			"WHERE tt.task_id = t.id AND tg.name = :tagNameFromSearch))";
 	
 	public Page<Task> findAllByUserId(Long userId, Pageable pageable);
 	
@@ -23,15 +40,11 @@ public interface TaskRepository extends JpaRepository<Task, Long>{
 	                   "    t.created_date, " +
 	                   "    t.due_date, " +
 	                   "    t.user_id, " +
-	                   "    tg.name " +
+	                   "    t.version, " +
+	                   "    t.updated_at " +
 	                   "FROM tasks t " +
-	                   "LEFT JOIN task_tags tt ON t.id = tt.task_id " +
-	                   "LEFT JOIN tags tg ON tt.tag_id = tg.id " +
-	                   "WHERE t.user_id = :userId " +
-	                   "AND (:statusFromSearch IS NULL OR t.status = :statusFromSearch) " +
-	                   "AND (:priorityFromSearch IS NULL OR t.priority = :priorityFromSearch) " +
-	                   "AND (:tagNameFromSearch IS NULL OR tg.name = :tagNameFromSearch)" +
-	                   "")
+	                   CUSTOMIZED_SEARCH_FILTER,
+	           countQuery = "SELECT COUNT(*) FROM tasks t " + CUSTOMIZED_SEARCH_FILTER)
 	public Page<Task> customizedSearch(
 			@Param("userId") Long userId,
 			@Param("statusFromSearch") String status, 
@@ -39,4 +52,63 @@ public interface TaskRepository extends JpaRepository<Task, Long>{
 			@Param("tagNameFromSearch") String tagName,
 			Pageable pageable
 			);
+	
+	/**
+	 * Tasks changed after the {@code (since, idAfter)} watermark and no later than {@code until},
+	 * served by the {@code (user_id, updated_at)} index.
+	 */
+	@Query("SELECT t FROM Task t WHERE t.user.id = :userId AND t.updatedAt <= :until " +
+			"AND (t.updatedAt > :since OR (t.updatedAt = :since AND t.id > :idAfter)) " +
+			"ORDER BY t.updatedAt, t.id")
+	public List<Task> findChangedSince(
+			@Param("userId") Long userId,
+			@Param("since") Instant since,
+			@Param("idAfter") Long idAfter,
+			@Param("until") Instant until,
+			Pageable limit);
+	
+	/**
+	 * Bumps version and {@code updated_at} of every task carrying the tag, whose representation
+	 * changes with the tag.
+	 */
+	@Transactional
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "UPDATE tasks SET updated_at = :now, version = version + 1 WHERE id IN (SELECT task_id FROM task_tags WHERE tag_id = :tagId)")
+	public int touchAllWithTag(@Param("tagId") Long tagId, @Param("now") Instant now);
+	
+	/**
+	 * Bumps version and {@code updated_at} of tasks whose tags were changed with set-based
+	 * statements, as Hibernate does when the tag collection of a loaded task changes.
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Task t SET t.version = t.version + 1, t.updatedAt = :now WHERE t.id IN :ids")
+	public int touchAll(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+	
+	/**
+	 * Sets the non-null values on the owned tasks among {@code ids}, bumping their version and
+	 * {@code updated_at} as an entity update would.
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Task t SET t.status = COALESCE(:status, t.status), t.priority = COALESCE(:priority, t.priority), " +
+			"t.dueDate = COALESCE(:dueDate, t.dueDate), t.version = t.version + 1, t.updatedAt = :now " +
+			"WHERE t.user.id = :userId AND t.id IN :ids")
+	public int updateAll(
+			@Param("userId") Long userId,
+			@Param("ids") Collection<Long> ids,
+			@Param("status") TaskStatus status,
+			@Param("priority") TaskPriority priority,
+			@Param("dueDate") LocalDate dueDate,
+			@Param("now") Instant now);
+	
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = :userId AND t.id IN :ids")
+	public int deleteSubtasksOf(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+	
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = :userId AND t.id IN :ids")
+	public int deleteTagLinksOf(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+	
+	@Modifying(flushAutomatically = true)
+	@Query("DELETE FROM Task t WHERE t.user.id = :userId AND t.id IN :ids")
+	public int deleteAllOwned(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
 }
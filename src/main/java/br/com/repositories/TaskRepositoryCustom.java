@@ -0,0 +1,28 @@
+package br.com.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.TaskFields;
+
+public interface TaskRepositoryCustom {
+	
+	/**
+	 * Same filters as {@link TaskRepository#customizedSearch}, selecting only the requested
+	 * columns. Tags and subtasks are read with one extra query each, and only when requested.
+	 */
+	public Page<SparseTaskResponse> findSparse(Long userId, String status, String priority, String tagName, 
+			TaskFields fields, Pageable pageable);
+	
+	/**
+	 * Same filters as {@link #findSparse}, optionally narrowed to {@code ids}, with the matching
+	 * rows locked ({@code FOR UPDATE}) in id order until the transaction ends. Unknown status or
+	 * priority values match nothing.
+	 */
+	public List<TaskSnapshot> lockMatching(Long userId, String status, String priority, String tagName, Collection<Long> ids);
+	
+}
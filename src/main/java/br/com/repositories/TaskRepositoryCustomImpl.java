@@ -0,0 +1,171 @@
+package br.com.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskFields;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.exceptions.BadRequestException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+	
+	private static final Set<String> SORTABLE = Set.of(
+			"id", "title", "description", "status", "priority", "createdDate", "dueDate", "updatedAt");
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Page<SparseTaskResponse> findSparse(Long userId, String status, String priority, String tagName,
+			TaskFields fields, Pageable pageable) {
+		
+		TaskStatus statusValue;
+		TaskPriority priorityValue;
+		try {
+			statusValue = status != null ? TaskStatus.valueOf(status) : null;
+			priorityValue = priority != null ? TaskPriority.valueOf(priority) : null;
+		}
+		catch(IllegalArgumentException e) {
+			return Page.empty(pageable);
+		}
+		
+		String from = from(statusValue, priorityValue, tagName);
+		
+		StringBuilder select = new StringBuilder("SELECT t.id AS id");
+		for (String column : fields.columns()) {
+			select.append(", t.").append(column).append(" AS ").append(column);
+		}
+		
+		TypedQuery<Tuple> query = entityManager.createQuery(select.toString() + from + orderBy(pageable.getSort()), Tuple.class);
+		bind(query, userId, statusValue, priorityValue, tagName);
+		if(pageable.isPaged()) {
+			query.setFirstResult((int) pageable.getOffset());
+			query.setMaxResults(pageable.getPageSize());
+		}
+		
+		Map<Long, SparseTaskResponse> tasks = new LinkedHashMap<>();
+		for (Tuple row : query.getResultList()) {
+			SparseTaskResponse task = new SparseTaskResponse(row.get("id", Long.class));
+			for (String name : fields.names()) {
+				switch (name) {
+					case "id" -> task.put(name, task.getId());
+					case "tags", "subtasks" -> task.put(name, new ArrayList<>());
+					default -> task.put(name, row.get(name));
+				}
+			}
+			tasks.put(task.getId(), task);
+		}
+		
+		if(!tasks.isEmpty() && fields.includes("tags")) loadTags(tasks);
+		if(!tasks.isEmpty() && fields.includes("subtasks")) loadSubtasks(tasks);
+		
+		return PageableExecutionUtils.getPage(new ArrayList<>(tasks.values()), pageable, () -> {
+			TypedQuery<Long> countQuery = entityManager.createQuery("SELECT COUNT(t)" + from, Long.class);
+			bind(countQuery, userId, statusValue, priorityValue, tagName);
+			return countQuery.getSingleResult();
+		});
+	}
+	
+	@Override
+	public List<TaskSnapshot> lockMatching(Long userId, String status, String priority, String tagName, Collection<Long> ids) {
+		
+		TaskStatus statusValue;
+		TaskPriority priorityValue;
+		try {
+			statusValue = status != null ? TaskStatus.valueOf(status) : null;
+			priorityValue = priority != null ? TaskPriority.valueOf(priority) : null;
+		}
+		catch(IllegalArgumentException e) {
+			return List.of();
+		}
+		
+		String jpql = "SELECT new br.com.repositories.TaskSnapshot(t.id, t.status, t.priority, t.dueDate)" 
+				+ from(statusValue, priorityValue, tagName) 
+				+ (ids != null ? " AND t.id IN :ids" : "") 
+				+ " ORDER BY t.id";
+		
+		TypedQuery<TaskSnapshot> query = entityManager.createQuery(jpql, TaskSnapshot.class)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+		bind(query, userId, statusValue, priorityValue, tagName);
+		if(ids != null) query.setParameter("ids", ids);
+		return query.getResultList();
+	}
+	
+	private static String from(TaskStatus status, TaskPriority priority, String tagName) {
+		StringBuilder from = new StringBuilder(" FROM Task t WHERE t.user.id = :userId");
+		if(status != null) from.append(" AND t.status = :status");
+		if(priority != null) from.append(" AND t.priority = :priority");
+		if(tagName != null) from.append(" AND EXISTS (SELECT 1 FROM Task t2 JOIN t2.tags tg WHERE t2.id = t.id AND tg.name = :tagName)");
+		return from.toString();
+	}
+	
+	private void loadTags(Map<Long, SparseTaskResponse> tasks) {
+		List<Tuple> rows = entityManager.createQuery(
+				"SELECT t.id AS taskId, tg.id AS id, tg.name AS name FROM Task t JOIN t.tags tg WHERE t.id IN :ids ORDER BY tg.id", Tuple.class)
+				.setParameter("ids", tasks.keySet())
+				.getResultList();
+		
+		for (Tuple row : rows) {
+			TagSummary tag = new TagSummary(row.get("id", Long.class), row.get("name", String.class));
+			tasks.get(row.get("taskId", Long.class)).addTag(tag);
+		}
+	}
+	
+	private void loadSubtasks(Map<Long, SparseTaskResponse> tasks) {
+		List<Tuple> rows = entityManager.createQuery(
+				"SELECT s.task.id AS taskId, s.id AS id, s.title AS title, s.description AS description, "
+				+ "s.createdDate AS createdDate, s.dueDate AS dueDate, s.status AS status "
+				+ "FROM Subtask s WHERE s.task.id IN :ids ORDER BY s.id", Tuple.class)
+				.setParameter("ids", tasks.keySet())
+				.getResultList();
+		
+		for (Tuple row : rows) {
+			SubtaskSummary subtask = new SubtaskSummary(
+					row.get("id", Long.class),
+					row.get("title", String.class),
+					row.get("description", String.class),
+					row.get("createdDate", LocalDate.class),
+					row.get("dueDate", LocalDate.class),
+					row.get("status", TaskStatus.class));
+			tasks.get(row.get("taskId", Long.class)).addSubtask(subtask);
+		}
+	}
+	
+	private static void bind(TypedQuery<?> query, Long userId, TaskStatus status, TaskPriority priority, String tagName) {
+		query.setParameter("userId", userId);
+		if(status != null) query.setParameter("status", status);
+		if(priority != null) query.setParameter("priority", priority);
+		if(tagName != null) query.setParameter("tagName", tagName);
+	}
+	
+	private static String orderBy(Sort sort) {
+		if(sort.isUnsorted()) return " ORDER BY t.id";
+		
+		StringJoiner orderBy = new StringJoiner(", ", " ORDER BY ", "");
+		for (Sort.Order order : sort) {
+			if(!SORTABLE.contains(order.getProperty())) throw new BadRequestException("Invalid sort property: " + order.getProperty());
+			orderBy.add("t." + order.getProperty() + (order.isAscending() ? " ASC" : " DESC"));
+		}
+		return orderBy.toString();
+	}
+}
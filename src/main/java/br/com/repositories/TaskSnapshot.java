@@ -0,0 +1,41 @@
+package br.com.repositories;
+
+import java.time.LocalDate;
+
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+
+/**
+ * The columns of a task that bulk updates can change, read without loading the entity graph.
+ */
+public class TaskSnapshot {
+	
+	private final Long id;
+	private final TaskStatus status;
+	private final TaskPriority priority;
+	private final LocalDate dueDate;
+	
+	public TaskSnapshot(Long id, TaskStatus status, TaskPriority priority, LocalDate dueDate) {
+		this.id = id;
+		this.status = status;
+		this.priority = priority;
+		this.dueDate = dueDate;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public TaskStatus getStatus() {
+		return status;
+	}
+
+	public TaskPriority getPriority() {
+		return priority;
+	}
+
+	public LocalDate getDueDate() {
+		return dueDate;
+	}
+	
+}
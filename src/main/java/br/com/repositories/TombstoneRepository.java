@@ -0,0 +1,37 @@
+package br.com.repositories;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.models.Tombstone;
+
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long>{
+	
+	@Query("SELECT t FROM Tombstone t WHERE t.userId = :userId AND t.deletedAt <= :until " +
+			"AND (t.deletedAt > :since OR (t.deletedAt = :since AND t.id > :idAfter)) " +
+			"ORDER BY t.deletedAt, t.id")
+	public List<Tombstone> findDeletedSince(
+			@Param("userId") Long userId,
+			@Param("since") Instant since,
+			@Param("idAfter") Long idAfter,
+			@Param("until") Instant until,
+			Pageable limit);
+	
+	@Transactional
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tombstones WHERE deleted_at < :before LIMIT :batchSize")
+	public int deleteOlderThan(@Param("before") Instant before, @Param("batchSize") int batchSize);
+	
+	@Modifying(flushAutomatically = true)
+	@Query(nativeQuery = true, value = "INSERT INTO tombstones (user_id, entity_type, entity_id, deleted_at) " +
+			"SELECT user_id, 'TASK', id, :now FROM tasks WHERE user_id = :userId AND id IN :ids")
+	public int recordTaskDeletions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("now") Instant now);
+}
@@ -1,7 +1,11 @@
 package br.com.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.models.User;
 
@@ -9,4 +13,9 @@ public interface UserRepository extends JpaRepository<User, Long>{
 
 	public UserDetails findByUsername(String username);
 	
+	@Transactional
+	@Modifying
+	@Query("UPDATE User u SET u.collectionVersion = u.collectionVersion + 1 WHERE u.id = :userId")
+	public int incrementCollectionVersion(@Param("userId") Long userId);
+	
 }
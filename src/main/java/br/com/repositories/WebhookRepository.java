@@ -0,0 +1,15 @@
+package br.com.repositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import br.com.models.Webhook;
+
+public interface WebhookRepository extends JpaRepository<Webhook, Long>{
+	
+	public List<Webhook> findAllByUserId(Long userId);
+	
+	public long countByUserId(Long userId);
+	
+}
@@ -11,12 +11,16 @@ import br.com.dtos.RegisterDto;
 import br.com.exceptions.BadRequestException;
 import br.com.models.User;
 import br.com.repositories.UserRepository;
+import br.com.sharding.ShardDirectory;
 
 @Service
 public class AuthService implements UserDetailsService{
 	
 	@Autowired
 	UserRepository userRepository;
+	
+	@Autowired
+	ShardDirectory shardDirectory;
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -30,7 +34,9 @@ public class AuthService implements UserDetailsService{
 		
 		String encryptPassword = new BCryptPasswordEncoder().encode(dto.getPassword());
 		User user = new User(dto.getUsername(), encryptPassword);
-		return userRepository.save(user);
+		User saved = userRepository.save(user);
+		shardDirectory.place(saved);
+		return saved;
 	}
 
 }
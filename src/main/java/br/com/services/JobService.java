@@ -0,0 +1,38 @@
+package br.com.services;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import br.com.dtos.JobResponse;
+import br.com.enums.Role;
+import br.com.exceptions.BadRequestException;
+import br.com.jobs.Job;
+import br.com.jobs.JobStore;
+import br.com.mappers.JobMapper;
+import br.com.models.User;
+
+@Service
+public class JobService {
+	
+	private final JobStore jobStore;
+	private final UserService userService;
+	private final JobMapper jobMapper;
+	
+	public JobService(JobStore jobStore, UserService userService, JobMapper jobMapper) {
+		this.jobStore = jobStore;
+		this.userService = userService;
+		this.jobMapper = jobMapper;
+	}
+	
+	/**
+	 * Admins can follow the jobs of any user, e.g. the purge of an account they deleted.
+	 */
+	public JobResponse findById(Long jobId) {
+		Job job = jobStore.find(jobId).orElseThrow(() -> new BadRequestException("Job not found"));
+		User user = userService.getAuthenticatedUser();
+		if(!user.getId().equals(job.getUserId()) && user.getRole() != Role.ROLE_ADMIN) {
+			throw new AccessDeniedException("Job doesn't belong to the user");
+		}
+		return jobMapper.toResponse(job);
+	}
+}
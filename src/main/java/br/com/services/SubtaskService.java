@@ -1,20 +1,30 @@
 package br.com.services;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 import java.time.LocalDate;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.audit.AuditLog;
+import br.com.audit.FieldChanges;
+import br.com.configs.ETags;
 import br.com.controllers.SubtaskController;
 import br.com.dtos.SubtaskCreateRequest;
 import br.com.dtos.SubtaskResponse;
 import br.com.dtos.SubtaskUpdateRequest;
 import br.com.dtos.TaskResponse;
+import br.com.enums.ChangeAction;
+import br.com.enums.SyncEntityType;
 import br.com.enums.TaskStatus;
+import br.com.events.ChangeEvent;
 import br.com.exceptions.BadRequestException;
+import br.com.exceptions.PreconditionFailedException;
+import br.com.links.LinkTemplate;
+import br.com.mappers.SubtaskMapper;
+import br.com.mappers.TaskMapper;
 import br.com.models.Subtask;
 import br.com.models.Task;
 import br.com.repositories.SubtaskRepository;
@@ -22,85 +32,126 @@ import br.com.repositories.SubtaskRepository;
 @Service
 public class SubtaskService {
 	
+	private static final LinkTemplate SELF = LinkTemplate.of(methodOn(SubtaskController.class).findById(null), "subtaskId");
+	private static final LinkTemplate REMOVE = LinkTemplate.of(methodOn(SubtaskController.class).removeSubtask(null), "subtaskId");
+	private static final LinkTemplate UPDATE = LinkTemplate.of(methodOn(SubtaskController.class).partialUpdate(null, null, null), "subtaskId");
+	
 	private final SubtaskRepository subtaskRepository;
 	private final TaskService taskService;
-	private final ModelMapper modelMapper;
+	private final SubtaskMapper subtaskMapper;
+	private final TaskMapper taskMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AuditLog auditLog;
 	
-	public SubtaskService(SubtaskRepository subtaskRepository, TaskService taskService, ModelMapper modelMapper) {
+	public SubtaskService(SubtaskRepository subtaskRepository, TaskService taskService, SubtaskMapper subtaskMapper, TaskMapper taskMapper,
+			ApplicationEventPublisher eventPublisher, AuditLog auditLog) {
 		this.subtaskRepository = subtaskRepository;
+		this.eventPublisher = eventPublisher;
+		this.auditLog = auditLog;
 		this.taskService = taskService;
-		this.modelMapper = modelMapper;
+		this.subtaskMapper = subtaskMapper;
+		this.taskMapper = taskMapper;
 	}
 
 	public SubtaskResponse findById(Long id) {
+		return addLinks(findByIdCompact(id));
+	}
+	
+	public SubtaskResponse findByIdCompact(Long id) {
 		Subtask subtask = subtaskRepository.findById(id).orElseThrow(() -> new BadRequestException("Subtask not found"));
 		Task task = subtask.getTask();
 		
 		taskService.checkingTaskOwnership(task);
 		
-		SubtaskResponse subtaskResponse = modelMapper.map(subtask, SubtaskResponse.class);	
-		return addLinks(subtaskResponse);
+		return subtaskMapper.toResponse(subtask);
 	}
 	
+	@Transactional
 	public TaskResponse addSubtask(Long taskId, SubtaskCreateRequest subtaskRequest) {
 		Task task = taskService.findTaskOrThrow(taskId);
 		
 		taskService.checkingTaskOwnership(task);
 		
-		Subtask subtask = modelMapper.map(subtaskRequest, Subtask.class);
+		Subtask subtask = subtaskMapper.toEntity(subtaskRequest);
 		subtask = preFirstPersist(subtask);
 		
 		subtask.setTask(task);
+		task.addSubtask(subtask);
 		subtaskRepository.save(subtask);
-		return taskService.addLinksToATask(modelMapper.map(task, TaskResponse.class));
+		taskService.touch(task);
+		eventPublisher.publishEvent(ChangeEvent.ofSubtask(task.getUser().getId(), ChangeAction.CREATED, subtask.getId(), taskId));
+		return taskService.addLinksToATask(taskMapper.toResponse(task));
 	}
 	
+	@Transactional
 	public TaskResponse removeSubtask(Long subtaskId) {
 		Subtask subtask = subtaskRepository.findById(subtaskId).orElseThrow(() -> new BadRequestException("Subtask not found"));
 		Task task = subtask.getTask();
 		
 		taskService.checkingTaskOwnership(task);
 		
-		subtaskRepository.deleteById(subtaskId);;
+		task.removeSubtasks(subtask);
+		subtaskRepository.delete(subtask);
+		taskService.recordDeletion(task.getUser(), SyncEntityType.SUBTASK, subtaskId);
+		taskService.touch(task);
+		eventPublisher.publishEvent(ChangeEvent.ofSubtask(task.getUser().getId(), ChangeAction.DELETED, subtaskId, task.getId()));
 		
-		return taskService.addLinksToATask(modelMapper.map(task, TaskResponse.class));
+		return taskService.addLinksToATask(taskMapper.toResponse(task));
 	}
 	
-	public SubtaskResponse partialUpdate(Long subtaskId, SubtaskUpdateRequest request) {
+	/**
+	 * @param ifMatch value of the If-Match header, or null to update unconditionally
+	 */
+	@Transactional
+	public SubtaskResponse partialUpdate(Long subtaskId, SubtaskUpdateRequest request, String ifMatch) {
 		Subtask subtask = subtaskRepository.findById(subtaskId).orElseThrow(() -> new BadRequestException("Subtask not found"));	
 		Task task = subtask.getTask();
 		
 		taskService.checkingTaskOwnership(task);
 		
+		if(ifMatch != null && !ETags.matches(ifMatch, subtask.getId(), subtask.getVersion())) {
+			throw new PreconditionFailedException("Subtask was modified since it was read");
+		}
+		
 		int countChanges = 0;
+		FieldChanges changes = FieldChanges.of(subtask);
 		
 		if(request.getTitle() != null) {
+			changes.add("title", subtask.getTitle(), request.getTitle());
 			subtask.setTitle(request.getTitle());
 			countChanges++;
 		}
 		if(request.getDescription() != null) {
+			changes.add("description", subtask.getDescription(), request.getDescription());
 			subtask.setDescription(request.getDescription());
 			countChanges++;
 		}
 		if(request.getDueDate() != null) {
+			changes.add("dueDate", subtask.getDueDate(), request.getDueDate());
 			subtask.setDueDate(request.getDueDate());
 			countChanges++;
 		}
 		if(request.getStatus() != null) {
+			changes.add("status", subtask.getStatus(), request.getStatus());
 			subtask.setStatus(request.getStatus());
 			countChanges++;
 		}
 		if(countChanges > 0) {
-			SubtaskResponse subtaskResponse = modelMapper.map(subtaskRepository.save(subtask), SubtaskResponse.class);
+			subtask = subtaskRepository.save(subtask);
+			subtaskRepository.flush();
+			SubtaskResponse subtaskResponse = subtaskMapper.toResponse(subtask);
+			taskService.touch(task);
+			auditLog.record(changes);
+			eventPublisher.publishEvent(ChangeEvent.ofSubtask(task.getUser().getId(), ChangeAction.UPDATED, subtaskId, task.getId()));
 			return addLinks(subtaskResponse);
 		}
 		throw new BadRequestException("Please provide updates");
 	}
 	
 	private SubtaskResponse addLinks(SubtaskResponse subtaskResponse) {
-		subtaskResponse.add(linkTo(methodOn(SubtaskController.class).findById(subtaskResponse.getId())).withSelfRel());
-		subtaskResponse.add(linkTo(methodOn(SubtaskController.class).removeSubtask(subtaskResponse.getId())).withRel("removeSubtask"));
-		subtaskResponse.add(linkTo(methodOn(SubtaskController.class).partialUpdate(subtaskResponse.getId(), null)).withRel("update"));
+		subtaskResponse.add(SELF.withSelfRel(subtaskResponse.getId()));
+		subtaskResponse.add(REMOVE.withRel(subtaskResponse.getId(), "removeSubtask"));
+		subtaskResponse.add(UPDATE.withRel(subtaskResponse.getId(), "update"));
 		
 		return subtaskResponse;
 	}
@@ -0,0 +1,215 @@
+package br.com.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.com.dtos.SyncResponse;
+import br.com.dtos.TombstoneDto;
+import br.com.exceptions.BadRequestException;
+import br.com.exceptions.ResyncRequiredException;
+import br.com.mappers.TagMapper;
+import br.com.mappers.TaskMapper;
+import br.com.models.Tag;
+import br.com.models.Task;
+import br.com.models.Tombstone;
+import br.com.models.User;
+import br.com.repositories.OpenTransactions;
+import br.com.repositories.TagRepository;
+import br.com.repositories.TaskRepository;
+import br.com.sharding.Shards;
+import br.com.repositories.TombstoneRepository;
+
+/**
+ * Incremental sync of the authenticated user's tasks, tags and deletions.
+ *
+ * Tasks, tags and tombstones are read as one stream ordered by {@code (updated_at, source, id)},
+ * each source through its {@code (user_id, updated_at)} index, and the watermark is the last
+ * position handed out. {@code updated_at} is stamped before commit, so a transaction still in
+ * flight may commit a timestamp lower than rows already visible: the stream is only read up to
+ * the start of the oldest transaction that may still write, less the settle window, which covers
+ * the time between a stamp and the start of its transaction and the skew between the clocks. A
+ * long import or archive run holds the watermark back until it commits.
+ */
+@Service
+public class SyncService {
+
+	static final int DEFAULT_SIZE = 100;
+	static final int MAX_SIZE = 500;
+
+	private static final int TASKS = 0;
+	private static final int TAGS = 1;
+	private static final int TOMBSTONES = 2;
+
+	private static final int PURGE_BATCH_SIZE = 1000;
+
+	private final TaskRepository taskRepository;
+	private final TagRepository tagRepository;
+	private final TombstoneRepository tombstoneRepository;
+	private final OpenTransactions openTransactions;
+	private final UserService userService;
+	private final TaskMapper taskMapper;
+	private final TagMapper tagMapper;
+	private final Shards shards;
+	private final Duration settleWindow;
+	private final Duration tombstoneRetention;
+
+	public SyncService(TaskRepository taskRepository, TagRepository tagRepository, TombstoneRepository tombstoneRepository,
+			OpenTransactions openTransactions, UserService userService, TaskMapper taskMapper, TagMapper tagMapper, Shards shards,
+			@Value("${api.sync.settle-window:2s}") Duration settleWindow,
+			@Value("${api.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+		this.taskRepository = taskRepository;
+		this.tagRepository = tagRepository;
+		this.tombstoneRepository = tombstoneRepository;
+		this.openTransactions = openTransactions;
+		this.userService = userService;
+		this.taskMapper = taskMapper;
+		this.tagMapper = tagMapper;
+		this.shards = shards;
+		this.settleWindow = settleWindow;
+		this.tombstoneRetention = tombstoneRetention;
+	}
+
+	/**
+	 * @param watermark value returned by the previous call, or null for a full download
+	 * @param size maximum number of changes in the page
+	 */
+	public SyncResponse changesSince(String watermark, Integer size) {
+		User user = userService.getAuthenticatedUser();
+		int limit = size == null ? DEFAULT_SIZE : size;
+		if(limit < 1 || limit > MAX_SIZE) throw new BadRequestException("Size must be between 1 and " + MAX_SIZE);
+
+		Watermark from = Watermark.parse(watermark);
+		Instant now = Instant.now();
+		if(!from.time.equals(Instant.EPOCH) && from.time.isBefore(now.minus(tombstoneRetention))) {
+			throw new ResyncRequiredException("Watermark is too old, download the tasks and tags again");
+		}
+		Instant until = now.minus(openTransactions.oldestWriterAge()).minus(settleWindow).truncatedTo(ChronoUnit.MILLIS);
+		PageRequest page = PageRequest.of(0, limit + 1);
+
+		List<Change> changes = new ArrayList<>();
+		for(Task task : taskRepository.findChangedSince(user.getId(), from.time, from.idAfter(TASKS), until, page)) {
+			changes.add(new Change(task.getUpdatedAt(), TASKS, task.getId(), task));
+		}
+		for(Tag tag : tagRepository.findChangedSince(user.getId(), from.time, from.idAfter(TAGS), until, page)) {
+			changes.add(new Change(tag.getUpdatedAt(), TAGS, tag.getId(), tag));
+		}
+		for(Tombstone tombstone : tombstoneRepository.findDeletedSince(user.getId(), from.time, from.idAfter(TOMBSTONES), until, page)) {
+			changes.add(new Change(tombstone.getDeletedAt(), TOMBSTONES, tombstone.getId(), tombstone));
+		}
+		changes.sort(Change.ORDER);
+
+		SyncResponse response = new SyncResponse();
+		boolean hasMore = changes.size() > limit;
+		if(hasMore) changes = changes.subList(0, limit);
+
+		for(Change change : changes) {
+			switch(change.source) {
+				case TASKS -> response.getTasks().add(taskMapper.toResponse((Task) change.entity));
+				case TAGS -> response.getTags().add(tagMapper.toDto((Tag) change.entity));
+				default -> {
+					Tombstone tombstone = (Tombstone) change.entity;
+					response.getDeleted().add(new TombstoneDto(tombstone.getEntityType(), tombstone.getEntityId(), tombstone.getDeletedAt()));
+				}
+			}
+		}
+
+		Watermark next;
+		if(hasMore) {
+			Change last = changes.get(changes.size() - 1);
+			next = new Watermark(last.time, last.source, last.id);
+		}
+		else {
+			next = from.time.isBefore(until) ? Watermark.after(until) : from;
+		}
+		response.setWatermark(next.toString());
+		response.setHasMore(hasMore);
+		return response;
+	}
+
+	@Scheduled(fixedDelayString = "${api.sync.purge-interval:PT6H}")
+	public void purgeTombstones() {
+		Instant before = Instant.now().minus(tombstoneRetention);
+		shards.forEach(() -> {
+			while(tombstoneRepository.deleteOlderThan(before, PURGE_BATCH_SIZE) == PURGE_BATCH_SIZE);
+		});
+	}
+
+	private static class Change {
+		static final Comparator<Change> ORDER = Comparator.<Change, Instant>comparing(c -> c.time)
+				.thenComparingInt(c -> c.source)
+				.thenComparingLong(c -> c.id);
+
+		final Instant time;
+		final int source;
+		final long id;
+		final Object entity;
+
+		Change(Instant time, int source, long id, Object entity) {
+			this.time = time;
+			this.source = source;
+			this.id = id;
+			this.entity = entity;
+		}
+	}
+
+	/**
+	 * Position in the change stream, rendered as {@code <epoch millis>.<source>.<id>}.
+	 * Clients should treat it as opaque.
+	 */
+	static final class Watermark {
+		static final Watermark START = new Watermark(Instant.EPOCH, TASKS, 0);
+
+		final Instant time;
+		final int source;
+		final long id;
+
+		Watermark(Instant time, int source, long id) {
+			this.time = time;
+			this.source = source;
+			this.id = id;
+		}
+
+		/** Position after every change stamped at or before {@code time}. */
+		static Watermark after(Instant time) {
+			return new Watermark(time, TOMBSTONES, Long.MAX_VALUE);
+		}
+
+		static Watermark parse(String value) {
+			if(value == null || value.isBlank()) return START;
+			String[] parts = value.split("\\.");
+			try {
+				if(parts.length != 3) throw new NumberFormatException();
+				int source = Integer.parseInt(parts[1]);
+				if(source < TASKS || source > TOMBSTONES) throw new NumberFormatException();
+				return new Watermark(Instant.ofEpochMilli(Long.parseLong(parts[0])), source, Long.parseLong(parts[2]));
+			}
+			catch(NumberFormatException e) {
+				throw new BadRequestException("Invalid watermark");
+			}
+		}
+
+		/**
+		 * Rows of {@code source} stamped exactly at {@link #time} are only returned above this id:
+		 * all of them for sources after the watermark's, none for sources before it.
+		 */
+		long idAfter(int source) {
+			if(source < this.source) return Long.MAX_VALUE;
+			if(source > this.source) return -1;
+			return id;
+		}
+
+		@Override
+		public String toString() {
+			return time.toEpochMilli() + "." + source + "." + id;
+		}
+	}
+}
@@ -1,19 +1,30 @@
 package br.com.services;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 import java.util.ArrayList;
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.audit.AuditLog;
+import br.com.audit.FieldChanges;
 import br.com.controllers.TagController;
+import br.com.dtos.BulkResponse;
 import br.com.dtos.TagDto;
+import br.com.dtos.TaskIdsRequest;
 import br.com.dtos.TaskResponse;
+import br.com.enums.ChangeAction;
+import br.com.enums.SyncEntityType;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
 import br.com.exceptions.BadRequestException;
+import br.com.links.LinkTemplate;
+import br.com.mappers.TagMapper;
+import br.com.mappers.TaskMapper;
 import br.com.models.Tag;
 import br.com.models.Task;
 import br.com.models.User;
@@ -22,27 +33,40 @@ import br.com.repositories.TagRepository;
 @Service
 public class TagService {
 	
+	private static final LinkTemplate SELF = LinkTemplate.of(methodOn(TagController.class).findById(null), "tagId");
+	private static final LinkTemplate FIND_ALL = LinkTemplate.of(methodOn(TagController.class).findAllTagsByUserAuthenticated(null));
+	private static final LinkTemplate UPDATE = LinkTemplate.of(methodOn(TagController.class).updateTag(null, null), "tagId");
+	private static final LinkTemplate DELETE = LinkTemplate.of(methodOn(TagController.class).deleteTag(null), "tagId");
+	
 	private final TagRepository tagRepository;
 	private final TaskService taskService;
 	private final UserService userService;
-	private final ModelMapper modelMapper;
+	private final TagMapper tagMapper;
+	private final TaskMapper taskMapper;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AuditLog auditLog;
 	
-	public TagService(TagRepository taskTagRepository, TaskService taskService, UserService userService, ModelMapper modelMapper) {
+	public TagService(TagRepository taskTagRepository, TaskService taskService, UserService userService, TagMapper tagMapper, TaskMapper taskMapper,
+			ApplicationEventPublisher eventPublisher, AuditLog auditLog) {
 		this.tagRepository = taskTagRepository;
+		this.eventPublisher = eventPublisher;
+		this.auditLog = auditLog;
 		this.taskService = taskService;
 		this.userService = userService;
-		this.modelMapper = modelMapper;
+		this.tagMapper = tagMapper;
+		this.taskMapper = taskMapper;
 	}
 
 	public TagDto findById(Long id) {
+		return addLinksToTags(findByIdCompact(id));
+	}
+	
+	public TagDto findByIdCompact(Long id) {
 		Tag tag = tagRepository.findById(id).orElseThrow(() -> new BadRequestException("Tag not found!"));
 		
 		checkingTagOwnership(tag);
 		
-		TagDto tagDto = modelMapper.map(tag, TagDto.class);
-		
-		tagDto = addLinksToTags(tagDto);
-		return tagDto;
+		return tagMapper.toDto(tag);
 	}
 	
 	public List<TagDto> findAllTagsByUserAuthenticated() {
@@ -50,13 +74,19 @@ public class TagService {
 		List<Tag> list = tagRepository.findAllByUserId(user.getId());
 		List<TagDto> listTagDto = new ArrayList<>();
 		for (Tag tag : list) {
-			TagDto tagDto = modelMapper.map(tag, TagDto.class);
-			tagDto.add(linkTo(methodOn(TagController.class).findById(tagDto.getId())).withSelfRel());
+			TagDto tagDto = tagMapper.toDto(tag);
+			tagDto.add(SELF.withSelfRel(tagDto.getId()));
 			listTagDto.add(tagDto);
 		}
 		return listTagDto;
 	}
 	
+	public List<TagDto> findAllTagsByUserAuthenticatedCompact() {
+		User user = userService.getAuthenticatedUser();
+		return tagRepository.findAllByUserId(user.getId()).stream().map(tagMapper::toDto).toList();
+	}
+	
+	@Transactional
 	public TagDto createTag(TagDto tagDto) {
 		User user = userService.getAuthenticatedUser();
 		int numberOfTags = user.getTags().size();
@@ -65,10 +95,13 @@ public class TagService {
 		
 		Tag tag = new Tag(tagDto.getName(), user);
 		tag = tagRepository.save(prePersist(tag));
-		tagDto = modelMapper.map(tag, TagDto.class);
+		userService.touchCollection(user);
+		eventPublisher.publishEvent(ChangeEvent.ofTag(user.getId(), ChangeAction.CREATED, tag.getId()));
+		tagDto = tagMapper.toDto(tag);
 		return addLinksToTags(tagDto);
 	}
 	
+	@Transactional
 	public TagDto updateTag(Long tagId, TagDto tagDto) {
 		Tag tag = tagRepository.findById(tagId).orElseThrow(() -> new BadRequestException("Tag not found"));
 		
@@ -76,12 +109,16 @@ public class TagService {
 		
 		tag.setName(tagDto.getName());
 		
-		tagRepository.save(prePersist(tag));
-		tagDto = modelMapper.map(tag, TagDto.class);
+		tag = tagRepository.save(prePersist(tag));
+		taskService.touchTasksWithTag(tag.getId());
+		userService.touchCollection(tag.getUser());
+		eventPublisher.publishEvent(ChangeEvent.ofTag(tag.getUser().getId(), ChangeAction.UPDATED, tagId));
+		tagDto = tagMapper.toDto(tag);
 		tagDto = addLinksToTags(tagDto);
 		return tagDto;
 	}
 	
+	@Transactional
 	public TaskResponse addTag(Long taskId, Long tagId) {
 		Task task = taskService.findTaskOrThrow(taskId);
 		
@@ -91,12 +128,17 @@ public class TagService {
 		
 		checkingTagOwnership(tag);
 		
+		boolean attached = !task.getTags().contains(tag);
 		task.addTag(tag);
 		tag.addTask(task);
 		tagRepository.save(tag);
-		return taskService.addLinksToATask(modelMapper.map(task, TaskResponse.class));
+		taskService.touch(task);
+		if(attached) auditLog.record(FieldChanges.ofTag(task, tagId).add("tag", null, tag.getName()));
+		eventPublisher.publishEvent(ChangeEvent.ofTask(task.getUser().getId(), ChangeAction.UPDATED, taskId));
+		return taskService.addLinksToATask(taskMapper.toResponse(task));
 	}
 	
+	@Transactional
 	public TaskResponse removeTag(Long taskId, Long tagId) {
 		Task task = taskService.findTaskOrThrow(taskId);
 		
@@ -106,26 +148,93 @@ public class TagService {
 		
 		checkingTagOwnership(tag);	
 		
+		boolean detached = task.getTags().contains(tag);
 		tag.removeTask(task);
 		tagRepository.save(tag);
-		return taskService.addLinksToATask(modelMapper.map(task, TaskResponse.class));
+		taskService.touch(task);
+		if(detached) auditLog.record(FieldChanges.ofTag(task, tagId).add("tag", tag.getName(), null));
+		eventPublisher.publishEvent(ChangeEvent.ofTask(task.getUser().getId(), ChangeAction.UPDATED, taskId));
+		return taskService.addLinksToATask(taskMapper.toResponse(task));
+	}
+	
+	/**
+	 * Attaches the tag to the owned tasks among the given ids with one multi-row insert, ids of
+	 * tasks that already carry it or belong to someone else are ignored.
+	 */
+	@Transactional
+	public BulkResponse attachToTasks(Long tagId, TaskIdsRequest request) {
+		Tag tag = tagRepository.findById(tagId).orElseThrow(() -> new BadRequestException("Tag not found"));
+		
+		checkingTagOwnership(tag);
+		
+		Long userId = tag.getUser().getId();
+		List<Long> taskIds = tagRepository.findOwnedTaskIdsWithoutTag(userId, request.getTaskIds(), tagId);
+		if(taskIds.isEmpty()) return new BulkResponse(0);
+		
+		int attached = tagRepository.attachToTasks(userId, taskIds, tagId);
+		afterBulkChange(tag, taskIds, null, tag.getName());
+		return new BulkResponse(attached);
 	}
 	
+	/**
+	 * Detaches the tag from the owned tasks among the given ids with one multi-row delete.
+	 */
+	@Transactional
+	public BulkResponse detachFromTasks(Long tagId, TaskIdsRequest request) {
+		Tag tag = tagRepository.findById(tagId).orElseThrow(() -> new BadRequestException("Tag not found"));
+		
+		checkingTagOwnership(tag);
+		
+		Long userId = tag.getUser().getId();
+		List<Long> taskIds = tagRepository.findOwnedTaskIdsWithTag(userId, request.getTaskIds(), tagId);
+		if(taskIds.isEmpty()) return new BulkResponse(0);
+		
+		int detached = tagRepository.detachFromTasks(userId, taskIds, tagId);
+		afterBulkChange(tag, taskIds, tag.getName(), null);
+		return new BulkResponse(detached);
+	}
+	
+	private void afterBulkChange(Tag tag, List<Long> taskIds, String oldValue, String newValue) {
+		taskService.touchAll(taskIds);
+		userService.touchCollection(tag.getUser());
+		
+		List<FieldChanges> history = new ArrayList<>(taskIds.size());
+		List<ChangeEvent> changes = new ArrayList<>(taskIds.size());
+		for (Long taskId : taskIds) {
+			history.add(FieldChanges.ofTag(taskId, tag.getId()).add("tag", oldValue, newValue));
+			changes.add(ChangeEvent.ofTask(tag.getUser().getId(), ChangeAction.UPDATED, taskId));
+		}
+		auditLog.recordAll(history);
+		eventPublisher.publishEvent(new ChangeBatch(changes));
+	}
+	
+	/**
+	 * Removes the links of the tag with one set-based delete instead of loading its tasks, after
+	 * writing their history with one set-based insert. The persistence context is cleared by
+	 * {@link TagRepository#deleteLinks}; entities loaded before this call are detached.
+	 */
+	@Transactional
 	public void deleteTag(Long tagId) {
 		Tag tag = tagRepository.findById(tagId).orElseThrow(() -> new BadRequestException("Tag not found"));
 		
 		checkingTagOwnership(tag);
 		
-	    if (!tag.getTasks().isEmpty()) {
-	        for (Task task : tag.getTasks()) {
-	            task.getTags().remove(tag); 
-	        }
-	    }
+		User owner = tag.getUser();
+		taskService.touchTasksWithTag(tagId);
+		auditLog.writeTagDetached(tagId, tag.getName());
+		tagRepository.deleteLinks(tagId);
+		tagRepository.deleteOwned(tagId, owner.getId());
 		
-		tagRepository.delete(tag);
+		taskService.recordDeletion(owner, SyncEntityType.TAG, tagId);
+		userService.touchCollection(owner);
+		eventPublisher.publishEvent(ChangeEvent.ofTag(owner.getId(), ChangeAction.DELETED, tagId));
 		return;	
 	}
 	
+	public String collectionETag() {
+		return userService.collectionETag();
+	}
+	
 	protected void checkingTagOwnership(Tag tag) {
 		User userFromTag = tag.getUser();
 		User userAuthenticated = userService.getAuthenticatedUser();
@@ -133,10 +242,10 @@ public class TagService {
 	}
 	
 	private TagDto addLinksToTags(TagDto tagDto) {
-		tagDto.add(linkTo(methodOn(TagController.class).findById(tagDto.getId())).withSelfRel());
-		tagDto.add(linkTo(methodOn(TagController.class).findAllTagsByUserAuthenticated()).withRel("findAllTags"));
-		tagDto.add(linkTo(methodOn(TagController.class).updateTag(tagDto.getId(), null)).withRel("update"));
-		tagDto.add(linkTo(methodOn(TagController.class).deleteTag(tagDto.getId())).withRel("delete"));
+		tagDto.add(SELF.withSelfRel(tagDto.getId()));
+		tagDto.add(FIND_ALL.withRel("findAllTags"));
+		tagDto.add(UPDATE.withRel(tagDto.getId(), "update"));
+		tagDto.add(DELETE.withRel(tagDto.getId(), "delete"));
 		return tagDto;
 	}
 	
@@ -1,11 +1,15 @@
 package br.com.services ; 
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
@@ -13,96 +17,413 @@ import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.archive.ArchiveSearch;
+import br.com.audit.AuditLog;
+import br.com.audit.FieldChanges;
+import br.com.configs.ETags;
 import br.com.controllers.SubtaskController;
 import br.com.controllers.TagController;
 import br.com.controllers.TaskController;
+import br.com.dtos.BulkResponse;
+import br.com.dtos.CompactPage;
+import br.com.dtos.JobResponse;
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.TaskBatchRequest;
+import br.com.dtos.TaskBulkUpdateRequest;
 import br.com.dtos.TaskCreateRequest;
+import br.com.dtos.TaskFields;
+import br.com.dtos.TaskHistoryResponse;
 import br.com.dtos.TaskResponse;
 import br.com.dtos.TaskUpdateRequest;
+import br.com.enums.ChangeAction;
+import br.com.enums.ExportFormat;
+import br.com.enums.SyncEntityType;
 import br.com.enums.TaskPriority;
 import br.com.enums.TaskStatus;
 import br.com.exceptions.BadRequestException;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+import br.com.exceptions.PreconditionFailedException;
+import br.com.export.TaskExporter;
+import br.com.imports.TaskImporter;
+import br.com.links.LinkTemplate;
+import br.com.mappers.JobMapper;
+import br.com.mappers.TaskMapper;
 import br.com.models.Task;
+import br.com.models.Tombstone;
 import br.com.models.User;
 import br.com.repositories.TaskRepository;
+import br.com.repositories.TaskSnapshot;
+import br.com.repositories.TombstoneRepository;
+import br.com.sharding.ShardContext;
 
 @Service
 public class TaskService {
+	
+	private static final LinkTemplate SELF = LinkTemplate.of(methodOn(TaskController.class).findById(null), "taskId");
+	private static final LinkTemplate UPDATE = LinkTemplate.of(methodOn(TaskController.class).partialUpdate(null, null, null), "taskId");
+	private static final LinkTemplate DELETE = LinkTemplate.of(methodOn(TaskController.class).delete(null), "taskId");
+	private static final LinkTemplate FIND_ALL = LinkTemplate.of(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null));
+	private static final LinkTemplate ADD_SUBTASK = LinkTemplate.of(methodOn(SubtaskController.class).addSubtask(null, null), "taskId");
+	private static final LinkTemplate ADD_TAG = LinkTemplate.of(methodOn(TagController.class).addTag(null, null), "taskId");
+
+	public static final int MAX_BULK_IDS = 1000;
+	private static final int BULK_CHUNK_SIZE = 1000;
 
 	private final TaskRepository taskRepository;
 	private final UserService userService;
-	private final ModelMapper modelMapper;
+	private final TaskMapper taskMapper;
 	private final PagedResourcesAssembler<TaskResponse> assembler;
+	private final PagedResourcesAssembler<SparseTaskResponse> sparseAssembler;
+	private final TombstoneRepository tombstoneRepository;
+	private final ApplicationEventPublisher eventPublisher;
+	private final AuditLog auditLog;
+	private final TaskExporter taskExporter;
+	private final TaskImporter taskImporter;
+	private final JobMapper jobMapper;
+	private final ArchiveSearch archiveSearch;
 
-	public TaskService(TaskRepository taskRepository, UserService userService, ModelMapper modelMapper, PagedResourcesAssembler<TaskResponse> assembler) {
+	public TaskService(TaskRepository taskRepository, UserService userService, TaskMapper taskMapper, PagedResourcesAssembler<TaskResponse> assembler,
+			PagedResourcesAssembler<SparseTaskResponse> sparseAssembler, TombstoneRepository tombstoneRepository,
+			ApplicationEventPublisher eventPublisher, AuditLog auditLog, TaskExporter taskExporter, TaskImporter taskImporter,
+			JobMapper jobMapper, ArchiveSearch archiveSearch) {
 		this.taskRepository = taskRepository;
+		this.archiveSearch = archiveSearch;
+		this.taskExporter = taskExporter;
+		this.taskImporter = taskImporter;
+		this.jobMapper = jobMapper;
+		this.tombstoneRepository = tombstoneRepository;
+		this.eventPublisher = eventPublisher;
+		this.auditLog = auditLog;
 		this.userService = userService;
-		this.modelMapper = modelMapper;
+		this.taskMapper = taskMapper;
 		this.assembler = assembler;
+		this.sparseAssembler = sparseAssembler;
 	}
 
 	public TaskResponse findById(Long taskId) {
+		return addLinksToATask(findByIdCompact(taskId));
+	}
+	
+	public TaskResponse findByIdCompact(Long taskId) {
 		Task task = taskRepository.findById(taskId).orElseThrow(() -> new BadRequestException("Task not found"));
 		checkingTaskOwnership(task);
-		TaskResponse taskResponse = modelMapper.map(task, TaskResponse.class);
-		return addLinksToATask(taskResponse);
+		return taskMapper.toResponse(task);
 	}
 	
 	public PagedModel<EntityModel<TaskResponse>> findAllByUserAuthenticated(Pageable pageable){
 		User user = userService.getAuthenticatedUser();
 		Page<Task> entityPage = taskRepository.findAllByUserId(user.getId(), pageable);
-		Page<TaskResponse> responsePage = entityPage.map(p -> modelMapper.map(p, TaskResponse.class));
-		responsePage = responsePage.map(p -> p.add(linkTo(methodOn(TaskController.class).findById(p.getId())).withSelfRel()));
+		Page<TaskResponse> responsePage = entityPage.map(taskMapper::toResponse);
+		responsePage = responsePage.map(p -> p.add(SELF.withSelfRel(p.getId())));
 		return assembler.toModel(responsePage);
 	}
 	
-	public PagedModel<EntityModel<TaskResponse>> customizedSearch(String status, String priority, String tagName, Pageable pageable){
+	public CompactPage<TaskResponse> findAllByUserAuthenticatedCompact(Pageable pageable){
 		User user = userService.getAuthenticatedUser();
-		
-		if(status != null) {
-			status = status.toUpperCase();
-		}
-		if(priority != null) {
-			priority = priority.toUpperCase();
-		}
-		if(tagName != null) {
-			tagName = tagName.toUpperCase();
+		return CompactPage.of(taskRepository.findAllByUserId(user.getId(), pageable).map(taskMapper::toResponse));
+	}
+	
+	/**
+	 * @param includeArchived whether to also search the archived tasks, which are only read on request
+	 */
+	public PagedModel<EntityModel<TaskResponse>> customizedSearch(String status, String priority, String tagName, Pageable pageable,
+			boolean includeArchived){
+		Page<TaskResponse> responsePage = searchPage(status, priority, tagName, pageable, includeArchived);
+		responsePage.map(p -> p.add(SELF.withSelfRel(p.getId())));
+		return assembler.toModel(responsePage);
+	}
+	
+	public CompactPage<TaskResponse> customizedSearchCompact(String status, String priority, String tagName, Pageable pageable,
+			boolean includeArchived){
+		return CompactPage.of(searchPage(status, priority, tagName, pageable, includeArchived));
+	}
+	
+	private Page<TaskResponse> searchPage(String status, String priority, String tagName, Pageable pageable, boolean includeArchived){
+		User user = userService.getAuthenticatedUser();
+		if(includeArchived) {
+			return archiveSearch.find(user.getId(), 
+					upperCaseOrNull(status), upperCaseOrNull(priority), upperCaseOrNull(tagName), pageable);
 		}
 		
-		Page<Task> entityPage = taskRepository.customizedSearch(user.getId(), status, priority, tagName, pageable);
-		Page<TaskResponse> responsePage = entityPage.map(p -> modelMapper.map(p, TaskResponse.class));
-		responsePage.map(p -> p.add(linkTo(methodOn(TaskController.class).findById(p.getId())).withSelfRel()));
-		return assembler.toModel(responsePage);
+		Page<Task> entityPage = taskRepository.customizedSearch(user.getId(), 
+				upperCaseOrNull(status), upperCaseOrNull(priority), upperCaseOrNull(tagName), pageable);
+		return entityPage.map(taskMapper::toResponse);
+	}
+	
+	public PagedModel<EntityModel<SparseTaskResponse>> findAllByUserAuthenticated(Pageable pageable, TaskFields fields){
+		return toSparseModel(sparsePage(null, null, null, fields, pageable, false));
+	}
+	
+	public CompactPage<SparseTaskResponse> findAllByUserAuthenticatedCompact(Pageable pageable, TaskFields fields){
+		return CompactPage.of(sparsePage(null, null, null, fields, pageable, false));
+	}
+	
+	/**
+	 * @param includeArchived whether to also search the archived tasks, which are only read on request
+	 */
+	public PagedModel<EntityModel<SparseTaskResponse>> customizedSearch(String status, String priority, String tagName, Pageable pageable, TaskFields fields,
+			boolean includeArchived){
+		return toSparseModel(sparsePage(status, priority, tagName, fields, pageable, includeArchived));
+	}
+	
+	public CompactPage<SparseTaskResponse> customizedSearchCompact(String status, String priority, String tagName, Pageable pageable, TaskFields fields,
+			boolean includeArchived){
+		return CompactPage.of(sparsePage(status, priority, tagName, fields, pageable, includeArchived));
+	}
+	
+	private Page<SparseTaskResponse> sparsePage(String status, String priority, String tagName, TaskFields fields, Pageable pageable,
+			boolean includeArchived){
+		User user = userService.getAuthenticatedUser();
+		if(includeArchived) {
+			return archiveSearch.find(user.getId(), 
+					upperCaseOrNull(status), upperCaseOrNull(priority), upperCaseOrNull(tagName), fields, pageable);
+		}
+		return taskRepository.findSparse(user.getId(), 
+				upperCaseOrNull(status), upperCaseOrNull(priority), upperCaseOrNull(tagName), fields, pageable);
+	}
+	
+	private PagedModel<EntityModel<SparseTaskResponse>> toSparseModel(Page<SparseTaskResponse> page){
+		return sparseAssembler.toModel(page, p -> EntityModel.of(p, SELF.withSelfRel(p.getId())));
+	}
+	
+	private static String upperCaseOrNull(String value) {
+		return value != null ? value.toUpperCase() : null;
 	}
 	
+	@Transactional
 	public TaskResponse create(TaskCreateRequest taskRequest) {
-		Task task = modelMapper.map(taskRequest, Task.class);
+		Task task = taskMapper.toEntity(taskRequest);
 		task = prePersistTask(task);
-		TaskResponse taskResponse = modelMapper.map(taskRepository.save(task), TaskResponse.class);
+		TaskResponse taskResponse = taskMapper.toResponse(taskRepository.save(task));
+		touchCollection(task);
+		eventPublisher.publishEvent(ChangeEvent.ofTask(task.getUser().getId(), ChangeAction.CREATED, taskResponse.getId()));
 		return addLinksToATask(taskResponse);
 	}
 	
-	public TaskResponse partialUpdate(Long taskId, TaskUpdateRequest taskRequest) {
+	/**
+	 * Creates all tasks in one transaction. Ids come from pooled blocks, so Hibernate sends the
+	 * inserts in JDBC batches. The collection is touched and the change events are published once
+	 * for the whole batch.
+	 */
+	@Transactional
+	public List<TaskResponse> createAll(TaskBatchRequest batchRequest) {
+		User user = userService.getAuthenticatedUser();
+		List<Task> tasks = new ArrayList<>(batchRequest.getTasks().size());
+		for (TaskCreateRequest taskRequest : batchRequest.getTasks()) {
+			tasks.add(prePersistTask(taskMapper.toEntity(taskRequest), user));
+		}
+		
+		taskRepository.saveAll(tasks);
+		taskRepository.flush();
+		userService.touchCollection(user);
+		
+		List<ChangeEvent> changes = new ArrayList<>(tasks.size());
+		List<TaskResponse> responses = new ArrayList<>(tasks.size());
+		for (Task task : tasks) {
+			changes.add(ChangeEvent.ofTask(user.getId(), ChangeAction.CREATED, task.getId()));
+			TaskResponse taskResponse = taskMapper.toResponse(task);
+			responses.add(taskResponse.add(SELF.withSelfRel(taskResponse.getId())));
+		}
+		eventPublisher.publishEvent(new ChangeBatch(changes));
+		return responses;
+	}
+	
+	/**
+	 * Concurrent updates are caught by the version column and surface as an
+	 * {@link org.springframework.dao.OptimisticLockingFailureException}.
+	 * 
+	 * @param ifMatch value of the If-Match header, or null to update unconditionally
+	 */
+	@Transactional
+	public TaskResponse partialUpdate(Long taskId, TaskUpdateRequest taskRequest, String ifMatch) {
 		Task task = taskRepository.findById(taskId)
 				.orElseThrow(() -> new BadRequestException("Task not found"));
 		
 		checkingTaskOwnership(task);
 		
+		if(ifMatch != null && !ETags.matches(ifMatch, task.getId(), taskMapper.versionOf(task))) {
+			throw new PreconditionFailedException("Task was modified since it was read");
+		}
+		
 		applyUpdatesToATask(task, taskRequest);
-			
-		TaskResponse taskResponse = modelMapper.map(taskRepository.save(task), TaskResponse.class);
+		
+		task = taskRepository.save(task);
+		taskRepository.flush();
+		TaskResponse taskResponse = taskMapper.toResponse(task);
+		touchCollection(task);
+		eventPublisher.publishEvent(ChangeEvent.ofTask(task.getUser().getId(), ChangeAction.UPDATED, taskId));
 		return addLinksToATask(taskResponse);
 		
 	}
 	
+	@Transactional
 	public void delete(Long taskId) {
 		Task task = taskRepository.findById(taskId).orElseThrow(() -> new BadRequestException("Task not found"));
 		checkingTaskOwnership(task);
-		taskRepository.deleteById(taskId);
+		
+		Long userId = task.getUser().getId();
+		List<Long> ids = List.of(taskId);
+		taskRepository.deleteTagLinksOf(userId, ids);
+		taskRepository.deleteSubtasksOf(userId, ids);
+		auditLog.deleteByTask(taskId);
+		taskRepository.deleteAllOwned(userId, ids);
+		recordDeletion(task.getUser(), SyncEntityType.TASK, taskId);
+		touchCollection(task);
+		eventPublisher.publishEvent(ChangeEvent.ofTask(task.getUser().getId(), ChangeAction.DELETED, taskId));
 		return;
 	}
 	
+	/**
+	 * Applies the non-null values of the request to every task of the user matching the filters
+	 * (the same as {@link #customizedSearch}) and the optional id list, with set-based updates
+	 * instead of loading each task.
+	 */
+	@Transactional
+	public BulkResponse updateAll(String status, String priority, String tagName, List<Long> ids, TaskBulkUpdateRequest request) {
+		if(request.getStatus() == null && request.getPriority() == null && request.getDueDate() == null) {
+			throw new BadRequestException("Please provide updates");
+		}
+		
+		User user = userService.getAuthenticatedUser();
+		List<TaskSnapshot> tasks = lockMatching(user, status, priority, tagName, ids);
+		if(tasks.isEmpty()) return new BulkResponse(0);
+		
+		Instant now = Instant.now();
+		int updated = 0;
+		for (List<Long> chunk : chunks(tasks)) {
+			updated += taskRepository.updateAll(user.getId(), chunk, request.getStatus(), request.getPriority(), request.getDueDate(), now);
+		}
+		
+		List<FieldChanges> history = new ArrayList<>(tasks.size());
+		List<ChangeEvent> changes = new ArrayList<>(tasks.size());
+		for (TaskSnapshot task : tasks) {
+			FieldChanges fieldChanges = FieldChanges.ofTask(task.getId());
+			if(request.getStatus() != null) fieldChanges.add("status", task.getStatus(), request.getStatus());
+			if(request.getPriority() != null) fieldChanges.add("priority", task.getPriority(), request.getPriority());
+			if(request.getDueDate() != null) fieldChanges.add("dueDate", task.getDueDate(), request.getDueDate());
+			history.add(fieldChanges);
+			changes.add(ChangeEvent.ofTask(user.getId(), ChangeAction.UPDATED, task.getId()));
+		}
+		auditLog.recordAll(history);
+		userService.touchCollection(user);
+		eventPublisher.publishEvent(new ChangeBatch(changes));
+		return new BulkResponse(updated);
+	}
+	
+	/**
+	 * Deletes every task of the user matching the filters and the optional id list, together with
+	 * their subtasks, tag links and history, with set-based deletes.
+	 */
+	@Transactional
+	public BulkResponse deleteAll(String status, String priority, String tagName, List<Long> ids) {
+		User user = userService.getAuthenticatedUser();
+		List<TaskSnapshot> tasks = lockMatching(user, status, priority, tagName, ids);
+		if(tasks.isEmpty()) return new BulkResponse(0);
+		
+		Instant now = Instant.now();
+		int deleted = 0;
+		for (List<Long> chunk : chunks(tasks)) {
+			tombstoneRepository.recordTaskDeletions(user.getId(), chunk, now);
+			taskRepository.deleteSubtasksOf(user.getId(), chunk);
+			taskRepository.deleteTagLinksOf(user.getId(), chunk);
+			auditLog.deleteByTasks(chunk);
+			deleted += taskRepository.deleteAllOwned(user.getId(), chunk);
+		}
+		
+		userService.touchCollection(user);
+		eventPublisher.publishEvent(new ChangeBatch(tasks.stream()
+				.map(task -> ChangeEvent.ofTask(user.getId(), ChangeAction.DELETED, task.getId()))
+				.toList()));
+		return new BulkResponse(deleted);
+	}
+	
+	private List<TaskSnapshot> lockMatching(User user, String status, String priority, String tagName, List<Long> ids) {
+		boolean hasIds = ids != null && !ids.isEmpty();
+		if(!hasIds && status == null && priority == null && tagName == null) {
+			throw new BadRequestException("Please provide a filter or the ids of the tasks");
+		}
+		if(hasIds && ids.size() > MAX_BULK_IDS) {
+			throw new BadRequestException("Cannot provide more than " + MAX_BULK_IDS + " ids");
+		}
+		return taskRepository.lockMatching(user.getId(), 
+				upperCaseOrNull(status), upperCaseOrNull(priority), upperCaseOrNull(tagName), hasIds ? ids : null);
+	}
+	
+	private static List<List<Long>> chunks(List<TaskSnapshot> tasks) {
+		List<List<Long>> chunks = new ArrayList<>();
+		for (int from = 0; from < tasks.size(); from += BULK_CHUNK_SIZE) {
+			chunks.add(tasks.subList(from, Math.min(from + BULK_CHUNK_SIZE, tasks.size())).stream()
+					.map(TaskSnapshot::getId)
+					.toList());
+		}
+		return chunks;
+	}
+	
+	public CompactPage<TaskHistoryResponse> findHistory(Long taskId, Pageable pageable) {
+		Task task = findTaskOrThrow(taskId);
+		checkingTaskOwnership(task);
+		return CompactPage.of(auditLog.findByTask(taskId, pageable));
+	}
+	
+	/**
+	 * The user and its shard are resolved here, the returned body is written later on an async thread.
+	 */
+	public StreamingResponseBody export(ExportFormat format) {
+		Long userId = userService.getAuthenticatedUser().getId();
+		int shard = ShardContext.current();
+		return out -> ShardContext.call(shard, () -> {
+			taskExporter.export(userId, format, out);
+			return null;
+		});
+	}
+	
+	/**
+	 * Stores the file and queues the job that imports it. Must be called outside of a transaction,
+	 * the job has to commit before it can be claimed.
+	 */
+	public JobResponse importTasks(ExportFormat format, InputStream in) throws IOException {
+		Long userId = userService.getAuthenticatedUser().getId();
+		return jobMapper.toResponse(taskImporter.submit(userId, format, in));
+	}
+	
+	public String collectionETag() {
+		return userService.collectionETag();
+	}
+	
+	void touchCollection(Task task) {
+		userService.touchCollection(task.getUser());
+	}
+	
+	/**
+	 * Bumps version and {@code updated_at} of a task whose subtasks or tags changed, so its ETag
+	 * changes and the task is picked up again by the delta sync, and touches the collection.
+	 * Flushed right away, so the task carries its new version when it is mapped.
+	 */
+	void touch(Task task) {
+		task.setUpdatedAt(Instant.now());
+		taskRepository.saveAndFlush(task);
+		touchCollection(task);
+	}
+	
+	/**
+	 * Bumps version and {@code updated_at} of every task carrying the tag, as their nested tag changes with it.
+	 */
+	void touchTasksWithTag(Long tagId) {
+		taskRepository.touchAllWithTag(tagId, Instant.now());
+	}
+	
+	void touchAll(List<Long> taskIds) {
+		taskRepository.touchAll(taskIds, Instant.now());
+	}
+	
+	void recordDeletion(User owner, SyncEntityType type, Long id) {
+		tombstoneRepository.save(new Tombstone(owner.getId(), type, id, Instant.now()));
+	}
+	
 	public void checkingTaskOwnership(Task task) {
 		User userAuthenticated = userService.getAuthenticatedUser();
 		User userFromTask = task.getUser();
@@ -110,12 +431,12 @@ public class TaskService {
 	}
 	
 	TaskResponse addLinksToATask(TaskResponse taskDto) {
-		taskDto.add(linkTo(methodOn(TaskController.class).findById(taskDto.getId())).withSelfRel());
-		taskDto.add(linkTo(methodOn(TaskController.class).partialUpdate(taskDto.getId(), null)).withRel("update"));
-		taskDto.add(linkTo(methodOn(TaskController.class).delete(taskDto.getId())).withRel("delete"));
-		taskDto.add(linkTo(methodOn(TaskController.class).findAllByUserAuthenticated(null, null)).withRel("findAllTasks"));
-		taskDto.add(linkTo(methodOn(SubtaskController.class).addSubtask(taskDto.getId(), null)).withRel("addSubtask"));
-		taskDto.add(linkTo(methodOn(TagController.class).addTag(taskDto.getId(), null)).withRel("addTag"));	
+		taskDto.add(SELF.withSelfRel(taskDto.getId()));
+		taskDto.add(UPDATE.withRel(taskDto.getId(), "update"));
+		taskDto.add(DELETE.withRel(taskDto.getId(), "delete"));
+		taskDto.add(FIND_ALL.withRel("findAllTasks"));
+		taskDto.add(ADD_SUBTASK.withRel(taskDto.getId(), "addSubtask"));
+		taskDto.add(ADD_TAG.withRel(taskDto.getId(), "addTag"));	
 		return taskDto;
 	}
 	
@@ -127,35 +448,45 @@ public class TaskService {
 	Task applyUpdatesToATask(Task task, TaskUpdateRequest taskRequest) {
 		
 		int countChanges = 0;
+		FieldChanges changes = FieldChanges.of(task);
 		
     	if(taskRequest.getTitle() != null && !taskRequest.getTitle().isBlank()) {
+    		changes.add("title", task.getTitle(), taskRequest.getTitle());
 			task.setTitle(taskRequest.getTitle());
 			countChanges++;
 		}
 		if(taskRequest.getDescription() != null) {
+			changes.add("description", task.getDescription(), taskRequest.getDescription());
 			task.setDescription(taskRequest.getDescription());
 			countChanges++;
 		}
 		if(taskRequest.getStatus() != null) {
+			changes.add("status", task.getStatus(), taskRequest.getStatus());
 			task.setStatus(taskRequest.getStatus());
 			countChanges++;
 		}
 		if(taskRequest.getPriority() != null) {
+			changes.add("priority", task.getPriority(), taskRequest.getPriority());
 			task.setPriority(taskRequest.getPriority());
 			countChanges++;
 		}
 		if(taskRequest.getDueDate() != null) {
+			changes.add("dueDate", task.getDueDate(), taskRequest.getDueDate());
 			task.setDueDate(taskRequest.getDueDate());
 			countChanges++;
 		}
 		
 		if(countChanges == 0) throw new BadRequestException("Please provide updates");
 		
+		auditLog.record(changes);
 		return task;
 	}
 	
 	Task prePersistTask(Task task) {
-		User user = userService.getAuthenticatedUser();
+		return prePersistTask(task, userService.getAuthenticatedUser());
+	}
+	
+	private Task prePersistTask(Task task, User user) {
 		task.setUser(user);
 		
 		if(task.getCreatedDate() == null) {
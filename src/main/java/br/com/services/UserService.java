@@ -1,9 +1,12 @@
 package br.com.services;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import org.modelmapper.ModelMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedResourcesAssembler;
@@ -13,28 +16,53 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import br.com.accounts.AccountPurger;
+import br.com.backup.UserBackup;
+import br.com.configs.ETags;
 import br.com.controllers.UserController;
+import br.com.dtos.JobResponse;
 import br.com.dtos.UserResponse;
 import br.com.dtos.UserUpdateRequest;
 import br.com.enums.Role;
 import br.com.exceptions.BadRequestException;
 import br.com.exceptions.UserNotAuthenticatedException;
 import br.com.exceptions.UserNotFoundException;
+import br.com.links.LinkTemplate;
+import br.com.mappers.JobMapper;
+import br.com.mappers.UserMapper;
 import br.com.models.User;
 import br.com.repositories.UserRepository;
+import br.com.sharding.ShardContext;
+import br.com.sharding.ShardDirectory;
+import br.com.sharding.ShardMover;
 
 @Service
 public class UserService {
 	
+	private static final LinkTemplate SELF = LinkTemplate.of(methodOn(UserController.class).findById(null), "id");
+	private static final LinkTemplate UPDATE = LinkTemplate.of(methodOn(UserController.class).partialUpdate(null));
+	
 	private final UserRepository userRepository;
-	private final ModelMapper modelMapper;
+	private final UserMapper userMapper;
 	private final PagedResourcesAssembler<UserResponse> assembler;
+	private final AccountPurger accountPurger;
+	private final JobMapper jobMapper;
+	private final UserBackup userBackup;
+	private final ShardDirectory shardDirectory;
+	private final ShardMover shardMover;
 	
-	public UserService(UserRepository userRepository, ModelMapper modelMapper, PagedResourcesAssembler<UserResponse> assembler) {
+	public UserService(UserRepository userRepository, UserMapper userMapper, PagedResourcesAssembler<UserResponse> assembler,
+			AccountPurger accountPurger, JobMapper jobMapper, UserBackup userBackup, ShardDirectory shardDirectory, ShardMover shardMover) {
 		this.userRepository = userRepository;
-		this.modelMapper = modelMapper;
+		this.userMapper = userMapper;
 		this.assembler = assembler;
+		this.accountPurger = accountPurger;
+		this.jobMapper = jobMapper;
+		this.userBackup = userBackup;
+		this.shardDirectory = shardDirectory;
+		this.shardMover = shardMover;
 	}
 
 	public User getAuthenticatedUser() {
@@ -45,18 +73,34 @@ public class UserService {
         throw new UserNotAuthenticatedException("User not authenticated");
     }
 	
+	/**
+	 * ETag for the listings of the authenticated user, read from the principal so that
+	 * no query is needed.
+	 */
+	public String collectionETag() {
+		User user = getAuthenticatedUser();
+		return ETags.ofCollection(user.getId(), user.getCollectionVersion());
+	}
+	
+	/**
+	 * Must be called on every write to the tasks, subtasks or tags of the owner.
+	 */
+	public void touchCollection(User owner) {
+		userRepository.incrementCollectionVersion(owner.getId());
+	}
+	
 	public PagedModel<EntityModel<UserResponse>> findAll(Pageable pageable){
 		Page<User> entityPage = userRepository.findAll(pageable);
-		Page<UserResponse> responsePage = entityPage.map(p -> modelMapper.map(p, UserResponse.class));
-		responsePage.map(p -> p.add(linkTo(methodOn(UserController.class).findById(p.getId())).withSelfRel()));
+		Page<UserResponse> responsePage = entityPage.map(userMapper::toResponse);
+		responsePage.map(p -> p.add(SELF.withSelfRel(p.getId())));
 		
 		return assembler.toModel(responsePage);
 	}
 	
 	public UserResponse findById(Long userId) {
 		User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
-		UserResponse userResponse = modelMapper.map(user, UserResponse.class);
-		userResponse.add(linkTo(methodOn(UserController.class).findById(userResponse.getId())).withSelfRel());
+		UserResponse userResponse = userMapper.toResponse(user);
+		userResponse.add(SELF.withSelfRel(userResponse.getId()));
 		return userResponse;
 	}
 	
@@ -76,29 +120,63 @@ public class UserService {
 		}
 		
 		if(countChanges > 0) {
-			UserResponse userResponse = modelMapper.map(userRepository.save(user), UserResponse.class);
-			userResponse.add(linkTo(methodOn(UserController.class).findById(userResponse.getId())).withSelfRel());
-			userResponse.add(linkTo(methodOn(UserController.class).partialUpdate(null)).withRel("update"));
+			// Credentials are checked against the primary, the copy on the shard of the user follows
+			User saved = ShardContext.call(ShardContext.PRIMARY, () -> userRepository.save(user));
+			shardDirectory.refreshCopy(saved.getId());
+			UserResponse userResponse = userMapper.toResponse(saved);
+			userResponse.add(SELF.withSelfRel(userResponse.getId()));
+			userResponse.add(UPDATE.withRel("update"));
 			return userResponse;
 		}
 		
 		throw new BadRequestException("You must input some changes");
 	}
 	
-	public void deleteById(Long userId) {
+	/**
+	 * Large accounts are deleted by a background job, see {@link AccountPurger}.
+	 * 
+	 * @return the job deleting the account, empty when it was deleted right away
+	 */
+	public Optional<JobResponse> deleteById(Long userId) {
 		User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
-		if(user.getRole() != Role.ROLE_ADMIN) {
-			userRepository.delete(user);
-			return;
-		}
-		throw new BadRequestException("ADMIN account can not be deleted");
+		return shardDirectory.callFor(userId, () -> purge(user));
 	}
 	
-	public void deleteMyAccount() {
-		User user = getAuthenticatedUser();
+	public Optional<JobResponse> deleteMyAccount() {
+		return purge(getAuthenticatedUser());
+	}
+	
+	/**
+	 * The user and its shard are checked here, the returned body is written later on an async thread.
+	 */
+	public StreamingResponseBody backup(Long userId) {
+		if(!userRepository.existsById(userId)) throw new UserNotFoundException("User not found");
+		int shard = shardDirectory.shardOf(userId);
+		return out -> ShardContext.call(shard, () -> {
+			userBackup.backup(userId, Channels.newChannel(out));
+			return null;
+		});
+	}
+	
+	/**
+	 * Must be called outside of a transaction, the restore commits on its own. The restored user
+	 * stays on the primary until it is moved.
+	 */
+	public UserResponse restore(InputStream in, String username) throws IOException {
+		return findById(userBackup.restore(Channels.newChannel(in), username));
+	}
+	
+	/**
+	 * The user is moved by a background job, see {@link ShardMover}.
+	 */
+	public JobResponse moveToShard(Long userId, int shard) {
+		User user = userRepository.findById(userId).orElseThrow(() -> new UserNotFoundException("User not found"));
+		return jobMapper.toResponse(shardMover.move(user, shard));
+	}
+	
+	private Optional<JobResponse> purge(User user) {
 		if(user.getRole() != Role.ROLE_ADMIN) {
-			userRepository.delete(user);
-			return;
+			return accountPurger.purge(user.getId()).map(jobMapper::toResponse);
 		}
 		throw new BadRequestException("ADMIN account can not be deleted");
 	}
@@ -0,0 +1,69 @@
+package br.com.services;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import br.com.dtos.WebhookRequest;
+import br.com.dtos.WebhookResponse;
+import br.com.exceptions.BadRequestException;
+import br.com.mappers.WebhookMapper;
+import br.com.models.User;
+import br.com.models.Webhook;
+import br.com.repositories.WebhookRepository;
+import br.com.webhooks.WebhookUrlValidator;
+
+@Service
+public class WebhookService {
+	
+	static final int MAX_WEBHOOKS_PER_USER = 5;
+	
+	private final SecureRandom random = new SecureRandom();
+	
+	private final WebhookRepository webhookRepository;
+	private final UserService userService;
+	private final WebhookMapper webhookMapper;
+	private final WebhookUrlValidator urlValidator;
+	
+	public WebhookService(WebhookRepository webhookRepository, UserService userService, WebhookMapper webhookMapper,
+			WebhookUrlValidator urlValidator) {
+		this.webhookRepository = webhookRepository;
+		this.userService = userService;
+		this.webhookMapper = webhookMapper;
+		this.urlValidator = urlValidator;
+	}
+
+	public List<WebhookResponse> findAllByUserAuthenticated() {
+		User user = userService.getAuthenticatedUser();
+		return webhookRepository.findAllByUserId(user.getId()).stream().map(webhookMapper::toResponse).toList();
+	}
+	
+	public WebhookResponse create(WebhookRequest request) {
+		User user = userService.getAuthenticatedUser();
+		if(webhookRepository.countByUserId(user.getId()) >= MAX_WEBHOOKS_PER_USER) {
+			throw new BadRequestException("User can not have more than " + MAX_WEBHOOKS_PER_USER + " webhooks");
+		}
+		urlValidator.check(request.getUrl());
+		
+		byte[] secret = new byte[32];
+		random.nextBytes(secret);
+		Webhook webhook = webhookRepository.save(new Webhook(user.getId(), request.getUrl(), HexFormat.of().formatHex(secret), Instant.now()));
+		
+		WebhookResponse response = webhookMapper.toResponse(webhook);
+		response.setSecret(webhook.getSecret());
+		return response;
+	}
+	
+	public void delete(Long webhookId) {
+		Webhook webhook = webhookRepository.findById(webhookId).orElseThrow(() -> new BadRequestException("Webhook not found"));
+		User user = userService.getAuthenticatedUser();
+		if(!user.getId().equals(webhook.getUserId())) throw new AccessDeniedException("Webhook doesn't belong to the user");
+		
+		webhookRepository.delete(webhook);
+	}
+	
+}
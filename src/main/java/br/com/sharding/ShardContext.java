@@ -0,0 +1,66 @@
+package br.com.sharding;
+
+/**
+ * Shard the current thread works on, read by {@link ShardRoutingDataSource} whenever a
+ * connection is acquired. Threads that never set one work on the {@link #PRIMARY}.
+ *
+ * A transaction keeps the connection it started with, so the shard must be chosen before the
+ * transaction begins.
+ */
+public final class ShardContext {
+
+	public static final int PRIMARY = 0;
+
+	private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+	private ShardContext() {
+	}
+
+	public static int current() {
+		Integer shard = CURRENT.get();
+		return shard != null ? shard : PRIMARY;
+	}
+
+	/**
+	 * Switches the thread to the shard until the scope is closed, which restores the previous one.
+	 */
+	public static Scope enter(int shard) {
+		Integer previous = CURRENT.get();
+		CURRENT.set(shard);
+		return () -> {
+			if(previous != null) CURRENT.set(previous);
+			else CURRENT.remove();
+		};
+	}
+
+	public static <T, E extends Exception> T call(int shard, Work<T, E> work) throws E {
+		try(Scope scope = enter(shard)) {
+			return work.run();
+		}
+	}
+
+	public static void run(int shard, Runnable task) {
+		try(Scope scope = enter(shard)) {
+			task.run();
+		}
+	}
+
+	/**
+	 * Binds the task to the shard of the calling thread, for work handed over to another thread.
+	 */
+	public static Runnable wrap(Runnable task) {
+		int shard = current();
+		return () -> run(shard, task);
+	}
+
+	@FunctionalInterface
+	public interface Scope extends AutoCloseable {
+		@Override
+		void close();
+	}
+
+	@FunctionalInterface
+	public interface Work<T, E extends Exception> {
+		T run() throws E;
+	}
+}
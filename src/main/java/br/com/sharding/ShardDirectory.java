@@ -0,0 +1,163 @@
+package br.com.sharding;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import br.com.exceptions.AccountMovingException;
+import br.com.exceptions.UserNotFoundException;
+import br.com.models.User;
+
+/**
+ * Knows the shard of every user, from the {@code user_shards} table of the primary.
+ *
+ * The primary keeps the row of every user, which logins and usernames are checked against. A
+ * user placed on another shard also has a copy of its row there, so its data keeps its foreign
+ * keys and collection version on the same database. The copy is only written through this class.
+ *
+ * The shard of a signed in user is cached for {@code api.sharding.directory-ttl}, so requests do
+ * not query the primary each time. The entry of a user is dropped as soon as this node changes
+ * its row; other nodes see the change once their entry expires, which is why
+ * {@code api.sharding.move-grace} must be longer than the ttl.
+ */
+@Component
+public class ShardDirectory {
+
+	private static final String COPY_USER = "INSERT INTO users (id, role, username, password) VALUES (?, ?, ?, ?) AS new "
+			+ "ON DUPLICATE KEY UPDATE role = new.role, username = new.username, password = new.password";
+
+	private static final int CACHE_SIZE = 10_000;
+
+	private final Shards shards;
+	private final JdbcTemplate primary;
+	private final Duration ttl;
+
+	private final Map<String, Placement> cache = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Placement> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	});
+
+	public ShardDirectory(Shards shards, @Value("${api.sharding.directory-ttl:1s}") Duration ttl) {
+		this.shards = shards;
+		this.primary = shards.jdbcTemplate(ShardContext.PRIMARY);
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Shard of the user signed in with the username, checked on every request.
+	 *
+	 * @throws AccountMovingException while the user is moved to another shard
+	 */
+	public int shardOf(String username) {
+		if(!shards.isSharded()) return ShardContext.PRIMARY;
+		Placement cached = cache.get(username);
+		if(cached != null && cached.expiresAt.isAfter(Instant.now())) return cached.shard;
+
+		return primary.query("SELECT u.id, s.shard, s.moving FROM users u LEFT JOIN user_shards s ON s.user_id = u.id WHERE u.username = ?", rs -> {
+			if(!rs.next()) return ShardContext.PRIMARY;
+			if(rs.getBoolean("moving")) throw new AccountMovingException("The account is being moved, try again in a few seconds");
+			int shard = rs.getObject("shard") != null ? rs.getInt("shard") : ShardContext.PRIMARY;
+			cache.put(username, new Placement(rs.getLong("id"), shard, Instant.now().plus(ttl)));
+			return shard;
+		}, username);
+	}
+
+	public int shardOf(Long userId) {
+		if(!shards.isSharded()) return ShardContext.PRIMARY;
+		List<Integer> shard = primary.queryForList("SELECT shard FROM user_shards WHERE user_id = ?", Integer.class, userId);
+		return shard.isEmpty() ? ShardContext.PRIMARY : shard.get(0);
+	}
+
+	/**
+	 * Runs the work on the shard of the user, for requests of an admin about another user.
+	 */
+	public <T, E extends Exception> T callFor(Long userId, ShardContext.Work<T, E> work) throws E {
+		return ShardContext.call(shardOf(userId), work);
+	}
+
+	/**
+	 * Spreads new users over the shards by id. Called once the user is saved on the primary.
+	 */
+	public void place(User user) {
+		if(!shards.isSharded()) return;
+		int shard = Math.floorMod(user.getId(), shards.count());
+		if(shard == ShardContext.PRIMARY) return;
+		copyUser(user.getId(), shard);
+		primary.update("INSERT INTO user_shards (user_id, shard) VALUES (?, ?)", user.getId(), shard);
+		evict(user.getId());
+	}
+
+	/**
+	 * Brings the copy of the user up to date after its row changed on the primary.
+	 */
+	public void refreshCopy(Long userId) {
+		int shard = shardOf(userId);
+		if(shard != ShardContext.PRIMARY) copyUser(userId, shard);
+	}
+
+	/**
+	 * Writes the row of the user from the primary to the shard, creating or updating the copy.
+	 */
+	public void copyUser(Long userId, int shard) {
+		List<Object[]> rows = primary.query("SELECT id, role, username, password FROM users WHERE id = ?",
+				(rs, rowNum) -> new Object[] { rs.getLong("id"), rs.getString("role"), rs.getString("username"), rs.getString("password") }, userId);
+		if(rows.isEmpty()) throw new UserNotFoundException("User not found");
+		shards.jdbcTemplate(shard).update(COPY_USER, rows.get(0));
+	}
+
+	/**
+	 * Drops the row of a deleted user from the primary, once its data is gone from its shard.
+	 */
+	public void forget(Long userId) {
+		if(shards.isSharded()) primary.update("DELETE FROM users WHERE id = ?", userId);
+		evict(userId);
+	}
+
+	/**
+	 * Sets or clears the flag turning away the requests of the user.
+	 */
+	public void setMoving(Long userId, boolean moving) {
+		primary.update("INSERT INTO user_shards (user_id, shard, moving) VALUES (?, ?, ?) AS new ON DUPLICATE KEY UPDATE moving = new.moving",
+				userId, ShardContext.PRIMARY, moving);
+		evict(userId);
+	}
+
+	/**
+	 * Points the user to its new shard and lets its requests in again.
+	 */
+	public void assign(Long userId, int shard) {
+		if(shard == ShardContext.PRIMARY) primary.update("DELETE FROM user_shards WHERE user_id = ?", userId);
+		else primary.update("INSERT INTO user_shards (user_id, shard, moving) VALUES (?, ?, 0) AS new "
+				+ "ON DUPLICATE KEY UPDATE shard = new.shard, moving = 0", userId, shard);
+		evict(userId);
+	}
+
+	private void evict(Long userId) {
+		synchronized(cache) {
+			cache.values().removeIf(placement -> placement.userId == userId);
+		}
+	}
+
+	private static final class Placement {
+		final long userId;
+		final int shard;
+		final Instant expiresAt;
+
+		Placement(long userId, int shard, Instant expiresAt) {
+			this.userId = userId;
+			this.shard = shard;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
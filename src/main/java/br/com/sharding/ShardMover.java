@@ -0,0 +1,219 @@
+package br.com.sharding;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import br.com.enums.JobStatus;
+import br.com.enums.Role;
+import br.com.exceptions.BadRequestException;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobHandler;
+import br.com.jobs.JobStore;
+import br.com.models.User;
+
+/**
+ * Moves a user, with all its data, to another shard in a {@value #TYPE} job.
+ *
+ * The requests of the user are turned away while it moves. Once {@code api.sharding.move-grace}
+ * has passed, so requests already let in are over, its rows are copied to the target in
+ * dependency order within one transaction, read as a stream and written with JDBC batches of
+ * {@code api.sharding.batch-size} rows. The directory then points to the target and the rows are
+ * deleted from the source. Rows already on the target, left by an earlier move, are replaced.
+ *
+ * The source is kept with the job, so a retry after the switch only finishes the deletes. Pending
+ * outbox messages are relayed from the source, finished jobs stay there until they expire.
+ */
+@Component
+public class ShardMover implements JobHandler {
+
+	public static final String TYPE = "shard-move";
+
+	private static final String TASKS = "task_id IN (SELECT id FROM tasks WHERE user_id = ?)";
+	private static final String ARCHIVED_TASKS = "task_id IN (SELECT id FROM archived_tasks WHERE user_id = ?)";
+
+	/** Tables with rows of the user, parents first. */
+	private static final List<UserRows> TABLES = List.of(
+			new UserRows("tags", "user_id = ?"),
+			new UserRows("tasks", "user_id = ?"),
+			new UserRows("subtasks", TASKS),
+			new UserRows("task_tags", TASKS),
+			new UserRows("archived_tasks", "user_id = ?"),
+			new UserRows("archived_subtasks", ARCHIVED_TASKS),
+			new UserRows("archived_task_tags", ARCHIVED_TASKS),
+			new UserRows("task_history", "task_id IN (SELECT id FROM tasks WHERE user_id = ? UNION ALL SELECT id FROM archived_tasks WHERE user_id = ?)"),
+			new UserRows("tombstones", "user_id = ?"),
+			new UserRows("webhooks", "user_id = ?"),
+			new UserRows("webhook_deliveries", "user_id = ?"),
+			new UserRows("webhook_dead_letters", "user_id = ?"),
+			new UserRows("idempotency_keys", "user_id = ?"));
+
+	private final Shards shards;
+	private final ShardDirectory shardDirectory;
+	private final JobStore jobStore;
+	private final Duration grace;
+	private final int batchSize;
+
+	public ShardMover(Shards shards, ShardDirectory shardDirectory, JobStore jobStore,
+			@Value("${api.sharding.move-grace:5s}") Duration grace,
+			@Value("${api.sharding.batch-size:500}") int batchSize) {
+		this.shards = shards;
+		this.shardDirectory = shardDirectory;
+		this.jobStore = jobStore;
+		this.grace = grace;
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the job moving the user, an already queued one when the user is on its way
+	 */
+	public Job move(User user, int target) {
+		if(target < 0 || target >= shards.count()) {
+			throw new BadRequestException("Shard must be between 0 and " + (shards.count() - 1));
+		}
+		if(user.getRole() == Role.ROLE_ADMIN) throw new BadRequestException("ADMIN account can not be moved");
+
+		return ShardContext.call(ShardContext.PRIMARY, () -> jobStore.findActive(user.getId(), TYPE).orElseGet(() -> {
+			int source = shardDirectory.shardOf(user.getId());
+			if(source == target) throw new BadRequestException("User is already on shard " + target);
+			if(hasActiveJobs(source, user.getId())) throw new BadRequestException("User has jobs running, try again once they finish");
+			return jobStore.enqueue(user.getId(), TYPE, source + ":" + target);
+		}));
+	}
+
+	@Override
+	public String getType() {
+		return TYPE;
+	}
+
+	@Override
+	public void run(JobContext context) throws InterruptedException {
+		Long userId = context.getJob().getUserId();
+		String[] shardsOfMove = context.getJob().getPayload().split(":");
+		int source = Integer.parseInt(shardsOfMove[0]);
+		int target = Integer.parseInt(shardsOfMove[1]);
+
+		int current = shardDirectory.shardOf(userId);
+		if(current == source) {
+			copy(userId, source, target, context);
+		}
+		else if(current != target) {
+			throw new IllegalStateException("User " + userId + " was moved to shard " + current + " meanwhile");
+		}
+		deleteRows(shards.jdbcTemplate(source), userId, source != ShardContext.PRIMARY);
+		context.setResult("Moved to shard " + target);
+	}
+
+	private void copy(Long userId, int source, int target, JobContext context) throws InterruptedException {
+		shardDirectory.setMoving(userId, true);
+		try {
+			Thread.sleep(grace.toMillis());
+			if(hasActiveJobs(source, userId)) throw new IllegalStateException("User " + userId + " has jobs running");
+
+			if(target != ShardContext.PRIMARY) shardDirectory.copyUser(userId, target);
+			JdbcTemplate from = shards.jdbcTemplate(source);
+			from.setFetchSize(Integer.MIN_VALUE);
+			JdbcTemplate to = shards.jdbcTemplate(target);
+			shards.transactionTemplate(target).executeWithoutResult(status -> {
+				deleteRows(to, userId, false);
+				for(int i = 0; i < TABLES.size(); i++) {
+					copyRows(from, to, TABLES.get(i), userId);
+					context.progress(i + 1, (long) TABLES.size());
+				}
+				// Bumped so that clients revalidate their listings against the new shard
+				Long version = shards.jdbcTemplate(source).queryForObject("SELECT collection_version FROM users WHERE id = ?", Long.class, userId);
+				to.update("UPDATE users SET collection_version = ? WHERE id = ?", version + 1, userId);
+			});
+			shardDirectory.assign(userId, target);
+		}
+		catch(InterruptedException | RuntimeException e) {
+			shardDirectory.setMoving(userId, false);
+			throw e;
+		}
+	}
+
+	private boolean hasActiveJobs(int shard, Long userId) {
+		Long active = shards.jdbcTemplate(shard).queryForObject("SELECT COUNT(*) FROM jobs WHERE user_id = ? AND type <> ? AND status IN (?, ?)",
+				Long.class, userId, TYPE, JobStatus.QUEUED.name(), JobStatus.RUNNING.name());
+		return active != null && active > 0;
+	}
+
+	private void copyRows(JdbcTemplate from, JdbcTemplate to, UserRows table, Long userId) {
+		BatchInsert insert = new BatchInsert(to, table.name);
+		from.query("SELECT * FROM " + table.name + " WHERE " + table.where, insert, table.args(userId));
+		insert.flush();
+	}
+
+	/**
+	 * Children first, then the copy of the user row when asked. The primary keeps the row of every user.
+	 */
+	private static void deleteRows(JdbcTemplate jdbcTemplate, Long userId, boolean withUser) {
+		for(int i = TABLES.size() - 1; i >= 0; i--) {
+			UserRows table = TABLES.get(i);
+			jdbcTemplate.update("DELETE FROM " + table.name + " WHERE " + table.where, table.args(userId));
+		}
+		if(withUser) jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	private static final class UserRows {
+		final String name;
+		final String where;
+
+		UserRows(String name, String where) {
+			this.name = name;
+			this.where = where;
+		}
+
+		Object[] args(Long userId) {
+			return Collections.nCopies((int) where.chars().filter(c -> c == '?').count(), userId).toArray();
+		}
+	}
+
+	/**
+	 * Inserts the rows it is handed into the same table of another shard, with the columns of the
+	 * first row.
+	 */
+	private final class BatchInsert implements RowCallbackHandler {
+		private final JdbcTemplate jdbcTemplate;
+		private final String table;
+		private final List<Object[]> rows = new ArrayList<>(batchSize);
+		private String sql;
+		private int columns;
+
+		BatchInsert(JdbcTemplate jdbcTemplate, String table) {
+			this.jdbcTemplate = jdbcTemplate;
+			this.table = table;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			if(sql == null) {
+				ResultSetMetaData metaData = rs.getMetaData();
+				columns = metaData.getColumnCount();
+				List<String> names = new ArrayList<>(columns);
+				for(int i = 1; i <= columns; i++) names.add("`" + metaData.getColumnName(i) + "`");
+				sql = "INSERT INTO " + table + " (" + String.join(", ", names) + ") VALUES (" + String.join(", ", Collections.nCopies(columns, "?")) + ")";
+			}
+			Object[] row = new Object[columns];
+			for(int i = 0; i < columns; i++) row[i] = rs.getObject(i + 1);
+			rows.add(row);
+			if(rows.size() == batchSize) flush();
+		}
+
+		void flush() {
+			if(rows.isEmpty()) return;
+			jdbcTemplate.batchUpdate(sql, rows);
+			rows.clear();
+		}
+	}
+}
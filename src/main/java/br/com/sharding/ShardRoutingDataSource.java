@@ -0,0 +1,39 @@
+package br.com.sharding;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the shard in {@link ShardContext}. Shard {@code i} is the
+ * {@code i}-th data source, the first one being the primary.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+	private final List<DataSource> shards;
+
+	public ShardRoutingDataSource(List<DataSource> shards) {
+		this.shards = List.copyOf(shards);
+		Map<Object, Object> targets = new HashMap<>();
+		for(int i = 0; i < shards.size(); i++) {
+			targets.put(i, shards.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(shards.get(ShardContext.PRIMARY));
+		setLenientFallback(false);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContext.current();
+	}
+
+	public List<DataSource> getShards() {
+		return shards;
+	}
+}
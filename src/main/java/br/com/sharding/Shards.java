@@ -0,0 +1,68 @@
+package br.com.sharding;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The shards of the application, a single one unless {@code api.sharding.urls} configures more.
+ * Background work that is not tied to a request, like the pollers and purges, runs once on every
+ * shard through {@link #forEach}.
+ */
+@Component
+public class Shards {
+
+	private final List<DataSource> dataSources;
+
+	public Shards(DataSource dataSource) {
+		this.dataSources = dataSource instanceof ShardRoutingDataSource routing ? routing.getShards() : List.of(dataSource);
+	}
+
+	public int count() {
+		return dataSources.size();
+	}
+
+	public boolean isSharded() {
+		return dataSources.size() > 1;
+	}
+
+	/**
+	 * Runs the task on every shard in turn. A failure on one shard does not keep the others from
+	 * running, the first one is rethrown at the end.
+	 */
+	public void forEach(Runnable task) {
+		RuntimeException failure = null;
+		for(int shard = 0; shard < dataSources.size(); shard++) {
+			try {
+				ShardContext.run(shard, task);
+			}
+			catch(RuntimeException e) {
+				if(failure == null) failure = e;
+				else failure.addSuppressed(e);
+			}
+		}
+		if(failure != null) throw failure;
+	}
+
+	/**
+	 * Template bound to the shard itself rather than to {@link ShardContext}, for work spanning
+	 * several shards at once.
+	 */
+	public JdbcTemplate jdbcTemplate(int shard) {
+		return new JdbcTemplate(dataSource(shard));
+	}
+
+	public TransactionTemplate transactionTemplate(int shard) {
+		return new TransactionTemplate(new DataSourceTransactionManager(dataSource(shard)));
+	}
+
+	private DataSource dataSource(int shard) {
+		if(shard < 0 || shard >= dataSources.size()) throw new IllegalArgumentException("No shard " + shard);
+		return dataSources.get(shard);
+	}
+}
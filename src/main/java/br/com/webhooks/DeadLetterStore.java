@@ -0,0 +1,35 @@
+package br.com.webhooks;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps webhook batches that could not be delivered in the {@code webhook_dead_letters} table,
+ * so they can be inspected and replayed.
+ */
+@Component
+public class DeadLetterStore {
+	
+	private static final int MAX_ERROR_LENGTH = 500;
+	
+	private static final String INSERT = 
+			"INSERT INTO webhook_dead_letters (webhook_id, user_id, url, payload, attempts, last_status, last_error, failed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	public DeadLetterStore(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * @param lastStatus HTTP status of the last attempt, or null when no response was received
+	 */
+	public void save(Long webhookId, Long userId, String url, String payload, int attempts, Integer lastStatus, String lastError) {
+		if(lastError != null && lastError.length() > MAX_ERROR_LENGTH) lastError = lastError.substring(0, MAX_ERROR_LENGTH);
+		jdbcTemplate.update(INSERT, webhookId, userId, url, payload, attempts, lastStatus, lastError, Timestamp.from(Instant.now()));
+	}
+	
+}
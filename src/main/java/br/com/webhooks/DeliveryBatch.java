@@ -0,0 +1,60 @@
+package br.com.webhooks;
+
+import java.util.List;
+
+/**
+ * Oldest pending events of a webhook, claimed by {@link DeliveryStore#claim} to be posted as one
+ * JSON array. Carries the attempts of the oldest event, which the batch is retried with.
+ */
+public class DeliveryBatch {
+	
+	private final Long webhookId;
+	private final Long userId;
+	private final String url;
+	private final String secret;
+	private final List<Long> ids;
+	private final List<String> payloads;
+	private final int attempts;
+	
+	public DeliveryBatch(Long webhookId, Long userId, String url, String secret, List<Long> ids, List<String> payloads, int attempts) {
+		this.webhookId = webhookId;
+		this.userId = userId;
+		this.url = url;
+		this.secret = secret;
+		this.ids = ids;
+		this.payloads = payloads;
+		this.attempts = attempts;
+	}
+
+	public Long getWebhookId() {
+		return webhookId;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public String getSecret() {
+		return secret;
+	}
+
+	public List<Long> getIds() {
+		return ids;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+	
+	/**
+	 * The events as the JSON array posted to the webhook.
+	 */
+	public String getPayload() {
+		return "[" + String.join(",", payloads) + "]";
+	}
+	
+}
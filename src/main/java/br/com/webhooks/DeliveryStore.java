@@ -0,0 +1,142 @@
+package br.com.webhooks;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code webhook_deliveries} table, which keeps the events relayed to a webhook until they are
+ * delivered, so they survive a restart of the node delivering them.
+ *
+ * Events of a webhook are delivered in id order. A batch is claimed only once its oldest event is
+ * due and is leased until {@code next_attempt_at}; when the node delivering it dies, the lease
+ * lapses and the batch is claimed again.
+ */
+@Component
+public class DeliveryStore {
+	
+	private static final int MAX_ERROR_LENGTH = 500;
+	
+	/** One row for every webhook of the user. */
+	private static final String ENQUEUE = "INSERT INTO webhook_deliveries (webhook_id, user_id, payload, attempts, next_attempt_at, created_at) "
+			+ "SELECT id, user_id, ?, 0, ?, ? FROM webhooks WHERE user_id = ?";
+	
+	private static final String FIND_DUE = "SELECT d.webhook_id FROM webhook_deliveries d "
+			+ "JOIN (SELECT webhook_id, MIN(id) AS id FROM webhook_deliveries GROUP BY webhook_id) oldest ON oldest.id = d.id "
+			+ "WHERE d.next_attempt_at <= ? LIMIT ?";
+	
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final DeadLetterStore deadLetters;
+	
+	public DeliveryStore(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, DeadLetterStore deadLetters) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = transactionTemplate;
+		this.deadLetters = deadLetters;
+	}
+	
+	/**
+	 * Queues the events, in order, for every webhook of the user. Joins the current transaction.
+	 */
+	public void enqueue(Long userId, List<String> payloads) {
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.batchUpdate(ENQUEUE, payloads, payloads.size(), (ps, payload) -> {
+			ps.setString(1, payload);
+			ps.setTimestamp(2, now);
+			ps.setTimestamp(3, now);
+			ps.setLong(4, userId);
+		});
+	}
+	
+	/**
+	 * @return webhooks whose oldest pending event is due
+	 */
+	public List<Long> findDue(int limit) {
+		return jdbcTemplate.queryForList(FIND_DUE, Long.class, Timestamp.from(Instant.now()), limit);
+	}
+	
+	/**
+	 * Leases the oldest events of the webhook, unless the oldest one is not due yet, because its
+	 * batch waits for a retry or is being delivered by another node.
+	 */
+	public Optional<DeliveryBatch> claim(Long webhookId, int maxBatchSize, Duration lease) {
+		return transactionTemplate.execute(status -> {
+			Instant now = Instant.now();
+			List<Long> ids = new ArrayList<>();
+			List<String> payloads = new ArrayList<>();
+			Integer attempts = jdbcTemplate.query(
+					"SELECT id, payload, attempts, next_attempt_at FROM webhook_deliveries WHERE webhook_id = ? ORDER BY id LIMIT ? FOR UPDATE",
+					(ResultSetExtractor<Integer>) rs -> {
+						if(!rs.next() || rs.getTimestamp("next_attempt_at").toInstant().isAfter(now)) return null;
+						int oldestAttempts = rs.getInt("attempts");
+						do {
+							ids.add(rs.getLong("id"));
+							payloads.add(rs.getString("payload"));
+						} while(rs.next());
+						return oldestAttempts;
+					}, webhookId, maxBatchSize);
+			if(attempts == null) return Optional.<DeliveryBatch>empty();
+			
+			jdbcTemplate.update("UPDATE webhook_deliveries SET next_attempt_at = ? WHERE id IN (" + placeholders(ids) + ")",
+					args(ids, Timestamp.from(now.plus(lease))));
+			return jdbcTemplate.query("SELECT user_id, url, secret FROM webhooks WHERE id = ?", rs -> {
+				if(!rs.next()) return Optional.<DeliveryBatch>empty();
+				return Optional.of(new DeliveryBatch(webhookId, rs.getLong("user_id"), rs.getString("url"), rs.getString("secret"),
+						ids, payloads, attempts));
+			}, webhookId);
+		});
+	}
+	
+	public void delivered(DeliveryBatch batch) {
+		jdbcTemplate.update("DELETE FROM webhook_deliveries WHERE id IN (" + placeholders(batch.getIds()) + ")", batch.getIds().toArray());
+	}
+	
+	/**
+	 * Records the failed attempt on the events of the batch, which are claimed again at {@code retryAt}.
+	 *
+	 * @param lastStatus HTTP status of the attempt, or null when no response was received
+	 */
+	public void retryAt(DeliveryBatch batch, Instant retryAt, Integer lastStatus, String lastError) {
+		jdbcTemplate.update("UPDATE webhook_deliveries SET attempts = ?, next_attempt_at = ?, last_status = ?, last_error = ? "
+				+ "WHERE id IN (" + placeholders(batch.getIds()) + ")",
+				args(batch.getIds(), batch.getAttempts() + 1, Timestamp.from(retryAt), lastStatus, truncate(lastError)));
+	}
+	
+	/**
+	 * Moves the events of the batch to the dead-letter table in one transaction.
+	 */
+	public void deadLetter(DeliveryBatch batch, Integer lastStatus, String lastError) {
+		transactionTemplate.executeWithoutResult(status -> {
+			deadLetters.save(batch.getWebhookId(), batch.getUserId(), batch.getUrl(), batch.getPayload(), batch.getAttempts() + 1, lastStatus, lastError);
+			delivered(batch);
+		});
+	}
+	
+	private static String placeholders(List<Long> ids) {
+		return String.join(",", Collections.nCopies(ids.size(), "?"));
+	}
+	
+	/**
+	 * The values followed by the ids, for statements ending with an {@code IN} list of the ids.
+	 */
+	private static Object[] args(List<Long> ids, Object... values) {
+		List<Object> args = new ArrayList<>(values.length + ids.size());
+		Collections.addAll(args, values);
+		args.addAll(ids);
+		return args.toArray();
+	}
+	
+	private static String truncate(String error) {
+		return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+	}
+	
+}
@@ -0,0 +1,284 @@
+package br.com.webhooks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.exceptions.BadRequestException;
+import br.com.outbox.OutboxMessage;
+import br.com.outbox.OutboxSink;
+import br.com.sharding.ShardContext;
+import br.com.sharding.Shards;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Delivers relayed changes to the webhooks of their users.
+ *
+ * Fed by the {@link br.com.outbox.OutboxRelay}, so request threads are never involved. The events
+ * are written to the {@link DeliveryStore} in the relay transaction, before they leave the outbox,
+ * and delivered once it commits or on the next poll. Each endpoint has at most one delivery in
+ * flight, which posts up to {@code api.webhooks.max-batch-size} events as one JSON array without
+ * holding a thread while it waits. Failed deliveries are retried with exponential backoff and
+ * jitter; after {@code api.webhooks.max-attempts} the events go to the dead-letter table. The
+ * address of the endpoint is checked again before each attempt, see {@link WebhookUrlValidator}.
+ */
+@Component
+public class WebhookDispatcher implements OutboxSink {
+
+	public static final String SIGNATURE_HEADER = "X-Webhook-Signature";
+
+	private static final Logger logger = LoggerFactory.getLogger(WebhookDispatcher.class);
+
+	/** Endpoints taken from a shard on every poll. */
+	private static final int MAX_DUE_PER_POLL = 500;
+
+	private final DeliveryStore deliveries;
+	private final WebhookUrlValidator urlValidator;
+	private final ObjectMapper objectMapper;
+	private final Shards shards;
+	private final HttpClient httpClient;
+	private final ExecutorService executor;
+	private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+	private final int maxBatchSize;
+	private final int maxAttempts;
+	private final Duration initialBackoff;
+	private final Duration maxBackoff;
+	private final Duration requestTimeout;
+	private final Duration lease;
+
+	@Autowired
+	public WebhookDispatcher(DeliveryStore deliveries, WebhookUrlValidator urlValidator, ObjectMapper objectMapper, Shards shards,
+			@Value("${api.webhooks.threads:4}") int threads,
+			@Value("${api.webhooks.max-batch-size:50}") int maxBatchSize,
+			@Value("${api.webhooks.max-attempts:8}") int maxAttempts,
+			@Value("${api.webhooks.initial-backoff:1s}") Duration initialBackoff,
+			@Value("${api.webhooks.max-backoff:10m}") Duration maxBackoff,
+			@Value("${api.webhooks.request-timeout:5s}") Duration requestTimeout) {
+		this.deliveries = deliveries;
+		this.urlValidator = urlValidator;
+		this.objectMapper = objectMapper;
+		this.shards = shards;
+		this.maxBatchSize = maxBatchSize;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		this.requestTimeout = requestTimeout;
+		// Outlives the request, so a batch is only claimed again once its delivery has given up
+		this.lease = requestTimeout.multipliedBy(2).plusSeconds(30);
+		this.executor = Executors.newFixedThreadPool(threads, new DispatchThreadFactory());
+		this.httpClient = HttpClient.newBuilder()
+				.connectTimeout(requestTimeout)
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+	}
+
+	/**
+	 * Only writes the deliveries, the relay transaction does not wait for any endpoint.
+	 */
+	@Override
+	public void publish(List<OutboxMessage> messages) throws Exception {
+		Map<Long, List<String>> payloadsByUser = new LinkedHashMap<>();
+		for(OutboxMessage message : messages) {
+			payloadsByUser.computeIfAbsent(message.getUserId(), id -> new ArrayList<>()).add(objectMapper.writeValueAsString(message.getChange()));
+		}
+		payloadsByUser.forEach(deliveries::enqueue);
+
+		int shard = ShardContext.current();
+		Runnable poll = () -> executor.execute(() -> ShardContext.run(shard, this::pollShard));
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					poll.run();
+				}
+			});
+		}
+		else {
+			poll.run();
+		}
+	}
+
+	/**
+	 * Picks up events that are due again, or that were left behind by a node that stopped.
+	 */
+	@Scheduled(fixedDelayString = "${api.webhooks.poll-interval:PT1S}")
+	public void poll() {
+		try {
+			shards.forEach(this::pollShard);
+		}
+		catch(RuntimeException e) {
+			logger.warn("Could not poll the webhook deliveries", e);
+		}
+	}
+
+	private void pollShard() {
+		int shard = ShardContext.current();
+		for(Long webhookId : deliveries.findDue(MAX_DUE_PER_POLL)) {
+			dispatch(shard, webhookId);
+		}
+	}
+
+	/**
+	 * Webhook ids are unique across shards, so one set keeps a single delivery in flight per endpoint.
+	 */
+	private void dispatch(int shard, Long webhookId) {
+		if(!inFlight.add(webhookId)) return;
+		try {
+			executor.execute(() -> deliver(shard, webhookId));
+		}
+		catch(RuntimeException e) {
+			inFlight.remove(webhookId);
+			throw e;
+		}
+	}
+
+	private void deliver(int shard, Long webhookId) {
+		DeliveryBatch batch;
+		try {
+			Optional<DeliveryBatch> claimed = ShardContext.call(shard, () -> deliveries.claim(webhookId, maxBatchSize, lease));
+			if(claimed.isEmpty()) {
+				inFlight.remove(webhookId);
+				return;
+			}
+			batch = claimed.get();
+		}
+		catch(RuntimeException e) {
+			inFlight.remove(webhookId);
+			logger.warn("Could not claim the deliveries of webhook {}", webhookId, e);
+			return;
+		}
+
+		String payload = batch.getPayload();
+		try {
+			urlValidator.check(batch.getUrl());
+		}
+		catch(BadRequestException e) {
+			completed(shard, batch, null, e.getMessage());
+			return;
+		}
+		httpClient.sendAsync(request(batch, payload), HttpResponse.BodyHandlers.discarding())
+				.orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+				.whenCompleteAsync((response, failure) -> {
+					if(failure != null) {
+						Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+						completed(shard, batch, null, cause.toString());
+					}
+					else {
+						int status = response.statusCode();
+						completed(shard, batch, status, status / 100 == 2 ? null : "HTTP " + status);
+					}
+				}, executor);
+	}
+
+	/**
+	 * Records the outcome of an attempt; when the store can not be reached, the lease of the batch
+	 * lapses and it is delivered again.
+	 *
+	 * @param error null when the endpoint accepted the batch
+	 */
+	private void completed(int shard, DeliveryBatch batch, Integer status, String error) {
+		boolean next = false;
+		try {
+			ShardContext.run(shard, () -> {
+				if(error == null) {
+					deliveries.delivered(batch);
+				}
+				else if(batch.getAttempts() + 1 >= maxAttempts) {
+					deliveries.deadLetter(batch, status, error);
+				}
+				else {
+					deliveries.retryAt(batch, Instant.now().plusMillis(backoffMillis(batch.getAttempts() + 1)), status, error);
+				}
+			});
+			next = error == null || batch.getAttempts() + 1 >= maxAttempts;
+		}
+		catch(RuntimeException e) {
+			logger.error("Could not record the delivery of webhook {}", batch.getWebhookId(), e);
+		}
+		finally {
+			inFlight.remove(batch.getWebhookId());
+		}
+		if(next) dispatch(shard, batch.getWebhookId());
+	}
+
+	private HttpRequest request(DeliveryBatch batch, String payload) {
+		return HttpRequest.newBuilder(URI.create(batch.getUrl()))
+				.timeout(requestTimeout)
+				.header("Content-Type", "application/json")
+				.header(SIGNATURE_HEADER, "sha256=" + sign(batch.getSecret(), payload))
+				.POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8))
+				.build();
+	}
+
+	/**
+	 * Full jitter over an exponentially growing ceiling, so endpoints that failed together do
+	 * not retry together.
+	 */
+	long backoffMillis(int attempts) {
+		long ceiling = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+		ceiling = Math.min(Math.max(ceiling, 1), maxBackoff.toMillis());
+		return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+	}
+
+	static String sign(String secret, String payload) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+		}
+		catch(GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	private static final class DispatchThreadFactory implements ThreadFactory {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "webhook-dispatcher-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
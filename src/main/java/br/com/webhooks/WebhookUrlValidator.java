@@ -0,0 +1,73 @@
+package br.com.webhooks;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import br.com.exceptions.BadRequestException;
+
+/**
+ * Keeps webhooks from reaching the network of the API itself. A url is accepted only when every
+ * address its host resolves to is public: loopback, link-local, site-local, unique local,
+ * wildcard and multicast addresses are refused.
+ *
+ * Checked when a webhook is registered and again before each delivery, since the host may
+ * resolve elsewhere by then. {@code api.webhooks.allow-private-addresses} lifts the address
+ * check, for local development.
+ */
+@Component
+public class WebhookUrlValidator {
+	
+	private final boolean allowPrivateAddresses;
+	
+	public WebhookUrlValidator(@Value("${api.webhooks.allow-private-addresses:false}") boolean allowPrivateAddresses) {
+		this.allowPrivateAddresses = allowPrivateAddresses;
+	}
+	
+	/**
+	 * @throws BadRequestException when the url is not an absolute http or https url, or its host
+	 * does not resolve to public addresses only
+	 */
+	public void check(String url) {
+		URI uri;
+		try {
+			uri = new URI(url);
+		}
+		catch(URISyntaxException e) {
+			throw new BadRequestException("Invalid webhook url");
+		}
+		String scheme = uri.getScheme();
+		if(uri.getHost() == null || !("https".equalsIgnoreCase(scheme) || "http".equalsIgnoreCase(scheme))) {
+			throw new BadRequestException("Webhook url must be an absolute http or https url");
+		}
+		if(allowPrivateAddresses) return;
+		
+		InetAddress[] addresses;
+		try {
+			addresses = InetAddress.getAllByName(uri.getHost());
+		}
+		catch(UnknownHostException e) {
+			throw new BadRequestException("Webhook host " + uri.getHost() + " could not be resolved");
+		}
+		for(InetAddress address : addresses) {
+			if(!isPublic(address)) {
+				throw new BadRequestException("Webhook host " + uri.getHost() + " resolves to a private address");
+			}
+		}
+	}
+	
+	static boolean isPublic(InetAddress address) {
+		if(address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+				|| address.isSiteLocalAddress() || address.isMulticastAddress()) {
+			return false;
+		}
+		// fc00::/7, which replaced the deprecated IPv6 site-local range
+		return !(address instanceof Inet6Address && (address.getAddress()[0] & 0xfe) == 0xfc);
+	}
+	
+}
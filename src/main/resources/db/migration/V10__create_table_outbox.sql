@@ -0,0 +1,12 @@
+DROP TABLE IF EXISTS `outbox`;
+
+CREATE TABLE `outbox` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `user_id` bigint NOT NULL,
+  `entity_type` varchar(16) NOT NULL,
+  `action` varchar(16) NOT NULL,
+  `entity_id` bigint NOT NULL,
+  `task_id` bigint DEFAULT NULL,
+  `created_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
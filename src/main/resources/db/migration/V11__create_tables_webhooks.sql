@@ -0,0 +1,28 @@
+DROP TABLE IF EXISTS `webhook_dead_letters`;
+DROP TABLE IF EXISTS `webhooks`;
+
+CREATE TABLE `webhooks` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `user_id` bigint NOT NULL,
+  `url` varchar(2048) NOT NULL,
+  `secret` varchar(64) NOT NULL,
+  `created_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_webhooks_user_id` (`user_id`),
+  CONSTRAINT `fk_webhooks_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE `webhook_dead_letters` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `webhook_id` bigint NOT NULL,
+  `user_id` bigint NOT NULL,
+  `url` varchar(2048) NOT NULL,
+  `payload` mediumtext NOT NULL,
+  `attempts` int NOT NULL,
+  `last_status` int DEFAULT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `failed_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_webhook_dead_letters_webhook_id` (`webhook_id`),
+  CONSTRAINT `fk_webhook_dead_letters_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
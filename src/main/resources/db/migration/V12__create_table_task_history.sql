@@ -0,0 +1,14 @@
+DROP TABLE IF EXISTS `task_history`;
+
+CREATE TABLE `task_history` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `task_id` bigint NOT NULL,
+  `entity_type` varchar(16) NOT NULL,
+  `entity_id` bigint NOT NULL,
+  `field` varchar(32) NOT NULL,
+  `old_value` varchar(500) DEFAULT NULL,
+  `new_value` varchar(500) DEFAULT NULL,
+  `changed_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_task_history_task_changed_at` (`task_id`, `changed_at`, `id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
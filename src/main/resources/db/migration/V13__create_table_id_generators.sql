@@ -0,0 +1,13 @@
+DROP TABLE IF EXISTS `id_generators`;
+
+CREATE TABLE `id_generators` (
+  `sequence_name` varchar(64) NOT NULL,
+  `next_val` bigint NOT NULL,
+  PRIMARY KEY (`sequence_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Blocks of 50 ids are handed out from next_val. Starting one block past the highest existing id
+-- keeps existing ids untouched, whether the optimizer reads next_val as the low or the high end.
+INSERT INTO `id_generators` (`sequence_name`, `next_val`) SELECT 'tasks', COALESCE(MAX(`id`), 0) + 51 FROM `tasks`;
+INSERT INTO `id_generators` (`sequence_name`, `next_val`) SELECT 'subtasks', COALESCE(MAX(`id`), 0) + 51 FROM `subtasks`;
+INSERT INTO `id_generators` (`sequence_name`, `next_val`) SELECT 'tags', COALESCE(MAX(`id`), 0) + 51 FROM `tags`;
@@ -0,0 +1,26 @@
+DROP TABLE IF EXISTS `jobs`;
+
+-- available_at is when a QUEUED job may run, or when the lease of a RUNNING job expires and any
+-- worker may claim it again. No foreign key on user_id: an account purge outlives its user.
+CREATE TABLE `jobs` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `user_id` bigint NOT NULL,
+  `type` varchar(32) NOT NULL,
+  `payload` varchar(2000) DEFAULT NULL,
+  `status` varchar(16) NOT NULL,
+  `progress` bigint NOT NULL DEFAULT 0,
+  `total` bigint DEFAULT NULL,
+  `result` varchar(2000) DEFAULT NULL,
+  `error` varchar(500) DEFAULT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `max_attempts` int NOT NULL,
+  `locked_by` varchar(64) DEFAULT NULL,
+  `available_at` datetime(3) NOT NULL,
+  `created_at` datetime(3) NOT NULL,
+  `updated_at` datetime(3) NOT NULL,
+  `finished_at` datetime(3) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_jobs_status_available_at` (`status`, `available_at`),
+  KEY `idx_jobs_user_type` (`user_id`, `type`, `status`),
+  KEY `idx_jobs_finished_at` (`finished_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
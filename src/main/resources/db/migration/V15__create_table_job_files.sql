@@ -0,0 +1,11 @@
+DROP TABLE IF EXISTS `job_files`;
+
+-- The file a job works on, e.g. an upload to import, split into chunks in seq order. The chunks
+-- are written in the transaction that enqueues the job and deleted together with it.
+CREATE TABLE `job_files` (
+  `job_id` bigint NOT NULL,
+  `seq` int NOT NULL,
+  `data` mediumblob NOT NULL,
+  PRIMARY KEY (`job_id`, `seq`),
+  CONSTRAINT `fk_job_files_job` FOREIGN KEY (`job_id`) REFERENCES `jobs` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,51 @@
+DROP TABLE IF EXISTS `archived_task_tags`;
+DROP TABLE IF EXISTS `archived_subtasks`;
+DROP TABLE IF EXISTS `archived_tasks`;
+
+-- DONE tasks moved out of the hot tables by the archiver, with their subtasks and tag links. Rows
+-- keep their ids, which stay unique across both sets of tables. Only searches that ask for
+-- archived tasks read these tables.
+CREATE TABLE `archived_tasks` (
+  `id` bigint NOT NULL,
+  `title` varchar(255) DEFAULT NULL,
+  `description` varchar(500) DEFAULT NULL,
+  `status` enum('DONE','UNDONE') DEFAULT NULL,
+  `priority` enum('HIGH','LOW','MEDIUM','NONE') DEFAULT NULL,
+  `created_date` date DEFAULT NULL,
+  `due_date` date DEFAULT NULL,
+  `user_id` bigint DEFAULT NULL,
+  `version` bigint NOT NULL DEFAULT 0,
+  `updated_at` datetime(3) NOT NULL,
+  `archived_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_archived_tasks_user` (`user_id`, `id`),
+  CONSTRAINT `fk_archived_tasks_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE `archived_subtasks` (
+  `id` bigint NOT NULL,
+  `title` varchar(255) NOT NULL,
+  `description` varchar(255) DEFAULT NULL,
+  `status` tinyint DEFAULT NULL,
+  `created_date` date DEFAULT NULL,
+  `due_date` date DEFAULT NULL,
+  `task_id` bigint NOT NULL,
+  `version` bigint NOT NULL DEFAULT 0,
+  `updated_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_archived_subtasks_task` (`task_id`),
+  CONSTRAINT `fk_archived_subtasks_task` FOREIGN KEY (`task_id`) REFERENCES `archived_tasks` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Links go with their tag, which still lives in the hot tags table.
+CREATE TABLE `archived_task_tags` (
+  `task_id` bigint NOT NULL,
+  `tag_id` bigint NOT NULL,
+  PRIMARY KEY (`task_id`, `tag_id`),
+  KEY `idx_archived_task_tags_tag` (`tag_id`),
+  CONSTRAINT `fk_archived_task_tags_task` FOREIGN KEY (`task_id`) REFERENCES `archived_tasks` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `fk_archived_task_tags_tag` FOREIGN KEY (`tag_id`) REFERENCES `tags` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+-- Lets the archiver find its candidates without scanning the table.
+ALTER TABLE `tasks` ADD KEY `idx_tasks_status_updated_at` (`status`, `updated_at`);
@@ -0,0 +1,13 @@
+DROP TABLE IF EXISTS `user_shards`;
+
+-- Shard holding the data of every user placed outside of the primary, read on the primary only.
+-- Users without a row live on the primary. While `moving` is set the user is being copied to
+-- another shard and its requests are turned away.
+CREATE TABLE `user_shards` (
+  `user_id` bigint NOT NULL,
+  `shard` int NOT NULL,
+  `moving` tinyint(1) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`user_id`),
+  KEY `idx_user_shards_shard` (`shard`),
+  CONSTRAINT `fk_user_shards_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,20 @@
+DROP TABLE IF EXISTS `webhook_deliveries`;
+
+-- One row per webhook and relayed event until the event is delivered or dead-lettered, written
+-- in the transaction that removes the event from the outbox. The oldest row of a webhook holds
+-- the retry state of the batch it heads.
+CREATE TABLE `webhook_deliveries` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `webhook_id` bigint NOT NULL,
+  `user_id` bigint NOT NULL,
+  `payload` varchar(1024) NOT NULL,
+  `attempts` int NOT NULL DEFAULT 0,
+  `next_attempt_at` datetime(3) NOT NULL,
+  `last_status` int DEFAULT NULL,
+  `last_error` varchar(500) DEFAULT NULL,
+  `created_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_webhook_deliveries_webhook_id` (`webhook_id`, `id`),
+  KEY `idx_webhook_deliveries_user_id` (`user_id`),
+  CONSTRAINT `fk_webhook_deliveries_webhook` FOREIGN KEY (`webhook_id`) REFERENCES `webhooks` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
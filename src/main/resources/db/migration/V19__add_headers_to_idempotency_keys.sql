@@ -0,0 +1,5 @@
+-- Headers replayed with the stored response. The request hash is only known once the body has
+-- streamed through, so it is written when the request completes.
+ALTER TABLE `idempotency_keys`
+  ADD COLUMN `etag` varchar(128) DEFAULT NULL AFTER `content_type`,
+  ADD COLUMN `location` varchar(2048) DEFAULT NULL AFTER `etag`;
@@ -0,0 +1,4 @@
+ALTER TABLE `tasks` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+ALTER TABLE `subtasks` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+ALTER TABLE `tags` ADD COLUMN `version` bigint NOT NULL DEFAULT 0;
+ALTER TABLE `users` ADD COLUMN `collection_version` bigint NOT NULL DEFAULT 0;
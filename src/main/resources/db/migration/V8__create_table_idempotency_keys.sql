@@ -0,0 +1,15 @@
+DROP TABLE IF EXISTS `idempotency_keys`;
+
+CREATE TABLE `idempotency_keys` (
+  `user_id` bigint NOT NULL,
+  `idempotency_key` varchar(64) NOT NULL,
+  `request_hash` binary(32) NOT NULL,
+  `status` smallint NOT NULL DEFAULT 0,
+  `content_type` varchar(100) DEFAULT NULL,
+  `body` mediumblob DEFAULT NULL,
+  `created_at` datetime(3) NOT NULL,
+  `expires_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`user_id`, `idempotency_key`),
+  KEY `idx_idempotency_keys_expires_at` (`expires_at`),
+  CONSTRAINT `fk_idempotency_keys_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
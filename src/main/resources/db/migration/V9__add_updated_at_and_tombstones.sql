@@ -0,0 +1,19 @@
+ALTER TABLE `tasks` ADD COLUMN `updated_at` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_tasks_user_updated_at` (`user_id`, `updated_at`);
+ALTER TABLE `subtasks` ADD COLUMN `updated_at` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
+ALTER TABLE `tags` ADD COLUMN `updated_at` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  ADD KEY `idx_tags_user_updated_at` (`user_id`, `updated_at`);
+
+DROP TABLE IF EXISTS `tombstones`;
+
+CREATE TABLE `tombstones` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `user_id` bigint NOT NULL,
+  `entity_type` varchar(16) NOT NULL,
+  `entity_id` bigint NOT NULL,
+  `deleted_at` datetime(3) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_tombstones_user_deleted_at` (`user_id`, `deleted_at`),
+  KEY `idx_tombstones_deleted_at` (`deleted_at`),
+  CONSTRAINT `fk_tombstones_user` FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
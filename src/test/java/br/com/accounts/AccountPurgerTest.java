@@ -0,0 +1,163 @@
+package br.com.accounts;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.audit.AuditLog;
+import br.com.enums.JobStatus;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobStore;
+import br.com.sharding.ShardDirectory;
+import br.com.sharding.Shards;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountPurgerTest extends AbstractIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Long> users = new ArrayList<>();
+
+	private AuditLog auditLog;
+	private JobStore jobStore;
+	private AccountPurger purger;
+
+	@BeforeEach
+	void setUp() {
+		auditLog = new AuditLog(jdbcTemplate, 500, 1000, 100000);
+		jobStore = new JobStore(jdbcTemplate, transactionTemplate, 3);
+		purger = new AccountPurger(jdbcTemplate, transactionTemplate, auditLog, jobStore,
+				new ShardDirectory(new Shards(jdbcTemplate.getDataSource()), Duration.ofSeconds(1)), 2, 3);
+	}
+
+	@AfterEach
+	void tearDown() {
+		auditLog.shutdown();
+		for(Long userId : users) {
+			jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", userId);
+			jdbcTemplate.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM jobs WHERE user_id = ?", userId);
+			jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+		}
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	/**
+	 * A user with one tag and {@code tasks} tasks, each tagged and with one subtask.
+	 */
+	private long userWithTasks(String username, int tasks) {
+		long userId = insert("INSERT INTO users (username, password, role) VALUES (?, 'x', 'ROLE_USER')", username);
+		users.add(userId);
+		long tagId = insert("INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", userId);
+		for(int i = 0; i < tasks; i++) {
+			long taskId = insert("INSERT INTO tasks (title, status, priority, user_id) VALUES (?, 'UNDONE', 'NONE', ?)", "Task " + i, userId);
+			jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)", taskId, tagId);
+			jdbcTemplate.update("INSERT INTO subtasks (title, task_id) VALUES ('Subtask', ?)", taskId);
+		}
+		jdbcTemplate.update("INSERT INTO tombstones (user_id, entity_type, entity_id, deleted_at) VALUES (?, 'TASK', 1, NOW(3))", userId);
+		return userId;
+	}
+
+	private long count(String sql, long userId) {
+		return jdbcTemplate.queryForObject(sql, Long.class, userId);
+	}
+
+	private void assertAccountIsGone(long userId) {
+		assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?", userId)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM tags WHERE user_id = ?", userId)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM tombstones WHERE user_id = ?", userId)).isZero();
+	}
+
+	@Test
+	void purge_ShouldDeleteSmallAccountsRightAway() {
+		long userId = userWithTasks("purge-small", 3);
+
+		Optional<Job> job = purger.purge(userId);
+
+		assertThat(job).isEmpty();
+		assertAccountIsGone(userId);
+	}
+
+	@Test
+	void purge_ShouldQueueOneJobForLargeAccounts() {
+		long userId = userWithTasks("purge-large", 5);
+
+		Job job = purger.purge(userId).orElseThrow();
+
+		assertThat(job.getType()).isEqualTo(AccountPurger.TYPE);
+		assertThat(job.getStatus()).isEqualTo(JobStatus.QUEUED);
+		assertThat(job.getUserId()).isEqualTo(userId);
+		assertThat(purger.purge(userId).orElseThrow().getId()).isEqualTo(job.getId());
+		assertThat(count("SELECT COUNT(*) FROM users WHERE id = ?", userId)).isEqualTo(1);
+	}
+
+	@Test
+	void run_ShouldDeleteTheAccountInChunksAndReportProgress() {
+		long userId = userWithTasks("purge-job", 5);
+		Job job = purger.purge(userId).orElseThrow();
+		JobContext context = mock(JobContext.class);
+		when(context.getJob()).thenReturn(job);
+
+		purger.run(context);
+
+		verify(context).progress(0, 5L);
+		verify(context).progress(2, 5L);
+		verify(context).progress(4, 5L);
+		verify(context).progress(5, 5L);
+		assertAccountIsGone(userId);
+	}
+
+	@Test
+	void purge_ShouldNotTouchOtherAccounts() {
+		long userId = userWithTasks("purge-mine", 2);
+		long otherId = userWithTasks("purge-other", 2);
+
+		purger.purge(userId);
+
+		assertAccountIsGone(userId);
+		assertThat(count("SELECT COUNT(*) FROM tasks WHERE user_id = ?", otherId)).isEqualTo(2);
+		assertThat(count("SELECT COUNT(*) FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", otherId)).isEqualTo(2);
+		assertThat(count("SELECT COUNT(*) FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", otherId)).isEqualTo(2);
+	}
+}
@@ -0,0 +1,153 @@
+package br.com.archive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.InstanceOfAssertFactories.list;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskFields;
+import br.com.dtos.TaskResponse;
+import br.com.enums.TaskStatus;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.sharding.Shards;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskArchiverTest extends AbstractIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Object> published = new ArrayList<>();
+	private TaskArchiver archiver;
+	private ArchiveSearch archiveSearch;
+	private long userId;
+	private long oldDone;
+	private long recentDone;
+	private long oldUndone;
+
+	@BeforeEach
+	void setUp() {
+		published.clear();
+		archiver = new TaskArchiver(jdbcTemplate, transactionTemplate, published::add, new Shards(jdbcTemplate.getDataSource()), Duration.ofDays(90), 2);
+		archiveSearch = new ArchiveSearch(jdbcTemplate);
+
+		userId = insert("INSERT INTO users (username, password, role) VALUES ('archive-user', 'x', 'ROLE_USER')");
+		long work = insert("INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", userId);
+		oldDone = insert("INSERT INTO tasks (title, status, priority, user_id, updated_at) VALUES ('Old done', 'DONE', 'HIGH', ?, '2020-01-01')", userId);
+		recentDone = insert("INSERT INTO tasks (title, status, priority, user_id) VALUES ('Recent done', 'DONE', 'LOW', ?)", userId);
+		oldUndone = insert("INSERT INTO tasks (title, status, priority, user_id, updated_at) VALUES ('Old undone', 'UNDONE', 'NONE', ?, '2020-01-01')", userId);
+		for(long taskId : List.of(oldDone, recentDone, oldUndone)) {
+			jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)", taskId, work);
+		}
+		jdbcTemplate.update("INSERT INTO subtasks (title, status, task_id) VALUES ('Receipt', 1, ?)", oldDone);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", userId);
+		jdbcTemplate.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private long count(String sql, Object... args) {
+		return jdbcTemplate.queryForObject(sql, Long.class, args);
+	}
+
+	@Test
+	void archive_ShouldMoveOldDoneTasksWithTheirSubtasksAndTagLinks() {
+		long collectionVersion = count("SELECT collection_version FROM users WHERE id = ?", userId);
+
+		archiver.archive();
+
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ? ORDER BY id", Long.class, userId))
+				.containsExactly(recentDone, oldUndone);
+		assertThat(jdbcTemplate.queryForList("SELECT id FROM archived_tasks WHERE user_id = ?", Long.class, userId))
+				.containsExactly(oldDone);
+		assertThat(count("SELECT COUNT(*) FROM subtasks WHERE task_id = ?", oldDone)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM archived_subtasks WHERE task_id = ?", oldDone)).isEqualTo(1);
+		assertThat(count("SELECT COUNT(*) FROM task_tags WHERE task_id = ?", oldDone)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM archived_task_tags WHERE task_id = ?", oldDone)).isEqualTo(1);
+		assertThat(count("SELECT collection_version FROM users WHERE id = ?", userId)).isEqualTo(collectionVersion + 1);
+		assertThat(published).singleElement()
+				.satisfies(event -> assertThat(((ChangeBatch) event).getChanges())
+						.extracting(ChangeEvent::getName, ChangeEvent::getId, ChangeEvent::getUserId)
+						.containsExactly(tuple("task.archived", oldDone, userId)));
+	}
+
+	@Test
+	void archiveOlderThan_ShouldWorkThroughChunks() {
+		jdbcTemplate.update("UPDATE tasks SET status = 'DONE' WHERE user_id = ?", userId);
+
+		assertThat(archiver.archiveOlderThan(Instant.now().plusSeconds(60))).isEqualTo(3);
+		assertThat(count("SELECT COUNT(*) FROM tasks WHERE user_id = ?", userId)).isZero();
+		assertThat(count("SELECT COUNT(*) FROM archived_tasks WHERE user_id = ?", userId)).isEqualTo(3);
+	}
+
+	@Test
+	void find_ShouldReadArchivedTasksTogetherWithTheHotOnes() {
+		archiver.archive();
+
+		Page<TaskResponse> page = archiveSearch.find(userId, null, null, "WORK", PageRequest.of(0, 2, Sort.by("id")));
+
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getContent()).extracting(TaskResponse::getId).containsExactly(oldDone, recentDone);
+		TaskResponse archived = page.getContent().get(0);
+		assertThat(archived.getTitle()).isEqualTo("Old done");
+		assertThat(archived.getStatus()).isEqualTo(TaskStatus.DONE);
+		assertThat(archived.getTags()).extracting(TagSummary::getName).containsExactly("WORK");
+		assertThat(archived.getSubtasks()).extracting(SubtaskSummary::getStatus).containsExactly(TaskStatus.DONE);
+
+		SparseTaskResponse sparse = archiveSearch.find(userId, null, null, "WORK", TaskFields.parse("title,tags"), PageRequest.of(0, 1, Sort.by("id")))
+				.getContent().get(0);
+		assertThat(sparse).containsOnlyKeys("title", "tags");
+		assertThat(sparse.get("tags")).asInstanceOf(list(TagSummary.class)).extracting(TagSummary::getName).containsExactly("WORK");
+		assertThat(archiveSearch.find(userId, null, null, null, TaskFields.parse("id"), PageRequest.of(1, 2, Sort.by("id"))).getContent())
+				.extracting(SparseTaskResponse::getId).containsExactly(oldUndone);
+		assertThat(archiveSearch.find(userId, "DONE", "HIGH", null, TaskFields.parse("id"), PageRequest.of(0, 5)).getContent())
+				.extracting(SparseTaskResponse::getId).containsExactly(oldDone);
+	}
+}
@@ -0,0 +1,142 @@
+package br.com.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.enums.TaskStatus;
+import br.com.models.Task;
+
+@ExtendWith(MockitoExtension.class)
+class AuditLogTest {
+	
+	@Mock
+	private JdbcTemplate jdbcTemplate;
+	
+	private final List<Runnable> scheduled = new ArrayList<>();
+	
+	private AuditLog auditLog(int batchSize, int flushThreshold, int maxPending) {
+		return new AuditLog(jdbcTemplate, scheduled::add, batchSize, flushThreshold, maxPending);
+	}
+	
+	private static FieldChanges statusChange(long taskId) {
+		Task task = new Task.Builder().id(taskId).build();
+		return FieldChanges.of(task).add("status", TaskStatus.UNDONE, TaskStatus.DONE);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private List<Integer> batchSizes(int times) {
+		ArgumentCaptor<Collection<AuditRecord>> batchCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(jdbcTemplate, times(times)).batchUpdate(anyString(), batchCaptor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+		return batchCaptor.getAllValues().stream().map(Collection::size).toList();
+	}
+	
+	@Test
+	void flush_ShouldInsertPendingRecordsInBatches() {
+		AuditLog auditLog = auditLog(2, 100, 100);
+		for(long taskId = 1; taskId <= 5; taskId++) auditLog.record(statusChange(taskId));
+		
+		auditLog.flush();
+		
+		assertThat(batchSizes(3)).containsExactly(2, 2, 1);
+		assertThat(auditLog.pending()).isZero();
+	}
+	
+	@Test
+	void record_ShouldScheduleOneFlushOnceTheThresholdIsReached() {
+		AuditLog auditLog = auditLog(10, 3, 100);
+		
+		auditLog.record(statusChange(1L));
+		auditLog.record(statusChange(2L));
+		assertThat(scheduled).isEmpty();
+		
+		auditLog.record(statusChange(3L));
+		auditLog.record(statusChange(4L));
+		assertThat(scheduled).hasSize(1);
+		
+		scheduled.remove(0).run();
+		assertThat(batchSizes(1)).containsExactly(4);
+	}
+	
+	@Test
+	void record_ShouldDropRecordsPastTheLimit() {
+		AuditLog auditLog = auditLog(10, 100, 2);
+		for(long taskId = 1; taskId <= 3; taskId++) auditLog.record(statusChange(taskId));
+		
+		assertThat(auditLog.pending()).isEqualTo(2);
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	void record_ShouldSkipFieldsSentWithTheirCurrentValue() {
+		AuditLog auditLog = auditLog(10, 100, 100);
+		Task task = new Task.Builder().id(1L).title("Task 1").build();
+		
+		auditLog.record(FieldChanges.of(task).add("title", "Task 1", "Task 1"));
+		auditLog.flush();
+		
+		assertThat(auditLog.pending()).isZero();
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+	}
+	
+	@Test
+	void record_ShouldWaitForTheTransactionToCommit() {
+		AuditLog auditLog = auditLog(10, 100, 100);
+		
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			auditLog.record(statusChange(1L));
+			assertThat(auditLog.pending()).isZero();
+			
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		
+		assertThat(auditLog.pending()).isEqualTo(1);
+	}
+	
+	@Test
+	void fieldChanges_ShouldTruncateLongValues() {
+		Task task = new Task.Builder().id(1L).build();
+		
+		FieldChanges changes = FieldChanges.of(task).add("description", null, "a".repeat(600));
+		
+		assertThat(changes.getRecords()).singleElement()
+			.satisfies(record -> assertThat(record.getNewValue()).hasSize(FieldChanges.MAX_VALUE_LENGTH));
+		assertThat(changes.getRecords().get(0).getOldValue()).isNull();
+		assertThat(changes.getRecords().get(0).getField()).isEqualTo("description");
+	}
+	
+	@Test
+	void writeTagDetached_ShouldInsertTheHistoryOfEveryLinkedTaskRightAway() {
+		AuditLog auditLog = auditLog(2, 100, 100);
+		
+		auditLog.writeTagDetached(5L, "WORK");
+		
+		verify(jdbcTemplate).update(contains("FROM task_tags WHERE tag_id = ?"), eq("TAG"), eq("WORK"), any(Timestamp.class), eq(5L));
+		assertThat(auditLog.pending()).isZero();
+	}
+}
@@ -0,0 +1,168 @@
+package br.com.backup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.Role;
+import br.com.exceptions.BadRequestException;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.repositories.IdGenerators;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserBackupTest extends AbstractIntegrationTest {
+
+	private static final String TASKS = "SELECT CONCAT_WS('|', t.title, COALESCE(t.description, '-'), t.status, t.priority, t.created_date, " +
+			"COALESCE(t.due_date, '-'), t.version, (SELECT GROUP_CONCAT(g.name ORDER BY g.name) FROM task_tags tt JOIN tags g ON g.id = tt.tag_id " +
+			"WHERE tt.task_id = t.id), (SELECT GROUP_CONCAT(CONCAT(s.title, ':', s.status) ORDER BY s.title) FROM subtasks s WHERE s.task_id = t.id)) " +
+			"FROM tasks t WHERE t.user_id = ? ORDER BY t.title";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final List<Long> users = new ArrayList<>();
+
+	private UserBackup userBackup;
+	private long userId;
+
+	@BeforeEach
+	void setUp() {
+		userBackup = new UserBackup(dataSource, jdbcTemplate, transactionTemplate.getTransactionManager(),
+				new IdGenerators(jdbcTemplate, transactionTemplate.getTransactionManager()), 2);
+
+		userId = insert("INSERT INTO users (username, password, role, collection_version) VALUES ('backup-user', 'hash', 'ROLE_USER', 7)");
+		users.add(userId);
+		long work = insert("INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", userId);
+		long home = insert("INSERT INTO tags (name, user_id) VALUES ('HOME', ?)", userId);
+		long first = insert("INSERT INTO tasks (title, description, status, priority, created_date, due_date, user_id, version) " +
+				"VALUES ('Pay rent', 'Ação, \"now\"', 'DONE', 'HIGH', '2024-01-02', '1969-12-31', ?, 3)", userId);
+		long second = insert("INSERT INTO tasks (title, status, priority, created_date, user_id) VALUES ('Plain', 'UNDONE', 'NONE', '2024-02-03', ?)", userId);
+		insert("INSERT INTO tasks (title, status, priority, created_date, user_id) VALUES ('Untagged', 'UNDONE', 'LOW', '2024-02-03', ?)", userId);
+		jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?), (?, ?), (?, ?)", first, work, first, home, second, home);
+		jdbcTemplate.update("INSERT INTO subtasks (title, status, created_date, task_id) VALUES ('Transfer', 1, '2024-01-02', ?), ('Receipt', 0, '2024-01-02', ?)",
+				first, first);
+	}
+
+	@AfterEach
+	void tearDown() {
+		for(Long id : users) {
+			jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", id);
+			jdbcTemplate.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+		}
+		jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'restored-%'");
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private byte[] backup(long id) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		userBackup.backup(id, Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	private long restore(byte[] backup, String username) throws IOException {
+		long id = userBackup.restore(Channels.newChannel(new ByteArrayInputStream(backup)), username);
+		users.add(id);
+		return id;
+	}
+
+	@Test
+	void restore_ShouldRecreateTheAccountFromItsBackupWithNewIds() throws IOException {
+		long restoredId = restore(backup(userId), "restored-copy");
+
+		assertThat(restoredId).isNotEqualTo(userId);
+		assertThat(jdbcTemplate.queryForObject("SELECT CONCAT_WS('|', password, role, collection_version) FROM users WHERE id = ?", String.class, restoredId))
+				.isEqualTo("hash|ROLE_USER|7");
+		assertThat(jdbcTemplate.queryForList(TASKS, String.class, restoredId))
+				.containsExactlyElementsOf(jdbcTemplate.queryForList(TASKS, String.class, userId))
+				.hasSize(3);
+	}
+
+	@Test
+	void restore_ShouldKeepTheUsernameOfTheBackupByDefault() throws IOException {
+		byte[] backup = backup(userId);
+		jdbcTemplate.update("UPDATE users SET username = 'restored-renamed' WHERE id = ?", userId);
+
+		long restoredId = restore(backup, null);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, restoredId)).isEqualTo("backup-user");
+	}
+
+	@Test
+	void restore_ShouldRejectAUsernameThatIsTaken() throws IOException {
+		byte[] backup = backup(userId);
+
+		assertThatThrownBy(() -> restore(backup, "backup-user"))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessage("Username already exists");
+	}
+
+	@Test
+	void restore_ShouldRejectTruncatedBackupsWithoutRestoringAnything() throws IOException {
+		byte[] backup = backup(userId);
+
+		assertThatThrownBy(() -> restore(Arrays.copyOf(backup, backup.length - 4), "restored-truncated"))
+				.isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> restore("not a backup".getBytes(), "restored-garbage"))
+				.isInstanceOf(BadRequestException.class)
+				.hasMessage("Not a backup file");
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE username LIKE 'restored-%'", Long.class)).isZero();
+	}
+
+	@Test
+	void restore_ShouldSkipFieldsAndRecordsOfALaterMinorVersion() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(BackupWriter writer = new BackupWriter(Channels.newChannel(out))) {
+			writer.begin(BackupFormat.USER).string("restored-future").string("hash").ordinal(Role.ROLE_USER).varLong(0).string("appended field").end();
+			writer.begin(42).string("a record type from the future").end();
+			writer.begin(BackupFormat.END).varLong(0).varLong(0).varLong(0).varLong(0).end();
+		}
+
+		long restoredId = restore(out.toByteArray(), null);
+
+		assertThat(jdbcTemplate.queryForObject("SELECT username FROM users WHERE id = ?", String.class, restoredId)).isEqualTo("restored-future");
+	}
+}
@@ -0,0 +1,111 @@
+package br.com.benchmarks;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.com.controllers.SubtaskController;
+import br.com.controllers.TagController;
+import br.com.controllers.TaskController;
+import br.com.dtos.TaskResponse;
+import br.com.links.LinkTemplate;
+
+/**
+ * Cost of the six links added to every TaskResponse, built with {@code linkTo(methodOn(...))}
+ * and with precomputed {@link LinkTemplate}s. A request is bound to the thread so both
+ * variants resolve the absolute base URI, as they do when serving traffic.
+ * 
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.benchmarks.LinkBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkBenchmark {
+	
+	private LinkTemplate self;
+	private LinkTemplate update;
+	private LinkTemplate delete;
+	private LinkTemplate findAll;
+	private LinkTemplate addSubtask;
+	private LinkTemplate addTag;
+	
+	private long id;
+	
+	@Setup(Level.Trial)
+	public void setUpTemplates() {
+		self = LinkTemplate.of(methodOn(TaskController.class).findById(null), "taskId");
+		update = LinkTemplate.of(methodOn(TaskController.class).partialUpdate(null, null, null), "taskId");
+		delete = LinkTemplate.of(methodOn(TaskController.class).delete(null), "taskId");
+		findAll = LinkTemplate.of(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null));
+		addSubtask = LinkTemplate.of(methodOn(SubtaskController.class).addSubtask(null, null), "taskId");
+		addTag = LinkTemplate.of(methodOn(TagController.class).addTag(null, null), "taskId");
+	}
+	
+	@Setup(Level.Invocation)
+	public void bindRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/" + id);
+		request.setServerPort(9090);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		id++;
+	}
+	
+	@TearDown(Level.Invocation)
+	public void unbindRequest() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	@Benchmark
+	public TaskResponse linkToMethodOn() {
+		TaskResponse taskDto = new TaskResponse();
+		taskDto.setId(id);
+		taskDto.add(linkTo(methodOn(TaskController.class).findById(taskDto.getId())).withSelfRel());
+		taskDto.add(linkTo(methodOn(TaskController.class).partialUpdate(taskDto.getId(), null, null)).withRel("update"));
+		taskDto.add(linkTo(methodOn(TaskController.class).delete(taskDto.getId())).withRel("delete"));
+		taskDto.add(linkTo(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null)).withRel("findAllTasks"));
+		taskDto.add(linkTo(methodOn(SubtaskController.class).addSubtask(taskDto.getId(), null)).withRel("addSubtask"));
+		taskDto.add(linkTo(methodOn(TagController.class).addTag(taskDto.getId(), null)).withRel("addTag"));
+		return taskDto;
+	}
+	
+	@Benchmark
+	public TaskResponse linkTemplate() {
+		TaskResponse taskDto = new TaskResponse();
+		taskDto.setId(id);
+		taskDto.add(self.withSelfRel(taskDto.getId()));
+		taskDto.add(update.withRel(taskDto.getId(), "update"));
+		taskDto.add(delete.withRel(taskDto.getId(), "delete"));
+		taskDto.add(findAll.withRel("findAllTasks"));
+		taskDto.add(addSubtask.withRel(taskDto.getId(), "addSubtask"));
+		taskDto.add(addTag.withRel(taskDto.getId(), "addTag"));
+		return taskDto;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(LinkBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,93 @@
+package br.com.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import br.com.dtos.TaskResponse;
+import br.com.enums.Role;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.mappers.TaskMapper;
+import br.com.models.Subtask;
+import br.com.models.Tag;
+import br.com.models.Task;
+import br.com.models.User;
+
+/**
+ * Compares the reflective {@link ModelMapper} with the hand-written {@link TaskMapper}
+ * on a task carrying two tags and five subtasks.
+ * 
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.benchmarks.MapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+	
+	private ModelMapper modelMapper;
+	private TaskMapper taskMapper;
+	private Task task;
+	
+	@Setup
+	public void setUp() {
+		modelMapper = new ModelMapper();
+		taskMapper = new TaskMapper();
+		
+		User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+		task = new Task.Builder()
+				.id(1L)
+				.user(user)
+				.title("Task 1")
+				.description("Description 1")
+				.status(TaskStatus.UNDONE)
+				.priority(TaskPriority.HIGH)
+				.createdDate(LocalDate.now())
+				.dueDate(LocalDate.now().plusDays(7))
+				.build();
+		
+		for (long i = 1; i <= 2; i++) {
+			Tag tag = new Tag("TAG " + i, user);
+			tag.setId(i);
+			task.addTag(tag);
+		}
+		for (long i = 1; i <= 5; i++) {
+			Subtask subtask = new Subtask("Subtask " + i, "Description " + i, LocalDate.now(), task, TaskStatus.UNDONE);
+			subtask.setId(i);
+			task.addSubtask(subtask);
+		}
+	}
+	
+	@Benchmark
+	public TaskResponse modelMapper() {
+		return modelMapper.map(task, TaskResponse.class);
+	}
+	
+	@Benchmark
+	public TaskResponse taskMapper() {
+		return taskMapper.toResponse(task);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(MapperBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
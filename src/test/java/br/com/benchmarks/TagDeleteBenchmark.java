@@ -0,0 +1,197 @@
+package br.com.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * Deletes a tag carried by {@value #TASKS} tasks. {@code iterating} issues what Hibernate did when
+ * the tag was removed from every loaded task: the tasks of the tag, the tag collection of each
+ * task, then a version update and a link delete per task, in JDBC batches of {@value #BATCH_SIZE}.
+ * {@code setBased} is the current {@code TagService.deleteTag}: one update of the tagged tasks and
+ * one delete of the links. Scores are milliseconds per deletion.
+ *
+ * Needs Docker. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.benchmarks.TagDeleteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class TagDeleteBenchmark {
+
+	private static final int TASKS = 10_000;
+	private static final int BATCH_SIZE = 50;
+
+	private static final String SELECT_TASKS_OF_TAG =
+			"SELECT t.id, t.version FROM tasks t JOIN task_tags tt ON tt.task_id = t.id WHERE tt.tag_id = ?";
+	private static final String SELECT_TAGS_OF_TASK =
+			"SELECT g.id, g.name FROM tags g JOIN task_tags tt ON tt.tag_id = g.id WHERE tt.task_id = ?";
+	private static final String UPDATE_VERSION = "UPDATE tasks SET version = ? WHERE id = ? AND version = ?";
+	private static final String DELETE_LINK = "DELETE FROM task_tags WHERE task_id = ? AND tag_id = ?";
+	private static final String TOUCH_TAGGED =
+			"UPDATE tasks SET updated_at = NOW(3), version = version + 1 WHERE id IN (SELECT task_id FROM task_tags WHERE tag_id = ?)";
+	private static final String DELETE_LINKS = "DELETE FROM task_tags WHERE tag_id = ?";
+	private static final String DELETE_TAG = "DELETE FROM tags WHERE id = ? AND user_id = ?";
+
+	private MySQLContainer<?> mysql;
+	private Connection connection;
+	private long userId;
+	private long tagId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		mysql = new MySQLContainer<>("mysql:8.0.30");
+		mysql.start();
+		Flyway.configure()
+				.dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+				.locations("classpath:/db/migration")
+				.placeholders(Map.of("ADMIN_PASSWORD", "benchmark"))
+				.load()
+				.migrate();
+
+		connection = mysql.createConnection("?rewriteBatchedStatements=true");
+		connection.setAutoCommit(false);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("INSERT INTO users (username, password, role) VALUES ('bench', 'x', 'ROLE_USER')", Statement.RETURN_GENERATED_KEYS);
+			try (ResultSet keys = statement.getGeneratedKeys()) {
+				keys.next();
+				userId = keys.getLong(1);
+			}
+		}
+		try (PreparedStatement insert = connection.prepareStatement(
+				"INSERT INTO tasks (id, title, status, priority, user_id, version) VALUES (?, ?, 'UNDONE', 'NONE', ?, 0)")) {
+			for (int i = 1; i <= TASKS; i++) {
+				insert.setLong(1, i);
+				insert.setString(2, "Task " + i);
+				insert.setLong(3, userId);
+				insert.addBatch();
+				if (i % 1000 == 0) insert.executeBatch();
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+	}
+
+	/**
+	 * Tags every task again, outside of the measured time.
+	 */
+	@Setup(Level.Invocation)
+	public void tagAllTasks() throws SQLException {
+		try (PreparedStatement insertTag = connection.prepareStatement(
+				"INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", Statement.RETURN_GENERATED_KEYS)) {
+			insertTag.setLong(1, userId);
+			insertTag.executeUpdate();
+			try (ResultSet keys = insertTag.getGeneratedKeys()) {
+				keys.next();
+				tagId = keys.getLong(1);
+			}
+		}
+		try (PreparedStatement link = connection.prepareStatement("INSERT INTO task_tags (task_id, tag_id) SELECT id, ? FROM tasks")) {
+			link.setLong(1, tagId);
+			link.executeUpdate();
+		}
+		connection.commit();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+		mysql.stop();
+	}
+
+	@Benchmark
+	public int iterating() throws SQLException {
+		List<long[]> tasks = new ArrayList<>(TASKS);
+		try (PreparedStatement select = connection.prepareStatement(SELECT_TASKS_OF_TAG)) {
+			select.setLong(1, tagId);
+			try (ResultSet rows = select.executeQuery()) {
+				while (rows.next()) tasks.add(new long[] {rows.getLong(1), rows.getLong(2)});
+			}
+		}
+
+		try (PreparedStatement selectTags = connection.prepareStatement(SELECT_TAGS_OF_TASK);
+				PreparedStatement update = connection.prepareStatement(UPDATE_VERSION);
+				PreparedStatement delete = connection.prepareStatement(DELETE_LINK)) {
+			for (long[] task : tasks) {
+				selectTags.setLong(1, task[0]);
+				try (ResultSet rows = selectTags.executeQuery()) {
+					while (rows.next());
+				}
+			}
+			for (int i = 0; i < tasks.size(); i++) {
+				long[] task = tasks.get(i);
+				update.setLong(1, task[1] + 1);
+				update.setLong(2, task[0]);
+				update.setLong(3, task[1]);
+				update.addBatch();
+				delete.setLong(1, task[0]);
+				delete.setLong(2, tagId);
+				delete.addBatch();
+				if ((i + 1) % BATCH_SIZE == 0) {
+					update.executeBatch();
+					delete.executeBatch();
+				}
+			}
+			update.executeBatch();
+			delete.executeBatch();
+		}
+		int deleted = deleteTag();
+		connection.commit();
+		return deleted;
+	}
+
+	@Benchmark
+	public int setBased() throws SQLException {
+		try (PreparedStatement touch = connection.prepareStatement(TOUCH_TAGGED);
+				PreparedStatement delete = connection.prepareStatement(DELETE_LINKS)) {
+			touch.setLong(1, tagId);
+			touch.executeUpdate();
+			delete.setLong(1, tagId);
+			delete.executeUpdate();
+		}
+		int deleted = deleteTag();
+		connection.commit();
+		return deleted;
+	}
+
+	private int deleteTag() throws SQLException {
+		try (PreparedStatement delete = connection.prepareStatement(DELETE_TAG)) {
+			delete.setLong(1, tagId);
+			delete.setLong(2, userId);
+			return delete.executeUpdate();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TagDeleteBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,174 @@
+package br.com.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * Inserts {@value #TASKS} tasks per transaction, the way Hibernate does with each id strategy:
+ * IDENTITY needs the generated key of every row, so each insert is its own round-trip; pooled ids
+ * come from one {@code id_generators} update per block of {@value #BLOCK_SIZE} and the inserts go
+ * out as JDBC batches, rewritten into multi-row statements by the driver. Scores are tasks per
+ * millisecond.
+ *
+ * Needs Docker. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.benchmarks.TaskInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskInsertBenchmark {
+
+	private static final int TASKS = 500;
+	private static final int BLOCK_SIZE = 50;
+
+	private static final String IDENTITY_INSERT =
+			"INSERT INTO tasks (title, status, priority, user_id, version) VALUES (?, 'UNDONE', 'NONE', ?, 0)";
+	private static final String POOLED_INSERT =
+			"INSERT INTO tasks (id, title, status, priority, user_id, version) VALUES (?, ?, 'UNDONE', 'NONE', ?, 0)";
+	private static final String READ_BLOCK = "SELECT next_val FROM id_generators WHERE sequence_name = 'tasks' FOR UPDATE";
+	private static final String TAKE_BLOCK = "UPDATE id_generators SET next_val = ? WHERE sequence_name = 'tasks'";
+
+	@Param({"50", "500"})
+	public int batchSize;
+
+	private MySQLContainer<?> mysql;
+	private Connection connection;
+	private Connection generatorConnection;
+	private long userId;
+
+	private long nextId;
+	private long blockEnd;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		mysql = new MySQLContainer<>("mysql:8.0.30");
+		mysql.start();
+		Flyway.configure()
+				.dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+				.locations("classpath:/db/migration")
+				.placeholders(Map.of("ADMIN_PASSWORD", "benchmark"))
+				.load()
+				.migrate();
+
+		connection = mysql.createConnection("?rewriteBatchedStatements=true");
+		connection.setAutoCommit(false);
+		generatorConnection = mysql.createConnection("");
+		generatorConnection.setAutoCommit(false);
+
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("INSERT INTO users (username, password, role) VALUES ('bench', 'x', 'ROLE_USER')", Statement.RETURN_GENERATED_KEYS);
+			try (ResultSet keys = statement.getGeneratedKeys()) {
+				keys.next();
+				userId = keys.getLong(1);
+			}
+			connection.commit();
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void clear() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			statement.executeUpdate("DELETE FROM tasks");
+			connection.commit();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		connection.close();
+		generatorConnection.close();
+		mysql.stop();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TASKS)
+	public long identity() throws SQLException {
+		long lastId = 0;
+		try (PreparedStatement insert = connection.prepareStatement(IDENTITY_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+			for (int i = 0; i < TASKS; i++) {
+				insert.setString(1, "Task " + i);
+				insert.setLong(2, userId);
+				insert.executeUpdate();
+				try (ResultSet keys = insert.getGeneratedKeys()) {
+					keys.next();
+					lastId = keys.getLong(1);
+				}
+			}
+		}
+		connection.commit();
+		return lastId;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TASKS)
+	public long pooled() throws SQLException {
+		long lastId = 0;
+		try (PreparedStatement insert = connection.prepareStatement(POOLED_INSERT)) {
+			for (int i = 0; i < TASKS; i++) {
+				lastId = nextId();
+				insert.setLong(1, lastId);
+				insert.setString(2, "Task " + i);
+				insert.setLong(3, userId);
+				insert.addBatch();
+				if ((i + 1) % batchSize == 0) insert.executeBatch();
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+		return lastId;
+	}
+
+	/**
+	 * Pooled-lo, as configured for Hibernate: the stored value is the low end of the next block,
+	 * taken in a transaction of its own.
+	 */
+	private long nextId() throws SQLException {
+		if (nextId == blockEnd) {
+			try (PreparedStatement read = generatorConnection.prepareStatement(READ_BLOCK);
+					PreparedStatement take = generatorConnection.prepareStatement(TAKE_BLOCK)) {
+				try (ResultSet row = read.executeQuery()) {
+					row.next();
+					nextId = row.getLong(1);
+				}
+				blockEnd = nextId + BLOCK_SIZE;
+				take.setLong(1, blockEnd);
+				take.executeUpdate();
+				generatorConnection.commit();
+			}
+		}
+		return nextId++;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TaskInsertBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
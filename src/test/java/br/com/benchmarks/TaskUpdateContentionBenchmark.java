@@ -0,0 +1,163 @@
+package br.com.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.MySQLContainer;
+
+/**
+ * Eight writers updating the same task, with the statements Hibernate issues for a versioned
+ * entity against a {@code SELECT ... FOR UPDATE} row lock held for the read-modify-write.
+ * The {@code conflicts} counter reports how many optimistic attempts had to be retried.
+ *
+ * Needs Docker. Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.benchmarks.TaskUpdateContentionBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class TaskUpdateContentionBenchmark {
+
+	private static final String READ = "SELECT title, version FROM tasks WHERE id = ?";
+	private static final String OPTIMISTIC_UPDATE = "UPDATE tasks SET title = ?, version = version + 1 WHERE id = ? AND version = ?";
+	private static final String LOCKING_READ = "SELECT title, version FROM tasks WHERE id = ? FOR UPDATE";
+	private static final String UPDATE = "UPDATE tasks SET title = ?, version = version + 1 WHERE id = ?";
+
+	private MySQLContainer<?> mysql;
+	private long taskId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		mysql = new MySQLContainer<>("mysql:8.0.30");
+		mysql.start();
+		Flyway.configure()
+				.dataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword())
+				.locations("classpath:/db/migration")
+				.placeholders(Map.of("ADMIN_PASSWORD", "benchmark"))
+				.load()
+				.migrate();
+
+		try (Connection connection = mysql.createConnection("");
+				Statement statement = connection.createStatement()) {
+			statement.executeUpdate("INSERT INTO users (username, password, role) VALUES ('bench', 'x', 'ROLE_USER')", Statement.RETURN_GENERATED_KEYS);
+			long userId = generatedKey(statement);
+			statement.executeUpdate("INSERT INTO tasks (title, status, priority, user_id) VALUES ('Task', 'UNDONE', 'NONE', " + userId + ")", Statement.RETURN_GENERATED_KEYS);
+			taskId = generatedKey(statement);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		mysql.stop();
+	}
+
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Writer {
+		public long conflicts;
+
+		private Connection connection;
+		private int sequence;
+
+		@Setup(Level.Trial)
+		public void open(TaskUpdateContentionBenchmark benchmark) throws SQLException {
+			connection = benchmark.mysql.createConnection("");
+		}
+
+		@TearDown(Level.Trial)
+		public void close() throws SQLException {
+			connection.close();
+		}
+
+		String nextTitle() {
+			return "Task " + Thread.currentThread().getId() + "-" + sequence++;
+		}
+	}
+
+	@Benchmark
+	public int optimistic(Writer writer) throws SQLException {
+		Connection connection = writer.connection;
+		connection.setAutoCommit(true);
+
+		while (true) {
+			long version;
+			try (PreparedStatement read = connection.prepareStatement(READ)) {
+				read.setLong(1, taskId);
+				try (ResultSet row = read.executeQuery()) {
+					row.next();
+					version = row.getLong("version");
+				}
+			}
+			try (PreparedStatement update = connection.prepareStatement(OPTIMISTIC_UPDATE)) {
+				update.setString(1, writer.nextTitle());
+				update.setLong(2, taskId);
+				update.setLong(3, version);
+				int updated = update.executeUpdate();
+				if(updated == 1) return updated;
+			}
+			writer.conflicts++;
+		}
+	}
+
+	@Benchmark
+	public int pessimistic(Writer writer) throws SQLException {
+		Connection connection = writer.connection;
+		connection.setAutoCommit(false);
+
+		try (PreparedStatement read = connection.prepareStatement(LOCKING_READ);
+				PreparedStatement update = connection.prepareStatement(UPDATE)) {
+			read.setLong(1, taskId);
+			try (ResultSet row = read.executeQuery()) {
+				row.next();
+			}
+			update.setString(1, writer.nextTitle());
+			update.setLong(2, taskId);
+			int updated = update.executeUpdate();
+			connection.commit();
+			return updated;
+		}
+		catch(SQLException e) {
+			connection.rollback();
+			throw e;
+		}
+	}
+
+	private static long generatedKey(Statement statement) throws SQLException {
+		try (ResultSet keys = statement.getGeneratedKeys()) {
+			keys.next();
+			return keys.getLong(1);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TaskUpdateContentionBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -3,6 +3,7 @@ package br.com.controllers;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -14,6 +15,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -27,12 +30,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ContextConfiguration;
@@ -41,16 +47,23 @@ import org.springframework.test.web.servlet.MockMvc;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import br.com.configs.ApiMediaTypes;
+import br.com.configs.CompactJsonConfiguration;
+import br.com.configs.ExportFormatConverter;
+import br.com.dtos.CompactPage;
 import br.com.dtos.TaskCreateRequest;
 import br.com.dtos.TaskResponse;
 import br.com.dtos.TaskUpdateRequest;
+import br.com.enums.ExportFormat;
 import br.com.exceptions.BadRequestException;
+import br.com.exceptions.PreconditionFailedException;
 import br.com.exceptions.handler.ApiExceptionHandler;
+import br.com.models.Task;
 import br.com.services.TaskService;
 
 @WebMvcTest
 @ContextConfiguration(classes = {TaskController.class})
-@Import(ApiExceptionHandler.class)
+@Import({ApiExceptionHandler.class, CompactJsonConfiguration.class, ExportFormatConverter.class})
 public class TaskControllerTest {
 
 	@Autowired
@@ -83,6 +96,63 @@ public class TaskControllerTest {
                     .andExpect(jsonPath("$.title").value(task.getTitle()));
         }
         
+        @Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findById_ShouldReturnCompactTaskWithoutLinksWhenCompactIsAccepted() throws Exception {
+        	
+            TaskResponse task = new TaskResponse();
+            task.setId(1L);
+            task.setTitle("Task 1");
+            
+            when(taskService.findByIdCompact(1L)).thenReturn(task);
+
+            mockMvc.perform(get("/api/tasks/{taskId}", task.getId()).accept(ApiMediaTypes.COMPACT_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentTypeCompatibleWith(ApiMediaTypes.COMPACT_JSON))
+                    .andExpect(jsonPath("$.id").value(task.getId()))
+                    .andExpect(jsonPath("$.title").value(task.getTitle()))
+                    .andExpect(jsonPath("$.links").doesNotExist())
+                    .andExpect(jsonPath("$._links").doesNotExist());
+            
+            verify(taskService, never()).findById(anyLong());
+        }
+        
+        @Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findById_ShouldReturnETagBuiltFromVersion() throws Exception {
+        	
+            TaskResponse task = new TaskResponse();
+            task.setId(1L);
+            task.setVersion(26L);
+            
+            when(taskService.findById(1L)).thenReturn(task);
+            when(taskService.findByIdCompact(1L)).thenReturn(task);
+
+            mockMvc.perform(get("/api/tasks/{taskId}", task.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"1.1a\""));
+            
+            mockMvc.perform(get("/api/tasks/{taskId}", task.getId()).accept(ApiMediaTypes.COMPACT_JSON))
+		            .andExpect(status().isOk())
+		            .andExpect(header().string(HttpHeaders.ETAG, "\"1.1a-compact\""));
+        }
+        
+        @Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findById_ShouldReturnNotModifiedWhenETagMatches() throws Exception {
+        	
+            TaskResponse task = new TaskResponse();
+            task.setId(1L);
+            task.setTitle("Task 1");
+            task.setVersion(26L);
+            
+            when(taskService.findById(1L)).thenReturn(task);
+
+            mockMvc.perform(get("/api/tasks/{taskId}", task.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"1.1a\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+        }
+        
         @Test
         @WithMockUser(username = "user", roles = {"USER"})
         void findById_ShouldReturnBadRequestWhenTaskNotFound() throws Exception {
@@ -146,6 +216,61 @@ public class TaskControllerTest {
             .andExpect(jsonPath("$._embedded.taskResponseList[1].title").value("Task 2"));
         }
 		
+		@Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findAllByUserAuthenticated_ShouldReturnCompactPageWhenCompactIsAccepted() throws Exception {
+        	
+            TaskResponse task1 = new TaskResponse();
+            task1.setId(1L);
+            task1.setTitle("Task 1");
+            
+            TaskResponse task2 = new TaskResponse();
+            task2.setId(2L);
+            task2.setTitle("Task 2");
+            
+            CompactPage<TaskResponse> compactPage = CompactPage.of(new PageImpl<>(List.of(task1, task2), pageable, 7));
+            
+            when(taskService.findAllByUserAuthenticatedCompact(pageable)).thenReturn(compactPage);
+
+            mockMvc.perform(get("/api/tasks").accept(ApiMediaTypes.COMPACT_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content.size()").value(2))
+            .andExpect(jsonPath("$.content[0].title").value("Task 1"))
+            .andExpect(jsonPath("$.content[0].links").doesNotExist())
+            .andExpect(jsonPath("$.page.size").value(5))
+            .andExpect(jsonPath("$.page.number").value(0))
+            .andExpect(jsonPath("$.page.totalElements").value(7))
+            .andExpect(jsonPath("$.page.totalPages").value(2));
+            
+            verify(taskService, never()).findAllByUserAuthenticated(any());
+        }
+		
+		@Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findAllByUserAuthenticated_ShouldReturnCollectionETag() throws Exception {
+			
+			when(taskService.collectionETag()).thenReturn("\"u1.c3\"");
+			when(taskService.findAllByUserAuthenticated(pageable)).thenReturn(PagedModel.empty());
+			
+			mockMvc.perform(get("/api/tasks"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"u1.c3\""));
+		}
+		
+		@Test
+        @WithMockUser(username = "user", roles = {"USER"})
+        void findAllByUserAuthenticated_ShouldReturnNotModifiedWithoutLoadingTasksWhenETagMatches() throws Exception {
+			
+			when(taskService.collectionETag()).thenReturn("\"u1.c3\"");
+			
+			mockMvc.perform(get("/api/tasks").header(HttpHeaders.IF_NONE_MATCH, "\"u1.c3\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+			
+			verify(taskService, never()).findAllByUserAuthenticated(any());
+			verify(taskService, never()).findAllByUserAuthenticatedCompact(any());
+		}
+		
 		@Test
         void findAllByUserAuthenticated_ShouldReturnUnauthorizedWhenUserNotAuthenticated() throws Exception {
 			
@@ -175,7 +300,7 @@ public class TaskControllerTest {
             PagedModel<EntityModel<TaskResponse>> mockPagedModel = PagedModel.of(
                 entityModelList, new PagedModel.PageMetadata(2, 0, 2, 1)); 
             
-            when(taskService.customizedSearch(null, null, null, pageable)).thenReturn(mockPagedModel);
+            when(taskService.customizedSearch(null, null, null, pageable, false)).thenReturn(mockPagedModel);
 
             mockMvc.perform(get("/api/tasks/search"))
             .andExpect(status().isOk())
@@ -202,7 +327,7 @@ public class TaskControllerTest {
             PagedModel<EntityModel<TaskResponse>> mockPagedModel = PagedModel.of(
                 entityModelList, new PagedModel.PageMetadata(2, 0, 2, 1)); 
             
-            when(taskService.customizedSearch(anyString(), anyString(), anyString(), any(Pageable.class))).thenReturn(mockPagedModel);
+            when(taskService.customizedSearch(anyString(), anyString(), anyString(), any(Pageable.class), eq(false))).thenReturn(mockPagedModel);
             
             mockMvc.perform(get("/api/tasks/search")
                     .param("status", "done")
@@ -402,7 +527,7 @@ public class TaskControllerTest {
 			taskResponse.setTitle("Task 1");
 			taskResponse.setDescription("Description 1");
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenReturn(taskResponse);
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenReturn(taskResponse);
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -413,7 +538,7 @@ public class TaskControllerTest {
 			        .andExpect(jsonPath("$.title").value("Task 1"))
 			        .andExpect(jsonPath("$.description").value("Description 1"));
 			
-			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class));
+			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());
 			
 		}
 		
@@ -423,7 +548,7 @@ public class TaskControllerTest {
 			
 			TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenThrow(new BadRequestException("Please provide updates"));
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenThrow(new BadRequestException("Please provide updates"));
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -431,8 +556,68 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isBadRequest());
 		
-			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class));
+			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());
+			
+		}
+		
+		@Test
+		@WithMockUser(username = "user", roles = {"USER"})
+		void partialUpdate_ShouldPassIfMatchAndReturnETag() throws JsonProcessingException, Exception {
+			
+			TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+			taskUpdateRequest.setTitle("Task 1");
+			
+			TaskResponse taskResponse = new TaskResponse();
+			taskResponse.setId(1L);
+			taskResponse.setVersion(3L);
+			
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenReturn(taskResponse);
+			
+			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
+			        .contentType(MediaType.APPLICATION_JSON)
+			        .header(HttpHeaders.IF_MATCH, "\"1.2\"")
+			        .content(objectMapper.writeValueAsString(taskUpdateRequest))
+			        .with(csrf()))
+			        .andExpect(status().isOk())
+			        .andExpect(header().string(HttpHeaders.ETAG, "\"1.3\""));
+			
+			verify(taskService).partialUpdate(eq(1L), any(TaskUpdateRequest.class), eq("\"1.2\""));
+		}
+		
+		@Test
+		@WithMockUser(username = "user", roles = {"USER"})
+		void partialUpdate_ShouldReturnPreconditionFailedWhenIfMatchIsStale() throws JsonProcessingException, Exception {
+			
+			TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+			taskUpdateRequest.setTitle("Task 1");
+			
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any()))
+				.thenThrow(new PreconditionFailedException("Task was modified since it was read"));
+			
+			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
+			        .contentType(MediaType.APPLICATION_JSON)
+			        .header(HttpHeaders.IF_MATCH, "\"1.1\"")
+			        .content(objectMapper.writeValueAsString(taskUpdateRequest))
+			        .with(csrf()))
+			        .andExpect(status().isPreconditionFailed())
+			        .andExpect(jsonPath("$.message").value("Task was modified since it was read"));
+		}
+		
+		@Test
+		@WithMockUser(username = "user", roles = {"USER"})
+		void partialUpdate_ShouldReturnConflictWhenUpdatedConcurrently() throws JsonProcessingException, Exception {
+			
+			TaskUpdateRequest taskUpdateRequest = new TaskUpdateRequest();
+			taskUpdateRequest.setTitle("Task 1");
 			
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any()))
+				.thenThrow(new ObjectOptimisticLockingFailureException(Task.class, 1L));
+			
+			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
+			        .contentType(MediaType.APPLICATION_JSON)
+			        .content(objectMapper.writeValueAsString(taskUpdateRequest))
+			        .with(csrf()))
+			        .andExpect(status().isConflict());
 		}
 		
 		@Test
@@ -460,7 +645,7 @@ public class TaskControllerTest {
 			taskResponse.setTitle("Task 1");
 			taskResponse.setDescription(overFiveHundredString.toString());
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenReturn(taskResponse);
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenReturn(taskResponse);
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -468,7 +653,7 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isBadRequest());
 
-			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class));	
+			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());	
 		}
 		
 		@Test
@@ -484,7 +669,7 @@ public class TaskControllerTest {
 			taskResponse.setDescription("Description 1");
 			taskResponse.setDueDate(LocalDate.of(2000, 01, 01));
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenReturn(taskResponse);
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenReturn(taskResponse);
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -492,7 +677,7 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isBadRequest());
 
-			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class));	
+			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());	
 		}
 		
 		@Test
@@ -508,7 +693,7 @@ public class TaskControllerTest {
 			taskResponse.setDescription("Description 1");
 
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenReturn(taskResponse);
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenReturn(taskResponse);
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -516,7 +701,7 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isUnauthorized());
 
-			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class));	
+			verify(taskService, never()).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());	
 		}
 		
 		@Test
@@ -527,7 +712,7 @@ public class TaskControllerTest {
 			taskUpdateRequest.setTitle("Task 1");
 			taskUpdateRequest.setDescription("Description 1");
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenThrow(new BadRequestException("Task not found"));
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenThrow(new BadRequestException("Task not found"));
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -535,7 +720,7 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isBadRequest());
 
-			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class));	
+			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());	
 		}
 		
 		@Test
@@ -546,7 +731,7 @@ public class TaskControllerTest {
 			taskUpdateRequest.setTitle("Task 1");
 			taskUpdateRequest.setDescription("Description 1");
 			
-			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class))).thenThrow(new AccessDeniedException("Task doesn't belong to the user"));
+			when(taskService.partialUpdate(anyLong(), any(TaskUpdateRequest.class), any())).thenThrow(new AccessDeniedException("Task doesn't belong to the user"));
 				
 			mockMvc.perform(patch("/api/tasks/{taskId}", 1L)
 			        .contentType(MediaType.APPLICATION_JSON)
@@ -554,7 +739,7 @@ public class TaskControllerTest {
 			        .with(csrf()))
 			        .andExpect(status().isForbidden());
 
-			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class));	
+			verify(taskService).partialUpdate(anyLong(), any(TaskUpdateRequest.class), any());	
 		}	
 	}
 	
@@ -611,4 +796,35 @@ public class TaskControllerTest {
 		}
 	}
 	
+	@Nested
+	class ImportTasks {
+		
+		@Test
+		@WithMockUser(username = "user", roles = {"USER"})
+		void importTasks_ShouldBindTheFormatInAnyCase() throws Exception {
+			
+			mockMvc.perform(post("/api/tasks/import")
+					.param("format", "csv")
+					.content("title\n")
+					.with(csrf()))
+					.andExpect(status().isAccepted());
+			
+			verify(taskService).importTasks(eq(ExportFormat.CSV), any());
+		}
+		
+		@Test
+		@WithMockUser(username = "user", roles = {"USER"})
+		void importTasks_ShouldReturnBadRequestWhenTheFormatIsUnknown() throws Exception {
+			
+			mockMvc.perform(post("/api/tasks/import")
+					.param("format", "xml")
+					.content("title\n")
+					.with(csrf()))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").value("Format must be ndjson or csv"));
+			
+			verify(taskService, never()).importTasks(any(), any());
+		}
+	}
+	
 }
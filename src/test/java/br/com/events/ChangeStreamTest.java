@@ -0,0 +1,73 @@
+package br.com.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.enums.ChangeAction;
+
+class ChangeStreamTest {
+
+	private final List<Runnable> scheduled = new ArrayList<>();
+	private final ChangeStream changeStream = new ChangeStream(scheduled::add, 2, Duration.ofMinutes(1));
+
+	@Test
+	void onChange_ShouldOnlyScheduleWritesForSubscribersOfTheUser() {
+		changeStream.subscribe(1L);
+		changeStream.subscribe(1L);
+		changeStream.subscribe(2L);
+
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+
+		assertThat(scheduled).hasSize(2);
+	}
+
+	@Test
+	void onChange_ShouldScheduleOneDrainPerSubscriberWhileItIsPending() {
+		changeStream.subscribe(1L);
+
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.UPDATED, 10L));
+
+		assertThat(scheduled).hasSize(1);
+		assertThat(changeStream.subscriberCount(1L)).isEqualTo(1);
+	}
+
+	@Test
+	void onChange_ShouldEvictASubscriberWhoseBufferIsFull() {
+		changeStream.subscribe(1L);
+
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.UPDATED, 10L));
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.DELETED, 10L));
+
+		assertThat(changeStream.subscriberCount(1L)).isZero();
+	}
+
+	@Test
+	void drain_ShouldWriteBufferedEventsAndAcceptNewOnes() {
+		changeStream.subscribe(1L);
+
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.UPDATED, 10L));
+		scheduled.remove(0).run();
+		changeStream.onChange(ChangeEvent.ofTask(1L, ChangeAction.DELETED, 10L));
+
+		assertThat(changeStream.subscriberCount(1L)).isEqualTo(1);
+		assertThat(scheduled).hasSize(1);
+	}
+
+	@Test
+	void heartbeat_ShouldReachEverySubscriber() {
+		changeStream.subscribe(1L);
+		changeStream.subscribe(2L);
+
+		changeStream.heartbeat();
+
+		assertThat(scheduled).hasSize(2);
+	}
+}
@@ -0,0 +1,127 @@
+package br.com.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.enums.ExportFormat;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskExporterTest extends AbstractIntegrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private TaskExporter exporter;
+	private long userId;
+	private long otherId;
+
+	@BeforeEach
+	void setUp() {
+		exporter = new TaskExporter(dataSource, objectMapper, Integer.MIN_VALUE);
+
+		userId = insert("INSERT INTO users (username, password, role) VALUES ('export-user', 'x', 'ROLE_USER')");
+		otherId = insert("INSERT INTO users (username, password, role) VALUES ('export-other', 'x', 'ROLE_USER')");
+		long tagId = insert("INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", userId);
+		long first = insert("INSERT INTO tasks (title, description, status, priority, user_id, due_date) VALUES ('Pay, \"rent\"', 'line\nbreak', 'UNDONE', 'HIGH', ?, '2030-01-31')", userId);
+		insert("INSERT INTO tasks (title, status, priority, user_id) VALUES ('Plain', 'DONE', 'NONE', ?)", userId);
+		insert("INSERT INTO tasks (title, status, priority, user_id) VALUES ('Not mine', 'DONE', 'NONE', ?)", otherId);
+		jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)", first, tagId);
+		jdbcTemplate.update("INSERT INTO subtasks (title, status, task_id) VALUES ('Transfer', 1, ?)", first);
+	}
+
+	@AfterEach
+	void tearDown() {
+		for(long id : List.of(userId, otherId)) {
+			jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", id);
+			jdbcTemplate.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", id);
+			jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+		}
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private String export(ExportFormat format) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(userId, format, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	void export_ShouldWriteOneJsonObjectPerTaskOfTheUser() throws IOException {
+		String[] lines = export(ExportFormat.NDJSON).split("\n");
+
+		assertThat(lines).hasSize(2);
+		JsonNode first = objectMapper.readTree(lines[0]);
+		assertThat(first.get("title").asText()).isEqualTo("Pay, \"rent\"");
+		assertThat(first.get("dueDate").asText()).isEqualTo("2030-01-31");
+		assertThat(first.get("tags").get(0).asText()).isEqualTo("WORK");
+		assertThat(first.get("subtasks").get(0).get("title").asText()).isEqualTo("Transfer");
+		assertThat(first.get("subtasks").get(0).get("status").asText()).isEqualTo("DONE");
+		JsonNode second = objectMapper.readTree(lines[1]);
+		assertThat(second.get("title").asText()).isEqualTo("Plain");
+		assertThat(second.get("tags")).isEmpty();
+		assertThat(second.get("description").isNull()).isTrue();
+	}
+
+	@Test
+	void export_ShouldWriteCsvWithAHeaderAndEscapedValues() throws IOException {
+		String csv = export(ExportFormat.CSV);
+
+		assertThat(csv).startsWith(String.join(",", TaskExporter.CSV_HEADER) + "\r\n");
+		assertThat(csv).contains(",\"Pay, \"\"rent\"\"\",\"line\nbreak\",UNDONE,HIGH,");
+		assertThat(csv).contains(",WORK,");
+		assertThat(csv).contains(",Plain,,DONE,NONE,");
+		assertThat(csv).doesNotContain("Not mine");
+	}
+
+	@Test
+	void writeCsvRow_ShouldLeaveNullsEmptyAndQuoteOnlyWhenNeeded() throws IOException {
+		StringWriter writer = new StringWriter();
+
+		TaskExporter.writeCsvRow(writer, "a", null, "b,c", "d\"e");
+
+		assertThat(writer.toString()).isEqualTo("a,,\"b,c\",\"d\"\"e\"\r\n");
+	}
+}
@@ -0,0 +1,181 @@
+package br.com.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.enums.Role;
+import br.com.models.User;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+	@Mock
+	private IdempotencyStore store;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@InjectMocks
+	private IdempotencyFilter filter;
+
+	private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+
+	private int executions;
+
+	@BeforeEach
+	void authenticate() {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+	}
+
+	@AfterEach
+	void clear() {
+		SecurityContextHolder.clearContext();
+	}
+
+	private MockHttpServletRequest post(String key, String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+		request.addHeader(IdempotencyFilter.HEADER, key);
+		request.setContentType("application/json");
+		request.setContent(body.getBytes(StandardCharsets.UTF_8));
+		return request;
+	}
+
+	private MockFilterChain chain(int status) {
+		return new MockFilterChain(new HttpServlet() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+				executions++;
+				request.getInputStream().readAllBytes();
+				response.setStatus(status);
+				response.setContentType("application/json");
+				response.setHeader("ETag", "\"1\"");
+				response.setHeader("Location", "/api/tasks/1");
+				response.getWriter().write("{\"id\":1}");
+			}
+		});
+	}
+
+	private IdempotencyRecord completedRecord(byte[] requestHash) {
+		return new IdempotencyRecord(requestHash, 201, "application/json", "\"1\"", "/api/tasks/1",
+				"{\"id\":1}".getBytes(StandardCharsets.UTF_8), Instant.now(), Instant.now().plusSeconds(60));
+	}
+
+	@Test
+	void firstRequest_ShouldRunAndStoreTheResponse() throws Exception {
+		when(store.find(1L, "key-1")).thenReturn(Optional.empty());
+		when(store.claim(1L, "key-1")).thenReturn(true);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(post("key-1", "{\"title\":\"Task\"}"), response, chain(201));
+
+		assertThat(executions).isEqualTo(1);
+		assertThat(response.getStatus()).isEqualTo(201);
+		assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+		verify(store).complete(eq(1L), eq("key-1"), any(), eq(201), eq("application/json"), eq("\"1\""), eq("/api/tasks/1"),
+				eq("{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+	}
+
+	@Test
+	void retry_ShouldReplayTheStoredResponseWithoutRunningTheRequest() throws Exception {
+		byte[][] hash = new byte[1][];
+		when(store.find(1L, "key-1")).thenReturn(Optional.empty());
+		when(store.claim(1L, "key-1")).thenReturn(true);
+		doAnswer(invocation -> {
+			hash[0] = invocation.getArgument(2);
+			return null;
+		}).when(store).complete(any(), anyString(), any(), anyInt(), any(), any(), any(), any());
+		filter.doFilter(post("key-1", "{\"title\":\"Task\"}"), new MockHttpServletResponse(), chain(201));
+
+		when(store.find(1L, "key-1")).thenReturn(Optional.of(completedRecord(hash[0])));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(post("key-1", "{\"title\":\"Task\"}"), response, chain(201));
+
+		assertThat(executions).isEqualTo(1);
+		assertThat(response.getStatus()).isEqualTo(201);
+		assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+		assertThat(response.getHeader("ETag")).isEqualTo("\"1\"");
+		assertThat(response.getHeader("Location")).isEqualTo("/api/tasks/1");
+		assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+	}
+
+	@Test
+	void retry_ShouldReturnUnprocessableEntityWhenTheBodyChanged() throws Exception {
+		when(store.find(1L, "key-1")).thenReturn(Optional.of(completedRecord(new byte[32])));
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(post("key-1", "{\"title\":\"Other\"}"), response, chain(201));
+
+		assertThat(executions).isZero();
+		assertThat(response.getStatus()).isEqualTo(422);
+		assertThat(response.getContentAsString()).contains("\"details\":\"uri=/api/tasks\"");
+	}
+
+	@Test
+	void retry_ShouldReturnConflictWhileTheFirstRequestIsRunning() throws Exception {
+		IdempotencyRecord inProgress = new IdempotencyRecord(new byte[32], IdempotencyRecord.IN_PROGRESS, null, null, null, null,
+				Instant.now(), Instant.now().plusSeconds(60));
+		when(store.find(1L, "key-1")).thenReturn(Optional.of(inProgress));
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(post("key-1", "{}"), response, chain(201));
+
+		assertThat(executions).isZero();
+		assertThat(response.getStatus()).isEqualTo(409);
+	}
+
+	@Test
+	void serverError_ShouldReleaseTheKey() throws Exception {
+		when(store.find(1L, "key-1")).thenReturn(Optional.empty());
+		when(store.claim(1L, "key-1")).thenReturn(true);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(post("key-1", "{}"), response, chain(500));
+
+		assertThat(response.getStatus()).isEqualTo(500);
+		verify(store).release(1L, "key-1");
+		verify(store, never()).complete(any(), anyString(), any(), anyInt(), any(), any(), any(), any());
+	}
+
+	@Test
+	void requestWithoutKey_ShouldBypassTheStore() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/tasks");
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain(201));
+
+		assertThat(executions).isEqualTo(1);
+		verify(store, never()).find(any(), any());
+	}
+}
@@ -0,0 +1,220 @@
+package br.com.imports;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import br.com.audit.AuditLog;
+import br.com.enums.ExportFormat;
+import br.com.exceptions.BadRequestException;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobFiles;
+import br.com.jobs.JobStore;
+import br.com.repositories.IdGenerators;
+import jakarta.validation.Validation;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TaskImporterTest extends AbstractIntegrationTest {
+
+	private static final String CSV_HEADER = "id,title,description,status,priority,createdDate,dueDate,updatedAt,tags,subtasks\r\n";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+	private JobStore jobStore;
+	private AuditLog auditLog;
+	private TaskImporter importer;
+	private long userId;
+	private long workTagId;
+
+	@BeforeEach
+	void setUp() {
+		jobStore = new JobStore(jdbcTemplate, transactionTemplate, 3);
+		auditLog = new AuditLog(jdbcTemplate, 500, 1000, 100000);
+		importer = importer(DataSize.ofMegabytes(1));
+
+		userId = insert("INSERT INTO users (username, password, role) VALUES ('import-user', 'x', 'ROLE_USER')");
+		workTagId = insert("INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", userId);
+	}
+
+	@AfterEach
+	void tearDown() {
+		importer.shutdown();
+		auditLog.shutdown();
+		jdbcTemplate.update("DELETE h FROM task_history h JOIN tasks t ON t.id = h.task_id WHERE t.user_id = ?", userId);
+		jdbcTemplate.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", userId);
+		jdbcTemplate.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM tasks WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM tags WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM jobs WHERE user_id = ?", userId);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	private TaskImporter importer(DataSize maxSize) {
+		return new TaskImporter(jdbcTemplate, transactionTemplate, jobStore, new JobFiles(jdbcTemplate),
+				new IdGenerators(jdbcTemplate, transactionTemplate.getTransactionManager()), objectMapper,
+				Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class),
+				auditLog, 2, 2, 2, maxSize);
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private Job submit(ExportFormat format, String content) throws IOException {
+		return importer.submit(userId, format, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Claims the job like a worker would, then runs the import.
+	 */
+	private JsonNode run(Job job) throws Exception {
+		Job claimed = jobStore.claim("test-worker", 1, Duration.ofMinutes(1)).get(0);
+		assertThat(claimed.getId()).isEqualTo(job.getId());
+		JobContext context = mock(JobContext.class);
+		when(context.getJob()).thenReturn(claimed);
+
+		importer.run(context);
+
+		ArgumentCaptor<String> result = ArgumentCaptor.forClass(String.class);
+		verify(context).setResult(result.capture());
+		return objectMapper.readTree(result.getValue());
+	}
+
+	private long count(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class, userId);
+	}
+
+	@Test
+	void run_ShouldImportTasksWithTagsAndSubtasksFromNdjson() throws Exception {
+		Job job = submit(ExportFormat.NDJSON, String.join("\n",
+				"{\"id\":7,\"title\":\"Pay rent\",\"status\":\"DONE\",\"priority\":\"HIGH\",\"dueDate\":\"2020-01-31\",\"tags\":[\"work\",\"home\"],"
+						+ "\"subtasks\":[{\"title\":\"Transfer\",\"status\":\"DONE\"},{\"title\":\"Receipt\"}]}",
+				"{\"title\":\"Plain\"}",
+				"",
+				"{\"title\":\" \"}",
+				"{\"title\":",
+				"{\"title\":\"Shop\",\"tags\":[\"HOME\"]}"));
+
+		JsonNode result = run(job);
+
+		assertThat(result.get("imported").asLong()).isEqualTo(3);
+		assertThat(result.get("rejected").asLong()).isEqualTo(2);
+		assertThat(result.get("errors")).hasSize(2);
+		assertThat(result.get("errors").get(0).asText()).startsWith("Line 4: title");
+		assertThat(result.get("errors").get(1).asText()).startsWith("Line 5: ");
+		assertThat(count("SELECT COUNT(*) FROM tasks WHERE user_id = ?")).isEqualTo(3);
+		assertThat(count("SELECT COUNT(*) FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?")).isEqualTo(2);
+		assertThat(count("SELECT COUNT(*) FROM tags WHERE user_id = ?")).isEqualTo(2);
+		assertThat(jdbcTemplate.queryForList("SELECT tt.tag_id FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.title = 'Pay rent' AND t.user_id = ?",
+				Long.class, userId)).contains(workTagId).hasSize(2);
+		assertThat(jdbcTemplate.queryForObject("SELECT CONCAT(status, ' ', priority, ' ', due_date) FROM tasks WHERE title = 'Pay rent' AND user_id = ?",
+				String.class, userId)).isEqualTo("DONE HIGH 2020-01-31");
+		assertThat(jdbcTemplate.queryForObject("SELECT CONCAT(status, ' ', priority) FROM tasks WHERE title = 'Plain' AND user_id = ?",
+				String.class, userId)).isEqualTo("UNDONE NONE");
+		assertThat(jdbcTemplate.queryForList("SELECT CONCAT(h.field, '=', h.new_value) FROM task_history h JOIN tasks t ON t.id = h.task_id "
+				+ "WHERE t.title = 'Pay rent' AND t.user_id = ? ORDER BY h.id", String.class, userId))
+				.containsExactly("title=Pay rent", "tag=WORK", "tag=HOME");
+	}
+
+	@Test
+	void run_ShouldImportCsvInTheLayoutOfTheExport() throws Exception {
+		Job job = submit(ExportFormat.CSV, CSV_HEADER
+				+ "1,\"Pay, \"\"rent\"\"\",\"line\nbreak\",UNDONE,HIGH,2024-01-01,2030-01-31,2024-01-01T00:00:00Z,WORK;Bills,"
+				+ "\"[{\"\"title\"\":\"\"Transfer\"\",\"\"status\"\":\"\"DONE\"\"}]\"\r\n"
+				+ "2,Plain,,DONE,NONE,,,,,[]\r\n"
+				+ "3,Broken,,MAYBE,NONE,,,,,[]\r\n");
+
+		JsonNode result = run(job);
+
+		assertThat(result.get("imported").asLong()).isEqualTo(2);
+		assertThat(result.get("rejected").asLong()).isEqualTo(1);
+		assertThat(result.get("errors").get(0).asText()).startsWith("Line 5: ");
+		assertThat(jdbcTemplate.queryForObject("SELECT description FROM tasks WHERE title = 'Pay, \"rent\"' AND user_id = ?", String.class, userId))
+				.isEqualTo("line\nbreak");
+		assertThat(jdbcTemplate.queryForObject("SELECT created_date FROM tasks WHERE title = 'Plain' AND user_id = ?", String.class, userId))
+				.isNotNull();
+		assertThat(count("SELECT COUNT(*) FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ? AND s.status = 1")).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForList("SELECT name FROM tags WHERE user_id = ? ORDER BY name", String.class, userId))
+				.containsExactly("BILLS", "WORK");
+	}
+
+	@Test
+	void run_ShouldSkipTheRecordsCommittedByAnEarlierAttempt() throws Exception {
+		Job job = submit(ExportFormat.NDJSON, "{\"title\":\"First\"}\n{\"title\":\"Second\"}\n{\"title\":\"Third\"}\n");
+		jdbcTemplate.update("UPDATE jobs SET progress = 2 WHERE id = ?", job.getId());
+
+		JsonNode result = run(job);
+
+		assertThat(result.get("imported").asLong()).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForList("SELECT title FROM tasks WHERE user_id = ?", String.class, userId)).containsExactly("Third");
+	}
+
+	@Test
+	void run_ShouldWriteEveryChunkThroughTheBoundedPipeline() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for(int i = 0; i < 25; i++) content.append("{\"title\":\"Task ").append(i).append("\",\"tags\":[\"bulk\"]}\n");
+		Job job = submit(ExportFormat.NDJSON, content.toString());
+
+		JsonNode result = run(job);
+
+		assertThat(result.get("imported").asLong()).isEqualTo(25);
+		assertThat(count("SELECT COUNT(*) FROM tasks WHERE user_id = ?")).isEqualTo(25);
+		assertThat(count("SELECT COUNT(*) FROM tags WHERE user_id = ? AND name = 'BULK'")).isEqualTo(1);
+		assertThat(count("SELECT COUNT(*) FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?")).isEqualTo(25);
+	}
+
+	@Test
+	void submit_ShouldRejectFilesOverTheLimitWithoutQueueingAJob() {
+		importer.shutdown();
+		importer = importer(DataSize.ofBytes(10));
+
+		assertThatThrownBy(() -> submit(ExportFormat.NDJSON, "{\"title\":\"Too long\"}\n"))
+				.isInstanceOf(BadRequestException.class);
+		assertThat(count("SELECT COUNT(*) FROM jobs WHERE user_id = ?")).isZero();
+	}
+}
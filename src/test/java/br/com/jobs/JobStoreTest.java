@@ -0,0 +1,131 @@
+package br.com.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.enums.JobStatus;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JobStoreTest extends AbstractIntegrationTest {
+
+	private static final Duration LEASE = Duration.ofMinutes(1);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JobStore store;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM jobs");
+		store = new JobStore(jdbcTemplate, transactionTemplate, 3);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM jobs");
+	}
+
+	@Test
+	void claim_ShouldLeaseEachJobToOneWorker() {
+		Job first = store.enqueue(1L, "export", null);
+		Job second = store.enqueue(1L, "export", "{\"format\":\"csv\"}");
+
+		List<Job> claimed = store.claim("a", 10, LEASE);
+
+		assertThat(claimed).extracting(Job::getId).containsExactly(first.getId(), second.getId());
+		assertThat(claimed).extracting(Job::getStatus).containsOnly(JobStatus.RUNNING);
+		assertThat(claimed).extracting(Job::getAttempts).containsOnly(1);
+		assertThat(claimed.get(1).getPayload()).isEqualTo("{\"format\":\"csv\"}");
+		assertThat(store.claim("b", 10, LEASE)).isEmpty();
+	}
+
+	@Test
+	void claim_ShouldTakeOverJobsWhoseLeaseExpired() {
+		Job job = store.enqueue(1L, "export", null);
+		store.claim("a", 1, Duration.ofMillis(-1));
+
+		List<Job> claimed = store.claim("b", 1, LEASE);
+
+		assertThat(claimed).extracting(Job::getId).containsExactly(job.getId());
+		assertThat(claimed.get(0).getAttempts()).isEqualTo(2);
+		assertThat(store.progress(job.getId(), "a", 10, 20L)).isFalse();
+		assertThat(store.succeed(job.getId(), "a", null)).isFalse();
+		assertThat(store.succeed(job.getId(), "b", "done")).isTrue();
+		assertThat(store.find(job.getId()).orElseThrow().getStatus()).isEqualTo(JobStatus.SUCCEEDED);
+	}
+
+	@Test
+	void claim_ShouldSkipJobsLockedByAnotherWorker() throws Exception {
+		store.enqueue(1L, "export", null);
+		Job second = store.enqueue(1L, "export", null);
+
+		try (Connection other = dataSource.getConnection()) {
+			other.setAutoCommit(false);
+			try (PreparedStatement lock = other.prepareStatement("SELECT id FROM jobs ORDER BY id LIMIT 1 FOR UPDATE");
+					ResultSet row = lock.executeQuery()) {
+				row.next();
+
+				assertThat(store.claim("a", 10, LEASE)).extracting(Job::getId).containsExactly(second.getId());
+			}
+			other.rollback();
+		}
+	}
+
+	@Test
+	void renew_ShouldOnlyExtendTheLeasesOfTheWorker() {
+		Job job = store.enqueue(1L, "export", null);
+		store.claim("a", 1, LEASE);
+
+		assertThat(store.renew("a", List.of(job.getId()), LEASE)).isEqualTo(1);
+		assertThat(store.renew("b", List.of(job.getId()), LEASE)).isZero();
+	}
+
+	@Test
+	void fail_ShouldQueueTheJobAgainUntilRetryAtOrFailItForGood() {
+		Job job = store.enqueue(1L, "export", null);
+		store.claim("a", 1, LEASE);
+
+		assertThat(store.fail(job.getId(), "a", "boom", Instant.now().plusSeconds(60))).isTrue();
+		assertThat(store.find(job.getId()).orElseThrow().getStatus()).isEqualTo(JobStatus.QUEUED);
+		assertThat(store.claim("a", 1, LEASE)).isEmpty();
+
+		jdbcTemplate.update("UPDATE jobs SET available_at = NOW(3) - INTERVAL 1 SECOND WHERE id = ?", job.getId());
+		store.claim("a", 1, LEASE);
+		assertThat(store.fail(job.getId(), "a", "boom", null)).isTrue();
+
+		Job failed = store.find(job.getId()).orElseThrow();
+		assertThat(failed.getStatus()).isEqualTo(JobStatus.FAILED);
+		assertThat(failed.getError()).isEqualTo("boom");
+		assertThat(failed.getFinishedAt()).isNotNull();
+		assertThat(store.findActive(1L, "export")).isEmpty();
+	}
+}
@@ -0,0 +1,114 @@
+package br.com.jobs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import br.com.enums.JobStatus;
+import br.com.sharding.Shards;
+
+@ExtendWith(MockitoExtension.class)
+class JobWorkerTest {
+
+	private static final Duration LEASE = Duration.ofMinutes(1);
+
+	@Mock
+	private JobStore store;
+
+	@Mock
+	private DataSource dataSource;
+
+	private final List<Runnable> scheduled = new ArrayList<>();
+
+	private JobWorker worker(JobHandler... handlers) {
+		return new JobWorker(store, new Shards(dataSource), List.of(handlers), scheduled::add, "worker", 2, LEASE, Duration.ofSeconds(30), Duration.ofDays(7));
+	}
+
+	private static Job job(long id, String type, int attempts) {
+		Instant now = Instant.now();
+		return new Job(id, 1L, type, null, JobStatus.RUNNING, 0, null, null, null, attempts, 3, now, now, null);
+	}
+
+	private static JobHandler handler(String type, JobHandlerBody body) {
+		return new JobHandler() {
+			@Override
+			public String getType() {
+				return type;
+			}
+
+			@Override
+			public void run(JobContext context) throws Exception {
+				body.run(context);
+			}
+		};
+	}
+
+	private interface JobHandlerBody {
+		void run(JobContext context) throws Exception;
+	}
+
+	@Test
+	void poll_ShouldClaimOnlyAsManyJobsAsThereAreIdleThreads() {
+		JobWorker worker = worker();
+		when(store.claim("worker", 2, LEASE)).thenReturn(List.of(job(1L, "export", 1)));
+
+		worker.poll();
+		assertThat(scheduled).hasSize(1);
+		assertThat(worker.runningCount()).isEqualTo(1);
+
+		worker.poll();
+		verify(store).claim("worker", 1, LEASE);
+	}
+
+	@Test
+	void run_ShouldStoreTheResultOfTheHandler() {
+		JobWorker worker = worker(handler("export", context -> context.setResult("/exports/1")));
+		when(store.succeed(1L, "worker", "/exports/1")).thenReturn(true);
+
+		worker.run(job(1L, "export", 1));
+
+		verify(store).succeed(1L, "worker", "/exports/1");
+		verify(store, never()).fail(anyLong(), anyString(), anyString(), any());
+	}
+
+	@Test
+	void run_ShouldQueueAFailedJobAgainWhileItHasAttemptsLeft() {
+		JobWorker worker = worker(handler("export", context -> { throw new IllegalStateException("boom"); }));
+
+		worker.run(job(1L, "export", 1));
+		worker.run(job(1L, "export", 3));
+
+		verify(store).fail(eq(1L), eq("worker"), anyString(), any(Instant.class));
+		verify(store).fail(eq(1L), eq("worker"), anyString(), isNull());
+	}
+
+	@Test
+	void run_ShouldFailJobsWithoutHandlerOrAttemptsLeft() {
+		JobWorker worker = worker(handler("export", context -> {}));
+
+		worker.run(job(1L, "import", 1));
+		worker.run(job(2L, "export", 4));
+
+		verify(store).fail(1L, "worker", "No handler for jobs of type import", null);
+		verify(store).fail(2L, "worker", "Worker stopped during every attempt", null);
+		verify(store, never()).succeed(anyLong(), anyString(), any());
+	}
+}
@@ -0,0 +1,101 @@
+package br.com.links;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import br.com.controllers.TagController;
+import br.com.controllers.TaskController;
+
+class LinkTemplateTest {
+	
+	private final LinkTemplate self = LinkTemplate.of(methodOn(TaskController.class).findById(null), "taskId");
+	private final LinkTemplate findAll = LinkTemplate.of(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null));
+	private final LinkTemplate addTag = LinkTemplate.of(methodOn(TagController.class).addTag(null, null), "taskId");
+	
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	private void bindRequest() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks/1");
+		request.setScheme("https");
+		request.setServerName("tasks.example.com");
+		request.setServerPort(8443);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+	
+	private void assertSameLink(Link actual, Link expected) {
+		assertThat(actual.getHref()).isEqualTo(expected.getHref());
+		assertThat(actual.getRel()).isEqualTo(expected.getRel());
+		assertThat(actual.isTemplated()).isEqualTo(expected.isTemplated());
+	}
+	
+	@Nested
+	class WithoutRequest {
+		
+		@Test
+		void withSelfRel_ShouldMatchLinkTo() {
+			assertSameLink(self.withSelfRel(1L), linkTo(methodOn(TaskController.class).findById(1L)).withSelfRel());
+		}
+		
+		@Test
+		void withRel_ShouldMatchLinkToWhenTemplateHasNoVariable() {
+			assertSameLink(findAll.withRel("findAllTasks"), 
+					linkTo(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null)).withRel("findAllTasks"));
+		}
+		
+		@Test
+		void withRel_ShouldKeepOtherVariablesUnexpanded() {
+			assertSameLink(addTag.withRel(1L, "addTag"), linkTo(methodOn(TagController.class).addTag(1L, null)).withRel("addTag"));
+		}
+	}
+	
+	@Nested
+	class WithinRequest {
+		
+		@Test
+		void withSelfRel_ShouldMatchLinkTo() {
+			bindRequest();
+			assertSameLink(self.withSelfRel(42L), linkTo(methodOn(TaskController.class).findById(42L)).withSelfRel());
+		}
+		
+		@Test
+		void withRel_ShouldMatchLinkToWhenTemplateHasNoVariable() {
+			bindRequest();
+			assertSameLink(findAll.withRel("findAllTasks"), 
+					linkTo(methodOn(TaskController.class).findAllByUserAuthenticated(null, null, null, null)).withRel("findAllTasks"));
+		}
+		
+		@Test
+		void withRel_ShouldKeepOtherVariablesUnexpanded() {
+			bindRequest();
+			assertSameLink(addTag.withRel(7L, "addTag"), linkTo(methodOn(TagController.class).addTag(7L, null)).withRel("addTag"));
+		}
+		
+		@Test
+		void of_ShouldStripRequestBaseWhenBuiltWithinRequest() {
+			bindRequest();
+			LinkTemplate template = LinkTemplate.of(methodOn(TaskController.class).findById(null), "taskId");
+			RequestContextHolder.resetRequestAttributes();
+			
+			assertThat(template.expand(1L)).isEqualTo("/api/tasks/1");
+		}
+	}
+	
+	@Test
+	void of_ShouldThrowIllegalArgumentExceptionWhenVariableIsMissing() {
+		assertThrows(IllegalArgumentException.class, 
+				() -> LinkTemplate.of(methodOn(TaskController.class).findById(null), "tagId"));
+	}
+}
@@ -0,0 +1,154 @@
+package br.com.mappers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import br.com.dtos.SubtaskCreateRequest;
+import br.com.dtos.SubtaskResponse;
+import br.com.dtos.TagDto;
+import br.com.dtos.TaskCreateRequest;
+import br.com.dtos.TaskResponse;
+import br.com.dtos.UserResponse;
+import br.com.enums.Role;
+import br.com.enums.TaskPriority;
+import br.com.enums.TaskStatus;
+import br.com.models.Subtask;
+import br.com.models.Tag;
+import br.com.models.Task;
+import br.com.models.User;
+
+/**
+ * Checks that the hand-written mappers produce the same JSON as the reflective
+ * {@link ModelMapper} they replaced.
+ */
+class MapperTest {
+	
+	private final ModelMapper modelMapper = new ModelMapper();
+	private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+	
+	private final TaskMapper taskMapper = new TaskMapper();
+	private final SubtaskMapper subtaskMapper = new SubtaskMapper();
+	private final TagMapper tagMapper = new TagMapper();
+	private final UserMapper userMapper = new UserMapper();
+	
+	private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+	
+	private Task buildTask() {
+		Task task = new Task.Builder()
+				.id(1L)
+				.user(user)
+				.title("Task 1")
+				.description("Description 1")
+				.status(TaskStatus.UNDONE)
+				.priority(TaskPriority.HIGH)
+				.createdDate(LocalDate.of(2024, 10, 1))
+				.dueDate(LocalDate.of(2024, 10, 18))
+				.build();
+		
+		Tag tag = new Tag("STUDY", user);
+		tag.setId(3L);
+		task.addTag(tag);
+		
+		Subtask subtask1 = new Subtask("Subtask 1", "Description 1", LocalDate.of(2024, 10, 10), task, TaskStatus.DONE);
+		subtask1.setId(1L);
+		subtask1.setCreatedDate(LocalDate.of(2024, 10, 2));
+		Subtask subtask2 = new Subtask("Subtask 2");
+		subtask2.setId(2L);
+		task.addSubtask(subtask1);
+		task.addSubtask(subtask2);
+		
+		return task;
+	}
+	
+	private String json(Object value) throws JsonProcessingException {
+		return objectMapper.writeValueAsString(value);
+	}
+	
+	@Nested
+	class TaskMapping {
+		
+		@Test
+		void toResponse_ShouldProduceSameJsonAsModelMapper() throws JsonProcessingException {
+			Task task = buildTask();
+			
+			assertThat(json(taskMapper.toResponse(task)))
+				.isEqualTo(json(modelMapper.map(task, TaskResponse.class)));
+		}
+		
+		@Test
+		void toResponse_ShouldProduceSameJsonAsModelMapperWhenCollectionsAreEmpty() throws JsonProcessingException {
+			Task task = new Task.Builder().id(2L).title("Task 2").build();
+			
+			assertThat(json(taskMapper.toResponse(task)))
+				.isEqualTo(json(modelMapper.map(task, TaskResponse.class)));
+		}
+		
+		@Test
+		void toResponse_ShouldRenderNestedTagsAndSubtasksLikeTheEntities() throws JsonProcessingException {
+			Task task = buildTask();
+			TaskResponse response = taskMapper.toResponse(task);
+
+			assertThat(json(response.getTags())).isEqualTo(json(task.getTags()));
+			assertThat(json(response.getSubtasks())).isEqualTo(json(task.getSubtasks()));
+		}
+
+		@Test
+		void toEntity_ShouldCopySameFieldsAsModelMapper() {
+			TaskCreateRequest request = new TaskCreateRequest("Task 1", "Description 1", TaskStatus.DONE, TaskPriority.LOW, LocalDate.of(3000, 1, 1));
+			
+			assertThat(taskMapper.toEntity(request).toString())
+				.isEqualTo(modelMapper.map(request, Task.class).toString());
+		}
+	}
+	
+	@Nested
+	class SubtaskMapping {
+		
+		@Test
+		void toResponse_ShouldProduceSameJsonAsModelMapper() throws JsonProcessingException {
+			Subtask subtask = buildTask().getSubtasks().get(0);
+			
+			assertThat(json(subtaskMapper.toResponse(subtask)))
+				.isEqualTo(json(modelMapper.map(subtask, SubtaskResponse.class)));
+		}
+		
+		@Test
+		void toEntity_ShouldCopySameFieldsAsModelMapper() throws JsonProcessingException {
+			SubtaskCreateRequest request = new SubtaskCreateRequest("Subtask 1", "Description 1", LocalDate.of(3000, 1, 1), TaskStatus.UNDONE);
+			
+			assertThat(json(subtaskMapper.toEntity(request)))
+				.isEqualTo(json(modelMapper.map(request, Subtask.class)));
+		}
+	}
+	
+	@Nested
+	class TagMapping {
+		
+		@Test
+		void toDto_ShouldProduceSameJsonAsModelMapper() throws JsonProcessingException {
+			Tag tag = buildTask().getTags().iterator().next();
+			
+			assertThat(json(tagMapper.toDto(tag)))
+				.isEqualTo(json(modelMapper.map(tag, TagDto.class)));
+		}
+	}
+	
+	@Nested
+	class UserMapping {
+		
+		@Test
+		void toResponse_ShouldProduceSameJsonAsModelMapper() throws JsonProcessingException {
+			assertThat(json(userMapper.toResponse(user)))
+				.isEqualTo(json(modelMapper.map(user, UserResponse.class)));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package br.com.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.enums.ChangeAction;
+import br.com.events.ChangeEvent;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OutboxRelay.class, OutboxWriter.class, OutboxRelayTest.SinkConfiguration.class})
+class OutboxRelayTest extends AbstractIntegrationTest {
+
+	@Autowired
+	private OutboxRelay relay;
+
+	@Autowired
+	private OutboxWriter writer;
+
+	@Autowired
+	private RecordingSink sink;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@TestConfiguration
+	static class SinkConfiguration {
+		@Bean
+		RecordingSink recordingSink() {
+			return new RecordingSink();
+		}
+	}
+
+	static class RecordingSink implements OutboxSink {
+		final List<OutboxMessage> received = new ArrayList<>();
+		boolean failing;
+
+		@Override
+		public void publish(List<OutboxMessage> messages) throws Exception {
+			if(failing) throw new Exception("sink is down");
+			received.addAll(messages);
+		}
+	}
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM outbox");
+		sink.received.clear();
+		sink.failing = false;
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM outbox");
+	}
+
+	private long count() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM outbox", Long.class);
+	}
+
+	@Test
+	void relayBatch_ShouldDeliverMessagesInOrderAndDeleteThem() {
+		writer.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+		writer.onChange(ChangeEvent.ofSubtask(1L, ChangeAction.CREATED, 20L, 10L));
+		writer.onChange(ChangeEvent.ofTag(1L, ChangeAction.DELETED, 30L));
+
+		assertThat(relay.relayBatch()).isEqualTo(3);
+
+		assertThat(sink.received)
+			.extracting(message -> message.getChange().getName())
+			.containsExactly("task.created", "subtask.created", "tag.deleted");
+		assertThat(sink.received.get(1).getChange().getTaskId()).isEqualTo(10L);
+		assertThat(count()).isZero();
+	}
+
+	@Test
+	void relayBatch_ShouldKeepMessagesWhenASinkFails() {
+		writer.onChange(ChangeEvent.ofTask(1L, ChangeAction.UPDATED, 10L));
+		sink.failing = true;
+
+		assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+		assertThat(count()).isEqualTo(1);
+
+		sink.failing = false;
+		assertThat(relay.relayBatch()).isEqualTo(1);
+		assertThat(count()).isZero();
+	}
+
+	@Test
+	void relayBatch_ShouldSkipRowsLockedByAnotherRelay() throws Exception {
+		writer.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 10L));
+		writer.onChange(ChangeEvent.ofTask(1L, ChangeAction.CREATED, 11L));
+
+		try (Connection other = dataSource.getConnection()) {
+			other.setAutoCommit(false);
+			try (PreparedStatement lock = other.prepareStatement("SELECT id FROM outbox ORDER BY id LIMIT 1 FOR UPDATE");
+					ResultSet row = lock.executeQuery()) {
+				row.next();
+
+				assertThat(relay.relayBatch()).isEqualTo(1);
+				assertThat(sink.received)
+					.extracting(message -> message.getChange().getId())
+					.containsExactly(11L);
+			}
+			other.rollback();
+		}
+		assertThat(count()).isEqualTo(1);
+	}
+}
@@ -3,6 +3,7 @@ package br.com.repositories;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 
@@ -18,6 +19,9 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import br.com.dtos.SparseTaskResponse;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskFields;
 import br.com.enums.Role;
 import br.com.enums.TaskPriority;
 import br.com.enums.TaskStatus;
@@ -349,4 +353,118 @@ class TaskRepositoryTest extends AbstractIntegrationTest{
 		assertThat(pageTaskUser2.getTotalElements()).isEqualTo(expectedList2.size());
 		
 	}
+	
+	@Test
+	void testCustomizedSearchShouldListATaskWithSeveralTagsOnce(){
+		User user3 = userRepository.save(new User(3L, "Ana", "password", Role.ROLE_USER));
+		Tag study = tagRepository.save(new Tag("STUDY", user3));
+		Tag work = tagRepository.save(new Tag("WORK", user3));
+		Task task = new Task.Builder()
+				.user(user3)
+				.title("Task 5")
+				.status(TaskStatus.UNDONE)
+				.priority(TaskPriority.LOW)
+				.build();
+		task.addTag(study);
+		task.addTag(work);
+		taskRepository.save(task);
+		
+		Page<Task> page = taskRepository.customizedSearch(user3.getId(), null, null, null, pageable);
+		
+		assertThat(page.getContent()).extracting(Task::getId).containsExactly(task.getId());
+		assertThat(page.getTotalElements()).isEqualTo(1);
+		assertThat(taskRepository.customizedSearch(user3.getId(), null, null, "WORK", pageable).getContent())
+			.extracting(Task::getId)
+			.containsExactly(task.getId());
+	}
+	
+	@Test
+	void testFindSparseShouldReturnOnlyRequestedFields(){
+		TaskFields fields = TaskFields.parse("title,status");
+		
+		Page<SparseTaskResponse> page = taskRepository.findSparse(user1.getId(), null, null, null, fields, pageable);
+		
+		assertThat(page.getTotalElements()).isEqualTo(2);
+		assertThat(page.getContent())
+			.extracting(SparseTaskResponse::getId)
+			.containsExactly(taskAFromUser1.getId(), taskBFromUser1.getId());
+		
+		SparseTaskResponse first = page.getContent().get(0);
+		assertThat(first.keySet()).containsExactly("title", "status");
+		assertThat(first.get("title")).isEqualTo(taskAFromUser1.getTitle());
+		assertThat(first.get("status")).isEqualTo(TaskStatus.UNDONE);
+	}
+	
+	@Test
+	void testFindSparseShouldLoadTagsOnlyWhenRequested(){
+		TaskFields fields = TaskFields.parse("id,tags");
+		
+		Page<SparseTaskResponse> page = taskRepository.findSparse(user2.getId(), "DONE", null, tagFromUser2.getName(), fields, pageable);
+		
+		assertThat(page.getTotalElements()).isEqualTo(1);
+		SparseTaskResponse task = page.getContent().get(0);
+		assertThat(task.keySet()).containsExactly("id", "tags");
+		assertThat(task.get("id")).isEqualTo(taskAFromUser2.getId());
+		assertThat((List<?>) task.get("tags"))
+			.extracting(tag -> ((TagSummary) tag).getName())
+			.containsExactly(tagFromUser2.getName());
+	}
+	
+	@Test
+	void testFindSparseShouldReturnEmptyPageWhenStatusIsUnknown(){
+		Page<SparseTaskResponse> page = taskRepository.findSparse(user1.getId(), "ARCHIVED", null, null, TaskFields.parse("id"), pageable);
+		
+		assertThat(page.getTotalElements()).isZero();
+	}
+	
+	@Test
+	void testFindChangedSinceShouldResumeAfterTheWatermark(){
+		Pageable limit = PageRequest.of(0, 10);
+		
+		List<Task> changed = taskRepository.findChangedSince(user1.getId(), Instant.EPOCH, 0L, Instant.now(), limit);
+		
+		assertThat(changed)
+			.extracting(Task::getId)
+			.containsExactly(taskAFromUser1.getId(), taskBFromUser1.getId());
+		
+		Task first = changed.get(0);
+		List<Task> resumed = taskRepository.findChangedSince(user1.getId(), first.getUpdatedAt(), first.getId(), Instant.now(), limit);
+		
+		assertThat(resumed)
+			.extracting(Task::getId)
+			.containsExactly(taskBFromUser1.getId());
+	}
+	
+	@Test
+	void testSaveAllShouldTakeIdsFromOnePooledBlock(){
+		List<Task> tasks = Arrays.asList(
+				new Task.Builder().title("Batch 1").status(TaskStatus.UNDONE).priority(TaskPriority.LOW).user(user2).build(),
+				new Task.Builder().title("Batch 2").status(TaskStatus.DONE).priority(TaskPriority.HIGH).user(user2).build());
+		
+		taskRepository.saveAll(tasks);
+		taskRepository.flush();
+		
+		assertThat(tasks.get(1).getId()).isEqualTo(tasks.get(0).getId() + 1);
+		assertThat(tasks.get(0).getId()).isGreaterThan(taskBFromUser2.getId());
+		assertThat(taskRepository.findById(tasks.get(1).getId()))
+			.get()
+			.extracting(Task::getTitle, Task::getStatus)
+			.containsExactly("Batch 2", TaskStatus.DONE);
+	}
+	
+	@Test
+	void testUpdateAllShouldOnlyTouchTasksOfTheOwner(){
+		List<Long> ids = List.of(taskAFromUser1.getId(), taskAFromUser2.getId());
+		
+		List<TaskSnapshot> locked = taskRepository.lockMatching(user1.getId(), null, null, "STUDY", ids);
+		assertThat(locked).extracting(TaskSnapshot::getId).containsExactly(taskAFromUser1.getId());
+		
+		int updated = taskRepository.updateAll(user1.getId(), ids, null, TaskPriority.MEDIUM, null, Instant.now());
+		
+		assertThat(updated).isEqualTo(1);
+		assertThat(taskRepository.findById(taskAFromUser1.getId()).get())
+			.extracting(Task::getStatus, Task::getPriority)
+			.containsExactly(TaskStatus.UNDONE, TaskPriority.MEDIUM);
+		assertThat(taskRepository.findById(taskAFromUser2.getId()).get().getPriority()).isEqualTo(TaskPriority.HIGH);
+	}
 }
@@ -0,0 +1,79 @@
+package br.com.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import br.com.audit.AuditLog;
+import br.com.dtos.SubtaskCreateRequest;
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TaskResponse;
+import br.com.enums.Role;
+import br.com.mappers.SubtaskMapper;
+import br.com.mappers.TaskMapper;
+import br.com.models.Subtask;
+import br.com.models.Task;
+import br.com.models.User;
+import br.com.repositories.SubtaskRepository;
+
+@ExtendWith(MockitoExtension.class)
+class SubtaskServiceTest {
+	
+	@Mock
+	private SubtaskRepository subtaskRepository;
+	
+	@Mock
+	private TaskService taskService;
+	
+	@Spy
+	private SubtaskMapper subtaskMapper;
+	
+	@Spy
+	private TaskMapper taskMapper;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Mock
+	private AuditLog auditLog;
+	
+	@InjectMocks
+	private SubtaskService subtaskService;
+	
+	private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+	
+	@Test
+	void addSubtask_ShouldReturnTheTaskWithTheNewSubtask() {
+		Task task = new Task.Builder().id(1L).user(user).title("Task 1").build();
+		when(taskService.findTaskOrThrow(1L)).thenReturn(task);
+		when(subtaskRepository.save(any(Subtask.class))).then(invocation -> {
+			Subtask subtask = invocation.getArgument(0);
+			subtask.setId(7L);
+			return subtask;
+		});
+		when(taskService.addLinksToATask(any(TaskResponse.class))).then(returnsFirstArg());
+		
+		TaskResponse response = subtaskService.addSubtask(1L, new SubtaskCreateRequest("Subtask 1", null, null, null));
+		
+		assertThat(response.getSubtasks())
+			.extracting(SubtaskSummary::getId, SubtaskSummary::getTitle)
+			.containsExactly(Tuple.tuple(7L, "Subtask 1"));
+		assertThat(task.getSubtasks()).singleElement().satisfies(subtask -> assertThat(subtask.getTask()).isSameAs(task));
+		
+		InOrder inOrder = inOrder(subtaskRepository, taskService);
+		inOrder.verify(subtaskRepository).save(any(Subtask.class));
+		inOrder.verify(taskService).touch(task);
+	}
+}
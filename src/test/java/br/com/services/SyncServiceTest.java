@@ -0,0 +1,185 @@
+package br.com.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import br.com.dtos.SyncResponse;
+import br.com.enums.Role;
+import br.com.enums.SyncEntityType;
+import br.com.exceptions.BadRequestException;
+import br.com.exceptions.ResyncRequiredException;
+import br.com.mappers.TagMapper;
+import br.com.mappers.TaskMapper;
+import br.com.models.Tag;
+import br.com.models.Task;
+import br.com.models.Tombstone;
+import br.com.models.User;
+import br.com.repositories.OpenTransactions;
+import br.com.repositories.TagRepository;
+import br.com.repositories.TaskRepository;
+import br.com.repositories.TombstoneRepository;
+import br.com.sharding.Shards;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+	@Mock
+	private TaskRepository taskRepository;
+
+	@Mock
+	private TagRepository tagRepository;
+
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+
+	@Mock
+	private OpenTransactions openTransactions;
+
+	@Mock
+	private UserService userService;
+
+	@Mock
+	private Shards shards;
+
+	private SyncService syncService;
+
+	private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+	private final Instant t1 = Instant.parse("2024-10-01T10:00:00.000Z");
+	private final Instant t2 = Instant.parse("2024-10-01T10:00:01.000Z");
+
+	@BeforeEach
+	void setUp() {
+		syncService = new SyncService(taskRepository, tagRepository, tombstoneRepository, openTransactions, userService,
+				new TaskMapper(), new TagMapper(), shards, Duration.ofSeconds(2), Duration.ofDays(36500));
+		lenient().when(openTransactions.oldestWriterAge()).thenReturn(Duration.ZERO);
+	}
+
+	private Task task(Long id, Instant updatedAt) {
+		Task task = new Task.Builder().id(id).user(user).title("Task " + id).build();
+		task.setUpdatedAt(updatedAt);
+		return task;
+	}
+
+	private Tag tag(Long id, Instant updatedAt) {
+		Tag tag = new Tag("TAG" + id, user);
+		tag.setId(id);
+		tag.setUpdatedAt(updatedAt);
+		return tag;
+	}
+
+	private Tombstone tombstone(Long id, Long taskId, Instant deletedAt) {
+		Tombstone tombstone = new Tombstone(1L, SyncEntityType.TASK, taskId, deletedAt);
+		tombstone.setId(id);
+		return tombstone;
+	}
+
+	@Nested
+	class ChangesSince {
+
+		@Test
+		void changesSince_ShouldReturnEverythingAndAdvanceToTheSettledHorizon() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskRepository.findChangedSince(eq(1L), eq(Instant.EPOCH), eq(0L), any(), any(Pageable.class)))
+				.thenReturn(List.of(task(1L, t1), task(2L, t2)));
+			when(tagRepository.findChangedSince(eq(1L), eq(Instant.EPOCH), eq(-1L), any(), any(Pageable.class)))
+				.thenReturn(List.of(tag(1L, t1)));
+			when(tombstoneRepository.findDeletedSince(eq(1L), eq(Instant.EPOCH), eq(-1L), any(), any(Pageable.class)))
+				.thenReturn(List.of(tombstone(1L, 3L, t2)));
+
+			SyncResponse response = syncService.changesSince(null, 10);
+
+			assertThat(response.getTasks()).extracting("id").containsExactly(1L, 2L);
+			assertThat(response.getTags()).extracting("id").containsExactly(1L);
+			assertThat(response.getDeleted()).extracting("id").containsExactly(3L);
+			assertThat(response.isHasMore()).isFalse();
+			assertThat(response.getWatermark()).endsWith(".2." + Long.MAX_VALUE);
+		}
+
+		@Test
+		void changesSince_ShouldHoldTheHorizonBehindTheOldestOpenWriter() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(openTransactions.oldestWriterAge()).thenReturn(Duration.ofMinutes(10));
+			Instant before = Instant.now();
+
+			SyncResponse response = syncService.changesSince(null, 10);
+
+			Instant horizon = before.minus(Duration.ofMinutes(10)).minusSeconds(2);
+			verify(taskRepository).findChangedSince(eq(1L), eq(Instant.EPOCH), eq(0L),
+					argThat(until -> !until.isAfter(horizon.plusSeconds(1)) && !until.isBefore(horizon.minusSeconds(1))), any(Pageable.class));
+			assertThat(Long.parseLong(response.getWatermark().split("\\.")[0])).isLessThanOrEqualTo(horizon.plusSeconds(1).toEpochMilli());
+		}
+
+		@Test
+		void changesSince_ShouldStopAtTheLastChangeOfAFullPage() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskRepository.findChangedSince(anyLong(), any(), anyLong(), any(), any(Pageable.class)))
+				.thenReturn(List.of(task(1L, t1), task(2L, t2)));
+			when(tagRepository.findChangedSince(anyLong(), any(), anyLong(), any(), any(Pageable.class)))
+				.thenReturn(List.of(tag(5L, t1)));
+			when(tombstoneRepository.findDeletedSince(anyLong(), any(), anyLong(), any(), any(Pageable.class)))
+				.thenReturn(List.of());
+
+			SyncResponse response = syncService.changesSince(null, 2);
+
+			assertThat(response.getTasks()).extracting("id").containsExactly(1L);
+			assertThat(response.getTags()).extracting("id").containsExactly(5L);
+			assertThat(response.isHasMore()).isTrue();
+			assertThat(response.getWatermark()).isEqualTo(t1.toEpochMilli() + ".1.5");
+		}
+
+		@Test
+		void changesSince_ShouldResumeTiesAfterTheWatermarkPosition() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+
+			syncService.changesSince(t1.toEpochMilli() + ".1.5", 2);
+
+			verify(taskRepository).findChangedSince(eq(1L), eq(t1), eq(Long.MAX_VALUE), any(), any(Pageable.class));
+			verify(tagRepository).findChangedSince(eq(1L), eq(t1), eq(5L), any(), any(Pageable.class));
+			verify(tombstoneRepository).findDeletedSince(eq(1L), eq(t1), eq(-1L), any(), any(Pageable.class));
+		}
+
+		@Test
+		void changesSince_ShouldThrowBadRequestExceptionWhenWatermarkIsInvalid() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+
+			assertThrows(BadRequestException.class, () -> syncService.changesSince("abc", 10));
+			assertThrows(BadRequestException.class, () -> syncService.changesSince("1.7.1", 10));
+		}
+
+		@Test
+		void changesSince_ShouldThrowBadRequestExceptionWhenSizeIsOutOfRange() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+
+			assertThrows(BadRequestException.class, () -> syncService.changesSince(null, 0));
+			assertThrows(BadRequestException.class, () -> syncService.changesSince(null, SyncService.MAX_SIZE + 1));
+		}
+
+		@Test
+		void changesSince_ShouldThrowResyncRequiredExceptionWhenWatermarkIsOlderThanTheRetention() {
+			SyncService service = new SyncService(taskRepository, tagRepository, tombstoneRepository, openTransactions, userService,
+					new TaskMapper(), new TagMapper(), shards, Duration.ofSeconds(2), Duration.ofDays(30));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+
+			assertThrows(ResyncRequiredException.class, () -> service.changesSince(t1.toEpochMilli() + ".0.1", 10));
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package br.com.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+
+import br.com.audit.AuditLog;
+import br.com.audit.AuditRecord;
+import br.com.audit.FieldChanges;
+import br.com.dtos.BulkResponse;
+import br.com.dtos.TaskIdsRequest;
+import br.com.enums.Role;
+import br.com.enums.SyncEntityType;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
+import br.com.mappers.TagMapper;
+import br.com.mappers.TaskMapper;
+import br.com.models.Tag;
+import br.com.models.User;
+import br.com.repositories.TagRepository;
+
+@ExtendWith(MockitoExtension.class)
+class TagServiceTest {
+	
+	@Mock
+	private TagRepository tagRepository;
+	
+	@Mock
+	private TaskService taskService;
+	
+	@Mock
+	private UserService userService;
+	
+	@Mock
+	private TagMapper tagMapper;
+	
+	@Mock
+	private TaskMapper taskMapper;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Mock
+	private AuditLog auditLog;
+	
+	@InjectMocks
+	private TagService tagService;
+	
+	private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+	
+	private Tag tagOf(User owner) {
+		Tag tag = new Tag("WORK", owner);
+		tag.setId(5L);
+		when(tagRepository.findById(5L)).thenReturn(Optional.of(tag));
+		when(userService.getAuthenticatedUser()).thenReturn(user);
+		return tag;
+	}
+	
+	@Test
+	void attachToTasks_ShouldOnlyInsertLinksThatAreMissing() {
+		Tag tag = tagOf(user);
+		List<Long> requested = List.of(10L, 11L, 12L);
+		when(tagRepository.findOwnedTaskIdsWithoutTag(1L, requested, 5L)).thenReturn(List.of(10L, 12L));
+		when(tagRepository.attachToTasks(1L, List.of(10L, 12L), 5L)).thenReturn(2);
+		
+		BulkResponse result = tagService.attachToTasks(5L, new TaskIdsRequest(requested));
+		
+		assertThat(result.getAffected()).isEqualTo(2);
+		verify(taskService).touchAll(List.of(10L, 12L));
+		verify(userService).touchCollection(user);
+		
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<FieldChanges>> historyCaptor = ArgumentCaptor.forClass(List.class);
+		verify(auditLog).recordAll(historyCaptor.capture());
+		assertThat(historyCaptor.getValue())
+			.flatExtracting(FieldChanges::getRecords)
+			.extracting(AuditRecord::getTaskId, AuditRecord::getNewValue)
+			.containsExactly(Tuple.tuple(10L, tag.getName()), Tuple.tuple(12L, tag.getName()));
+		
+		ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+		verify(eventPublisher).publishEvent(batchCaptor.capture());
+		assertThat(batchCaptor.getValue().getChanges()).extracting(ChangeEvent::getId).containsExactly(10L, 12L);
+	}
+	
+	@Test
+	void detachFromTasks_ShouldDoNothingWhenNoTaskCarriesTheTag() {
+		tagOf(user);
+		when(tagRepository.findOwnedTaskIdsWithTag(1L, List.of(10L), 5L)).thenReturn(List.of());
+		
+		BulkResponse result = tagService.detachFromTasks(5L, new TaskIdsRequest(List.of(10L)));
+		
+		assertThat(result.getAffected()).isZero();
+		verify(tagRepository, never()).detachFromTasks(anyLong(), any(), anyLong());
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+	}
+	
+	@Test
+	void attachToTasks_ShouldThrowAccessDeniedExceptionWhenTheTagBelongsToAnotherUser() {
+		tagOf(new User(2L, "Mario", "password", Role.ROLE_USER));
+		
+		assertThrows(AccessDeniedException.class, () -> tagService.attachToTasks(5L, new TaskIdsRequest(List.of(10L))));
+		verify(tagRepository, never()).attachToTasks(anyLong(), any(), anyLong());
+	}
+	
+	@Test
+	void deleteTag_ShouldTouchTheTasksAndWriteTheirHistoryBeforeDeletingLinksAndTheTag() {
+		tagOf(user);
+		
+		tagService.deleteTag(5L);
+		
+		InOrder inOrder = inOrder(taskService, auditLog, tagRepository);
+		inOrder.verify(taskService).touchTasksWithTag(5L);
+		inOrder.verify(auditLog).writeTagDetached(5L, "WORK");
+		inOrder.verify(tagRepository).deleteLinks(5L);
+		inOrder.verify(tagRepository).deleteOwned(5L, 1L);
+		inOrder.verify(taskService).recordDeletion(user, SyncEntityType.TAG, 5L);
+		verify(tagRepository, never()).delete(any(Tag.class));
+		verify(userService).touchCollection(user);
+	}
+}
@@ -27,11 +27,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -42,20 +43,37 @@ import org.springframework.hateoas.PagedModel;
 import org.springframework.hateoas.PagedModel.PageMetadata;
 import org.springframework.security.access.AccessDeniedException;
 
+import br.com.archive.ArchiveSearch;
+import br.com.audit.AuditLog;
+import br.com.audit.AuditRecord;
+import br.com.audit.FieldChanges;
 import br.com.controllers.TaskController;
+import br.com.dtos.BulkResponse;
+import br.com.dtos.SubtaskSummary;
+import br.com.dtos.TagSummary;
+import br.com.dtos.TaskBatchRequest;
+import br.com.dtos.TaskBulkUpdateRequest;
 import br.com.dtos.TaskCreateRequest;
 import br.com.dtos.TaskResponse;
 import br.com.dtos.TaskUpdateRequest;
 import br.com.enums.Role;
+import br.com.enums.SyncEntityType;
 import br.com.enums.TaskPriority;
 import br.com.enums.TaskStatus;
+import br.com.events.ChangeBatch;
+import br.com.events.ChangeEvent;
 import br.com.exceptions.BadRequestException;
+import br.com.exceptions.PreconditionFailedException;
 import br.com.exceptions.UserNotAuthenticatedException;
+import br.com.mappers.TaskMapper;
 import br.com.models.Subtask;
 import br.com.models.Tag;
 import br.com.models.Task;
+import br.com.models.Tombstone;
 import br.com.models.User;
 import br.com.repositories.TaskRepository;
+import br.com.repositories.TaskSnapshot;
+import br.com.repositories.TombstoneRepository;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
@@ -67,11 +85,23 @@ class TaskServiceTest {
 	private UserService userService;
 	
 	@Mock
-	private ModelMapper modelMapper;
+	private TaskMapper taskMapper;
 	
 	@Mock
 	private PagedResourcesAssembler<TaskResponse> assembler;
 	
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+	
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	
+	@Mock
+	private AuditLog auditLog;
+	
+	@Mock
+	private ArchiveSearch archiveSearch;
+	
 	@Captor
 	ArgumentCaptor<Long> longCaptor;
 	
@@ -89,7 +119,7 @@ class TaskServiceTest {
 	@InjectMocks
 	private TaskService taskService;
 	
-	private void mockModelMapperMap() {
+	private void mockTaskMapperToResponse() {
 	    doAnswer(invocation -> {
 	        Task taskArgument = invocation.getArgument(0);
 	        TaskResponse response = new TaskResponse();
@@ -100,10 +130,12 @@ class TaskServiceTest {
 	        response.setPriority(taskArgument.getPriority());
 	        response.setCreatedDate(taskArgument.getCreatedDate());
 	        response.setDueDate(taskArgument.getDueDate());
-	        response.setSubtasks(taskArgument.getSubtasks());
-	        response.setTags(taskArgument.getTags());
+	        taskArgument.getSubtasks().forEach(subtask -> response.addSbubtask(new SubtaskSummary(
+	        		subtask.getId(), subtask.getTitle(), subtask.getDescription(),
+	        		subtask.getCreatedDate(), subtask.getDueDate(), subtask.getStatus())));
+	        taskArgument.getTags().forEach(tag -> response.addTag(new TagSummary(tag.getId(), tag.getName())));
 	        return response;
-	    }).when(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+	    }).when(taskMapper).toResponse(any(Task.class));
 	}
 	
 	@Nested
@@ -132,7 +164,7 @@ class TaskServiceTest {
 			task.addSubtask(subtask);
 			task.addTag(tag);
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
 			doReturn(Optional.of(task)).when(taskRepository).findById(1L);
 			doReturn(user).when(userService).getAuthenticatedUser();
@@ -146,8 +178,8 @@ class TaskServiceTest {
 			assertThat(taskResponse.getPriority()).isEqualTo(task.getPriority());
 			assertThat(taskResponse.getCreatedDate()).isEqualTo(task.getCreatedDate());
 			assertThat(taskResponse.getDueDate()).isEqualTo(task.getDueDate());
-			assertThat(taskResponse.getSubtasks()).isEqualTo(task.getSubtasks());
-			assertThat(taskResponse.getTags()).isEqualTo(task.getTags());	
+			assertThat(taskResponse.getSubtasks()).extracting(SubtaskSummary::getTitle).containsExactly("Subtask 1");
+			assertThat(taskResponse.getTags()).extracting(TagSummary::getName).containsExactly("Tag 1");
 		}
 			
 		@Test
@@ -194,7 +226,7 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user1);
 			when(taskRepository.findAllByUserId(user1.getId(), pageable)).thenReturn(taskPage);
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
 	        TaskResponse taskResponse1 = new TaskResponse();
 	        taskResponse1.setId(1L);
@@ -220,7 +252,7 @@ class TaskServiceTest {
 			
 			verify(userService).getAuthenticatedUser();
 			verify(taskRepository).findAllByUserId(user1.getId(), pageable);
-			verify(modelMapper, times(2)).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper, times(2)).toResponse(any(Task.class));
 			verify(assembler).toModel(pageCaptor.getValue());	
 			
 			assertNotNull(result);
@@ -280,7 +312,7 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.customizedSearch(user.getId(), status, priority, tagName, pageable)).thenReturn(entityPage);
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
 			TaskResponse taskResponse1 = new TaskResponse();
 	        taskResponse1.setId(1L);
@@ -302,11 +334,11 @@ class TaskServiceTest {
 	        
 	        when(assembler.toModel(pageCaptor.capture())).thenReturn(mockPagedModel);
 	        
-	        PagedModel<EntityModel<TaskResponse>> result = taskService.customizedSearch(status, priority, tagName, pageable);
+	        PagedModel<EntityModel<TaskResponse>> result = taskService.customizedSearch(status, priority, tagName, pageable, false);
 			
 	        verify(userService).getAuthenticatedUser();
 			verify(taskRepository).customizedSearch(user.getId(), status, priority, tagName, pageable);
-			verify(modelMapper, times((int) entityPage.getTotalElements())).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper, times((int) entityPage.getTotalElements())).toResponse(any(Task.class));
 			verify(assembler).toModel(pageCaptor.getValue());	
 			
 	        assertNotNull(result);
@@ -358,9 +390,9 @@ class TaskServiceTest {
 					tagNameCaptor.capture(), 
 					eq(pageable))).thenReturn(entityPage);
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			taskService.customizedSearch(status, priority, tagName, pageable);
+			taskService.customizedSearch(status, priority, tagName, pageable, false);
 			
 			assertThat(statusCaptor.getValue()).isEqualTo(status.toUpperCase());
 			assertThat(priorityCaptor.getValue()).isEqualTo(priority.toUpperCase());
@@ -369,13 +401,31 @@ class TaskServiceTest {
 			verify(taskRepository).customizedSearch(user.getId(), statusCaptor.getValue(), priorityCaptor.getValue(), tagNameCaptor.getValue(), pageable);	
 		}
 		
+		@Test
+		void customizedSearch_ShouldKeepTheFullShapeWhenArchivedTasksAreIncluded() {
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			
+			TaskResponse archived = new TaskResponse();
+			archived.setId(9L);
+			archived.setTitle("Archived");
+			
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(archiveSearch.find(user.getId(), "DONE", null, null, pageable)).thenReturn(new PageImpl<>(List.of(archived)));
+			when(assembler.toModel(pageCaptor.capture())).thenReturn(PagedModel.empty());
+			
+			taskService.customizedSearch("done", null, null, pageable, true);
+			
+			assertThat(pageCaptor.getValue().getContent()).containsExactly(archived);
+			verify(taskRepository, never()).customizedSearch(any(), any(), any(), any(), any());
+		}
+		
 		@Test
 		public void customizedSearch_ShouldThrowUserNotAuthenticatedExceptionWhenUserNotAuthenticated() {
 			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
 			
 			when(userService.getAuthenticatedUser()).thenThrow(new UserNotAuthenticatedException("User not authenticated"));
 			
-			assertThrows(UserNotAuthenticatedException.class, () -> taskService.customizedSearch(null, null, null, pageable));
+			assertThrows(UserNotAuthenticatedException.class, () -> taskService.customizedSearch(null, null, null, pageable, false));
 			
 			verify(taskRepository, never()).customizedSearch(user.getId(), null, null, null, pageable);
 		}
@@ -398,7 +448,7 @@ class TaskServiceTest {
 	                .title("Task 1")
 	                .build();
 
-			when(modelMapper.map(taskRequest, Task.class)).thenReturn(task);
+			when(taskMapper.toEntity(taskRequest)).thenReturn(task);
 			
 			Task taskUpdated = new Task.Builder()
 		            .id(1L)
@@ -413,7 +463,7 @@ class TaskServiceTest {
 				
 			when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
 		
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
 			TaskResponse result = spyTaskService.create(taskRequest);
 			
@@ -442,13 +492,13 @@ class TaskServiceTest {
 	            Tuple.tuple("self", "/api/tasks/1"),
 	            Tuple.tuple("update", "/api/tasks/1"),
 	            Tuple.tuple("delete", "/api/tasks/1"),
-	            Tuple.tuple("findAllTasks", "/api/tasks{?page,size}"),
+	            Tuple.tuple("findAllTasks", "/api/tasks{?page,size,fields}"),
 	            Tuple.tuple("addSubtask", "/api/subtasks/1"),
 	            Tuple.tuple("addTag", "/api/tags/add/1/{tagId}")
 	        	); 
 
-		    verify(modelMapper).map(taskRequest, Task.class);
-		    verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+		    verify(taskMapper).toEntity(taskRequest);
+		    verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -460,12 +510,12 @@ class TaskServiceTest {
 	                .title("Task 1")
 	                .build();
 
-			when(modelMapper.map(taskRequest, Task.class)).thenReturn(task);
+			when(taskMapper.toEntity(taskRequest)).thenReturn(task);
 			when(taskService.prePersistTask(task)).thenThrow(new UserNotAuthenticatedException("User not authenticated"));
 			
 			UserNotAuthenticatedException ex = assertThrows(UserNotAuthenticatedException.class, () -> taskService.create(taskRequest));
 			assertThat(ex.getMessage()).isEqualTo("User not authenticated");
-			verify(modelMapper).map(taskRequest, Task.class);
+			verify(taskMapper).toEntity(taskRequest);
 			verify(taskRepository, never()).save(task);
 		}
 	}
@@ -492,9 +542,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(updates.getTitle());
@@ -502,7 +552,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -524,9 +574,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(task.getTitle());
@@ -535,7 +585,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -557,9 +607,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(task.getTitle());
@@ -568,7 +618,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -590,9 +640,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(task.getTitle());
@@ -601,7 +651,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -623,9 +673,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(task.getTitle());
@@ -634,7 +684,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -657,9 +707,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(updates.getTitle());
@@ -668,7 +718,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -694,9 +744,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(updates.getTitle());
@@ -707,7 +757,7 @@ class TaskServiceTest {
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -729,9 +779,9 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
 			
-			mockModelMapperMap();
+			mockTaskMapperToResponse();
 			
-			TaskResponse result = taskService.partialUpdate(task.getId(), updates);
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, null);
 			
 			assertThat(result.getId()).isEqualTo(task.getId());
 			assertThat(result.getTitle()).isEqualTo(updates.getTitle());
@@ -743,14 +793,14 @@ class TaskServiceTest {
 	            Tuple.tuple("self", "/api/tasks/1"),
 	            Tuple.tuple("update", "/api/tasks/1"),
 	            Tuple.tuple("delete", "/api/tasks/1"),
-	            Tuple.tuple("findAllTasks", "/api/tasks{?page,size}"),
+	            Tuple.tuple("findAllTasks", "/api/tasks{?page,size,fields}"),
 	            Tuple.tuple("addSubtask", "/api/subtasks/1"),
 	            Tuple.tuple("addTag", "/api/tags/add/1/{tagId}")
 	        	); 
 			
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository).save(any(Task.class));
-			verify(modelMapper).map(any(Task.class), eq(TaskResponse.class));
+			verify(taskMapper).toResponse(any(Task.class));
 		}
 		
 		@Test
@@ -771,7 +821,7 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenThrow(new UserNotAuthenticatedException("User not authenticated"));
 			
 			UserNotAuthenticatedException ex = assertThrows(UserNotAuthenticatedException.class, 
-					() -> taskService.partialUpdate(task.getId(), updates));
+					() -> taskService.partialUpdate(task.getId(), updates, null));
 			
 			assertThat(ex.getMessage()).isEqualTo("User not authenticated");
 			verify(taskRepository).findById(task.getId());
@@ -787,7 +837,7 @@ class TaskServiceTest {
 			when(taskRepository.findById(anyLong())).thenReturn(Optional.empty());
 			
 			BadRequestException ex = assertThrows(BadRequestException.class, 
-					() -> taskService.partialUpdate(anyLong(), updates));
+					() -> taskService.partialUpdate(anyLong(), updates, null));
 			
 			assertThat(ex.getMessage()).isEqualTo("Task not found");
 			verify(taskRepository).findById(anyLong());
@@ -813,18 +863,285 @@ class TaskServiceTest {
 			when(userService.getAuthenticatedUser()).thenReturn(user);
 			
 			BadRequestException ex = assertThrows(BadRequestException.class, 
-					() -> taskService.partialUpdate(task.getId(), updates));
+					() -> taskService.partialUpdate(task.getId(), updates, null));
 			
 			assertThat(ex.getMessage()).isEqualTo("Please provide updates");
 			verify(taskRepository).findById(task.getId());
 			verify(taskRepository, never()).save(any(Task.class));
 			
 		}
+		
+		@Test
+		void partialUpdate_ShouldThrowPreconditionFailedExceptionWhenIfMatchIsStale() {
+			
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .title("Task 1")
+	                .build();
+			
+			task.setUser(user);
+			
+			TaskUpdateRequest updates = new TaskUpdateRequest();
+			updates.setTitle("Task 1 updated");
+			
+			when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskMapper.versionOf(task)).thenReturn(2L);
+			
+			PreconditionFailedException ex = assertThrows(PreconditionFailedException.class, 
+					() -> taskService.partialUpdate(task.getId(), updates, "\"1.1\""));
+			
+			assertThat(ex.getMessage()).isEqualTo("Task was modified since it was read");
+			assertThat(task.getTitle()).isEqualTo("Task 1");
+			verify(taskRepository, never()).save(any(Task.class));
+		}
+		
+		@Test
+		void partialUpdate_ShouldUpdateWhenIfMatchIsCurrent() {
+			
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .title("Task 1")
+	                .build();
+			
+			task.setUser(user);
+			
+			TaskUpdateRequest updates = new TaskUpdateRequest();
+			updates.setTitle("Task 1 updated");
+			
+			when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskMapper.versionOf(task)).thenReturn(2L);
+			when(taskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+			
+			mockTaskMapperToResponse();
+			
+			TaskResponse result = taskService.partialUpdate(task.getId(), updates, "\"1.1\", \"1.2\"");
+			
+			assertThat(result.getTitle()).isEqualTo(updates.getTitle());
+			verify(taskRepository).save(task);
+		}
+	}
+	
+	@Nested
+	class CreateAll {
+		
+		@Test
+		void createAll_ShouldInsertAllTasksAndPublishOneBatchOfEvents() {
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			
+			TaskCreateRequest first = new TaskCreateRequest("Task 1", null, null, null, null);
+			TaskCreateRequest second = new TaskCreateRequest("Task 2", null, TaskStatus.DONE, TaskPriority.HIGH, null);
+			when(taskMapper.toEntity(any(TaskCreateRequest.class))).thenAnswer(invocation -> {
+				TaskCreateRequest request = invocation.getArgument(0);
+				return new Task.Builder()
+						.title(request.getTitle())
+						.status(request.getStatus())
+						.priority(request.getPriority())
+						.build();
+			});
+			when(taskRepository.saveAll(any())).thenAnswer(invocation -> {
+				List<Task> tasks = invocation.getArgument(0);
+				for (int i = 0; i < tasks.size(); i++) tasks.get(i).setId(10L + i);
+				return tasks;
+			});
+			mockTaskMapperToResponse();
+			
+			List<TaskResponse> result = taskService.createAll(new TaskBatchRequest(List.of(first, second)));
+			
+			assertThat(result).extracting(TaskResponse::getId, TaskResponse::getStatus, TaskResponse::getPriority)
+				.containsExactly(
+						Tuple.tuple(10L, TaskStatus.UNDONE, TaskPriority.NONE),
+						Tuple.tuple(11L, TaskStatus.DONE, TaskPriority.HIGH));
+			assertThat(result.get(0).getLink("self")).isPresent();
+			verify(userService, times(1)).getAuthenticatedUser();
+			verify(userService, times(1)).touchCollection(user);
+			verify(taskRepository, never()).save(any(Task.class));
+			
+			ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+			verify(eventPublisher).publishEvent(batchCaptor.capture());
+			assertThat(batchCaptor.getValue().getChanges())
+				.extracting(ChangeEvent::getId)
+				.containsExactly(10L, 11L);
+		}
+	}
+	
+	@Nested
+	class BulkOperations {
+		
+		private final User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+		
+		@Test
+		void updateAll_ShouldUpdateTheLockedTasksAndRecordWhatChanged() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskRepository.lockMatching(1L, "UNDONE", null, "WORK", null)).thenReturn(List.of(
+					new TaskSnapshot(10L, TaskStatus.UNDONE, TaskPriority.LOW, null),
+					new TaskSnapshot(11L, TaskStatus.UNDONE, TaskPriority.HIGH, null)));
+			when(taskRepository.updateAll(eq(1L), eq(List.of(10L, 11L)), eq(TaskStatus.DONE), eq(TaskPriority.HIGH), eq(null), any()))
+				.thenReturn(2);
+			
+			BulkResponse result = taskService.updateAll("undone", null, "work", null, 
+					new TaskBulkUpdateRequest(TaskStatus.DONE, TaskPriority.HIGH, null));
+			
+			assertThat(result.getAffected()).isEqualTo(2);
+			verify(userService).touchCollection(user);
+			
+			@SuppressWarnings("unchecked")
+			ArgumentCaptor<List<FieldChanges>> historyCaptor = ArgumentCaptor.forClass(List.class);
+			verify(auditLog).recordAll(historyCaptor.capture());
+			assertThat(historyCaptor.getValue())
+				.flatExtracting(FieldChanges::getRecords)
+				.extracting(AuditRecord::getTaskId, AuditRecord::getField)
+				.containsExactly(Tuple.tuple(10L, "status"), Tuple.tuple(10L, "priority"), Tuple.tuple(11L, "status"));
+			
+			ArgumentCaptor<ChangeBatch> batchCaptor = ArgumentCaptor.forClass(ChangeBatch.class);
+			verify(eventPublisher).publishEvent(batchCaptor.capture());
+			assertThat(batchCaptor.getValue().getChanges()).extracting(ChangeEvent::getId).containsExactly(10L, 11L);
+		}
+		
+		@Test
+		void updateAll_ShouldThrowBadRequestExceptionWhenNoUpdatesAreGiven() {
+			BadRequestException ex = assertThrows(BadRequestException.class, 
+					() -> taskService.updateAll("DONE", null, null, null, new TaskBulkUpdateRequest()));
+			
+			assertThat(ex.getMessage()).isEqualTo("Please provide updates");
+			verify(taskRepository, never()).lockMatching(any(), any(), any(), any(), any());
+		}
+		
+		@Test
+		void deleteAll_ShouldThrowBadRequestExceptionWhenNoFilterIsGiven() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			
+			BadRequestException ex = assertThrows(BadRequestException.class, 
+					() -> taskService.deleteAll(null, null, null, List.of()));
+			
+			assertThat(ex.getMessage()).isEqualTo("Please provide a filter or the ids of the tasks");
+		}
+		
+		@Test
+		void deleteAll_ShouldDeleteChildrenBeforeTheTasks() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			List<Long> ids = List.of(10L, 11L);
+			when(taskRepository.lockMatching(1L, null, null, null, ids)).thenReturn(List.of(
+					new TaskSnapshot(10L, TaskStatus.DONE, TaskPriority.LOW, null),
+					new TaskSnapshot(11L, TaskStatus.DONE, TaskPriority.HIGH, null)));
+			when(taskRepository.deleteAllOwned(1L, ids)).thenReturn(2);
+			
+			BulkResponse result = taskService.deleteAll(null, null, null, ids);
+			
+			assertThat(result.getAffected()).isEqualTo(2);
+			InOrder inOrder = Mockito.inOrder(tombstoneRepository, taskRepository, auditLog);
+			inOrder.verify(tombstoneRepository).recordTaskDeletions(eq(1L), eq(ids), any());
+			inOrder.verify(taskRepository).deleteSubtasksOf(1L, ids);
+			inOrder.verify(taskRepository).deleteTagLinksOf(1L, ids);
+			inOrder.verify(auditLog).deleteByTasks(ids);
+			inOrder.verify(taskRepository).deleteAllOwned(1L, ids);
+			verify(userService).touchCollection(user);
+		}
+		
+		@Test
+		void deleteAll_ShouldDoNothingWhenNoTaskMatches() {
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			when(taskRepository.lockMatching(1L, "DONE", null, null, null)).thenReturn(List.of());
+			
+			BulkResponse result = taskService.deleteAll("done", null, null, null);
+			
+			assertThat(result.getAffected()).isZero();
+			verify(taskRepository, never()).deleteAllOwned(any(), any());
+			verify(eventPublisher, never()).publishEvent(any(Object.class));
+		}
 	}
 	
 	@Nested
 	class Delete {
 		
+		@Test
+		void delete_ShouldRecordATombstoneForTheDeltaSync() {
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .user(user)
+	                .title("Task 1")
+	                .build();
+			
+			when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			
+			taskService.delete(1L);
+			
+			ArgumentCaptor<Tombstone> tombstoneCaptor = ArgumentCaptor.forClass(Tombstone.class);
+			verify(taskRepository).deleteAllOwned(1L, List.of(1L));
+			verify(tombstoneRepository).save(tombstoneCaptor.capture());
+			assertThat(tombstoneCaptor.getValue().getUserId()).isEqualTo(1L);
+			assertThat(tombstoneCaptor.getValue().getEntityType()).isEqualTo(SyncEntityType.TASK);
+			assertThat(tombstoneCaptor.getValue().getEntityId()).isEqualTo(1L);
+		}
+		
+		@Test
+		void delete_ShouldPublishADeletedEvent() {
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .user(user)
+	                .title("Task 1")
+	                .build();
+			
+			when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			
+			taskService.delete(1L);
+			
+			ArgumentCaptor<ChangeEvent> eventCaptor = ArgumentCaptor.forClass(ChangeEvent.class);
+			verify(eventPublisher).publishEvent(eventCaptor.capture());
+			assertThat(eventCaptor.getValue().getUserId()).isEqualTo(1L);
+			assertThat(eventCaptor.getValue().getName()).isEqualTo("task.deleted");
+			assertThat(eventCaptor.getValue().getId()).isEqualTo(1L);
+		}
+		
+		@Test
+		void delete_ShouldNotRecordATombstoneWhenTaskDoesNotBelongToTheUser() {
+			User user1 = new User(1L, "Joao", "password", Role.ROLE_USER);
+			User user2 = new User(2L, "Mario", "password", Role.ROLE_USER);
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .user(user2)
+	                .title("Task 1")
+	                .build();
+			
+			when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user1);
+			
+			assertThrows(AccessDeniedException.class, () -> taskService.delete(1L));
+			verify(taskRepository, never()).deleteAllOwned(anyLong(), any());
+			verify(tombstoneRepository, never()).save(any(Tombstone.class));
+		}
+		
+		@Test
+		void delete_ShouldDeleteLinksAndSubtasksBeforeTheTask() {
+			User user = new User(1L, "Joao", "password", Role.ROLE_USER);
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .user(user)
+	                .title("Task 1")
+	                .build();
+			
+			when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+			when(userService.getAuthenticatedUser()).thenReturn(user);
+			
+			taskService.delete(1L);
+			
+			InOrder inOrder = Mockito.inOrder(taskRepository, auditLog);
+			inOrder.verify(taskRepository).deleteTagLinksOf(1L, List.of(1L));
+			inOrder.verify(taskRepository).deleteSubtasksOf(1L, List.of(1L));
+			inOrder.verify(auditLog).deleteByTask(1L);
+			inOrder.verify(taskRepository).deleteAllOwned(1L, List.of(1L));
+			verify(taskRepository, never()).deleteById(anyLong());
+		}
 	}
 	
 	@Nested
@@ -885,7 +1202,7 @@ class TaskServiceTest {
 		            Tuple.tuple("self", "/api/tasks/1"),
 		            Tuple.tuple("update", "/api/tasks/1"),
 		            Tuple.tuple("delete", "/api/tasks/1"),
-		            Tuple.tuple("findAllTasks", "/api/tasks{?page,size}"),
+		            Tuple.tuple("findAllTasks", "/api/tasks{?page,size,fields}"),
 		            Tuple.tuple("addSubtask", "/api/subtasks/1"),
 		            Tuple.tuple("addTag", "/api/tags/add/1/{tagId}")
 		    ); 
@@ -1071,6 +1388,28 @@ class TaskServiceTest {
 			assertThat(result.getDueDate()).isEqualTo(taskRequest.getDueDate());
 		}
 		
+		@Test
+		void applyUpdatesToATask_ShouldRecordOnlyTheFieldsThatChanged() {
+			
+			Task task = new Task.Builder()
+	                .id(1L)
+	                .title("Task 1")
+	                .status(TaskStatus.UNDONE)
+	                .build();
+			
+			TaskUpdateRequest taskRequest = new TaskUpdateRequest();
+			taskRequest.setTitle("Task 1");
+			taskRequest.setStatus(TaskStatus.DONE);
+			
+			taskService.applyUpdatesToATask(task, taskRequest);
+			
+			ArgumentCaptor<FieldChanges> changesCaptor = ArgumentCaptor.forClass(FieldChanges.class);
+			verify(auditLog).record(changesCaptor.capture());
+			assertThat(changesCaptor.getValue().getRecords())
+				.extracting(AuditRecord::getTaskId, AuditRecord::getEntityType, AuditRecord::getField, AuditRecord::getOldValue, AuditRecord::getNewValue)
+				.containsExactly(Tuple.tuple(1L, SyncEntityType.TASK, "status", "UNDONE", "DONE"));
+		}
+		
 		@Test
 		void applyUpdatesToATask_ShouldThrowBadRequestExceptionWhenNoUpdatesAreGiven() {
 			
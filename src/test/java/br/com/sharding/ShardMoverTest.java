@@ -0,0 +1,233 @@
+package br.com.sharding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import br.com.configs.ShardingConfiguration;
+import br.com.enums.JobStatus;
+import br.com.enums.Role;
+import br.com.exceptions.AccountMovingException;
+import br.com.exceptions.BadRequestException;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.jobs.Job;
+import br.com.jobs.JobContext;
+import br.com.jobs.JobStore;
+import br.com.models.User;
+
+/**
+ * Runs with the database of the other integration tests as the primary and a second container as
+ * shard 1.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ShardMoverTest extends AbstractIntegrationTest {
+
+	private static final MySQLContainer<?> secondShard = new MySQLContainer<>("mysql:8.0.30");
+	private static HikariDataSource secondShardDataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Long> users = new ArrayList<>();
+
+	private JdbcTemplate shard1;
+	private ShardDirectory directory;
+	private ShardMover mover;
+
+	@BeforeAll
+	static void startSecondShard() {
+		secondShard.start();
+		secondShardDataSource = new HikariDataSource();
+		secondShardDataSource.setJdbcUrl(secondShard.getJdbcUrl());
+		secondShardDataSource.setUsername(secondShard.getUsername());
+		secondShardDataSource.setPassword(secondShard.getPassword());
+		secondShardDataSource.setConnectionInitSql(ShardingConfiguration.autoIncrementSeries(1));
+		Flyway.configure()
+				.dataSource(secondShardDataSource)
+				.locations("classpath:/db/migration")
+				.placeholders(Map.of("ADMIN_PASSWORD", "x"))
+				.load()
+				.migrate();
+		ShardingConfiguration.reserveIdRange(secondShardDataSource, 1);
+	}
+
+	@AfterAll
+	static void stopSecondShard() {
+		secondShardDataSource.close();
+		secondShard.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		ShardRoutingDataSource routing = new ShardRoutingDataSource(List.of(jdbcTemplate.getDataSource(), secondShardDataSource));
+		Shards shards = new Shards(routing);
+		JobStore jobStore = new JobStore(new JdbcTemplate(routing), new TransactionTemplate(new DataSourceTransactionManager(routing)), 3);
+		shard1 = new JdbcTemplate(secondShardDataSource);
+		directory = new ShardDirectory(shards, Duration.ofMinutes(1));
+		mover = new ShardMover(shards, directory, jobStore, Duration.ZERO, 2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		for(Long userId : users) {
+			for(JdbcTemplate shard : List.of(jdbcTemplate, shard1)) {
+				shard.update("DELETE tt FROM task_tags tt JOIN tasks t ON t.id = tt.task_id WHERE t.user_id = ?", userId);
+				shard.update("DELETE s FROM subtasks s JOIN tasks t ON t.id = s.task_id WHERE t.user_id = ?", userId);
+				shard.update("DELETE FROM tasks WHERE user_id = ?", userId);
+				shard.update("DELETE FROM tags WHERE user_id = ?", userId);
+				shard.update("DELETE FROM jobs WHERE user_id = ?", userId);
+				shard.update("DELETE FROM users WHERE id = ?", userId);
+			}
+		}
+	}
+
+	private static long insert(JdbcTemplate jdbcTemplate, String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private User user(String username) {
+		long userId = insert(jdbcTemplate, "INSERT INTO users (username, password, role) VALUES (?, 'x', 'ROLE_USER')", username);
+		users.add(userId);
+		return new User(userId, username, "x", Role.ROLE_USER);
+	}
+
+	/**
+	 * A user on the primary with a tagged task with a subtask, an archived task, a tombstone and a
+	 * webhook.
+	 */
+	private User userWithData(String username) {
+		User user = user(username);
+		long tagId = insert(jdbcTemplate, "INSERT INTO tags (name, user_id) VALUES ('WORK', ?)", user.getId());
+		long taskId = insert(jdbcTemplate, "INSERT INTO tasks (title, status, priority, user_id) VALUES ('Task', 'UNDONE', 'NONE', ?)", user.getId());
+		jdbcTemplate.update("INSERT INTO task_tags (task_id, tag_id) VALUES (?, ?)", taskId, tagId);
+		jdbcTemplate.update("INSERT INTO subtasks (title, task_id) VALUES ('Subtask', ?)", taskId);
+		jdbcTemplate.update("INSERT INTO archived_tasks (id, title, status, priority, user_id, updated_at, archived_at) "
+				+ "VALUES (?, 'Archived', 'DONE', 'LOW', ?, NOW(3), NOW(3))", taskId + 1_000_000, user.getId());
+		jdbcTemplate.update("INSERT INTO tombstones (user_id, entity_type, entity_id, deleted_at) VALUES (?, 'TASK', 1, NOW(3))", user.getId());
+		jdbcTemplate.update("INSERT INTO webhooks (user_id, url, secret, created_at) VALUES (?, 'https://example.com/hook', 'secret', NOW(3))", user.getId());
+		return user;
+	}
+
+	private void run(Job job) throws Exception {
+		JobContext context = mock(JobContext.class);
+		when(context.getJob()).thenReturn(job);
+		mover.run(context);
+	}
+
+	private static long count(JdbcTemplate shard, String table, long userId) {
+		return shard.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE user_id = ?", Long.class, userId);
+	}
+
+	@Test
+	void place_ShouldSpreadNewUsersOverTheShardsById() {
+		for(User user : List.of(user("shard-place-1"), user("shard-place-2"))) {
+			directory.place(user);
+
+			int shard = (int) (user.getId() % 2);
+			assertThat(directory.shardOf(user.getId())).isEqualTo(shard);
+			assertThat(directory.shardOf(user.getUsername())).isEqualTo(shard);
+			assertThat(shard1.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, user.getId())).isEqualTo(shard);
+		}
+	}
+
+	@Test
+	void shardOf_ShouldTurnAwayUsersBeingMoved() {
+		User user = user("shard-moving");
+
+		directory.setMoving(user.getId(), true);
+		assertThrows(AccountMovingException.class, () -> directory.shardOf(user.getUsername()));
+
+		directory.setMoving(user.getId(), false);
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(ShardContext.PRIMARY);
+	}
+
+	@Test
+	void shardOf_ShouldCacheTheShardUntilTheDirectoryChangesIt() {
+		User user = user("shard-cached");
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(ShardContext.PRIMARY);
+
+		jdbcTemplate.update("INSERT INTO user_shards (user_id, shard) VALUES (?, 1)", user.getId());
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(ShardContext.PRIMARY);
+
+		directory.assign(user.getId(), 1);
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(1);
+	}
+
+	@Test
+	void move_ShouldRefuseAdminsUnknownShardsAndTheCurrentShard() {
+		User user = user("shard-refused");
+		User admin = new User(user.getId(), "admin", "x", Role.ROLE_ADMIN);
+
+		assertThrows(BadRequestException.class, () -> mover.move(user, 2));
+		assertThrows(BadRequestException.class, () -> mover.move(admin, 1));
+		assertThrows(BadRequestException.class, () -> mover.move(user, ShardContext.PRIMARY));
+	}
+
+	@Test
+	void run_ShouldMoveTheUserWithAllItsDataAndBack() throws Exception {
+		User user = userWithData("shard-mover");
+		Long taskId = jdbcTemplate.queryForObject("SELECT id FROM tasks WHERE user_id = ?", Long.class, user.getId());
+
+		Job job = mover.move(user, 1);
+		assertThat(job.getType()).isEqualTo(ShardMover.TYPE);
+		assertThat(job.getStatus()).isEqualTo(JobStatus.QUEUED);
+		assertThat(mover.move(user, 1).getId()).isEqualTo(job.getId());
+		run(job);
+
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(1);
+		assertThat(shard1.queryForObject("SELECT id FROM tasks WHERE user_id = ?", Long.class, user.getId())).isEqualTo(taskId);
+		assertThat(shard1.queryForObject("SELECT COUNT(*) FROM subtasks WHERE task_id = ?", Long.class, taskId)).isEqualTo(1);
+		assertThat(shard1.queryForObject("SELECT COUNT(*) FROM task_tags WHERE task_id = ?", Long.class, taskId)).isEqualTo(1);
+		for(String table : List.of("tags", "archived_tasks", "tombstones", "webhooks")) {
+			assertThat(count(shard1, table, user.getId())).as(table).isEqualTo(1);
+			assertThat(count(jdbcTemplate, table, user.getId())).as(table).isZero();
+		}
+		assertThat(count(jdbcTemplate, "tasks", user.getId())).isZero();
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, user.getId())).isEqualTo(1);
+
+		jdbcTemplate.update("UPDATE jobs SET status = 'SUCCEEDED' WHERE id = ?", job.getId());
+		run(mover.move(user, ShardContext.PRIMARY));
+
+		assertThat(directory.shardOf(user.getUsername())).isEqualTo(ShardContext.PRIMARY);
+		assertThat(count(jdbcTemplate, "tasks", user.getId())).isEqualTo(1);
+		assertThat(count(jdbcTemplate, "webhooks", user.getId())).isEqualTo(1);
+		assertThat(count(shard1, "tasks", user.getId())).isZero();
+		assertThat(shard1.queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Long.class, user.getId())).isZero();
+	}
+}
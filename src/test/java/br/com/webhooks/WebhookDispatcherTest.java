@@ -0,0 +1,231 @@
+package br.com.webhooks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+
+import br.com.enums.ChangeAction;
+import br.com.events.ChangeEvent;
+import br.com.integrationtests.testcontainers.AbstractIntegrationTest;
+import br.com.outbox.OutboxMessage;
+import br.com.sharding.Shards;
+
+/**
+ * Runs the dispatcher against a local HTTP stub that answers with scripted status codes.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({DeliveryStore.class, DeadLetterStore.class})
+class WebhookDispatcherTest extends AbstractIntegrationTest {
+
+	private static final String SECRET = "secret";
+
+	@Autowired
+	private DeliveryStore deliveries;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private HttpServer server;
+	private String url;
+	private final ConcurrentLinkedQueue<Integer> scriptedStatuses = new ConcurrentLinkedQueue<>();
+	private final List<Received> received = new CopyOnWriteArrayList<>();
+
+	private long userId;
+	private long webhookId;
+	private WebhookDispatcher dispatcher;
+
+	private static final class Received {
+		final String body;
+		final String signature;
+
+		Received(String body, String signature) {
+			this.body = body;
+			this.signature = signature;
+		}
+
+		String body() {
+			return body;
+		}
+	}
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/hook", exchange -> {
+			String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+			received.add(new Received(body, exchange.getRequestHeaders().getFirst(WebhookDispatcher.SIGNATURE_HEADER)));
+			Integer status = scriptedStatuses.poll();
+			exchange.sendResponseHeaders(status != null ? status : 200, -1);
+			exchange.close();
+		});
+		server.start();
+		url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+
+		userId = insert("INSERT INTO users (username, password, role) VALUES (?, 'x', 'ROLE_USER')", "webhook-dispatcher");
+		webhookId = insert("INSERT INTO webhooks (user_id, url, secret, created_at) VALUES (?, ?, ?, NOW(3))", userId, url, SECRET);
+		dispatcher = dispatcher(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		dispatcher.shutdown();
+		server.stop(0);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+	}
+
+	private WebhookDispatcher dispatcher(boolean allowPrivateAddresses) {
+		return new WebhookDispatcher(deliveries, new WebhookUrlValidator(allowPrivateAddresses), objectMapper, new Shards(dataSource),
+				1, 50, 3, Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofSeconds(2));
+	}
+
+	private long insert(String sql, Object... args) {
+		KeyHolder keys = new GeneratedKeyHolder();
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			for(int i = 0; i < args.length; i++) statement.setObject(i + 1, args[i]);
+			return statement;
+		}, keys);
+		return keys.getKey().longValue();
+	}
+
+	private List<OutboxMessage> messages(long count) {
+		return LongStream.rangeClosed(1, count)
+				.mapToObj(id -> new OutboxMessage(id, Instant.now(), ChangeEvent.ofTask(userId, ChangeAction.UPDATED, id)))
+				.toList();
+	}
+
+	private long pending() {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM webhook_deliveries WHERE webhook_id = ?", Long.class, webhookId);
+	}
+
+	private List<Map<String, Object>> deadLetters() {
+		return jdbcTemplate.queryForList("SELECT attempts, last_status, last_error FROM webhook_dead_letters WHERE webhook_id = ?", webhookId);
+	}
+
+	/**
+	 * Polls as the scheduler would, for the retries.
+	 */
+	private void pollUntil(Callable<Boolean> condition) {
+		await().atMost(Duration.ofSeconds(5)).pollInterval(Duration.ofMillis(20)).until(() -> {
+			dispatcher.poll();
+			return condition.call();
+		});
+	}
+
+	@Test
+	void publish_ShouldPostTheEventsOfAUserAsOneSignedBatch() throws Exception {
+		dispatcher.publish(messages(3));
+
+		await().atMost(Duration.ofSeconds(5)).until(() -> received.size() == 1);
+		Received request = received.get(0);
+		JsonNode events = objectMapper.readTree(request.body);
+		assertThat(events).hasSize(3);
+		assertThat(events.get(0).get("type").asText()).isEqualTo("TASK");
+		assertThat(events.get(2).get("id").asLong()).isEqualTo(3L);
+		assertThat(events.get(0).has("userId")).isFalse();
+		assertThat(request.signature).isEqualTo("sha256=" + WebhookDispatcher.sign(SECRET, request.body));
+		await().atMost(Duration.ofSeconds(5)).until(() -> pending() == 0);
+	}
+
+	@Test
+	void poll_ShouldDeliverEventsKeptBeforeARestart() {
+		deliveries.enqueue(userId, List.of("{\"id\":1}", "{\"id\":2}"));
+		assertThat(pending()).isEqualTo(2);
+
+		pollUntil(() -> received.size() == 1);
+		assertThat(received.get(0).body()).isEqualTo("[{\"id\":1},{\"id\":2}]");
+		await().atMost(Duration.ofSeconds(5)).until(() -> pending() == 0);
+	}
+
+	@Test
+	void publish_ShouldRetryWithBackoffUntilTheEndpointAccepts() throws Exception {
+		scriptedStatuses.add(500);
+		scriptedStatuses.add(503);
+
+		dispatcher.publish(messages(2));
+
+		pollUntil(() -> received.size() == 3 && pending() == 0);
+		assertThat(received).extracting(Received::body).containsOnly(received.get(0).body());
+		assertThat(deadLetters()).isEmpty();
+	}
+
+	@Test
+	void publish_ShouldDeadLetterTheBatchAfterTheLastAttempt() throws Exception {
+		scriptedStatuses.add(500);
+		scriptedStatuses.add(500);
+		scriptedStatuses.add(500);
+
+		dispatcher.publish(messages(2));
+
+		pollUntil(() -> !deadLetters().isEmpty());
+		assertThat(deadLetters()).singleElement().satisfies(deadLetter -> {
+			assertThat(((Number) deadLetter.get("attempts")).intValue()).isEqualTo(3);
+			assertThat(((Number) deadLetter.get("last_status")).intValue()).isEqualTo(500);
+			assertThat(deadLetter.get("last_error")).isEqualTo("HTTP 500");
+		});
+		assertThat(received).hasSize(3);
+		assertThat(pending()).isZero();
+	}
+
+	@Test
+	void publish_ShouldNotPostToPrivateAddresses() throws Exception {
+		dispatcher.shutdown();
+		dispatcher = dispatcher(false);
+
+		dispatcher.publish(messages(1));
+
+		pollUntil(() -> !deadLetters().isEmpty());
+		assertThat(deadLetters()).singleElement().satisfies(deadLetter -> {
+			assertThat(deadLetter.get("last_status")).isNull();
+			assertThat(deadLetter.get("last_error")).isEqualTo("Webhook host localhost resolves to a private address");
+		});
+		assertThat(received).isEmpty();
+	}
+
+	@Test
+	void backoffMillis_ShouldGrowAndStayUnderTheCap() {
+		for(int attempts = 1; attempts < 40; attempts++) {
+			assertThat(dispatcher.backoffMillis(attempts)).isBetween(0L, 50L);
+		}
+		assertThat(dispatcher.backoffMillis(1)).isBetween(5L, 10L);
+	}
+}
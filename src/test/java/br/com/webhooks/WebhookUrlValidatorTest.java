@@ -0,0 +1,51 @@
+package br.com.webhooks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import br.com.exceptions.BadRequestException;
+
+class WebhookUrlValidatorTest {
+	
+	private final WebhookUrlValidator validator = new WebhookUrlValidator(false);
+	
+	@Test
+	void isPublic_ShouldRefuseAddressesOfTheLocalNetwork() throws UnknownHostException {
+		for(String ip : List.of("127.0.0.1", "0.0.0.0", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254", "224.0.0.1",
+				"::1", "fe80::1", "fd00::1", "::ffff:127.0.0.1")) {
+			assertThat(WebhookUrlValidator.isPublic(InetAddress.getByName(ip))).as(ip).isFalse();
+		}
+	}
+	
+	@Test
+	void isPublic_ShouldAcceptPublicAddresses() throws UnknownHostException {
+		for(String ip : List.of("93.184.216.34", "8.8.8.8", "2606:4700:4700::1111")) {
+			assertThat(WebhookUrlValidator.isPublic(InetAddress.getByName(ip))).as(ip).isTrue();
+		}
+	}
+	
+	@Test
+	void check_ShouldRefuseUrlsOfPrivateHosts() {
+		assertThrows(BadRequestException.class, () -> validator.check("http://localhost:8080/hook"));
+		assertThrows(BadRequestException.class, () -> validator.check("https://[::1]/hook"));
+		assertThrows(BadRequestException.class, () -> validator.check("http://169.254.169.254/latest/meta-data"));
+	}
+	
+	@Test
+	void check_ShouldRefuseUrlsThatAreNotHttp() {
+		assertThrows(BadRequestException.class, () -> validator.check("ftp://8.8.8.8/hook"));
+		assertThrows(BadRequestException.class, () -> validator.check("/hook"));
+	}
+	
+	@Test
+	void check_ShouldOnlyCheckTheUrlWhenPrivateAddressesAreAllowed() {
+		assertDoesNotThrow(() -> new WebhookUrlValidator(true).check("http://localhost:8080/hook"));
+	}
+}